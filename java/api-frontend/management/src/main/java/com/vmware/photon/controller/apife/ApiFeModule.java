@@ -76,6 +76,7 @@ import com.vmware.photon.controller.apife.config.ApiFeConfiguration;
 import com.vmware.photon.controller.apife.config.AuthConfig;
 import com.vmware.photon.controller.apife.config.ImageConfig;
 import com.vmware.photon.controller.apife.config.PaginationConfig;
+import com.vmware.photon.controller.apife.config.QuotaConfig;
 import com.vmware.photon.controller.apife.config.RootSchedulerConfig;
 import com.vmware.photon.controller.apife.config.StatusConfig;
 import com.vmware.photon.controller.common.CloudStoreServerSet;
@@ -203,6 +204,12 @@ public class ApiFeModule extends AbstractModule {
     return configuration.getPaginationConfig();
   }
 
+  @Provides
+  @Singleton
+  public QuotaConfig getQuotaConfig() {
+    return configuration.getQuotaConfig();
+  }
+
   @Provides
   @Singleton
   @ApiFeServerSet
@@ -22,6 +22,7 @@ import com.vmware.photon.controller.api.common.providers.JsonProcessingException
 import com.vmware.photon.controller.api.common.providers.LoggingExceptionMapper;
 import com.vmware.photon.controller.api.common.providers.WebApplicationExceptionMapper;
 import com.vmware.photon.controller.apife.auth.AuthFilter;
+import com.vmware.photon.controller.apife.backends.ResourceTicketEscrow;
 import com.vmware.photon.controller.apife.config.ApiFeConfiguration;
 import com.vmware.photon.controller.apife.config.ApiFeStaticConfiguration;
 import com.vmware.photon.controller.apife.config.AuthConfig;
@@ -63,6 +64,7 @@ import com.vmware.photon.controller.apife.resources.ProjectDisksResource;
 import com.vmware.photon.controller.apife.resources.ProjectResource;
 import com.vmware.photon.controller.apife.resources.ProjectSecurityGroupsResource;
 import com.vmware.photon.controller.apife.resources.ProjectTasksResource;
+import com.vmware.photon.controller.apife.resources.ProjectVmsBulkResource;
 import com.vmware.photon.controller.apife.resources.ProjectVmsResource;
 import com.vmware.photon.controller.apife.resources.ResourceTicketResource;
 import com.vmware.photon.controller.apife.resources.ResourceTicketTasksResource;
@@ -204,6 +206,8 @@ public class ApiFeService extends Application<ApiFeStaticConfiguration> {
     environment.servlets().addFilter("UrlTrailingSlashFilter", injector.getInstance(UrlTrailingSlashFilter.class))
         .addMappingForUrlPatterns(EnumSet.allOf(DispatcherType.class), true, "/api");
 
+    environment.lifecycle().manage(injector.getInstance(ResourceTicketEscrow.class));
+
     GraphiteConfig graphite = configuration.getGraphite();
     if (graphite != null) {
       graphite.enable();
@@ -262,6 +266,7 @@ public class ApiFeService extends Application<ApiFeStaticConfiguration> {
     resources.add(ProjectResource.class);
     resources.add(ProjectTasksResource.class);
     resources.add(ProjectVmsResource.class);
+    resources.add(ProjectVmsBulkResource.class);
     resources.add(ProjectSecurityGroupsResource.class);
     resources.add(ResourceTicketResource.class);
     resources.add(ResourceTicketTasksResource.class);
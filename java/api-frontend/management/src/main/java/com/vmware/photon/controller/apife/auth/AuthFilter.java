@@ -24,6 +24,9 @@ import com.vmware.photon.controller.common.auth.AuthOIDCClient;
 import com.vmware.photon.controller.common.auth.AuthTokenHandler;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
 import com.google.inject.Inject;
 import org.glassfish.jersey.server.ContainerRequest;
 import org.slf4j.Logger;
@@ -34,6 +37,9 @@ import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ContainerRequestFilter;
 import javax.ws.rs.core.HttpHeaders;
 
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Custom RequestFilter used for Authentication and Authorization.
  * Reads Auth 2.0 access token from the request header.
@@ -48,6 +54,20 @@ public class AuthFilter implements ContainerRequestFilter {
 
   private static final Logger logger = LoggerFactory.getLogger(AuthFilter.class);
 
+  private static final long MAX_VERIFIED_TOKENS = 10000;
+
+  /**
+   * Verified tokens are parsed and verified again after this long, even if they are valid for longer.
+   */
+  private static final long VERIFIED_TOKEN_EXPIRATION_MINUTES = 5;
+
+  // Map from the hash of an access token to the token parsed and verified from it, so that we do not
+  // verify the signature of the token on every call
+  private final Cache<String, ResourceServerAccessToken> verifiedTokens = CacheBuilder.newBuilder()
+      .maximumSize(MAX_VERIFIED_TOKENS)
+      .expireAfterWrite(VERIFIED_TOKEN_EXPIRATION_MINUTES, TimeUnit.MINUTES)
+      .build();
+
   private String authServerAddress;
   private int authServerPort;
   private String tenant;
@@ -93,6 +113,7 @@ public class AuthFilter implements ContainerRequestFilter {
   @VisibleForTesting
   protected void setTokenHandler(AuthTokenHandler handler) {
     this.tokenHandler = handler;
+    this.verifiedTokens.invalidateAll();
   }
 
   /**
@@ -156,10 +177,21 @@ public class AuthFilter implements ContainerRequestFilter {
    * @param jwtAccessToken
    */
   private ResourceServerAccessToken parseAccessToken(String jwtAccessToken) throws ExternalException {
+    String tokenHash = Hashing.sha256().hashString(jwtAccessToken, StandardCharsets.UTF_8).toString();
+    ResourceServerAccessToken token = verifiedTokens.getIfPresent(tokenHash);
+    if (token != null && !isExpired(token)) {
+      return token;
+    }
+
     this.initializeAuth();
 
     try {
-      return this.tokenHandler.parseAccessToken(jwtAccessToken);
+      token = this.tokenHandler.parseAccessToken(jwtAccessToken);
+      if (!isExpired(token)) {
+        verifiedTokens.put(tokenHash, token);
+      }
+
+      return token;
     } catch (TokenValidationException ex) {
       switch (ex.getTokenValidationError()) {
         case EXPIRED_TOKEN:
@@ -172,6 +204,16 @@ public class AuthFilter implements ContainerRequestFilter {
     }
   }
 
+  /**
+   * Tokens without an expiration time are treated as expired, so they never get cached.
+   *
+   * @param token
+   * @return
+   */
+  private static boolean isExpired(ResourceServerAccessToken token) {
+    return token.getExpirationTime() == null || token.getExpirationTime().getTime() <= System.currentTimeMillis();
+  }
+
   /**
    * Lazily initializes the AuthTokenHandler object for the AuthFilter.
    *
@@ -13,9 +13,9 @@
 
 package com.vmware.photon.controller.apife.auth.fetcher;
 
-import com.vmware.photon.controller.api.Project;
 import com.vmware.photon.controller.apife.auth.TransactionAuthorizationObject;
 import com.vmware.photon.controller.apife.backends.ProjectBackend;
+import com.vmware.photon.controller.apife.entities.ProjectEntity;
 import com.vmware.photon.controller.apife.exceptions.external.ProjectNotFoundException;
 
 import com.google.inject.Inject;
@@ -54,7 +54,9 @@ public class ProjectSecurityGroupFetcher implements SecurityGroupFetcher {
 
     Set<String> securityGroups = new HashSet<>();
     try {
-      Project project = backend.getApiRepresentation(authorizationObject.getId());
+      // Security groups are read from cloud-store, since changes made by other nodes would only reach the
+      // document cache once the cached project expires
+      ProjectEntity project = backend.findLatestById(authorizationObject.getId());
       switch (authorizationObject.getStrategy()) {
         case SELF:
           securityGroups = getAllSecurityGroups(project);
@@ -76,13 +78,13 @@ public class ProjectSecurityGroupFetcher implements SecurityGroupFetcher {
     return securityGroups;
   }
 
-  private Set<String> getAllSecurityGroups(Project project) {
+  private Set<String> getAllSecurityGroups(ProjectEntity project) {
     return project.getSecurityGroups().stream()
         .map(g -> g.getName())
         .collect(Collectors.toSet());
   }
 
-  private Set<String> getInheritedSecurityGroups(Project project) {
+  private Set<String> getInheritedSecurityGroups(ProjectEntity project) {
     return project.getSecurityGroups().stream()
         .filter(g -> g.isInherited())
         .map(g -> g.getName())
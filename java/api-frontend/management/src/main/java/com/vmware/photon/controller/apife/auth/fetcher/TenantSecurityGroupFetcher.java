@@ -13,9 +13,9 @@
 
 package com.vmware.photon.controller.apife.auth.fetcher;
 
-import com.vmware.photon.controller.api.Tenant;
 import com.vmware.photon.controller.apife.auth.TransactionAuthorizationObject;
 import com.vmware.photon.controller.apife.backends.TenantBackend;
+import com.vmware.photon.controller.apife.entities.TenantEntity;
 import com.vmware.photon.controller.apife.exceptions.external.TenantNotFoundException;
 
 import com.google.inject.Inject;
@@ -56,7 +56,9 @@ public class TenantSecurityGroupFetcher implements SecurityGroupFetcher {
 
     Set<String> securityGroups = new HashSet<>();
     try {
-      Tenant tenant = backend.getApiRepresentation(authorizationObject.getId());
+      // Security groups are read from cloud-store, since changes made by other nodes would only reach the
+      // document cache once the cached tenant expires
+      TenantEntity tenant = backend.findLatestById(authorizationObject.getId());
       securityGroups.addAll(tenant.getSecurityGroups().stream().map(g -> g.getName()).collect(Collectors.toList()));
     } catch (TenantNotFoundException ex) {
       logger.warn("invalid tenant id {}", authorizationObject.getId());
@@ -13,9 +13,9 @@
 
 package com.vmware.photon.controller.apife.auth.fetcher;
 
-import com.vmware.photon.controller.api.Vm;
 import com.vmware.photon.controller.apife.auth.TransactionAuthorizationObject;
 import com.vmware.photon.controller.apife.backends.VmBackend;
+import com.vmware.photon.controller.apife.entities.VmEntity;
 import com.vmware.photon.controller.apife.exceptions.external.VmNotFoundException;
 
 import com.google.inject.Inject;
@@ -62,7 +62,8 @@ public class VmSecurityGroupFetcher implements SecurityGroupFetcher {
 
     Set<String> securityGroups = new HashSet<>();
     try {
-      Vm vm = backend.toApiRepresentation(authorizationObject.getId());
+      // Only the parent link is needed, so skip building the full API representation of the vm
+      VmEntity vm = backend.findById(authorizationObject.getId());
       securityGroups = projectFetcher.fetchSecurityGroups(
           new TransactionAuthorizationObject(
               TransactionAuthorizationObject.Kind.PROJECT,
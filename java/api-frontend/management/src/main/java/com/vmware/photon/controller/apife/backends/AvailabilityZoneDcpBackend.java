@@ -131,7 +131,7 @@ public class AvailabilityZoneDcpBackend implements AvailabilityZoneBackend {
   public ResourceList<AvailabilityZone> getPage(String pageLink) throws ExternalException {
     ServiceDocumentQueryResult queryResult = null;
     try {
-      queryResult = dcpClient.queryDocumentPage(pageLink);
+      queryResult = dcpClient.queryDocumentPage(pageLink, AvailabilityZoneService.State.class);
     } catch (DocumentNotFoundException e) {
       throw new PageExpiredException(pageLink);
     }
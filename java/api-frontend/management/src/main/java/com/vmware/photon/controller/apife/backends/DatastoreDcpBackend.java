@@ -81,7 +81,7 @@ public class DatastoreDcpBackend implements DatastoreBackend{
   public ResourceList<Datastore> getDatastoresPage(String pageLink) throws PageExpiredException{
     ServiceDocumentQueryResult queryResult = null;
     try {
-      queryResult = dcpClient.queryDocumentPage(pageLink);
+      queryResult = dcpClient.queryDocumentPage(pageLink, DatastoreService.State.class);
     } catch (DocumentNotFoundException e) {
       throw new PageExpiredException(pageLink);
     }
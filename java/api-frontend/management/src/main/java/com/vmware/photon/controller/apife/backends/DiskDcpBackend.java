@@ -205,7 +205,7 @@ public class DiskDcpBackend implements DiskBackend {
   public ResourceList<PersistentDisk> getDisksPage(String pageLink) throws ExternalException {
     ServiceDocumentQueryResult queryResult = null;
     try {
-      queryResult = dcpClient.queryDocumentPage(pageLink);
+      queryResult = dcpClient.queryDocumentPage(pageLink, DiskService.State.class);
     } catch (DocumentNotFoundException e) {
       throw new PageExpiredException(pageLink);
     }
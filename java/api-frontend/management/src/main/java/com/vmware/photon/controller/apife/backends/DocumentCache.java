@@ -0,0 +1,156 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.vmware.photon.controller.apife.backends;
+
+import com.vmware.photon.controller.apife.backends.clients.ApiFeXenonRestClient;
+import com.vmware.photon.controller.common.metrics.DefaultMetricRegistry;
+import com.vmware.photon.controller.common.xenon.exceptions.DocumentNotFoundException;
+import com.vmware.xenon.common.ServiceDocument;
+import com.vmware.xenon.common.Utils;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Read-through cache of the cloud-store documents that the API hot path reads over and over and that rarely
+ * change, like flavors, images, projects and tenants.
+ * <p/>
+ * The backends invalidate the documents they update or delete, so the changes made through this node are seen
+ * right away. Changes made through other nodes are seen once the cached copy expires, so only reads that can
+ * live with documents up to expiration old should go through the cache; API GETs and read-modify-write
+ * paths read cloud-store directly.
+ * <p/>
+ * Documents are cached in their serialized form, so callers always get their own copy.
+ */
+@Singleton
+public class DocumentCache {
+
+  public static final long DEFAULT_MAX_DOCUMENTS = 10000;
+
+  public static final long DEFAULT_EXPIRATION_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+  private final ApiFeXenonRestClient xenonClient;
+  private final Cache<String, String> documents;
+  private final Meter hits;
+  private final Meter misses;
+  private final Meter invalidations;
+
+  // Bumped on every invalidation, so that a read racing with an update does not cache the old document
+  private final AtomicLong generation = new AtomicLong();
+
+  @Inject
+  public DocumentCache(ApiFeXenonRestClient xenonClient) {
+    this(xenonClient, DEFAULT_MAX_DOCUMENTS, DEFAULT_EXPIRATION_MILLIS, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  DocumentCache(ApiFeXenonRestClient xenonClient, long maxDocuments, long expirationMillis, Ticker ticker) {
+    this.xenonClient = xenonClient;
+    this.documents = CacheBuilder.newBuilder()
+        .maximumSize(maxDocuments)
+        .expireAfterWrite(expirationMillis, TimeUnit.MILLISECONDS)
+        .ticker(ticker)
+        .build();
+
+    String prefix = MetricRegistry.name(DocumentCache.class);
+    this.hits = DefaultMetricRegistry.REGISTRY.meter(MetricRegistry.name(prefix, "hits"));
+    this.misses = DefaultMetricRegistry.REGISTRY.meter(MetricRegistry.name(prefix, "misses"));
+    this.invalidations = DefaultMetricRegistry.REGISTRY.meter(MetricRegistry.name(prefix, "invalidations"));
+  }
+
+  /**
+   * Returns the document, reading it from cloud-store if it is not cached.
+   */
+  public <T extends ServiceDocument> T get(String documentLink, Class<T> type) throws DocumentNotFoundException {
+    return get(documentLink, type, (document) -> true);
+  }
+
+  /**
+   * Returns the document, reading it from cloud-store if it is not cached. Documents read from cloud-store are
+   * only cached if they match the cacheable predicate, e.g. only flavors and images that are READY.
+   */
+  public <T extends ServiceDocument> T get(String documentLink, Class<T> type, Predicate<T> cacheable)
+      throws DocumentNotFoundException {
+    T document = getIfPresent(documentLink, type);
+    if (document != null) {
+      return document;
+    }
+
+    long readGeneration = generation.get();
+    document = xenonClient.get(documentLink).getBody(type);
+    if (cacheable.test(document)) {
+      put(documentLink, document, readGeneration);
+    }
+
+    return document;
+  }
+
+  /**
+   * Returns the document cached under the key, or null if it is not cached.
+   */
+  public <T extends ServiceDocument> T getIfPresent(String key, Class<T> type) {
+    String json = documents.getIfPresent(key);
+    if (json == null) {
+      misses.mark();
+      return null;
+    }
+
+    hits.mark();
+    return Utils.fromJson(json, type);
+  }
+
+  /**
+   * Caches a document that was read from cloud-store under the key. Callers use this to cache the results of
+   * lookups that are not by document link, like the flavor of a given name and kind, and must invalidate the
+   * key themselves when the document changes.
+   */
+  public void put(String key, ServiceDocument document) {
+    put(key, document, generation.get());
+  }
+
+  /**
+   * Drops the cached documents of the keys. Backends call this whenever they update or delete a document.
+   */
+  public void invalidate(String... keys) {
+    generation.incrementAndGet();
+    for (String key : keys) {
+      documents.invalidate(key);
+    }
+
+    invalidations.mark();
+  }
+
+  @VisibleForTesting
+  long size() {
+    return documents.size();
+  }
+
+  private void put(String key, ServiceDocument document, long readGeneration) {
+    String json = Utils.toJson(document);
+    if (generation.get() == readGeneration) {
+      documents.put(key, json);
+    }
+  }
+}
@@ -64,15 +64,17 @@ public class FlavorDcpBackend implements FlavorBackend {
   private final VmBackend vmBackend;
   private final DiskBackend diskBackend;
   private final TombstoneBackend tombstoneBackend;
+  private final DocumentCache documentCache;
 
   @Inject
   public FlavorDcpBackend(ApiFeXenonRestClient dcpClient, TaskBackend taskBackend, VmBackend vmBackend,
-                          DiskBackend diskBackend, TombstoneBackend tombstoneBackend) {
+                          DiskBackend diskBackend, TombstoneBackend tombstoneBackend, DocumentCache documentCache) {
     this.dcpClient = dcpClient;
     this.taskBackend = taskBackend;
     this.vmBackend = vmBackend;
     this.diskBackend = diskBackend;
     this.tombstoneBackend = tombstoneBackend;
+    this.documentCache = documentCache;
     this.dcpClient.start();
   }
 
@@ -150,6 +152,8 @@ public class FlavorDcpBackend implements FlavorBackend {
           flavorState);
     } catch (DocumentNotFoundException e) {
       throw new FlavorNotFoundException(flavorEntity.getId());
+    } finally {
+      invalidate(flavorEntity);
     }
     this.tombstone(flavorEntity);
 
@@ -171,20 +175,36 @@ public class FlavorDcpBackend implements FlavorBackend {
     checkNotNull(name);
     checkNotNull(kind);
 
-    Optional<FlavorEntity> flavorEntity = getByNameAndKind(Optional.of(name), Optional.of(kind));
+    String nameKey = getNameKey(name, kind);
+    FlavorService.State flavor = documentCache.getIfPresent(nameKey, FlavorService.State.class);
+    if (flavor != null) {
+      return convertToEntity(flavor);
+    }
+
+    Optional<FlavorService.State> flavorDocument = getDocumentByNameAndKind(Optional.of(name), Optional.of(kind));
 
-    if (!flavorEntity.isPresent()) {
+    if (!flavorDocument.isPresent()) {
       logger.info("FlavorDcpBackend.getEntityByNameAndKind Flavor with name:{} and kind: {} not found.", name, kind);
       throw new FlavorNotFoundException(kind, name);
     }
 
-    return flavorEntity.get();
+    if (flavorDocument.get().state == FlavorState.READY) {
+      documentCache.put(nameKey, flavorDocument.get());
+    }
+
+    return convertToEntity(flavorDocument.get());
   }
 
   @Override
   public FlavorEntity getEntityById(String id) throws ExternalException {
     checkNotNull(id);
-    return convertToEntity(findById(id));
+
+    try {
+      return convertToEntity(documentCache.get(FlavorServiceFactory.SELF_LINK + "/" + id, FlavorService.State.class,
+          (flavor) -> flavor.state == FlavorState.READY));
+    } catch (DocumentNotFoundException documentNotFoundException) {
+      throw new FlavorNotFoundException(id);
+    }
   }
 
   @Override
@@ -207,6 +227,7 @@ public class FlavorDcpBackend implements FlavorBackend {
       dcpClient.delete(
           FlavorServiceFactory.SELF_LINK + "/" + flavor.getId(),
           new FlavorService.State());
+      invalidate(flavor);
 
       tombstoneBackend.create(Flavor.KIND, flavor.getId());
       logger.info("flavor {} is cleared", flavor.getId());
@@ -216,7 +237,7 @@ public class FlavorDcpBackend implements FlavorBackend {
   public ResourceList<Flavor> getFlavorsPage(String pageLink) throws PageExpiredException{
     ServiceDocumentQueryResult queryResult = null;
     try {
-      queryResult = dcpClient.queryDocumentPage(pageLink);
+      queryResult = dcpClient.queryDocumentPage(pageLink, FlavorService.State.class);
     } catch (DocumentNotFoundException e) {
       throw new PageExpiredException(pageLink);
     }
@@ -291,11 +312,30 @@ public class FlavorDcpBackend implements FlavorBackend {
 
   private Optional<FlavorEntity> getByNameAndKind(Optional<String> name, Optional<String> kind)
       throws ExternalException {
-    ResourceList<FlavorEntity> flavorEntityList = findEntitiesByNameAndKind(name, kind, Optional.<Integer>absent());
-    if (flavorEntityList == null || flavorEntityList.getItems() == null || flavorEntityList.getItems().isEmpty()) {
+    return getDocumentByNameAndKind(name, kind).transform(this::convertToEntity);
+  }
+
+  private Optional<FlavorService.State> getDocumentByNameAndKind(Optional<String> name, Optional<String> kind)
+      throws ExternalException {
+    ServiceDocumentQueryResult queryResult = findDocumentsByNameAndKind(name, kind, Optional.<Integer>absent());
+    ResourceList<FlavorService.State> flavorList =
+        PaginationUtils.xenonQueryResultToResourceList(FlavorService.State.class, queryResult);
+    if (flavorList == null || flavorList.getItems() == null || flavorList.getItems().isEmpty()) {
       return Optional.absent();
     }
-    return Optional.fromNullable(flavorEntityList.getItems().get(0));
+    return Optional.fromNullable(flavorList.getItems().get(0));
+  }
+
+  /**
+   * Returns the key the flavor of the given name and kind is cached under.
+   */
+  private static String getNameKey(String name, String kind) {
+    return FlavorServiceFactory.SELF_LINK + "?kind=" + kind + "&name=" + name;
+  }
+
+  private void invalidate(FlavorEntity flavor) {
+    documentCache.invalidate(FlavorServiceFactory.SELF_LINK + "/" + flavor.getId(),
+        getNameKey(flavor.getName(), flavor.getKind()));
   }
 
   private ServiceDocumentQueryResult findDocumentsByNameAndKind(Optional<String> name, Optional<String> kind,
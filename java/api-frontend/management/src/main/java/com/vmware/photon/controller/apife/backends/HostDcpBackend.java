@@ -126,7 +126,7 @@ public class HostDcpBackend implements HostBackend {
   public ResourceList<Host> getHostsPage(String pageLink) throws PageExpiredException {
     ServiceDocumentQueryResult queryResult = null;
     try {
-      queryResult = dcpClient.queryDocumentPage(pageLink);
+      queryResult = dcpClient.queryDocumentPage(pageLink, HostService.State.class);
     } catch (DocumentNotFoundException e) {
       throw new PageExpiredException(pageLink);
     }
@@ -51,6 +51,22 @@ public interface ImageBackend {
 
   void updateImageDatastore(String imageId, String imageDatastoreName) throws ExternalException;
 
+  void updateContentFingerprint(ImageEntity imageEntity, String contentFingerprint, String aliasOf)
+      throws ExternalException;
+
+  /**
+   * Returns a ready image, other than the given one, with the same content and replication type whose datastore
+   * files the given image can use instead of its own, or null if there is none.
+   */
+  ImageEntity findIdenticalImage(ImageEntity imageEntity, String contentFingerprint) throws ExternalException;
+
+  /**
+   * Registers the given image as an alias of the identical image, then checks that the identical image is still
+   * ready. If it is not, it is being deleted and its files cannot be used: the alias is removed again and false is
+   * returned, so the given image keeps its own files.
+   */
+  boolean registerAlias(ImageEntity imageEntity, ImageEntity identicalImage) throws ExternalException;
+
   ResourceList<ImageEntity> getAll(Optional<Integer> pageSize) throws ExternalException;
 
   Image toApiRepresentation(String id) throws ExternalException;
@@ -85,16 +85,20 @@ public class ImageDcpBackend implements ImageBackend {
 
   private final TombstoneBackend tombstoneBackend;
 
+  private final DocumentCache documentCache;
+
   @Inject
   public ImageDcpBackend(ApiFeXenonRestClient dcpClient, VmBackend vmBackend,
                          TaskBackend taskBackend,
                          EntityLockBackend entityLockBackend,
-                         TombstoneBackend tombstoneBackend) {
+                         TombstoneBackend tombstoneBackend,
+                         DocumentCache documentCache) {
     this.dcpClient = dcpClient;
     this.vmBackend = vmBackend;
     this.taskBackend = taskBackend;
     this.entityLockBackend = entityLockBackend;
     this.tombstoneBackend = tombstoneBackend;
+    this.documentCache = documentCache;
     this.dcpClient.start();
   }
 
@@ -160,7 +164,7 @@ public class ImageDcpBackend implements ImageBackend {
   @Override
   public TaskEntity prepareImageDelete(String id) throws ExternalException {
     logger.info("Prepare delete image task, image id: {}", id);
-    ImageEntity image = findById(id);
+    ImageEntity image = findLatestById(id);
     if (ImageState.PENDING_DELETE.equals(image.getState())) {
       throw new InvalidImageStateException(
           String.format("Invalid operation to delete image %s in state PENDING_DELETE", image.getId()));
@@ -179,11 +183,28 @@ public class ImageDcpBackend implements ImageBackend {
       return;
     }
 
+    // The image is marked before looking for aliases: an upload registering an alias concurrently either finds the
+    // image no longer ready, or is found here. See registerAlias.
+    if (!ImageState.PENDING_DELETE.equals(image.getState())) {
+      updateState(image, ImageState.PENDING_DELETE);
+    }
+
+    List<ImageService.State> aliases = findAliases(image.getId());
+    if (!aliases.isEmpty()) {
+      logger.info("{} image(s) are using the files of image {}, keep image as PENDING_DELETE", aliases.size(), image);
+      return;
+    }
+
     tombstoneBackend.create(ImageEntity.KIND, image.getId());
 
     dcpClient.delete(
         ImageServiceFactory.SELF_LINK + "/" + image.getId(),
         new ImageService.State());
+    documentCache.invalidate(ImageServiceFactory.SELF_LINK + "/" + image.getId());
+
+    if (image.getAliasOf() != null) {
+      tombstoneIfPendingDelete(image.getAliasOf());
+    }
   }
 
   @Override
@@ -208,7 +229,7 @@ public class ImageDcpBackend implements ImageBackend {
   public ResourceList<Image> getImagesPage(String pageLink) throws PageExpiredException {
     ServiceDocumentQueryResult queryResult = null;
     try {
-      queryResult = dcpClient.queryDocumentPage(pageLink);
+      queryResult = dcpClient.queryDocumentPage(pageLink, ImageService.State.class);
     } catch (DocumentNotFoundException e) {
       throw new PageExpiredException(pageLink);
     }
@@ -224,7 +245,7 @@ public class ImageDcpBackend implements ImageBackend {
 
   @Override
   public Image toApiRepresentation(String id) throws ExternalException {
-    return toApiRepresentation(findById(id));
+    return toApiRepresentation(findLatestById(id));
   }
 
   @Override
@@ -250,6 +271,19 @@ public class ImageDcpBackend implements ImageBackend {
 
   @Override
   public ImageEntity findById(String id) throws ExternalException {
+    try {
+      return convertToEntity(documentCache.get(ImageServiceFactory.SELF_LINK + "/" + id, ImageService.State.class,
+          (image) -> image.state == ImageState.READY));
+    } catch (DocumentNotFoundException documentNotFoundException) {
+      throw new ImageNotFoundException(Type.ID, id);
+    }
+  }
+
+  /**
+   * Reads the image from cloud-store, bypassing the document cache, for API reads and updates. The replication
+   * progress of images is updated outside of API-FE, so API reads must not be served from the cache.
+   */
+  private ImageEntity findLatestById(String id) throws ExternalException {
     com.vmware.xenon.common.Operation result;
     try {
       result = dcpClient.get(ImageServiceFactory.SELF_LINK + "/" + id);
@@ -308,11 +342,79 @@ public class ImageDcpBackend implements ImageBackend {
     updateImageCounts(imageId);
   }
 
+  @Override
+  public void updateContentFingerprint(ImageEntity imageEntity, String contentFingerprint, String aliasOf)
+      throws ExternalException {
+    ImageService.State imageState = new ImageService.State();
+    imageState.contentFingerprint = contentFingerprint;
+    imageState.aliasOf = aliasOf;
+    patchImageService(imageEntity.getId(), imageState);
+  }
+
+  @Override
+  public ImageEntity findIdenticalImage(ImageEntity imageEntity, String contentFingerprint) {
+    final ImmutableMap.Builder<String, String> termsBuilder = new ImmutableMap.Builder<>();
+    termsBuilder.put("contentFingerprint", contentFingerprint);
+    termsBuilder.put("state", ImageState.READY.toString());
+
+    for (ImageService.State state : dcpClient.queryDocuments(ImageService.State.class, termsBuilder.build())) {
+      ImageEntity candidate = convertToEntity(state);
+      // Aliases point to the image holding the files, so there are no chains of aliases
+      if (candidate.getAliasOf() == null &&
+          !candidate.getId().equals(imageEntity.getId()) &&
+          candidate.getReplicationType() == imageEntity.getReplicationType()) {
+        return candidate;
+      }
+    }
+
+    return null;
+  }
+
+  @Override
+  public boolean registerAlias(ImageEntity imageEntity, ImageEntity identicalImage) throws ExternalException {
+    ImageService.State imageState = new ImageService.State();
+    imageState.aliasOf = identicalImage.getId();
+    patchImageService(imageEntity.getId(), imageState);
+
+    // The alias is visible before the identical image is checked, so a concurrent tombstone of the identical image
+    // either is seen here or sees the alias.
+    ImageState identicalImageState;
+    try {
+      identicalImageState = findLatestById(identicalImage.getId()).getState();
+    } catch (ImageNotFoundException e) {
+      identicalImageState = null;
+    }
+
+    if (ImageState.READY.equals(identicalImageState)) {
+      return true;
+    }
+
+    logger.info("Image {} is being deleted, image {} keeps its own files", identicalImage.getId(),
+        imageEntity.getId());
+    String selfLink = ImageServiceFactory.SELF_LINK + "/" + imageEntity.getId();
+    try {
+      // A patch cannot clear a field, so the document is replaced. The image is still being uploaded, nothing else
+      // updates it meanwhile.
+      imageState = dcpClient.get(selfLink).getBody(ImageService.State.class);
+      imageState.aliasOf = null;
+      dcpClient.put(selfLink, imageState);
+    } catch (DocumentNotFoundException e) {
+      throw new ImageNotFoundException(Type.ID, imageEntity.getId());
+    } finally {
+      documentCache.invalidate(selfLink);
+    }
+
+    return false;
+  }
+
   @Override
   public boolean isImageSeedingDone(String imageId) throws ExternalException {
     try {
       ImageService.State state = dcpClient.get(ImageServiceFactory.SELF_LINK + "/" + imageId)
           .getBody(ImageService.State.class);
+      if (state.aliasOf != null) {
+        return isImageSeedingDone(state.aliasOf);
+      }
       return state.totalImageDatastore.equals(state.replicatedImageDatastore);
     } catch (DocumentNotFoundException e) {
       throw new ImageNotFoundException(ImageNotFoundException.Type.ID, imageId);
@@ -349,6 +451,30 @@ public class ImageDcpBackend implements ImageBackend {
           ImageServiceFactory.SELF_LINK + "/" + imageId, imageState);
     } catch (DocumentNotFoundException e) {
       throw new ImageNotFoundException(Type.ID, imageId);
+    } finally {
+      documentCache.invalidate(ImageServiceFactory.SELF_LINK + "/" + imageId);
+    }
+  }
+
+  private List<ImageService.State> findAliases(String imageId) {
+    final ImmutableMap.Builder<String, String> termsBuilder = new ImmutableMap.Builder<>();
+    termsBuilder.put("aliasOf", imageId);
+    return dcpClient.queryDocuments(ImageService.State.class, termsBuilder.build());
+  }
+
+  /**
+   * Deletes an image whose deletion was postponed because other images were using its files.
+   */
+  private void tombstoneIfPendingDelete(String imageId) throws ExternalException {
+    ImageEntity image;
+    try {
+      image = findLatestById(imageId);
+    } catch (ImageNotFoundException e) {
+      return;
+    }
+
+    if (ImageState.PENDING_DELETE.equals(image.getState())) {
+      tombstone(image);
     }
   }
 
@@ -363,6 +489,8 @@ public class ImageDcpBackend implements ImageBackend {
     imageEntity.setTotalImageDatastore(imageState.totalImageDatastore);
     imageEntity.setReplicatedDatastore(imageState.replicatedDatastore);
     imageEntity.setReplicatedImageDatastore(imageState.replicatedImageDatastore);
+    imageEntity.setContentFingerprint(imageState.contentFingerprint);
+    imageEntity.setAliasOf(imageState.aliasOf);
 
     List<ImageSettingsEntity> imageSettingsEntityList = new ArrayList<>();
 
@@ -512,6 +640,8 @@ public class ImageDcpBackend implements ImageBackend {
       dcpClient.patch(ImageServiceFactory.SELF_LINK + "/" + imageId, patchState);
     } catch (DocumentNotFoundException e) {
       throw new ImageNotFoundException(Type.ID, imageId);
+    } finally {
+      documentCache.invalidate(ImageServiceFactory.SELF_LINK + "/" + imageId);
     }
   }
 
@@ -182,7 +182,7 @@ public class NetworkDcpBackend implements NetworkBackend {
   public ResourceList<Network> getPage(String pageLink) throws ExternalException {
     ServiceDocumentQueryResult queryResult = null;
     try {
-      queryResult = dcpClient.queryDocumentPage(pageLink);
+      queryResult = dcpClient.queryDocumentPage(pageLink, NetworkService.State.class);
     } catch (DocumentNotFoundException e) {
       throw new PageExpiredException(pageLink);
     }
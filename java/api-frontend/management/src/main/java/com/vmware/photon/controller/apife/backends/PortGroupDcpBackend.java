@@ -77,7 +77,7 @@ public class PortGroupDcpBackend implements PortGroupBackend {
   public ResourceList<PortGroup> getPortGroupsPage(String pageLink) throws ExternalException {
     ServiceDocumentQueryResult queryResult = null;
     try {
-      queryResult = dcpClient.queryDocumentPage(pageLink);
+      queryResult = dcpClient.queryDocumentPage(pageLink, PortGroupService.State.class);
     } catch (DocumentNotFoundException e) {
       throw new PageExpiredException(pageLink);
     }
@@ -41,6 +41,8 @@ public interface ProjectBackend {
 
   ProjectEntity findById(String id) throws ProjectNotFoundException;
 
+  ProjectEntity findLatestById(String id) throws ProjectNotFoundException;
+
   TaskEntity setSecurityGroups(String projectId, List<String> securityGroups) throws ExternalException;
 
   void replaceSecurityGroups(String id, List<SecurityGroup> securityGroups) throws ExternalException;
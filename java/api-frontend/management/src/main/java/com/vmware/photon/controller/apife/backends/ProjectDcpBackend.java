@@ -72,11 +72,12 @@ public class ProjectDcpBackend implements ProjectBackend {
   private final VmBackend vmBackend;
   private final DiskBackend diskBackend;
   private final TombstoneBackend tombstoneBackend;
+  private final DocumentCache documentCache;
 
   @Inject
   public ProjectDcpBackend(ApiFeXenonRestClient dcpClient, TaskBackend taskBackend, TenantBackend tenantBackend,
                            ResourceTicketBackend resourceTicketBackend, VmBackend vmBackend, DiskBackend diskBackend,
-                           TombstoneBackend tombstoneBackend) {
+                           TombstoneBackend tombstoneBackend, DocumentCache documentCache) {
     this.dcpClient = dcpClient;
     this.taskBackend = taskBackend;
     this.tenantBackend = tenantBackend;
@@ -84,6 +85,7 @@ public class ProjectDcpBackend implements ProjectBackend {
     this.vmBackend = vmBackend;
     this.diskBackend = diskBackend;
     this.tombstoneBackend = tombstoneBackend;
+    this.documentCache = documentCache;
     this.dcpClient.start();
   }
 
@@ -98,7 +100,7 @@ public class ProjectDcpBackend implements ProjectBackend {
 
   @Override
   public Project getApiRepresentation(String id) throws ExternalException {
-    return toApiRepresentation(findById(id));
+    return toApiRepresentation(findLatestById(id));
   }
 
   @Override
@@ -114,21 +116,16 @@ public class ProjectDcpBackend implements ProjectBackend {
 
   @Override
   public ProjectEntity findById(String id) throws ProjectNotFoundException {
-    com.vmware.xenon.common.Operation result;
-
     try {
-      result = dcpClient.get(ProjectServiceFactory.SELF_LINK + "/" + id);
+      return toProjectEntity(documentCache.get(ProjectServiceFactory.SELF_LINK + "/" + id, ProjectService.State.class));
     } catch (DocumentNotFoundException documentNotFoundException) {
       throw new ProjectNotFoundException(id);
     }
-
-    return toProjectEntity(result.getBody(ProjectService.State.class));
-
   }
 
   @Override
   public TaskEntity setSecurityGroups(String id, List<String> securityGroups) throws ExternalException {
-    ProjectEntity projectEntity = findById(id);
+    ProjectEntity projectEntity = findLatestById(id);
 
     List<SecurityGroup> currSecurityGroups = new ArrayList<>();
     for (SecurityGroupEntity groupEntity : projectEntity.getSecurityGroups()) {
@@ -160,6 +157,8 @@ public class ProjectDcpBackend implements ProjectBackend {
       dcpClient.patch(ProjectServiceFactory.SELF_LINK + "/" + id, patch);
     } catch (DocumentNotFoundException e) {
       throw new ProjectNotFoundException(id);
+    } finally {
+      documentCache.invalidate(ProjectServiceFactory.SELF_LINK + "/" + id);
     }
   }
 
@@ -167,7 +166,7 @@ public class ProjectDcpBackend implements ProjectBackend {
   public ResourceList<Project> getProjectsPage(String pageLink) throws ExternalException {
     ServiceDocumentQueryResult queryResult = null;
     try {
-      queryResult = dcpClient.queryDocumentPage(pageLink);
+      queryResult = dcpClient.queryDocumentPage(pageLink, ProjectService.State.class);
     } catch (DocumentNotFoundException e) {
       throw new PageExpiredException(pageLink);
     }
@@ -264,8 +263,24 @@ public class ProjectDcpBackend implements ProjectBackend {
     return dcpClient.queryDocuments(ProjectService.State.class, termsBuilder.build());
   }
 
+  /**
+   * Reads the project from cloud-store, bypassing the document cache, for API reads, updates and authorization.
+   */
+  @Override
+  public ProjectEntity findLatestById(String id) throws ProjectNotFoundException {
+    com.vmware.xenon.common.Operation result;
+
+    try {
+      result = dcpClient.get(ProjectServiceFactory.SELF_LINK + "/" + id);
+    } catch (DocumentNotFoundException documentNotFoundException) {
+      throw new ProjectNotFoundException(id);
+    }
+
+    return toProjectEntity(result.getBody(ProjectService.State.class));
+  }
+
   private ProjectEntity delete(String projectId) throws ExternalException {
-    ProjectEntity projectEntity = findById(projectId);
+    ProjectEntity projectEntity = findLatestById(projectId);
 
     if (!vmBackend.filterByProject(projectId, Optional.of(PaginationConfig.DEFAULT_DEFAULT_PAGE_SIZE)).getItems()
         .isEmpty()) {
@@ -288,6 +303,7 @@ public class ProjectDcpBackend implements ProjectBackend {
 
     dcpClient.delete(ProjectServiceFactory.SELF_LINK + "/" + projectEntity.getId(),
         new ProjectService.State());
+    documentCache.invalidate(ProjectServiceFactory.SELF_LINK + "/" + projectEntity.getId());
     logger.info("Project {} has been cleared", projectEntity.getId());
 
     resourceTicketBackend.delete(projectTicket.getId());
@@ -65,14 +65,17 @@ public class ResourceTicketDcpBackend implements ResourceTicketBackend {
   private final ApiFeXenonRestClient dcpClient;
   private final TenantBackend tenantBackend;
   private final TaskBackend taskBackend;
+  private final ResourceTicketEscrow escrow;
 
   @Inject
   public ResourceTicketDcpBackend(ApiFeXenonRestClient dcpClient,
                                   TenantBackend tenantBackend,
-                                  TaskBackend taskBackend) {
+                                  TaskBackend taskBackend,
+                                  ResourceTicketEscrow escrow) {
     this.dcpClient = dcpClient;
     this.tenantBackend = tenantBackend;
     this.taskBackend = taskBackend;
+    this.escrow = escrow;
 
     dcpClient.start();
   }
@@ -86,6 +89,9 @@ public class ResourceTicketDcpBackend implements ResourceTicketBackend {
    * can be set for a narrow set of metrics. Only these metrics are used
    * for limit enforcement. All metrics are tracked in usage.
    * <p/>
+   * When the quota escrow is enabled, the cost is consumed from headroom this node
+   * reserved on the ticket, and recorded in the ticket later on.
+   * <p/>
    *
    * @param resourceTicketId - id of the resource ticket
    * @param cost             - the cost object representing how much will be consumed
@@ -94,6 +100,22 @@ public class ResourceTicketDcpBackend implements ResourceTicketBackend {
   @Override
   public void consumeQuota(String resourceTicketId, QuotaCost cost)
       throws QuotaException, ResourceTicketNotFoundException {
+    if (escrow.isEnabled() && escrow.consume(resourceTicketId, cost)) {
+      return;
+    }
+
+    consumeQuotaFromTicket(resourceTicketId, cost);
+  }
+
+  /**
+   * This method consumes quota by patching the resource ticket, which checks the limits.
+   *
+   * @param resourceTicketId - id of the resource ticket
+   * @param cost             - the cost object representing how much will be consumed
+   * @throws QuotaException when quota allocation fails
+   */
+  private void consumeQuotaFromTicket(String resourceTicketId, QuotaCost cost)
+      throws QuotaException, ResourceTicketNotFoundException {
     ResourceTicketService.Patch patch = new ResourceTicketService.Patch();
     patch.patchtype = ResourceTicketService.Patch.PatchType.USAGE_CONSUME;
     patch.cost = new HashMap<>();
@@ -132,6 +154,10 @@ public class ResourceTicketDcpBackend implements ResourceTicketBackend {
    */
   @Override
   public void returnQuota(String resourceTicketId, QuotaCost cost) throws ResourceTicketNotFoundException {
+    if (escrow.isEnabled() && escrow.tryReturn(resourceTicketId, cost)) {
+      return;
+    }
+
     ResourceTicketService.Patch patch = new ResourceTicketService.Patch();
     patch.patchtype = ResourceTicketService.Patch.PatchType.USAGE_RETURN;
     patch.cost = new HashMap<>();
@@ -212,7 +238,9 @@ public class ResourceTicketDcpBackend implements ResourceTicketBackend {
     ResourceTicketService.State createdResourceTicket = result.getBody(ResourceTicketService.State.class);
 
     try {
-      consumeQuota(resourceTicketId, new QuotaCost(limits));
+      // the tenant level ticket is consumed directly, reserving escrow for a whole project would lock
+      // up too much of the tenant quota on this node
+      consumeQuotaFromTicket(resourceTicketId, new QuotaCost(limits));
     } catch (QuotaException qe) {
       logger.warn("Subdivide of resource ticket id {} failed", resourceTicketId);
       // compensate by deleting the created ticket document
@@ -378,7 +406,7 @@ public class ResourceTicketDcpBackend implements ResourceTicketBackend {
   private ResourceList<ResourceTicketEntity> getEntitiesPage(String pageLink) throws ExternalException {
     ServiceDocumentQueryResult queryResult = null;
     try {
-      queryResult = dcpClient.queryDocumentPage(pageLink);
+      queryResult = dcpClient.queryDocumentPage(pageLink, ResourceTicketService.State.class);
     } catch (DocumentNotFoundException e) {
       throw new PageExpiredException(pageLink);
     }
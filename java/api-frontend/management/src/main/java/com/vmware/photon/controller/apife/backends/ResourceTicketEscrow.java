@@ -0,0 +1,508 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.vmware.photon.controller.apife.backends;
+
+import com.vmware.photon.controller.api.QuotaLineItem;
+import com.vmware.photon.controller.apife.backends.clients.ApiFeXenonRestClient;
+import com.vmware.photon.controller.apife.config.QuotaConfig;
+import com.vmware.photon.controller.apife.entities.QuotaLineItemEntity;
+import com.vmware.photon.controller.apife.exceptions.external.ResourceTicketNotFoundException;
+import com.vmware.photon.controller.apife.lib.QuotaCost;
+import com.vmware.photon.controller.cloudstore.dcp.entity.ResourceTicketService;
+import com.vmware.photon.controller.cloudstore.dcp.entity.ResourceTicketServiceFactory;
+import com.vmware.photon.controller.common.xenon.exceptions.BadRequestException;
+import com.vmware.photon.controller.common.xenon.exceptions.DocumentNotFoundException;
+import com.vmware.photon.controller.common.xenon.exceptions.XenonRuntimeException;
+import com.vmware.xenon.common.Utils;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.dropwizard.lifecycle.Managed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ResourceTicketEscrow hands out quota from headroom this node reserved in advance on the resource tickets,
+ * so that consecutive consumptions on the same ticket do not all patch the ticket document.
+ * <p/>
+ * When the escrow of a ticket runs out, a chunk of escrow-chunk-size times the cost is reserved. The reserved
+ * headroom counts against the ticket limits, so the limits are never exceeded. The quota consumed locally is
+ * recorded in the ticket in batches, every settle interval, and the headroom of tickets that were not used for
+ * a while is returned.
+ * <p/>
+ * The consumption which was not recorded yet is only known to this node, so it is kept in the escrow state file
+ * along with the id this node holds its leases under. The id stays the same across restarts: on start, the
+ * consumption left in the state file is recorded and the leases of the previous run are closed, and on stop, the
+ * leases are closed. The ticket holds the headroom of a lease which expired before it was closed until then.
+ */
+@Singleton
+public class ResourceTicketEscrow implements Managed {
+
+  private static final Logger logger = LoggerFactory.getLogger(ResourceTicketEscrow.class);
+
+  /**
+   * We stop handing out escrow well before the ticket expires our lease.
+   */
+  private static final long LEASE_VALIDITY_MILLIS =
+      TimeUnit.MICROSECONDS.toMillis(ResourceTicketService.ESCROW_LEASE_EXPIRATION_MICROS) / 2;
+
+  private final ApiFeXenonRestClient xenonClient;
+  private final QuotaConfig config;
+  private final ConcurrentHashMap<String, Lease> leases = new ConcurrentHashMap<>();
+  private final Object stateFileLock = new Object();
+  private volatile String holderId;
+  private ScheduledExecutorService settleExecutor;
+
+  @Inject
+  public ResourceTicketEscrow(ApiFeXenonRestClient xenonClient, QuotaConfig config) {
+    this.xenonClient = xenonClient;
+    this.config = config;
+  }
+
+  public boolean isEnabled() {
+    return config.isEscrowEnabled();
+  }
+
+  /**
+   * Loads the holder id from the escrow state file, creating it on the first start, and closes the leases the
+   * previous run did not close, recording the consumption it left in the state file.
+   */
+  @Override
+  public void start() throws IOException {
+    if (!isEnabled()) {
+      return;
+    }
+
+    Path stateFile = Paths.get(config.getEscrowStateFile());
+    Files.createDirectories(stateFile.toAbsolutePath().getParent());
+    HolderState state = Files.exists(stateFile) ?
+        Utils.fromJson(new String(Files.readAllBytes(stateFile), StandardCharsets.UTF_8), HolderState.class) : null;
+    if (state == null || state.holderId == null) {
+      state = new HolderState();
+      state.holderId = UUID.randomUUID().toString();
+    }
+
+    holderId = state.holderId;
+    logger.info("Holding resource ticket escrow as {}", holderId);
+
+    for (Map.Entry<String, Map<String, QuotaLineItem>> entry : state.leases.entrySet()) {
+      Map<String, QuotaLineItemEntity> consumed = new HashMap<>();
+      for (QuotaLineItem item : entry.getValue().values()) {
+        consumed.put(item.getKey(), new QuotaLineItemEntity(item.getKey(), item.getValue(), item.getUnit()));
+      }
+
+      if (!closeLease(entry.getKey(), consumed)) {
+        // The consumption is settled with the leases of this run. The headroom the ticket holds for the previous
+        // run is released once it expires.
+        Lease lease = getLease(entry.getKey());
+        synchronized (lease) {
+          add(lease.consumed, consumed);
+        }
+        startSettling();
+      }
+    }
+
+    writeStateFile();
+  }
+
+  /**
+   * Stops settling periodically and closes the leases, recording the quota consumed locally and returning the
+   * headroom left. The leases which could not be closed are kept in the escrow state file for the next start.
+   */
+  @Override
+  public void stop() throws InterruptedException {
+    if (!isEnabled()) {
+      return;
+    }
+
+    synchronized (this) {
+      if (settleExecutor != null) {
+        settleExecutor.shutdown();
+        settleExecutor.awaitTermination(config.getEscrowSettleInterval().toMilliseconds(), TimeUnit.MILLISECONDS);
+      }
+    }
+
+    for (Map.Entry<String, Lease> entry : leases.entrySet()) {
+      Lease lease = entry.getValue();
+      Map<String, QuotaLineItemEntity> consumed;
+      synchronized (lease) {
+        consumed = new HashMap<>(lease.consumed);
+      }
+
+      if (closeLease(entry.getKey(), consumed)) {
+        synchronized (lease) {
+          removeLease(entry.getKey(), lease);
+        }
+      }
+    }
+
+    writeStateFile();
+  }
+
+  /**
+   * Consumes the cost from the escrow of the ticket, reserving more headroom if needed. Returns false if the
+   * ticket does not have enough headroom left for a reservation, in which case the caller should consume the
+   * cost from the ticket directly so that the limits are enforced exactly.
+   *
+   * @param resourceTicketId - id of the resource ticket
+   * @param cost             - the cost object representing how much will be consumed
+   * @return true if the cost was consumed from the escrow
+   */
+  public boolean consume(String resourceTicketId, QuotaCost cost) throws ResourceTicketNotFoundException {
+    while (true) {
+      Lease lease = getLease(resourceTicketId);
+      Map<String, QuotaLineItemEntity> chunk = new HashMap<>();
+      synchronized (lease) {
+        if (lease.removed) {
+          // settle dropped this lease meanwhile
+          continue;
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - lease.renewedMillis > LEASE_VALIDITY_MILLIS) {
+          // the ticket may have expired our lease, so the headroom we have left is not reserved anymore
+          lease.available.clear();
+        }
+
+        if (lease.tryConsume(cost)) {
+          lease.usedMillis = now;
+          break;
+        }
+
+        for (String key : cost.getCostKeys()) {
+          QuotaLineItemEntity item = cost.getCost(key);
+          chunk.put(key, new QuotaLineItemEntity(key, item.getValue() * config.getEscrowChunkSize(), item.getUnit()));
+        }
+      }
+
+      // The lease is not held while reserving, so that the other consumers of the ticket do not wait for the
+      // round trip to cloud-store. The chunk may get consumed by them meanwhile, in which case we reserve again.
+      if (!reserve(resourceTicketId, chunk)) {
+        return false;
+      }
+
+      addReservation(resourceTicketId, chunk);
+    }
+
+    writeStateFile();
+    startSettling();
+    return true;
+  }
+
+  /**
+   * Returns the cost to the escrow of the ticket if it was consumed locally and not recorded in the ticket yet.
+   *
+   * @param resourceTicketId - id of the resource ticket
+   * @param cost             - the cost object representing how much will be returned
+   * @return true if the cost was returned to the escrow
+   */
+  public boolean tryReturn(String resourceTicketId, QuotaCost cost) {
+    Lease lease = leases.get(resourceTicketId);
+    if (lease == null) {
+      return false;
+    }
+
+    synchronized (lease) {
+      if (lease.removed || !covers(lease.consumed, cost)) {
+        return false;
+      }
+
+      for (String key : cost.getCostKeys()) {
+        lease.consumed.put(key, lease.consumed.get(key).subtract(cost.getCost(key)));
+        lease.available.put(key, lease.available.containsKey(key) ?
+            lease.available.get(key).add(cost.getCost(key)) : cost.getCost(key));
+      }
+    }
+
+    writeStateFile();
+    return true;
+  }
+
+  /**
+   * Records the quota consumed locally in the tickets, refreshes the leases in use and returns the headroom
+   * of the leases that were not used for a while.
+   */
+  @VisibleForTesting
+  void settle() {
+    long now = System.currentTimeMillis();
+    boolean settled = false;
+    for (Map.Entry<String, Lease> entry : leases.entrySet()) {
+      Lease lease = entry.getValue();
+      ResourceTicketService.Patch patch = new ResourceTicketService.Patch();
+      patch.patchtype = ResourceTicketService.Patch.PatchType.ESCROW_SETTLE;
+      patch.escrowHolderId = holderId;
+
+      Map<String, QuotaLineItemEntity> consumed;
+      synchronized (lease) {
+        boolean idle = now - lease.usedMillis > LEASE_VALIDITY_MILLIS;
+        boolean expiring = !lease.available.isEmpty() && now - lease.renewedMillis > LEASE_VALIDITY_MILLIS / 2;
+        if (idle && lease.consumed.isEmpty() && lease.available.isEmpty()) {
+          removeLease(entry.getKey(), lease);
+          continue;
+        }
+
+        if (lease.consumed.isEmpty() && !idle && !expiring) {
+          continue;
+        }
+
+        consumed = new HashMap<>(lease.consumed);
+        lease.consumed.clear();
+        patch.cost = toQuotaLineItems(consumed);
+        if (idle) {
+          patch.released = toQuotaLineItems(lease.available);
+          lease.available.clear();
+        }
+      }
+
+      settled = true;
+      try {
+        xenonClient.patch(ResourceTicketServiceFactory.SELF_LINK + "/" + entry.getKey(), patch);
+        synchronized (lease) {
+          lease.renewedMillis = now;
+          if (lease.available.isEmpty() && lease.consumed.isEmpty()) {
+            removeLease(entry.getKey(), lease);
+          }
+        }
+      } catch (DocumentNotFoundException e) {
+        logger.info("Resource ticket {} was deleted, dropping its escrow", entry.getKey());
+        synchronized (lease) {
+          removeLease(entry.getKey(), lease);
+        }
+      } catch (XenonRuntimeException e) {
+        if (!(e.getCause() instanceof BadRequestException)) {
+          logger.warn("Failed to settle escrow of resource ticket {}", entry.getKey(), e);
+          synchronized (lease) {
+            add(lease.consumed, consumed);
+          }
+          continue;
+        }
+
+        // The ticket lost track of our lease, and the consumption would exceed its limits. Retrying would
+        // not change that, so the consumption is dropped.
+        logger.error("Resource ticket {} rejected the settlement of {}", entry.getKey(), consumed, e);
+      } catch (Throwable t) {
+        logger.warn("Failed to settle escrow of resource ticket {}", entry.getKey(), t);
+        synchronized (lease) {
+          add(lease.consumed, consumed);
+        }
+      }
+    }
+
+    if (settled) {
+      writeStateFile();
+    }
+  }
+
+  /**
+   * Records the consumption in the ticket and releases all the headroom our lease holds on it, including the
+   * headroom reserved before a restart. Returns false if the lease should be closed again later.
+   */
+  private boolean closeLease(String resourceTicketId, Map<String, QuotaLineItemEntity> consumed) {
+    ResourceTicketService.Patch patch = new ResourceTicketService.Patch();
+    patch.patchtype = ResourceTicketService.Patch.PatchType.ESCROW_SETTLE;
+    patch.escrowHolderId = holderId;
+    patch.cost = toQuotaLineItems(consumed);
+    patch.closeLease = true;
+
+    try {
+      xenonClient.patch(ResourceTicketServiceFactory.SELF_LINK + "/" + resourceTicketId, patch);
+    } catch (DocumentNotFoundException e) {
+      logger.info("Resource ticket {} was deleted, dropping its escrow", resourceTicketId);
+    } catch (XenonRuntimeException e) {
+      if (!(e.getCause() instanceof BadRequestException)) {
+        logger.warn("Failed to close escrow lease on resource ticket {}", resourceTicketId, e);
+        return false;
+      }
+
+      logger.error("Resource ticket {} rejected the settlement of {}", resourceTicketId, consumed, e);
+    } catch (Throwable t) {
+      logger.warn("Failed to close escrow lease on resource ticket {}", resourceTicketId, t);
+      return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * Saves the holder id and, for each ticket we hold a lease on, the consumption not recorded in the ticket yet.
+   * A failure to save is logged only: the quota was consumed already.
+   */
+  private void writeStateFile() {
+    HolderState state = new HolderState();
+    state.holderId = holderId;
+    for (Map.Entry<String, Lease> entry : leases.entrySet()) {
+      Lease lease = entry.getValue();
+      synchronized (lease) {
+        if (!lease.removed) {
+          state.leases.put(entry.getKey(), toQuotaLineItems(lease.consumed));
+        }
+      }
+    }
+
+    synchronized (stateFileLock) {
+      try {
+        Path stateFile = Paths.get(config.getEscrowStateFile());
+        Path tempFile = stateFile.resolveSibling(stateFile.getFileName() + ".tmp");
+        Files.write(tempFile, Utils.toJson(state).getBytes(StandardCharsets.UTF_8));
+        Files.move(tempFile, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } catch (IOException e) {
+        logger.warn("Failed to save the escrow state to {}", config.getEscrowStateFile(), e);
+      }
+    }
+  }
+
+  private Lease getLease(String resourceTicketId) {
+    return leases.computeIfAbsent(resourceTicketId, (id) -> new Lease());
+  }
+
+  private void addReservation(String resourceTicketId, Map<String, QuotaLineItemEntity> chunk) {
+    while (true) {
+      Lease lease = getLease(resourceTicketId);
+      synchronized (lease) {
+        if (!lease.removed) {
+          add(lease.available, chunk);
+          lease.renewedMillis = System.currentTimeMillis();
+          return;
+        }
+      }
+    }
+  }
+
+  private void removeLease(String resourceTicketId, Lease lease) {
+    lease.removed = true;
+    leases.remove(resourceTicketId, lease);
+  }
+
+  private synchronized void startSettling() {
+    if (settleExecutor != null) {
+      return;
+    }
+
+    settleExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+        .setNameFormat("ResourceTicketEscrow-%d")
+        .setDaemon(true)
+        .build());
+    long intervalMillis = config.getEscrowSettleInterval().toMilliseconds();
+    settleExecutor.scheduleWithFixedDelay(this::settle, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  private boolean reserve(String resourceTicketId, Map<String, QuotaLineItemEntity> chunk)
+      throws ResourceTicketNotFoundException {
+    ResourceTicketService.Patch patch = new ResourceTicketService.Patch();
+    patch.patchtype = ResourceTicketService.Patch.PatchType.ESCROW_RESERVE;
+    patch.escrowHolderId = holderId;
+    patch.cost = toQuotaLineItems(chunk);
+
+    try {
+      xenonClient.patch(ResourceTicketServiceFactory.SELF_LINK + "/" + resourceTicketId, patch);
+      return true;
+    } catch (DocumentNotFoundException e) {
+      throw new ResourceTicketNotFoundException(resourceTicketId);
+    } catch (XenonRuntimeException e) {
+      if (e.getCause() instanceof BadRequestException) {
+        logger.debug("Not enough headroom left to reserve escrow on resource ticket {}", resourceTicketId);
+        return false;
+      }
+      throw e;
+    }
+  }
+
+  private static boolean covers(Map<String, QuotaLineItemEntity> items, QuotaCost cost) {
+    for (String key : cost.getCostKeys()) {
+      QuotaLineItemEntity item = items.get(key);
+      if (item == null || item.compareTo(cost.getCost(key)) < 0) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private static void add(Map<String, QuotaLineItemEntity> items, Map<String, QuotaLineItemEntity> values) {
+    for (Map.Entry<String, QuotaLineItemEntity> entry : values.entrySet()) {
+      QuotaLineItemEntity item = items.get(entry.getKey());
+      items.put(entry.getKey(), item == null ? entry.getValue() : item.add(entry.getValue()));
+    }
+  }
+
+  private static Map<String, QuotaLineItem> toQuotaLineItems(Map<String, QuotaLineItemEntity> items) {
+    Map<String, QuotaLineItem> result = new HashMap<>();
+    for (QuotaLineItemEntity item : items.values()) {
+      result.put(item.getKey(), new QuotaLineItem(item.getKey(), item.getValue(), item.getUnit()));
+    }
+
+    return result;
+  }
+
+  /**
+   * The content of the escrow state file.
+   */
+  private static class HolderState {
+    private String holderId;
+
+    // consumption not recorded yet, by resource ticket id and cost key
+    private Map<String, Map<String, QuotaLineItem>> leases = new HashMap<>();
+  }
+
+  /**
+   * The escrow of this node on a resource ticket.
+   */
+  private static class Lease {
+    // headroom reserved on the ticket and not consumed yet
+    private final Map<String, QuotaLineItemEntity> available = new HashMap<>();
+
+    // headroom consumed locally and not recorded in the ticket yet
+    private final Map<String, QuotaLineItemEntity> consumed = new HashMap<>();
+
+    private long renewedMillis;
+
+    private long usedMillis;
+
+    private boolean removed;
+
+    private boolean tryConsume(QuotaCost cost) {
+      if (!covers(available, cost)) {
+        return false;
+      }
+
+      for (String key : cost.getCostKeys()) {
+        available.put(key, available.get(key).subtract(cost.getCost(key)));
+      }
+
+      Map<String, QuotaLineItemEntity> items = new HashMap<>();
+      for (String key : cost.getCostKeys()) {
+        items.put(key, cost.getCost(key));
+      }
+      add(consumed, items);
+      return true;
+    }
+  }
+}
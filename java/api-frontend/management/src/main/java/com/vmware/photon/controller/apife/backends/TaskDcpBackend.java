@@ -304,7 +304,7 @@ public class TaskDcpBackend implements TaskBackend, StepBackend {
   public ResourceList<TaskEntity> getEntityTasksPage(String pageLink) throws PageExpiredException {
     ServiceDocumentQueryResult queryResult = null;
     try {
-      queryResult = dcpClient.queryDocumentPage(pageLink);
+      queryResult = dcpClient.queryDocumentPage(pageLink, TaskService.State.class);
     } catch (DocumentNotFoundException e) {
       throw new PageExpiredException(pageLink);
     }
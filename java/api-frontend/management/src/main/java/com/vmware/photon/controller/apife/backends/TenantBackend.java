@@ -44,6 +44,8 @@ public interface TenantBackend {
 
   TenantEntity findById(String id) throws TenantNotFoundException;
 
+  TenantEntity findLatestById(String id) throws TenantNotFoundException;
+
   TaskEntity prepareSetSecurityGroups(String tenantId, List<String> securityGroups) throws ExternalException;
 
   void setSecurityGroups(String id, List<SecurityGroup> securityGroups) throws ExternalException;
@@ -71,18 +71,21 @@ public class TenantDcpBackend implements TenantBackend {
   private final DeploymentBackend deploymentBackend;
   private final ResourceTicketBackend resourceTicketBackend;
   private final TombstoneBackend tombstoneBackend;
+  private final DocumentCache documentCache;
 
   @Inject
   public TenantDcpBackend(ApiFeXenonRestClient dcpClient,
                           TaskBackend taskBackend,
                           DeploymentBackend deploymentBackend,
                           ResourceTicketBackend resourceTicketBackend,
-                          TombstoneBackend tombstoneBackend) {
+                          TombstoneBackend tombstoneBackend,
+                          DocumentCache documentCache) {
     this.dcpClient = dcpClient;
     this.taskBackend = taskBackend;
     this.deploymentBackend = deploymentBackend;
     this.resourceTicketBackend = resourceTicketBackend;
     this.tombstoneBackend = tombstoneBackend;
+    this.documentCache = documentCache;
     this.dcpClient.start();
   }
 
@@ -95,7 +98,7 @@ public class TenantDcpBackend implements TenantBackend {
   public ResourceList<Tenant> getPage(String pageLink) throws PageExpiredException {
     ServiceDocumentQueryResult queryResult;
     try {
-      queryResult = dcpClient.queryDocumentPage(pageLink);
+      queryResult = dcpClient.queryDocumentPage(pageLink, TenantService.State.class);
     } catch (DocumentNotFoundException e) {
       throw new PageExpiredException(pageLink);
     }
@@ -117,7 +120,7 @@ public class TenantDcpBackend implements TenantBackend {
 
   @Override
   public Tenant getApiRepresentation(String id) throws TenantNotFoundException {
-    TenantEntity tenantEntity = findById(id);
+    TenantEntity tenantEntity = findLatestById(id);
     return toApiRepresentation(tenantEntity);
   }
 
@@ -129,23 +132,18 @@ public class TenantDcpBackend implements TenantBackend {
 
   @Override
   public TaskEntity deleteTenant(String tenantId) throws ExternalException {
-    TenantEntity tenantEntity = findById(tenantId);
+    TenantEntity tenantEntity = findLatestById(tenantId);
     delete(tenantEntity);
     return taskBackend.createCompletedTask(tenantEntity, Operation.DELETE_TENANT);
   }
 
   @Override
   public TenantEntity findById(String id) throws TenantNotFoundException {
-    com.vmware.xenon.common.Operation result;
-
     try {
-      result = dcpClient.get(TenantServiceFactory.SELF_LINK + "/" + id);
+      return toTenantEntity(documentCache.get(TenantServiceFactory.SELF_LINK + "/" + id, TenantService.State.class));
     } catch (DocumentNotFoundException documentNotFoundException) {
       throw new TenantNotFoundException(id);
     }
-
-    return toTenantEntity(result.getBody(TenantService.State.class));
-
   }
 
   @Override
@@ -153,7 +151,7 @@ public class TenantDcpBackend implements TenantBackend {
 
     logger.info("Updating the security groups of tenant {} to {}", id, securityGroups.toString());
 
-    TenantEntity tenantEntity = findById(id);
+    TenantEntity tenantEntity = findLatestById(id);
     List<SecurityGroup> currSecurityGroups = new ArrayList<>();
     for (SecurityGroupEntity groupEntity : tenantEntity.getSecurityGroups()) {
       currSecurityGroups.add(new SecurityGroup(groupEntity.getName(), groupEntity.isInherited()));
@@ -189,8 +187,26 @@ public class TenantDcpBackend implements TenantBackend {
       dcpClient.patch(TenantServiceFactory.SELF_LINK + "/" + id, patch);
     } catch (DocumentNotFoundException e) {
       throw new TenantNotFoundException(id);
+    } finally {
+      documentCache.invalidate(TenantServiceFactory.SELF_LINK + "/" + id);
+    }
+
+  }
+
+  /**
+   * Reads the tenant from cloud-store, bypassing the document cache, for API reads, updates and authorization.
+   */
+  @Override
+  public TenantEntity findLatestById(String id) throws TenantNotFoundException {
+    com.vmware.xenon.common.Operation result;
+
+    try {
+      result = dcpClient.get(TenantServiceFactory.SELF_LINK + "/" + id);
+    } catch (DocumentNotFoundException documentNotFoundException) {
+      throw new TenantNotFoundException(id);
     }
 
+    return toTenantEntity(result.getBody(TenantService.State.class));
   }
 
   private TenantEntity create(TenantCreateSpec spec) throws ExternalException {
@@ -276,6 +292,7 @@ public class TenantDcpBackend implements TenantBackend {
 
     dcpClient.delete(TenantServiceFactory.SELF_LINK + "/" + tenantEntity.getId(),
         new TenantService.State());
+    documentCache.invalidate(TenantServiceFactory.SELF_LINK + "/" + tenantEntity.getId());
     logger.info("Project {} has been cleared", tenantEntity.getId());
 
     tombstoneBackend.create(tenantEntity.getKind(), tenantEntity.getId());
@@ -67,6 +67,18 @@ public interface VmBackend {
 
   TaskEntity prepareVmCreate(String projectId, VmCreateSpec spec) throws ExternalException;
 
+  /**
+   * Creates the VM documents of a batch and a CREATE_VMS task tracking it. The quota of the whole batch is
+   * consumed at once. The task holds the project and the created VMs, in the order of the specs, as transient
+   * resources keyed by kind.
+   */
+  TaskEntity prepareVmBulkCreate(String projectId, List<VmCreateSpec> specs) throws ExternalException;
+
+  /**
+   * Creates the attached disks and the CREATE_VM task of a VM created by {@link #prepareVmBulkCreate}.
+   */
+  TaskEntity prepareVmCreate(TaskEntity bulkTask, VmEntity vm, VmCreateSpec spec) throws ExternalException;
+
   TaskEntity prepareVmDelete(String vmId) throws ExternalException;
 
   TaskEntity prepareVmOperation(String vmId, Operation operation) throws ExternalException;
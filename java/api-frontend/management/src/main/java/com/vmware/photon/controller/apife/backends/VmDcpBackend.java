@@ -70,9 +70,13 @@ import com.vmware.photon.controller.cloudstore.dcp.entity.VmService;
 import com.vmware.photon.controller.cloudstore.dcp.entity.VmServiceFactory;
 import com.vmware.photon.controller.common.xenon.ServiceUtils;
 import com.vmware.photon.controller.common.xenon.exceptions.DocumentNotFoundException;
+import com.vmware.photon.controller.common.xenon.exceptions.XenonException;
+import com.vmware.photon.controller.common.xenon.exceptions.XenonRuntimeException;
 import com.vmware.xenon.common.ServiceDocumentQueryResult;
 import com.vmware.xenon.services.common.QueryTask;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Optional;
 import com.google.common.base.Stopwatch;
@@ -85,12 +89,15 @@ import org.slf4j.LoggerFactory;
 import java.io.InputStream;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -101,6 +108,7 @@ public class VmDcpBackend implements VmBackend {
 
   private static final Logger logger = LoggerFactory.getLogger(VmDcpBackend.class);
   private static final int GB_TO_BYTE_CONVERSION_RATIO = 1024 * 1024 * 1024;
+  private static final ObjectMapper objectMapper = new ObjectMapper();
 
   private final ApiFeXenonRestClient dcpClient;
 
@@ -262,7 +270,7 @@ public class VmDcpBackend implements VmBackend {
   public ResourceList<Vm> getVmsPage(String pageLink) throws ExternalException {
     ServiceDocumentQueryResult queryResult = null;
     try {
-      queryResult = dcpClient.queryDocumentPage(pageLink);
+      queryResult = dcpClient.queryDocumentPage(pageLink, VmService.State.class);
     } catch (DocumentNotFoundException e) {
       throw new PageExpiredException(pageLink);
     }
@@ -411,6 +419,89 @@ public class VmDcpBackend implements VmBackend {
     return task;
   }
 
+  @Override
+  public TaskEntity prepareVmBulkCreate(String projectId, List<VmCreateSpec> specs) throws ExternalException {
+    Stopwatch createWatch = Stopwatch.createStarted();
+    ProjectEntity project = projectBackend.findById(projectId);
+
+    // Flavors and images are looked up once for the whole batch
+    Map<String, FlavorEntity> flavors = new HashMap<>();
+    Map<String, ImageEntity> images = new HashMap<>();
+    Map<String, QuotaLineItemEntity> cost = new HashMap<>();
+    List<VmService.State> vms = new ArrayList<>(specs.size());
+    List<List<Throwable>> warnings = new ArrayList<>(specs.size());
+    for (VmCreateSpec spec : specs) {
+      FlavorEntity flavorEntity = flavors.get(spec.getFlavor());
+      if (flavorEntity == null) {
+        flavorEntity = getReadyFlavor(spec.getFlavor());
+        flavors.put(spec.getFlavor(), flavorEntity);
+      }
+
+      ImageEntity image = images.get(spec.getSourceImageId());
+      if (image == null) {
+        image = getReadyImage(spec.getSourceImageId());
+        images.put(spec.getSourceImageId(), image);
+      }
+
+      List<Throwable> vmWarnings = new ArrayList<>();
+      vms.add(toVmServiceState(project, spec, flavorEntity, image, vmWarnings));
+      warnings.add(vmWarnings);
+      for (QuotaLineItemEntity item : flavorEntity.getCost()) {
+        cost.merge(item.getKey(), item, QuotaLineItemEntity::add);
+      }
+    }
+
+    String resourceTicketId = project.getResourceTicketId();
+    QuotaCost quotaCost = new QuotaCost(new ArrayList<>(cost.values()));
+    resourceTicketBackend.consumeQuota(resourceTicketId, quotaCost);
+
+    List<VmService.State> createdVms;
+    try {
+      createdVms = createVmDocuments(vms);
+    } catch (RuntimeException e) {
+      resourceTicketBackend.returnQuota(resourceTicketId, quotaCost);
+      throw e;
+    }
+
+    List<VmEntity> vmEntities = new ArrayList<>(createdVms.size());
+    List<String> vmIds = new ArrayList<>(createdVms.size());
+    for (int i = 0; i < createdVms.size(); i++) {
+      VmEntity vmEntity = toVmEntity(createdVms.get(i));
+      vmEntity.setWarnings(warnings.get(i));
+      vmEntity.setEnvironment(specs.get(i).getEnvironment());
+      vmEntities.add(vmEntity);
+      vmIds.add(vmEntity.getId());
+    }
+
+    String resourceProperties;
+    try {
+      resourceProperties = objectMapper.writeValueAsString(vmIds);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Error serializing vm ids", e);
+    }
+
+    TaskEntity task = taskBackend.createQueuedTask(project, Operation.CREATE_VMS);
+    taskBackend.setTaskResourceProperties(task, resourceProperties);
+    task.setResourceProperties(resourceProperties);
+    task.setTransientResources(ProjectEntity.KIND, project);
+    task.setTransientResources(Vm.KIND, vmEntities);
+
+    createWatch.stop();
+    logger.info("VmDcpBackend.prepareVmBulkCreate for {} vms in project {} took {} milliseconds",
+        specs.size(),
+        projectId,
+        createWatch.elapsed(TimeUnit.MILLISECONDS));
+
+    return task;
+  }
+
+  @Override
+  public TaskEntity prepareVmCreate(TaskEntity bulkTask, VmEntity vm, VmCreateSpec spec) throws ExternalException {
+    ProjectEntity project = (ProjectEntity) bulkTask.getTransientResources(ProjectEntity.KIND);
+    vm.setAttachedDisks(attachedDiskBackend.createAttachedDisks(vm, spec.getAttachedDisks()));
+    return createTask(project, vm);
+  }
+
   @Override
   public TaskEntity prepareVmDelete(String vmId) throws ExternalException {
     VmEntity vm = findById(vmId);
@@ -699,19 +790,70 @@ public class VmDcpBackend implements VmBackend {
 
   private VmEntity create(ProjectEntity project, VmCreateSpec spec) throws ExternalException {
     Stopwatch createWatch = Stopwatch.createStarted();
-    FlavorEntity flavorEntity = flavorBackend.getEntityByNameAndKind(spec.getFlavor(), Vm.KIND);
+    FlavorEntity flavorEntity = getReadyFlavor(spec.getFlavor());
+    List<QuotaLineItemEntity> cost = new ArrayList<>(flavorEntity.getCost());
+    ImageEntity image = getReadyImage(spec.getSourceImageId());
+    List<Throwable> warnings = new ArrayList<>();
+    VmService.State vm = toVmServiceState(project, spec, flavorEntity, image, warnings);
+
+    String resourceTickedId = project.getResourceTicketId();
+
+    Stopwatch resourceTicketWatch = Stopwatch.createStarted();
+    resourceTicketBackend.consumeQuota(resourceTickedId, new QuotaCost(cost));
+    resourceTicketWatch.stop();
+    logger.info("VmDcpBackend.create for Vm Name: {}, resourceTicket {}, consumeQuota in {} milliseconds",
+        vm.name,
+        resourceTickedId,
+        resourceTicketWatch.elapsed(TimeUnit.MILLISECONDS));
+
+    com.vmware.xenon.common.Operation createOperation = dcpClient.post(VmServiceFactory.SELF_LINK, vm);
+    VmService.State createdVm = createOperation.getBody(VmService.State.class);
+
+    VmEntity vmEntity = toVmEntity(createdVm);
+
+    //set transient properties of vm entity
+    vmEntity.setAttachedDisks(attachedDiskBackend.createAttachedDisks(vmEntity, spec.getAttachedDisks()));
+    vmEntity.setWarnings(warnings);
+    vmEntity.setEnvironment(spec.getEnvironment());
+
+    createWatch.stop();
+    logger.info("VmDcpBackend.create for Vm Id: {} and name: {} took {} milliseconds",
+        vmEntity.getId(),
+        vm.name,
+        createWatch.elapsed(TimeUnit.MILLISECONDS));
+
+    return vmEntity;
+  }
+
+  private FlavorEntity getReadyFlavor(String flavorName) throws ExternalException {
+    FlavorEntity flavorEntity = flavorBackend.getEntityByNameAndKind(flavorName, Vm.KIND);
     if (!FlavorState.READY.equals(flavorEntity.getState())) {
       throw new InvalidFlavorStateException(
           String.format("Create vm using flavor with name: %s is in invalid state %s.",
               flavorEntity.getName(), flavorEntity.getState()));
     }
 
+    return flavorEntity;
+  }
+
+  private ImageEntity getReadyImage(String imageId) throws ExternalException {
+    ImageEntity image = imageBackend.findById(imageId);
+
+    if (!ImageState.READY.equals(image.getState())) {
+      throw new InvalidImageStateException(
+          String.format("Image %s is in %s state", image.getId(), image.getState()));
+    }
+
+    return image;
+  }
+
+  private VmService.State toVmServiceState(ProjectEntity project, VmCreateSpec spec, FlavorEntity flavorEntity,
+                                           ImageEntity image, List<Throwable> warnings) throws ExternalException {
     VmService.State vm = new VmService.State();
 
     vm.name = spec.getName();
     vm.flavorId = flavorEntity.getId();
-    List<QuotaLineItemEntity> cost = new ArrayList<>(flavorEntity.getCost());
-    for (QuotaLineItemEntity quotaLineItemEntity : cost) {
+    for (QuotaLineItemEntity quotaLineItemEntity : flavorEntity.getCost()) {
       QuotaLineItem quotaLineItem = new QuotaLineItem();
       quotaLineItem.setKey(quotaLineItemEntity.getKey());
       quotaLineItem.setValue(quotaLineItemEntity.getValue());
@@ -731,50 +873,57 @@ public class VmDcpBackend implements VmBackend {
     }
 
     vm.networks = spec.getNetworks();
-
-    ImageEntity image = imageBackend.findById(spec.getSourceImageId());
-
-    if (!ImageState.READY.equals(image.getState())) {
-      throw new InvalidImageStateException(
-          String.format("Image %s is in %s state", image.getId(), image.getState()));
-    }
-
     vm.imageId = image.getId();
-    List<Throwable> warnings = new ArrayList<>();
     updateBootDiskCapacity(spec.getAttachedDisks(), image, warnings);
 
     vm.projectId = project.getId();
     vm.vmState = VmState.CREATING;
+    vm.affinities = spec.getAffinities();
+    return vm;
+  }
 
-    String resourceTickedId = project.getResourceTicketId();
-
-    Stopwatch resourceTicketWatch = Stopwatch.createStarted();
-    resourceTicketBackend.consumeQuota(resourceTickedId, new QuotaCost(cost));
-    resourceTicketWatch.stop();
-    logger.info("VmDcpBackend.create for Vm Name: {}, resourceTicket {}, consumeQuota in {} milliseconds",
-        vm.name,
-        resourceTickedId,
-        resourceTicketWatch.elapsed(TimeUnit.MILLISECONDS));
+  /**
+   * Creates the VM documents concurrently. If any of them fails, the ones that got created are deleted.
+   */
+  private List<VmService.State> createVmDocuments(List<VmService.State> vms) {
+    List<CompletableFuture<com.vmware.xenon.common.Operation>> posts = new ArrayList<>(vms.size());
+    for (VmService.State vm : vms) {
+      posts.add(dcpClient.postAsync(VmServiceFactory.SELF_LINK, vm));
+    }
 
-    vm.affinities = spec.getAffinities();
+    try {
+      CompletableFuture.allOf(posts.toArray(new CompletableFuture[posts.size()])).join();
+    } catch (CompletionException e) {
+      deleteVmDocuments(posts);
+      if (e.getCause() instanceof XenonException) {
+        throw new XenonRuntimeException((XenonException) e.getCause());
+      }
+      throw e;
+    }
 
-    com.vmware.xenon.common.Operation createOperation = dcpClient.post(VmServiceFactory.SELF_LINK, vm);
-    VmService.State createdVm = createOperation.getBody(VmService.State.class);
+    List<VmService.State> createdVms = new ArrayList<>(vms.size());
+    for (CompletableFuture<com.vmware.xenon.common.Operation> post : posts) {
+      createdVms.add(post.join().getBody(VmService.State.class));
+    }
 
-    VmEntity vmEntity = toVmEntity(createdVm);
+    return createdVms;
+  }
 
-    //set transient properties of vm entity
-    vmEntity.setAttachedDisks(attachedDiskBackend.createAttachedDisks(vmEntity, spec.getAttachedDisks()));
-    vmEntity.setWarnings(warnings);
-    vmEntity.setEnvironment(spec.getEnvironment());
+  private void deleteVmDocuments(List<CompletableFuture<com.vmware.xenon.common.Operation>> posts) {
+    List<CompletableFuture<com.vmware.xenon.common.Operation>> deletes = new ArrayList<>();
+    for (CompletableFuture<com.vmware.xenon.common.Operation> post : posts) {
+      if (post.isCompletedExceptionally()) {
+        continue;
+      }
 
-    createWatch.stop();
-    logger.info("VmDcpBackend.create for Vm Id: {} and name: {} took {} milliseconds",
-        vmEntity.getId(),
-        vm.name,
-        createWatch.elapsed(TimeUnit.MILLISECONDS));
+      String documentSelfLink = post.join().getBody(VmService.State.class).documentSelfLink;
+      deletes.add(dcpClient.deleteAsync(documentSelfLink, new VmService.State()).exceptionally((t) -> {
+        logger.warn("Failed to delete vm {}", documentSelfLink, t);
+        return null;
+      }));
+    }
 
-    return vmEntity;
+    CompletableFuture.allOf(deletes.toArray(new CompletableFuture[deletes.size()])).join();
   }
 
   private TaskEntity createTask(ProjectEntity project, VmEntity vm) throws ExternalException {
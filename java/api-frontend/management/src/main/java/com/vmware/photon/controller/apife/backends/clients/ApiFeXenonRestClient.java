@@ -130,6 +130,20 @@ public class ApiFeXenonRestClient extends XenonRestClient {
     }
   }
 
+  @Override
+  public Operation put(String serviceSelfLink, ServiceDocument body)
+      throws DocumentNotFoundException {
+    try {
+      return super.put(serviceSelfLink, body);
+    } catch (BadRequestException badRequestException) {
+      throw new XenonRuntimeException(badRequestException);
+    } catch (TimeoutException timeoutException) {
+      throw new RuntimeException(timeoutException);
+    } catch (InterruptedException interruptedException) {
+      throw new RuntimeException(interruptedException);
+    }
+  }
+
   @Override
   public <T extends ServiceDocument> List<T> queryDocuments(Class<T> documentType,
                                                             ImmutableMap<String, String> terms) {
@@ -185,6 +199,20 @@ public class ApiFeXenonRestClient extends XenonRestClient {
     }
   }
 
+  @Override
+  public <T extends ServiceDocument> ServiceDocumentQueryResult queryDocumentPage(String pageLink,
+                                                                                  Class<T> documentType)
+      throws DocumentNotFoundException {
+
+    try {
+      return super.queryDocumentPage(pageLink, documentType);
+    } catch (BadRequestException e) {
+      throw  new XenonRuntimeException(e);
+    } catch (TimeoutException | InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   @Override
   public <T extends ServiceDocument> List<String> queryDocumentsForLinks(Class<T> documentType,
                                                                          ImmutableMap<String, String> terms) {
@@ -204,7 +204,7 @@ public class ClusterManagerClient {
   public ResourceList<Cluster> getClustersPages(String pageLink) throws ExternalException {
     ServiceDocumentQueryResult queryResult = null;
     try {
-      queryResult = apiFeDcpClient.queryDocumentPage(pageLink);
+      queryResult = apiFeDcpClient.queryDocumentPage(pageLink, ClusterService.State.class);
     } catch (DocumentNotFoundException e) {
       throw new PageExpiredException(pageLink);
     }
@@ -20,13 +20,17 @@ import com.vmware.photon.controller.api.Tag;
 import com.vmware.photon.controller.api.Task;
 import com.vmware.photon.controller.api.Vm;
 import com.vmware.photon.controller.api.VmCreateSpec;
+import com.vmware.photon.controller.api.VmState;
 import com.vmware.photon.controller.api.common.exceptions.external.ExternalException;
+import com.vmware.photon.controller.api.common.exceptions.external.TaskNotFoundException;
 import com.vmware.photon.controller.apife.BackendTaskExecutor;
 import com.vmware.photon.controller.apife.backends.TaskBackend;
 import com.vmware.photon.controller.apife.backends.VmBackend;
 import com.vmware.photon.controller.apife.commands.tasks.TaskCommand;
 import com.vmware.photon.controller.apife.commands.tasks.TaskCommandFactory;
+import com.vmware.photon.controller.apife.entities.StepEntity;
 import com.vmware.photon.controller.apife.entities.TaskEntity;
+import com.vmware.photon.controller.apife.entities.VmEntity;
 
 import com.google.common.base.Optional;
 import com.google.inject.Inject;
@@ -39,6 +43,8 @@ import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Frontend client for VM used by {@link VmResource}.
@@ -47,6 +53,11 @@ import java.util.concurrent.ExecutorService;
 public class VmFeClient {
   private static final Logger logger = LoggerFactory.getLogger(VmFeClient.class);
 
+  /**
+   * The number of VMs of a bulk creation that are created concurrently.
+   */
+  private static final int BULK_CREATE_CONCURRENCY = 32;
+
   private final TaskCommandFactory commandFactory;
   private final ExecutorService executor;
   private final VmBackend vmBackend;
@@ -83,6 +94,14 @@ public class VmFeClient {
     return task;
   }
 
+  public Task bulkCreate(String projectId, List<VmCreateSpec> specs) throws ExternalException {
+    TaskEntity taskEntity = vmBackend.prepareVmBulkCreate(projectId, specs);
+    Task task = taskBackend.getApiRepresentation(taskEntity);
+
+    new BulkCreate(taskEntity, specs).start();
+    return task;
+  }
+
   public Task delete(String vmId) throws ExternalException {
     TaskEntity taskEntity = vmBackend.prepareVmDelete(vmId);
     Task task = taskBackend.getApiRepresentation(taskEntity);
@@ -207,4 +226,95 @@ public class VmFeClient {
 
     return taskBackend.getApiRepresentation(taskEntity.getId());
   }
+
+  /**
+   * Creates the VMs of a CREATE_VMS task. Each VM gets its disks and a CREATE_VM task, which places and creates it
+   * like a single VM creation. At most BULK_CREATE_CONCURRENCY VMs are in flight so that a batch does not take
+   * over the backend task executor. The CREATE_VMS task completes once all the VMs got created, and fails if any
+   * of them failed.
+   */
+  private class BulkCreate {
+    private final TaskEntity taskEntity;
+    private final List<VmEntity> vms;
+    private final List<VmCreateSpec> specs;
+    private final AtomicInteger next = new AtomicInteger(0);
+    private final AtomicInteger remaining;
+    private final AtomicInteger failed = new AtomicInteger(0);
+
+    @SuppressWarnings("unchecked")
+    private BulkCreate(TaskEntity taskEntity, List<VmCreateSpec> specs) {
+      this.taskEntity = taskEntity;
+      this.vms = (List<VmEntity>) taskEntity.getTransientResources(Vm.KIND);
+      this.specs = specs;
+      this.remaining = new AtomicInteger(vms.size());
+    }
+
+    private void start() throws ExternalException {
+      taskBackend.markTaskAsStarted(taskEntity);
+      for (int i = 0; i < Math.min(BULK_CREATE_CONCURRENCY, vms.size()); i++) {
+        createNext();
+      }
+    }
+
+    private void createNext() {
+      int index = next.getAndIncrement();
+      if (index >= vms.size()) {
+        return;
+      }
+
+      try {
+        executor.execute(() -> create(index));
+      } catch (RejectedExecutionException e) {
+        logger.error("Fail to acquire ThreadPool worker for vm {} of task {}", vms.get(index).getId(),
+            taskEntity.getId(), e);
+        markAsFailed(vms.get(index));
+        onCreated(false);
+      }
+    }
+
+    private void create(int index) {
+      VmEntity vm = vms.get(index);
+      boolean created = false;
+      try {
+        TaskEntity vmTask = vmBackend.prepareVmCreate(taskEntity, vm, specs.get(index));
+        commandFactory.create(vmTask).run();
+        created = vmTask.getSteps().stream().allMatch((step) -> step.getState() == StepEntity.State.COMPLETED);
+      } catch (Throwable t) {
+        logger.error("Failed to create vm {} of task {}", vm.getId(), taskEntity.getId(), t);
+        markAsFailed(vm);
+      } finally {
+        onCreated(created);
+      }
+    }
+
+    private void onCreated(boolean created) {
+      if (!created) {
+        failed.incrementAndGet();
+      }
+
+      if (remaining.decrementAndGet() > 0) {
+        createNext();
+        return;
+      }
+
+      logger.info("Task {} created {} vms, {} failed", taskEntity.getId(), vms.size() - failed.get(), failed.get());
+      try {
+        if (failed.get() == 0) {
+          taskBackend.markTaskAsDone(taskEntity);
+        } else {
+          taskBackend.markTaskAsFailed(taskEntity);
+        }
+      } catch (TaskNotFoundException e) {
+        logger.error("Failed to complete task {}", taskEntity.getId(), e);
+      }
+    }
+
+    private void markAsFailed(VmEntity vm) {
+      try {
+        vmBackend.updateState(vm, VmState.ERROR);
+      } catch (Exception e) {
+        logger.error("Fail to update vm {} state", vm.getId(), e);
+      }
+    }
+  }
 }
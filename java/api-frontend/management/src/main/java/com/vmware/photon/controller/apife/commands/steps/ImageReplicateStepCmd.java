@@ -68,7 +68,10 @@ public class ImageReplicateStepCmd extends StepCommand {
         throw new IllegalArgumentException("ImageReplicationType unknown: " + imageEntity.getReplicationType());
     }
 
-    if (imageStore.isReplicationNeeded()) {
+    if (imageEntity.getAliasOf() != null) {
+      logger.info("Skip replicating image {}, it uses the files of image {}", imageEntity.getId(),
+          imageEntity.getAliasOf());
+    } else if (imageStore.isReplicationNeeded()) {
       try {
         List<String> dataStoreIdList = imageBackend.getSeededImageDatastores(imageEntity.getId());
         checkState(dataStoreIdList.size() >= 1, "The image should be present on at least one image datastore.");
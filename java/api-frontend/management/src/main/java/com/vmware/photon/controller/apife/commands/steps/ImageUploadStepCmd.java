@@ -74,7 +74,12 @@ public class ImageUploadStepCmd extends StepCommand {
       ImageLoader.Result result = getImageLoader().uploadImage(imageEntity, inputStream);
       imageBackend.updateSettings(imageEntity, result.imageSettings);
       imageBackend.updateSize(imageEntity, result.imageSize);
-      imageBackend.updateImageDatastore(imageEntity.getId(), imageStore.getDatastore());
+      imageBackend.updateContentFingerprint(imageEntity, result.contentFingerprint, result.aliasOf);
+      imageEntity.setContentFingerprint(result.contentFingerprint);
+      imageEntity.setAliasOf(result.aliasOf);
+      if (result.aliasOf == null) {
+        imageBackend.updateImageDatastore(imageEntity.getId(), imageStore.getDatastore());
+      }
     } catch (VmdkFormatException e) {
       imageBackend.updateState(imageEntity, ImageState.ERROR);
       throw new InvalidVmdkFormatException(e.getMessage());
@@ -93,7 +98,7 @@ public class ImageUploadStepCmd extends StepCommand {
 
   @VisibleForTesting
   protected ImageLoader getImageLoader() throws InternalException {
-    return new ImageLoader(imageStore);
+    return new ImageLoader(imageStore, imageBackend);
   }
 
 }
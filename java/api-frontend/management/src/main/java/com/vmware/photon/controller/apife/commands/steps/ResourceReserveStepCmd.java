@@ -25,6 +25,7 @@ import com.vmware.photon.controller.api.common.exceptions.external.ExternalExcep
 import com.vmware.photon.controller.api.common.exceptions.external.TaskNotFoundException;
 import com.vmware.photon.controller.apife.backends.DiskBackend;
 import com.vmware.photon.controller.apife.backends.FlavorBackend;
+import com.vmware.photon.controller.apife.backends.ImageBackend;
 import com.vmware.photon.controller.apife.backends.NetworkBackend;
 import com.vmware.photon.controller.apife.backends.StepBackend;
 import com.vmware.photon.controller.apife.backends.VmBackend;
@@ -99,6 +100,7 @@ public class ResourceReserveStepCmd extends StepCommand {
   private final VmBackend vmBackend;
   private final NetworkBackend networkBackend;
   private final FlavorBackend flavorBackend;
+  private final ImageBackend imageBackend;
   private InfrastructureEntity infrastructureEntity;
 
   public ResourceReserveStepCmd(TaskCommand taskCommand,
@@ -107,13 +109,15 @@ public class ResourceReserveStepCmd extends StepCommand {
                                 DiskBackend diskBackend,
                                 VmBackend vmBackend,
                                 NetworkBackend networkBackend,
-                                FlavorBackend flavorBackend) {
+                                FlavorBackend flavorBackend,
+                                ImageBackend imageBackend) {
     super(taskCommand, stepBackend, step);
 
     this.diskBackend = diskBackend;
     this.vmBackend = vmBackend;
     this.networkBackend = networkBackend;
     this.flavorBackend = flavorBackend;
+    this.imageBackend = imageBackend;
   }
 
   @Override
@@ -208,8 +212,10 @@ public class ResourceReserveStepCmd extends StepCommand {
       if (attachedDisk.isBootDisk()) {
         // Use image specified in flavor.
         checkNotNull(entity.getImageId());
-        logger.info("Use image {} as boot disk", entity.getImageId());
-        disk.setImage(new DiskImage(entity.getImageId(), CloneType.COPY_ON_WRITE));
+        // An image uploaded again with identical content uses the datastore files of the first upload.
+        String datastoreImageId = imageBackend.findById(entity.getImageId()).getDatastoreImageId();
+        logger.info("Use image {} as boot disk", datastoreImageId);
+        disk.setImage(new DiskImage(datastoreImageId, CloneType.COPY_ON_WRITE));
       }
 
       List<ResourceConstraint> datastoreTagConstraints = createDatastoreTagConstraint(disk.getFlavor_info());
@@ -108,7 +108,8 @@ public class StepCommandFactory {
     switch (stepEntity.getOperation()) {
       case RESERVE_RESOURCE:
         return new ResourceReserveStepCmd(
-            taskCommand, stepBackend, stepEntity, diskBackend, vmBackend, networkBackend, flavorBackend);
+            taskCommand, stepBackend, stepEntity, diskBackend, vmBackend, networkBackend, flavorBackend,
+            imageBackend);
       case CREATE_DISK:
         return new DiskCreateStepCmd(taskCommand, stepBackend, stepEntity, diskBackend);
       case DELETE_DISK:
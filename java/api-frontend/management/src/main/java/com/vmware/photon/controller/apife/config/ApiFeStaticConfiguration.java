@@ -70,6 +70,10 @@ public class ApiFeStaticConfiguration extends Configuration implements ApiFeConf
   @JsonProperty("pagination")
   private PaginationConfig paginationConfig = new PaginationConfig();
 
+  @Valid
+  @JsonProperty("quota")
+  private QuotaConfig quotaConfig = new QuotaConfig();
+
   @Override
   public AuthConfig getAuth() {
     return this.auth;
@@ -126,4 +130,9 @@ public class ApiFeStaticConfiguration extends Configuration implements ApiFeConf
   public PaginationConfig getPaginationConfig() {
     return paginationConfig;
   }
+
+  @Override
+  public QuotaConfig getQuotaConfig() {
+    return quotaConfig;
+  }
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.vmware.photon.controller.apife.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Quota configuration.
+ */
+public class QuotaConfig {
+  public static final int DEFAULT_ESCROW_CHUNK_SIZE = 10;
+
+  /**
+   * Default interval at which the quota consumed from escrow gets recorded in the resource tickets.
+   */
+  private static final Duration DEFAULT_ESCROW_SETTLE_INTERVAL = Duration.seconds(1);
+
+  /**
+   * Default location of the escrow state file. It lives on the log volume, which is the one volume kept across
+   * container restarts.
+   */
+  private static final String DEFAULT_ESCROW_STATE_FILE = "/var/log/esxcloud/management-api-escrow.json";
+
+  /**
+   * Whether this node reserves quota in advance and consumes it locally, instead of patching the resource
+   * ticket for each consumption.
+   */
+  @JsonProperty("escrow_enabled")
+  private boolean escrowEnabled = false;
+
+  /**
+   * How many times the cost of a consumption to reserve when the escrow of a ticket runs out.
+   */
+  @Min(1)
+  @JsonProperty("escrow_chunk_size")
+  private int escrowChunkSize = DEFAULT_ESCROW_CHUNK_SIZE;
+
+  @JsonProperty("escrow_settle_interval")
+  private Duration escrowSettleInterval = DEFAULT_ESCROW_SETTLE_INTERVAL;
+
+  /**
+   * Where this node keeps the id it holds escrow under and the consumption not recorded in the tickets yet.
+   */
+  @JsonProperty("escrow_state_file")
+  private String escrowStateFile = DEFAULT_ESCROW_STATE_FILE;
+
+  public boolean isEscrowEnabled() {
+    return escrowEnabled;
+  }
+
+  public void setEscrowEnabled(boolean escrowEnabled) {
+    this.escrowEnabled = escrowEnabled;
+  }
+
+  public int getEscrowChunkSize() {
+    return escrowChunkSize;
+  }
+
+  public void setEscrowChunkSize(int escrowChunkSize) {
+    this.escrowChunkSize = escrowChunkSize;
+  }
+
+  public Duration getEscrowSettleInterval() {
+    return escrowSettleInterval;
+  }
+
+  public void setEscrowSettleInterval(Duration escrowSettleInterval) {
+    this.escrowSettleInterval = escrowSettleInterval;
+  }
+
+  public String getEscrowStateFile() {
+    return escrowStateFile;
+  }
+
+  public void setEscrowStateFile(String escrowStateFile) {
+    this.escrowStateFile = escrowStateFile;
+  }
+}
@@ -51,6 +51,10 @@ public class ImageEntity extends BaseEntity implements Named {
 
   private ImageReplicationType replicationType = ImageReplicationType.EAGER;
 
+  private String contentFingerprint;
+
+  private String aliasOf;
+
   @Override
   public String getKind() {
     return KIND;
@@ -131,6 +135,29 @@ public class ImageEntity extends BaseEntity implements Named {
     this.totalDatastore = totalDatastore;
   }
 
+  public String getContentFingerprint() {
+    return contentFingerprint;
+  }
+
+  public void setContentFingerprint(String contentFingerprint) {
+    this.contentFingerprint = contentFingerprint;
+  }
+
+  public String getAliasOf() {
+    return aliasOf;
+  }
+
+  public void setAliasOf(String aliasOf) {
+    this.aliasOf = aliasOf;
+  }
+
+  /**
+   * Returns the id of the image whose datastore files this image uses, which is this image unless it is an alias.
+   */
+  public String getDatastoreImageId() {
+    return aliasOf != null ? aliasOf : getId();
+  }
+
   public Integer getTotalImageDatastore() {
     return totalImageDatastore;
   }
@@ -160,7 +187,8 @@ public class ImageEntity extends BaseEntity implements Named {
         .add("totalDatastore", totalDatastore)
         .add("totalImageDatastore", totalImageDatastore)
         .add("replicatedDatastore", replicatedDatastore)
-        .add("replicatedImageDatastore", replicatedImageDatastore);
+        .add("replicatedImageDatastore", replicatedImageDatastore)
+        .add("aliasOf", aliasOf);
   }
 
 }
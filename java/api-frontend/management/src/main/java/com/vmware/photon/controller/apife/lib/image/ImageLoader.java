@@ -14,6 +14,7 @@
 package com.vmware.photon.controller.apife.lib.image;
 
 import com.vmware.photon.controller.api.common.exceptions.external.ExternalException;
+import com.vmware.photon.controller.apife.backends.ImageBackend;
 import com.vmware.photon.controller.apife.entities.ImageEntity;
 import com.vmware.photon.controller.apife.exceptions.external.InvalidOvaException;
 import com.vmware.photon.controller.apife.exceptions.external.NameTakenException;
@@ -27,6 +28,9 @@ import com.vmware.transfer.streamVmdk.VmdkFormatException;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+import com.google.common.io.ByteStreams;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,9 +54,19 @@ public class ImageLoader {
   private static final String VMDK_FILE_SIGNATURE = "KDM";
   private static final ObjectMapper mapper = new ObjectMapper();
   private final ImageStore imageStore;
+  private final ImageBackend imageBackend;
 
   public ImageLoader(ImageStore imageStore) throws InternalException {
+    this(imageStore, null);
+  }
+
+  /**
+   * Creates a loader that also looks up images with identical content, so that an upload of an image that is
+   * already in the image datastore reuses its files instead of adding another copy.
+   */
+  public ImageLoader(ImageStore imageStore, ImageBackend imageBackend) throws InternalException {
     this.imageStore = imageStore;
+    this.imageBackend = imageBackend;
   }
 
   /**
@@ -91,6 +105,8 @@ public class ImageLoader {
 
   /**
    * This routine reads the image stream and extracts the configuration and VMDK streams.
+   * The stream is fingerprinted while it is read; if an identical image is already ready, the uploaded copy is
+   * dropped and the result points to that image instead.
    *
    * @return
    */
@@ -98,7 +114,8 @@ public class ImageLoader {
       throws IOException, InternalException, VmdkFormatException, ExternalException {
 
     // Detect file type. Stream mark support is required.
-    inputStream = new BufferedInputStream(inputStream);
+    HashingInputStream hashingStream = new HashingInputStream(Hashing.sha256(), inputStream);
+    inputStream = new BufferedInputStream(hashingStream);
     boolean isVmdkFile = isVmdkFile(inputStream);
     boolean isTarFile = isVmdkFile ? false : isTarFile(inputStream);
 
@@ -132,7 +149,20 @@ public class ImageLoader {
       }
 
       image.close();
-      imageStore.finalizeImage(image);
+
+      // The fingerprint covers the whole file, including anything the readers above did not need.
+      ByteStreams.copy(inputStream, ByteStreams.nullOutputStream());
+      result.contentFingerprint = hashingStream.hash().toString();
+
+      ImageEntity identicalImage = imageBackend == null ? null :
+          imageBackend.findIdenticalImage(imageEntity, result.contentFingerprint);
+      if (identicalImage != null && imageBackend.registerAlias(imageEntity, identicalImage)) {
+        logger.info("Image {} is identical to image {}, using its files", imageEntity.getId(), identicalImage.getId());
+        result.aliasOf = identicalImage.getId();
+        deleteUploadFolder(image);
+      } else {
+        imageStore.finalizeImage(image);
+      }
 
     } catch (Exception e) {
       logger.warn("Upload image {} failed.", e);
@@ -231,5 +261,7 @@ public class ImageLoader {
   public class Result {
     public long imageSize = 0;
     public Map<String, String> imageSettings = new HashMap<>();
+    public String contentFingerprint;
+    public String aliasOf;
   }
 }
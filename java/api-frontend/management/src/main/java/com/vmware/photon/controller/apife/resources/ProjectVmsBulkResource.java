@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.vmware.photon.controller.apife.resources;
+
+import com.vmware.photon.controller.api.Task;
+import com.vmware.photon.controller.api.VmBulkCreateSpec;
+import com.vmware.photon.controller.api.VmCreateSpec;
+import com.vmware.photon.controller.api.common.exceptions.external.ExternalException;
+import com.vmware.photon.controller.apife.clients.VmFeClient;
+import com.vmware.photon.controller.apife.exceptions.external.SpecInvalidException;
+import com.vmware.photon.controller.apife.resources.routes.ProjectResourceRoutes;
+import com.vmware.photon.controller.apife.resources.routes.TaskResourceRoutes;
+import static com.vmware.photon.controller.api.common.Responses.generateCustomResponse;
+
+import com.google.inject.Inject;
+import com.wordnik.swagger.annotations.Api;
+import com.wordnik.swagger.annotations.ApiOperation;
+import com.wordnik.swagger.annotations.ApiResponse;
+import com.wordnik.swagger.annotations.ApiResponses;
+import io.dropwizard.validation.Validated;
+import org.glassfish.jersey.server.ContainerRequest;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+
+import java.util.List;
+
+/**
+ * This resource is for creating a batch of VMs under a project.
+ */
+@Path(ProjectResourceRoutes.PROJECT_VMS_BULK_PATH)
+@Api(value = ProjectResourceRoutes.API)
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class ProjectVmsBulkResource {
+
+  private final VmFeClient vmFeClient;
+
+  @Inject
+  public ProjectVmsBulkResource(VmFeClient vmFeClient) {
+    this.vmFeClient = vmFeClient;
+  }
+
+  @POST
+  @ApiOperation(value = "Create a batch of VMs in a project", response = Task.class)
+  @ApiResponses(value = {
+      @ApiResponse(code = 201, message = "Task created, VMs creation progress communicated via the task")
+  })
+  public Response create(@Context Request request,
+                         @PathParam("id") String projectId,
+                         @Validated VmBulkCreateSpec spec)
+      throws ExternalException {
+    List<VmCreateSpec> specs = spec.toVmCreateSpecs();
+    if (specs == null || specs.isEmpty()) {
+      throw new SpecInvalidException("Either a list of vms or a spec and a count must be specified");
+    }
+
+    for (VmCreateSpec vmCreateSpec : specs) {
+      ProjectVmsResource.validate(vmCreateSpec);
+    }
+
+    return generateCustomResponse(
+        Response.Status.CREATED,
+        vmFeClient.bulkCreate(projectId, specs),
+        (ContainerRequest) request,
+        TaskResourceRoutes.TASK_PATH);
+  }
+}
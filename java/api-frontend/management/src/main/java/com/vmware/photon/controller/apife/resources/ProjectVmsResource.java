@@ -126,7 +126,7 @@ public class ProjectVmsResource {
         VmResourceRoutes.VM_PATH);
   }
 
-  private void validate(VmCreateSpec spec) throws InvalidVmNetworksSpecException, InvalidVmDisksSpecException,
+  static void validate(VmCreateSpec spec) throws InvalidVmNetworksSpecException, InvalidVmDisksSpecException,
       InvalidLocalitySpecException, InvalidVmSourceImageSpecException {
 
     if (spec.getAttachedDisks().isEmpty()) {
@@ -157,7 +157,7 @@ public class ProjectVmsResource {
     }
   }
 
-  private void validateAffinities(List<LocalitySpec> localitySpecList) throws InvalidLocalitySpecException {
+  private static void validateAffinities(List<LocalitySpec> localitySpecList) throws InvalidLocalitySpecException {
     Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
     Map<String, Integer> localityKinds = new HashMap<>();
     for (LocalitySpec localitySpec : localitySpecList) {
@@ -28,5 +28,7 @@ public class ProjectResourceRoutes {
 
   public static final String PROJECT_VMS_PATH = "/projects/{id}/vms";
 
+  public static final String PROJECT_VMS_BULK_PATH = "/projects/{id}/vms:bulk";
+
   public static final String PROJECT_SET_SECURITY_GROUPS_PATH = "/projects/{id}/set_security_groups";
 }
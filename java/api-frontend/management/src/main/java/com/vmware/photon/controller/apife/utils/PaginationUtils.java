@@ -16,8 +16,8 @@ package com.vmware.photon.controller.apife.utils;
 import com.vmware.photon.controller.api.ResourceList;
 import com.vmware.photon.controller.api.common.exceptions.external.InvalidPageSizeException;
 import com.vmware.photon.controller.apife.config.PaginationConfig;
+import com.vmware.photon.controller.common.xenon.QueryTaskUtils;
 import com.vmware.xenon.common.ServiceDocumentQueryResult;
-import com.vmware.xenon.common.Utils;
 
 import com.google.common.base.Optional;
 
@@ -48,7 +48,7 @@ public class PaginationUtils {
     List<T> documents = new ArrayList<>();
     if (queryResult.documentLinks != null) {
       for (String link : queryResult.documentLinks) {
-        documents.add(Utils.fromJson(queryResult.documents.get(link), documentType));
+        documents.add(QueryTaskUtils.getDocument(documentType, queryResult.documents.get(link)));
       }
     }
 
@@ -80,7 +80,7 @@ public class PaginationUtils {
     List<T> documents = new ArrayList<>();
     if (queryResult.documentLinks != null) {
       for (String link : queryResult.documentLinks) {
-        documents.add(convert.apply(Utils.fromJson(queryResult.documents.get(link), documentType)));
+        documents.add(convert.apply(QueryTaskUtils.getDocument(documentType, queryResult.documents.get(link))));
       }
     }
 
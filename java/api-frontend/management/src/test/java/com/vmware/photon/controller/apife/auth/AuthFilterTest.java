@@ -38,6 +38,8 @@ import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.testng.AssertJUnit.fail;
 
 import javax.ws.rs.WebApplicationException;
@@ -48,6 +50,7 @@ import javax.ws.rs.core.Response;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Arrays;
+import java.util.Date;
 
 /**
  * Test AuthFilter.
@@ -151,6 +154,43 @@ public class AuthFilterTest {
     }
   }
 
+  @Test
+  public void testVerifiedTokensAreCached() throws Throwable {
+    ResourceServerAccessToken token = mock(ResourceServerAccessToken.class);
+    doReturn(new Date(System.currentTimeMillis() + 60000)).when(token).getExpirationTime();
+
+    AuthTokenHandler handler = mock(AuthTokenHandler.class);
+    doReturn(token).when(handler).parseAccessToken(any(String.class));
+
+    PolicyProvider policyProvider = mock(PolicyProvider.class);
+    subject.setTokenHandler(handler);
+    subject.setPolicyProvider(policyProvider);
+
+    for (int i = 0; i < 3; i++) {
+      ContainerRequest request = buildRequest("", buildHeadersWithToken());
+      subject.filter(request);
+      verify(policyProvider).checkAccessPermissions(request, token);
+    }
+
+    verify(handler, times(1)).parseAccessToken("foo");
+  }
+
+  @Test
+  public void testExpiredTokensAreVerifiedAgain() throws Throwable {
+    ResourceServerAccessToken token = mock(ResourceServerAccessToken.class);
+    doReturn(new Date(System.currentTimeMillis() - 1)).when(token).getExpirationTime();
+
+    AuthTokenHandler handler = mock(AuthTokenHandler.class);
+    doReturn(token).when(handler).parseAccessToken(any(String.class));
+
+    subject.setTokenHandler(handler);
+    subject.setPolicyProvider(mock(PolicyProvider.class));
+
+    subject.filter(buildRequest("", buildHeadersWithToken()));
+    subject.filter(buildRequest("", buildHeadersWithToken()));
+    verify(handler, times(2)).parseAccessToken("foo");
+  }
+
   @DataProvider(name = "ClusterApiData")
   Object[][] getClusterApiData() {
     return new Object[][]{
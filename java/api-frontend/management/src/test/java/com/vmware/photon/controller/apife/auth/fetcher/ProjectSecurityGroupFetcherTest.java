@@ -13,10 +13,10 @@
 
 package com.vmware.photon.controller.apife.auth.fetcher;
 
-import com.vmware.photon.controller.api.Project;
-import com.vmware.photon.controller.api.SecurityGroup;
 import com.vmware.photon.controller.apife.auth.TransactionAuthorizationObject;
 import com.vmware.photon.controller.apife.backends.ProjectBackend;
+import com.vmware.photon.controller.apife.entities.ProjectEntity;
+import com.vmware.photon.controller.apife.entities.SecurityGroupEntity;
 import com.vmware.photon.controller.apife.exceptions.external.ProjectNotFoundException;
 
 import com.google.common.collect.ImmutableList;
@@ -78,7 +78,7 @@ public class ProjectSecurityGroupFetcherTest {
 
     @Test
     public void testInvalidId() throws Throwable {
-      doThrow(new ProjectNotFoundException("id")).when(backend).getApiRepresentation("id");
+      doThrow(new ProjectNotFoundException("id")).when(backend).findLatestById("id");
 
       Set<String> groups = fetcher.fetchSecurityGroups(authorizationObject);
       assertThat(groups.size(), is(0));
@@ -86,8 +86,8 @@ public class ProjectSecurityGroupFetcherTest {
 
     @Test
     public void testSelfWithoutSecurityGroups() throws Throwable {
-      Project project = new Project();
-      doReturn(project).when(backend).getApiRepresentation("id");
+      ProjectEntity project = new ProjectEntity();
+      doReturn(project).when(backend).findLatestById("id");
 
       Set<String> groups = fetcher.fetchSecurityGroups(authorizationObject);
       assertThat(groups.size(), is(0));
@@ -95,9 +95,10 @@ public class ProjectSecurityGroupFetcherTest {
 
     @Test
     public void testSelfWithSecurityGroups() throws Throwable {
-      Project project = new Project();
-      project.setSecurityGroups(ImmutableList.of(new SecurityGroup("SG1", true), new SecurityGroup("SG2", false)));
-      doReturn(project).when(backend).getApiRepresentation("id");
+      ProjectEntity project = new ProjectEntity();
+      project.setSecurityGroups(
+          ImmutableList.of(new SecurityGroupEntity("SG1", true), new SecurityGroupEntity("SG2", false)));
+      doReturn(project).when(backend).findLatestById("id");
 
       Set<String> groups = fetcher.fetchSecurityGroups(authorizationObject);
       assertThat(groups.size(), is(2));
@@ -108,9 +109,10 @@ public class ProjectSecurityGroupFetcherTest {
     public void testParentWithoutInheritedSecurityGroups() throws Throwable {
       authorizationObject.setStrategy(TransactionAuthorizationObject.Strategy.PARENT);
 
-      Project project = new Project();
-      project.setSecurityGroups(ImmutableList.of(new SecurityGroup("SG1", false), new SecurityGroup("SG2", false)));
-      doReturn(project).when(backend).getApiRepresentation("id");
+      ProjectEntity project = new ProjectEntity();
+      project.setSecurityGroups(
+          ImmutableList.of(new SecurityGroupEntity("SG1", false), new SecurityGroupEntity("SG2", false)));
+      doReturn(project).when(backend).findLatestById("id");
 
       Set<String> groups = fetcher.fetchSecurityGroups(authorizationObject);
       assertThat(groups.size(), is(0));
@@ -120,9 +122,10 @@ public class ProjectSecurityGroupFetcherTest {
     public void testParentWithInheritedSecurityGroups() throws Throwable {
       authorizationObject.setStrategy(TransactionAuthorizationObject.Strategy.PARENT);
 
-      Project project = new Project();
-      project.setSecurityGroups(ImmutableList.of(new SecurityGroup("SG1", true), new SecurityGroup("SG2", false)));
-      doReturn(project).when(backend).getApiRepresentation("id");
+      ProjectEntity project = new ProjectEntity();
+      project.setSecurityGroups(
+          ImmutableList.of(new SecurityGroupEntity("SG1", true), new SecurityGroupEntity("SG2", false)));
+      doReturn(project).when(backend).findLatestById("id");
 
       Set<String> groups = fetcher.fetchSecurityGroups(authorizationObject);
       assertThat(groups.size(), is(1));
@@ -13,9 +13,9 @@
 
 package com.vmware.photon.controller.apife.auth.fetcher;
 
-import com.vmware.photon.controller.api.Vm;
 import com.vmware.photon.controller.apife.auth.TransactionAuthorizationObject;
 import com.vmware.photon.controller.apife.backends.VmBackend;
+import com.vmware.photon.controller.apife.entities.VmEntity;
 import com.vmware.photon.controller.apife.exceptions.external.VmNotFoundException;
 
 import com.google.common.collect.ImmutableSet;
@@ -80,7 +80,7 @@ public class VmSecurityGroupFetcherTest {
 
     @Test
     public void testInvalidId() throws Throwable {
-      doThrow(new VmNotFoundException("id")).when(backend).toApiRepresentation("id");
+      doThrow(new VmNotFoundException("id")).when(backend).findById("id");
 
       Set<String> groups = fetcher.fetchSecurityGroups(authorizationObject);
       assertThat(groups.size(), is(0));
@@ -90,9 +90,9 @@ public class VmSecurityGroupFetcherTest {
     public void testParentWithoutSecurityGroups() throws Throwable {
       authorizationObject.setStrategy(TransactionAuthorizationObject.Strategy.PARENT);
 
-      Vm vm = new Vm();
+      VmEntity vm = new VmEntity();
       vm.setProjectId("project-id");
-      doReturn(vm).when(backend).toApiRepresentation("id");
+      doReturn(vm).when(backend).findById("id");
 
       ArgumentCaptor<TransactionAuthorizationObject> captor =
           ArgumentCaptor.forClass(TransactionAuthorizationObject.class);
@@ -107,9 +107,9 @@ public class VmSecurityGroupFetcherTest {
     public void testParentWithSecurityGroups() throws Throwable {
       authorizationObject.setStrategy(TransactionAuthorizationObject.Strategy.PARENT);
 
-      Vm vm = new Vm();
+      VmEntity vm = new VmEntity();
       vm.setProjectId("project-id");
-      doReturn(vm).when(backend).toApiRepresentation("id");
+      doReturn(vm).when(backend).findById("id");
 
       ArgumentCaptor<TransactionAuthorizationObject> captor =
           ArgumentCaptor.forClass(TransactionAuthorizationObject.class);
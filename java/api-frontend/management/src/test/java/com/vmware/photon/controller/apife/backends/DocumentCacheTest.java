@@ -0,0 +1,174 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.vmware.photon.controller.apife.backends;
+
+import com.vmware.photon.controller.api.FlavorState;
+import com.vmware.photon.controller.apife.backends.clients.ApiFeXenonRestClient;
+import com.vmware.photon.controller.cloudstore.dcp.entity.FlavorService;
+import com.vmware.photon.controller.common.xenon.exceptions.DocumentNotFoundException;
+import com.vmware.xenon.common.Operation;
+
+import com.google.common.base.Ticker;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.fail;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests {@link DocumentCache}.
+ */
+public class DocumentCacheTest {
+
+  private static final String FLAVOR_LINK = "/photon/cloudstore/flavors/flavor-id";
+
+  private ApiFeXenonRestClient xenonClient;
+  private FakeTicker ticker;
+  private DocumentCache documentCache;
+
+  @BeforeMethod
+  public void setUp() throws Throwable {
+    xenonClient = mock(ApiFeXenonRestClient.class);
+    ticker = new FakeTicker();
+    documentCache = new DocumentCache(xenonClient, 2, 1000, ticker);
+  }
+
+  @Test
+  public void testGetReadsThrough() throws Throwable {
+    mockFlavor(FlavorState.READY);
+
+    FlavorService.State flavor = documentCache.get(FLAVOR_LINK, FlavorService.State.class);
+    assertThat(flavor.name, is("flavor"));
+
+    // Callers get their own copy of the cached document
+    FlavorService.State cachedFlavor = documentCache.get(FLAVOR_LINK, FlavorService.State.class);
+    assertThat(cachedFlavor.name, is("flavor"));
+    assertThat(cachedFlavor, not(sameInstance(flavor)));
+    verify(xenonClient, times(1)).get(FLAVOR_LINK);
+  }
+
+  @Test
+  public void testGetSkipsDocumentsThatAreNotCacheable() throws Throwable {
+    mockFlavor(FlavorState.CREATING);
+
+    for (int i = 0; i < 2; i++) {
+      FlavorService.State flavor = documentCache.get(FLAVOR_LINK, FlavorService.State.class,
+          (document) -> document.state == FlavorState.READY);
+      assertThat(flavor.state, is(FlavorState.CREATING));
+    }
+
+    verify(xenonClient, times(2)).get(FLAVOR_LINK);
+    assertThat(documentCache.size(), is(0L));
+  }
+
+  @Test
+  public void testGetNotFound() throws Throwable {
+    when(xenonClient.get(FLAVOR_LINK)).thenThrow(mock(DocumentNotFoundException.class));
+
+    try {
+      documentCache.get(FLAVOR_LINK, FlavorService.State.class);
+      fail("get should have failed since the document does not exist");
+    } catch (DocumentNotFoundException e) {
+      assertThat(documentCache.size(), is(0L));
+    }
+  }
+
+  @Test
+  public void testInvalidate() throws Throwable {
+    mockFlavor(FlavorState.READY);
+    documentCache.get(FLAVOR_LINK, FlavorService.State.class);
+    documentCache.put("flavor-key", documentCache.get(FLAVOR_LINK, FlavorService.State.class));
+    assertThat(documentCache.size(), is(2L));
+
+    documentCache.invalidate(FLAVOR_LINK, "flavor-key");
+    assertThat(documentCache.size(), is(0L));
+    assertThat(documentCache.getIfPresent("flavor-key", FlavorService.State.class), nullValue());
+
+    documentCache.get(FLAVOR_LINK, FlavorService.State.class);
+    verify(xenonClient, times(2)).get(FLAVOR_LINK);
+  }
+
+  @Test
+  public void testDocumentsExpire() throws Throwable {
+    mockFlavor(FlavorState.READY);
+    documentCache.get(FLAVOR_LINK, FlavorService.State.class);
+
+    ticker.advance(999);
+    documentCache.get(FLAVOR_LINK, FlavorService.State.class);
+    verify(xenonClient, times(1)).get(FLAVOR_LINK);
+
+    ticker.advance(1);
+    documentCache.get(FLAVOR_LINK, FlavorService.State.class);
+    verify(xenonClient, times(2)).get(FLAVOR_LINK);
+  }
+
+  @Test
+  public void testCacheIsBounded() throws Throwable {
+    for (int i = 0; i < 3; i++) {
+      FlavorService.State flavor = new FlavorService.State();
+      flavor.name = "flavor-" + i;
+      documentCache.put("flavor-" + i, flavor);
+    }
+
+    assertThat(documentCache.size(), is(2L));
+  }
+
+  @Test
+  public void testReadRacingWithInvalidateIsNotCached() throws Throwable {
+    FlavorService.State flavor = new FlavorService.State();
+    flavor.name = "flavor";
+    when(xenonClient.get(FLAVOR_LINK)).thenAnswer((invocation) -> {
+      // The document gets updated while we read the previous version
+      documentCache.invalidate(FLAVOR_LINK);
+      return new Operation().setBody(flavor);
+    });
+
+    documentCache.get(FLAVOR_LINK, FlavorService.State.class);
+    assertThat(documentCache.size(), is(0L));
+  }
+
+  private void mockFlavor(FlavorState state) throws Throwable {
+    FlavorService.State flavor = new FlavorService.State();
+    flavor.name = "flavor";
+    flavor.state = state;
+    flavor.documentSelfLink = FLAVOR_LINK;
+    when(xenonClient.get(FLAVOR_LINK)).thenReturn(new Operation().setBody(flavor));
+  }
+
+  /**
+   * Ticker that only moves when told to.
+   */
+  private static class FakeTicker extends Ticker {
+    private long nanos;
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+
+    private void advance(long millis) {
+      nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+  }
+}
@@ -381,6 +381,43 @@ public class ImageDcpBackendTest {
       assertThat(images.get(0).getId(), is(id));
       assertThat(images.get(0).getName(), is(imageName));
     }
+
+    @Test
+    public void testFindIdenticalImage() throws Throwable {
+      String id = createImageDocument(dcpClient, UUID.randomUUID().toString(), ImageState.READY, 1L, 10, 8, 5, 2);
+      String newId = createImageDocument(dcpClient, UUID.randomUUID().toString(), ImageState.CREATING, 1L, 0, 0, 0, 0);
+      ImageEntity newImage = imageBackend.findById(newId);
+      assertThat(imageBackend.findIdenticalImage(newImage, "fingerprint"), nullValue());
+
+      imageBackend.updateContentFingerprint(imageBackend.findById(id), "fingerprint", null);
+      assertThat(imageBackend.findIdenticalImage(newImage, "fingerprint").getId(), is(id));
+      assertThat(imageBackend.findIdenticalImage(newImage, "other-fingerprint"), nullValue());
+
+      newImage.setReplicationType(ImageReplicationType.ON_DEMAND);
+      assertThat(imageBackend.findIdenticalImage(newImage, "fingerprint"), nullValue());
+    }
+
+    @Test
+    public void testRegisterAlias() throws Throwable {
+      String id = createImageDocument(dcpClient, UUID.randomUUID().toString(), ImageState.READY, 1L, 10, 8, 5, 2);
+      String newId = createImageDocument(dcpClient, UUID.randomUUID().toString(), ImageState.CREATING, 1L, 0, 0, 0, 0);
+
+      assertThat(imageBackend.registerAlias(imageBackend.findById(newId), imageBackend.findById(id)), is(true));
+      assertThat(imageBackend.findById(newId).getAliasOf(), is(id));
+    }
+
+    @Test
+    public void testRegisterAliasOfImageBeingDeleted() throws Throwable {
+      String id = createImageDocument(dcpClient, UUID.randomUUID().toString(), ImageState.PENDING_DELETE, 1L, 10, 8,
+          5, 2);
+      String newId = createImageDocument(dcpClient, UUID.randomUUID().toString(), ImageState.CREATING, 1L, 0, 0, 0, 0);
+      ImageEntity identicalImage = imageBackend.findById(id);
+
+      assertThat(imageBackend.registerAlias(imageBackend.findById(newId), identicalImage), is(false));
+      ImageEntity newImage = imageBackend.findById(newId);
+      assertThat(newImage.getAliasOf(), nullValue());
+      assertThat(newImage.getState(), is(ImageState.CREATING));
+    }
   }
 
   /**
@@ -454,6 +491,44 @@ public class ImageDcpBackendTest {
       } catch (ImageNotFoundException e) {
       }
     }
+
+    @Test
+    public void testTombstoneWithIdenticalImage() throws Throwable {
+      String id = createImageDocument(dcpClient, UUID.randomUUID().toString(), ImageState.READY, 1L, 10, 8, 5, 2);
+      String aliasId = createImageDocument(dcpClient, UUID.randomUUID().toString(), ImageState.READY, 1L, 10, 8, 5, 2);
+      imageBackend.updateContentFingerprint(imageBackend.findById(id), "fingerprint", null);
+      imageBackend.updateContentFingerprint(imageBackend.findById(aliasId), "fingerprint", id);
+
+      // The files of the image are still used by the alias
+      imageBackend.tombstone(imageBackend.findById(id));
+      assertThat(imageBackend.findById(id).getState(), is(ImageState.PENDING_DELETE));
+
+      ImageEntity alias = imageBackend.findById(aliasId);
+      assertThat(alias.getDatastoreImageId(), is(id));
+      imageBackend.tombstone(alias);
+
+      for (String imageId : new String[]{id, aliasId}) {
+        try {
+          imageBackend.findById(imageId);
+          fail("should have failed with ImageNotFoundException.");
+        } catch (ImageNotFoundException e) {
+        }
+      }
+    }
+
+    @Test
+    public void testRegisterAliasAfterTombstone() throws Throwable {
+      String id = createImageDocument(dcpClient, UUID.randomUUID().toString(), ImageState.READY, 1L, 10, 8, 5, 2);
+      String newId = createImageDocument(dcpClient, UUID.randomUUID().toString(), ImageState.CREATING, 1L, 0, 0, 0, 0);
+
+      // The upload found the image identical while it was still ready, but the image was deleted before the alias
+      // was registered
+      ImageEntity identicalImage = imageBackend.findById(id);
+      imageBackend.tombstone(identicalImage);
+
+      assertThat(imageBackend.registerAlias(imageBackend.findById(newId), identicalImage), is(false));
+      assertThat(imageBackend.findById(newId).getAliasOf(), nullValue());
+    }
   }
 
   /**
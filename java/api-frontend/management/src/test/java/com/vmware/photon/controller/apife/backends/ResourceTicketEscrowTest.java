@@ -0,0 +1,235 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.vmware.photon.controller.apife.backends;
+
+import com.vmware.photon.controller.api.QuotaUnit;
+import com.vmware.photon.controller.apife.backends.clients.ApiFeXenonRestClient;
+import com.vmware.photon.controller.apife.config.QuotaConfig;
+import com.vmware.photon.controller.apife.entities.QuotaLineItemEntity;
+import com.vmware.photon.controller.apife.lib.QuotaCost;
+import com.vmware.photon.controller.cloudstore.dcp.entity.ResourceTicketService;
+import com.vmware.photon.controller.common.xenon.exceptions.BadRequestException;
+import com.vmware.photon.controller.common.xenon.exceptions.XenonRuntimeException;
+import com.vmware.xenon.common.ServiceDocument;
+
+import com.google.common.io.Files;
+import io.dropwizard.util.Duration;
+import org.apache.commons.io.FileUtils;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests {@link ResourceTicketEscrow}.
+ */
+public class ResourceTicketEscrowTest {
+
+  private static final String TICKET_ID = "ticket-id";
+
+  private File stateDir;
+  private ApiFeXenonRestClient xenonClient;
+  private QuotaConfig config;
+  private ResourceTicketEscrow escrow;
+
+  @BeforeMethod
+  public void setUp() throws Throwable {
+    stateDir = Files.createTempDir();
+    xenonClient = mock(ApiFeXenonRestClient.class);
+    config = new QuotaConfig();
+    config.setEscrowEnabled(true);
+    config.setEscrowChunkSize(3);
+    // Settle explicitly from the tests
+    config.setEscrowSettleInterval(Duration.hours(1));
+    config.setEscrowStateFile(new File(stateDir, "escrow.json").getAbsolutePath());
+    escrow = new ResourceTicketEscrow(xenonClient, config);
+    escrow.start();
+  }
+
+  @AfterMethod
+  public void tearDown() throws Throwable {
+    FileUtils.deleteDirectory(stateDir);
+  }
+
+  @Test
+  public void testConsumeReservesChunks() throws Throwable {
+    for (int i = 0; i < 4; i++) {
+      assertThat(escrow.consume(TICKET_ID, cost(1.0)), is(true));
+    }
+
+    List<ResourceTicketService.Patch> patches = capturePatches(2);
+    assertThat(patches.get(0).patchtype, is(ResourceTicketService.Patch.PatchType.ESCROW_RESERVE));
+    assertThat(patches.get(0).cost.get("vm.count").getValue(), is(3.0));
+    assertThat(patches.get(1).patchtype, is(ResourceTicketService.Patch.PatchType.ESCROW_RESERVE));
+  }
+
+  @Test
+  public void testSettle() throws Throwable {
+    escrow.consume(TICKET_ID, cost(1.0));
+    escrow.consume(TICKET_ID, cost(1.0));
+    escrow.settle();
+
+    List<ResourceTicketService.Patch> patches = capturePatches(2);
+    ResourceTicketService.Patch settle = patches.get(1);
+    assertThat(settle.patchtype, is(ResourceTicketService.Patch.PatchType.ESCROW_SETTLE));
+    assertThat(settle.escrowHolderId, is(patches.get(0).escrowHolderId));
+    assertThat(settle.cost.get("vm.count").getValue(), is(2.0));
+    assertThat(settle.released.isEmpty(), is(true));
+
+    // Nothing left to settle
+    escrow.settle();
+    verifyNoMoreInteractions(xenonClient);
+  }
+
+  @Test
+  public void testReturnToEscrow() throws Throwable {
+    assertThat(escrow.tryReturn(TICKET_ID, cost(1.0)), is(false));
+
+    escrow.consume(TICKET_ID, cost(2.0));
+    assertThat(escrow.tryReturn(TICKET_ID, cost(3.0)), is(false));
+    assertThat(escrow.tryReturn(TICKET_ID, cost(2.0)), is(true));
+
+    // The returned cost can be consumed again without reserving
+    assertThat(escrow.consume(TICKET_ID, cost(6.0)), is(true));
+    capturePatches(1);
+  }
+
+  @Test
+  public void testConsumeWithoutHeadroom() throws Throwable {
+    doThrow(new XenonRuntimeException(mock(BadRequestException.class)))
+        .when(xenonClient).patch(anyString(), any(ServiceDocument.class));
+
+    assertThat(escrow.consume(TICKET_ID, cost(1.0)), is(false));
+  }
+
+  @Test
+  public void testRejectedSettlementIsDropped() throws Throwable {
+    escrow.consume(TICKET_ID, cost(1.0));
+    doThrow(new XenonRuntimeException(mock(BadRequestException.class)))
+        .when(xenonClient).patch(anyString(), any(ServiceDocument.class));
+    escrow.settle();
+
+    // The consumption is not settled again
+    escrow.settle();
+    capturePatches(2);
+  }
+
+  @Test
+  public void testFailedSettlementIsRetried() throws Throwable {
+    escrow.consume(TICKET_ID, cost(1.0));
+    doThrow(new XenonRuntimeException("failure"))
+        .doReturn(null)
+        .when(xenonClient).patch(anyString(), any(ServiceDocument.class));
+    escrow.settle();
+    escrow.settle();
+
+    List<ResourceTicketService.Patch> patches = capturePatches(3);
+    assertThat(patches.get(2).patchtype, is(ResourceTicketService.Patch.PatchType.ESCROW_SETTLE));
+    assertThat(patches.get(2).cost.get("vm.count").getValue(), is(1.0));
+  }
+
+  @Test
+  public void testHolderRestart() throws Throwable {
+    escrow.consume(TICKET_ID, cost(2.0));
+    String holderId = capturePatches(1).get(0).escrowHolderId;
+
+    // The holder goes away without settling, and comes back under the same id
+    reset(xenonClient);
+    ResourceTicketEscrow restarted = new ResourceTicketEscrow(xenonClient, config);
+    restarted.start();
+
+    ResourceTicketService.Patch close = capturePatches(1).get(0);
+    assertThat(close.patchtype, is(ResourceTicketService.Patch.PatchType.ESCROW_SETTLE));
+    assertThat(close.escrowHolderId, is(holderId));
+    assertThat(close.cost.get("vm.count").getValue(), is(2.0));
+    assertThat(close.closeLease, is(true));
+
+    // The consumption is recorded once
+    restarted.settle();
+    new ResourceTicketEscrow(xenonClient, config).start();
+    verifyNoMoreInteractions(xenonClient);
+  }
+
+  @Test
+  public void testFailedCloseOnRestartIsSettled() throws Throwable {
+    escrow.consume(TICKET_ID, cost(2.0));
+
+    reset(xenonClient);
+    doThrow(new XenonRuntimeException("failure"))
+        .doReturn(null)
+        .when(xenonClient).patch(anyString(), any(ServiceDocument.class));
+    ResourceTicketEscrow restarted = new ResourceTicketEscrow(xenonClient, config);
+    restarted.start();
+    restarted.settle();
+
+    List<ResourceTicketService.Patch> patches = capturePatches(2);
+    assertThat(patches.get(1).patchtype, is(ResourceTicketService.Patch.PatchType.ESCROW_SETTLE));
+    assertThat(patches.get(1).cost.get("vm.count").getValue(), is(2.0));
+  }
+
+  @Test
+  public void testStopClosesLeases() throws Throwable {
+    escrow.consume(TICKET_ID, cost(1.0));
+    escrow.stop();
+
+    List<ResourceTicketService.Patch> patches = capturePatches(2);
+    ResourceTicketService.Patch close = patches.get(1);
+    assertThat(close.patchtype, is(ResourceTicketService.Patch.PatchType.ESCROW_SETTLE));
+    assertThat(close.cost.get("vm.count").getValue(), is(1.0));
+    assertThat(close.closeLease, is(true));
+
+    // Nothing is left to close after a graceful stop
+    new ResourceTicketEscrow(xenonClient, config).start();
+    verifyNoMoreInteractions(xenonClient);
+  }
+
+  @Test
+  public void testNewHolderId() throws Throwable {
+    escrow.consume(TICKET_ID, cost(1.0));
+    String holderId = capturePatches(1).get(0).escrowHolderId;
+
+    FileUtils.deleteDirectory(stateDir);
+    reset(xenonClient);
+    ResourceTicketEscrow other = new ResourceTicketEscrow(xenonClient, config);
+    other.start();
+    other.consume(TICKET_ID, cost(1.0));
+    assertThat(capturePatches(1).get(0).escrowHolderId, is(not(holderId)));
+  }
+
+  private List<ResourceTicketService.Patch> capturePatches(int count) throws Throwable {
+    ArgumentCaptor<ResourceTicketService.Patch> captor = ArgumentCaptor.forClass(ResourceTicketService.Patch.class);
+    verify(xenonClient, times(count)).patch(anyString(), captor.capture());
+    return captor.getAllValues();
+  }
+
+  private static QuotaCost cost(double vmCount) {
+    return new QuotaCost(Arrays.asList(new QuotaLineItemEntity("vm.count", vmCount, QuotaUnit.COUNT)));
+  }
+}
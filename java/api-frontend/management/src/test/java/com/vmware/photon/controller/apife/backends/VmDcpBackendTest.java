@@ -33,6 +33,7 @@ import com.vmware.photon.controller.api.ResourceList;
 import com.vmware.photon.controller.api.Tag;
 import com.vmware.photon.controller.api.UsageTag;
 import com.vmware.photon.controller.api.Vm;
+import com.vmware.photon.controller.api.VmBulkCreateSpec;
 import com.vmware.photon.controller.api.VmCreateSpec;
 import com.vmware.photon.controller.api.VmOperation;
 import com.vmware.photon.controller.api.VmState;
@@ -56,6 +57,7 @@ import com.vmware.photon.controller.apife.entities.VmEntity;
 import com.vmware.photon.controller.apife.exceptions.external.InvalidImageStateException;
 import com.vmware.photon.controller.apife.exceptions.external.InvalidVmStateException;
 import com.vmware.photon.controller.apife.exceptions.external.ProjectNotFoundException;
+import com.vmware.photon.controller.apife.exceptions.external.QuotaException;
 import com.vmware.photon.controller.apife.exceptions.external.VmNotFoundException;
 import com.vmware.photon.controller.cloudstore.dcp.entity.DiskService;
 import com.vmware.photon.controller.cloudstore.dcp.entity.DiskServiceFactory;
@@ -624,6 +626,55 @@ public class VmDcpBackendTest {
       assertThat(vmCreateSpec.getNetworks().equals(vm.getNetworks()), is(true));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testPrepareVmBulkCreate() throws Throwable {
+      VmBulkCreateSpec bulkSpec = new VmBulkCreateSpec();
+      bulkSpec.setSpec(vmCreateSpec);
+      bulkSpec.setCount(3);
+      List<VmCreateSpec> specs = bulkSpec.toVmCreateSpecs();
+
+      TaskEntity bulkTask = vmDcpBackend.prepareVmBulkCreate(projectId, specs);
+      assertThat(bulkTask.getOperation(), is(com.vmware.photon.controller.api.Operation.CREATE_VMS));
+      assertThat(bulkTask.getEntityKind(), is(ProjectEntity.KIND));
+      assertThat(bulkTask.getEntityId(), is(projectId));
+      assertThat(getUsage("vm.cost"), is(4.0));
+
+      List<VmEntity> vms = (List<VmEntity>) bulkTask.getTransientResources(Vm.KIND);
+      assertThat(vms.size(), is(3));
+      for (int i = 0; i < vms.size(); i++) {
+        VmEntity vm = vmDcpBackend.findById(vms.get(i).getId());
+        assertThat(vm.getName(), is("test-vm-" + (i + 1)));
+        assertThat(vm.getState(), is(VmState.CREATING));
+        assertThat(bulkTask.getResourceProperties(), containsString(vm.getId()));
+      }
+
+      TaskEntity vmTask = vmDcpBackend.prepareVmCreate(bulkTask, vms.get(0), specs.get(0));
+      assertThat(vmTask.getOperation(), is(com.vmware.photon.controller.api.Operation.CREATE_VM));
+      assertThat(vmTask.getEntityId(), is(vms.get(0).getId()));
+      assertThat(vmTask.getSteps().size(), is(2));
+      assertThat(vmTask.getSteps().get(0).getTransientResourceEntities(ProjectEntity.KIND).get(0).getId(),
+          is(projectId));
+      assertThat(vms.get(0).getAttachedDisks().size(), is(2));
+    }
+
+    @Test
+    public void testPrepareVmBulkCreateOverQuota() throws Throwable {
+      VmBulkCreateSpec bulkSpec = new VmBulkCreateSpec();
+      bulkSpec.setSpec(vmCreateSpec);
+      bulkSpec.setCount(10);
+
+      try {
+        vmDcpBackend.prepareVmBulkCreate(projectId, bulkSpec.toVmCreateSpecs());
+        fail("vmDcpBackend.prepareVmBulkCreate over the project quota should have failed");
+      } catch (QuotaException e) {
+      }
+
+      assertThat(getUsage("vm.cost"), is(1.0));
+      assertThat(vmDcpBackend.filter(projectId, Optional.<String>absent(), Optional.<Integer>absent())
+          .getItems().size(), is(1));
+    }
+
     private double getUsage(String key) throws Throwable {
       ProjectEntity projectEntity = projectDcpBackend.findById(projectId);
       String resourceTicketId = projectEntity.getResourceTicketId();
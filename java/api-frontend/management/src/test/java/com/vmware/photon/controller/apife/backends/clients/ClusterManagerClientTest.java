@@ -498,7 +498,8 @@ public class ClusterManagerClientTest {
       serviceDocumentQueryResult.documents.put(clusterDocument.documentSelfLink, clusterDocument);
 
       String pageLink = UUID.randomUUID().toString();
-      doReturn(serviceDocumentQueryResult).when(apiFeXenonRestClient).queryDocumentPage(pageLink);
+      doReturn(serviceDocumentQueryResult).when(apiFeXenonRestClient)
+          .queryDocumentPage(pageLink, ClusterService.State.class);
 
       ResourceList<Cluster> clusters = clusterManagerClient.getClustersPages(pageLink);
       assertEquals(clusters.getItems().size(), 1);
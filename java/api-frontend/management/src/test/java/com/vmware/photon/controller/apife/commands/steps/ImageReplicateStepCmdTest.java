@@ -40,6 +40,7 @@ import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.testng.Assert.fail;
 
@@ -120,6 +121,16 @@ public class ImageReplicateStepCmdTest extends PowerMockTestCase {
     verifyNoMoreInteractions(imageStore, imageBackend);
   }
 
+  @Test
+  public void testSuccessfulWithIdenticalImage() throws Exception {
+    imageEntity.setAliasOf("image-0");
+
+    command.execute();
+
+    verify(imageBackend).updateState(imageEntity, ImageState.READY);
+    verifyNoMoreInteractions(imageStore, imageBackend, housekeeperClient);
+  }
+
   @Test
   public void testImageMappingFileMissing() throws Exception {
     doReturn(new ArrayList<>()).when(imageBackend).getSeededImageDatastores(imageEntity.getId());
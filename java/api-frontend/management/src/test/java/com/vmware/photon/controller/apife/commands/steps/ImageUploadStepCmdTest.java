@@ -31,7 +31,6 @@ import com.vmware.photon.controller.apife.lib.image.ImageLoader;
 import com.vmware.photon.controller.apife.lib.ova.OvaTestModule;
 import com.vmware.transfer.streamVmdk.VmdkFormatException;
 
-import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.powermock.modules.testng.PowerMockTestCase;
@@ -63,7 +62,9 @@ import static org.testng.Assert.fail;
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -92,6 +93,7 @@ public class ImageUploadStepCmdTest extends PowerMockTestCase {
   private ImageEntity imageEntity;
   private ImageUploadStepCmd command;
   private InputStream inputStream;
+  private List<String> diskContents;
 
   @BeforeClass
   public static void setUp() throws Throwable {
@@ -126,7 +128,12 @@ public class ImageUploadStepCmdTest extends PowerMockTestCase {
     when(imageStore.createImage(anyString())).thenReturn(image);
     doNothing().when(imageStore).finalizeImage(anyObject());
     when(imageStore.getDatastore()).thenReturn(datastoreName);
-    when(image.addDisk(anyString(), any(InputStream.class))).thenReturn(imageSize);
+    // The loader reads the whole stream to fingerprint it, so the disk content is read when it gets added
+    diskContents = new ArrayList<>();
+    when(image.addDisk(anyString(), any(InputStream.class))).thenAnswer(invocation -> {
+      diskContents.add(OvaTestModule.readStringFromStream((InputStream) invocation.getArguments()[1]));
+      return imageSize;
+    });
   }
 
   @AfterMethod
@@ -152,7 +159,6 @@ public class ImageUploadStepCmdTest extends PowerMockTestCase {
     this.inputStream = imageStream;
     imageEntity.setReplicationType(replicationType);
     step.createOrUpdateTransientResource(ImageUploadStepCmd.INPUT_STREAM, imageStream);
-    ArgumentCaptor<InputStream> inputStreamArgument = ArgumentCaptor.forClass(InputStream.class);
     Map<String, String> imageSettings = new HashMap<>();
 
     doNothing().when(imageBackend).updateSettings(imageEntity, imageSettings);
@@ -164,15 +170,44 @@ public class ImageUploadStepCmdTest extends PowerMockTestCase {
     verify(imageStore).createImage(imageId);
     verify(imageStore).finalizeImage(anyObject());
     verify(imageStore).getDatastore();
-    verify(image).addDisk(anyString(), inputStreamArgument.capture());
-    InputStream capturedStream = inputStreamArgument.getAllValues().get(0);
-    String capturedImage = OvaTestModule.readStringFromStream(capturedStream);
-    assertEquals(capturedImage, ova.vmdkContent);
+    verify(image).addDisk(anyString(), any(InputStream.class));
+    assertEquals(diskContents.get(0), ova.vmdkContent);
 
     verify(imageBackend).updateSettings(eq(imageEntity), any(Map.class));
     verify(imageBackend).updateSize(imageEntity, imageSize);
+    verify(imageBackend).findIdenticalImage(eq(imageEntity), anyString());
+    verify(imageBackend).updateContentFingerprint(eq(imageEntity), anyString(), eq((String) null));
     verify(imageBackend).updateImageDatastore(eq(imageEntity.getId()), anyString());
     verifyNoMoreInteractions(imageStore, imageBackend);
+    assertThat(imageEntity.getContentFingerprint().length(), is(64));
+  }
+
+  @Test(dataProvider = "ImageStreams")
+  public void testUploadOfIdenticalImage(InputStream imageStream, ImageReplicationType replicationType)
+      throws Throwable {
+    this.inputStream = imageStream;
+    imageEntity.setReplicationType(replicationType);
+    step.createOrUpdateTransientResource(ImageUploadStepCmd.INPUT_STREAM, imageStream);
+
+    ImageEntity identicalImage = new ImageEntity();
+    identicalImage.setId("image-0");
+    when(imageBackend.findIdenticalImage(eq(imageEntity), anyString())).thenReturn(identicalImage);
+    when(imageBackend.registerAlias(imageEntity, identicalImage)).thenReturn(true);
+
+    command.execute();
+
+    verify(imageStore).createImage(imageId);
+    verify(imageStore).deleteUploadFolder(image);
+    verify(image).addDisk(anyString(), any(InputStream.class));
+    assertEquals(diskContents.get(0), ova.vmdkContent);
+
+    verify(imageBackend).updateSettings(eq(imageEntity), any(Map.class));
+    verify(imageBackend).updateSize(imageEntity, imageSize);
+    verify(imageBackend).findIdenticalImage(eq(imageEntity), anyString());
+    verify(imageBackend).registerAlias(imageEntity, identicalImage);
+    verify(imageBackend).updateContentFingerprint(eq(imageEntity), anyString(), eq("image-0"));
+    verifyNoMoreInteractions(imageStore, imageBackend);
+    assertThat(imageEntity.getAliasOf(), is("image-0"));
   }
 
   @Test(dataProvider = "ImageStreams")
@@ -183,7 +218,6 @@ public class ImageUploadStepCmdTest extends PowerMockTestCase {
     imageStream = new BufferedInputStream(imageStream);
     imageStream.mark(MAX_VM_SIZE); // Allocate 1 MB buffer
     step.createOrUpdateTransientResource(ImageUploadStepCmd.INPUT_STREAM, imageStream);
-    ArgumentCaptor<InputStream> inputStreamArgument = ArgumentCaptor.forClass(InputStream.class);
     Map<String, String> imageSettings = new HashMap<>();
 
     doNothing().when(imageBackend).updateSettings(imageEntity, imageSettings);
@@ -198,13 +232,14 @@ public class ImageUploadStepCmdTest extends PowerMockTestCase {
     verify(imageStore, times(2)).createImage(imageId);
     verify(imageStore, times(2)).finalizeImage(anyObject());
     verify(imageStore, times(2)).getDatastore();
-    verify(image, times(2)).addDisk(anyString(), inputStreamArgument.capture());
-    InputStream capturedStream = inputStreamArgument.getAllValues().get(0);
-    String capturedImage = OvaTestModule.readStringFromStream(capturedStream);
-    assertEquals(capturedImage, ova.vmdkContent);
+    verify(image, times(2)).addDisk(anyString(), any(InputStream.class));
+    assertEquals(diskContents.get(0), ova.vmdkContent);
+    assertEquals(diskContents.get(1), ova.vmdkContent);
 
     verify(imageBackend, times(2)).updateSettings(eq(imageEntity), any(Map.class));
     verify(imageBackend, times(2)).updateSize(imageEntity, imageSize);
+    verify(imageBackend, times(2)).findIdenticalImage(eq(imageEntity), anyString());
+    verify(imageBackend, times(2)).updateContentFingerprint(eq(imageEntity), anyString(), eq((String) null));
     verify(imageBackend, times(2)).updateImageDatastore(eq(imageEntity.getId()), anyString());
 
     verifyNoMoreInteractions(imageStore, imageBackend);
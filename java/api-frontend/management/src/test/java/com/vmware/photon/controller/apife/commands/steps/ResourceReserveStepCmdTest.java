@@ -24,6 +24,7 @@ import com.vmware.photon.controller.api.VmState;
 import com.vmware.photon.controller.api.common.exceptions.external.ExternalException;
 import com.vmware.photon.controller.apife.backends.DiskBackend;
 import com.vmware.photon.controller.apife.backends.FlavorBackend;
+import com.vmware.photon.controller.apife.backends.ImageBackend;
 import com.vmware.photon.controller.apife.backends.NetworkBackend;
 import com.vmware.photon.controller.apife.backends.StepBackend;
 import com.vmware.photon.controller.apife.backends.VmBackend;
@@ -32,6 +33,7 @@ import com.vmware.photon.controller.apife.entities.AttachedDiskEntity;
 import com.vmware.photon.controller.apife.entities.BaseDiskEntity;
 import com.vmware.photon.controller.apife.entities.EphemeralDiskEntity;
 import com.vmware.photon.controller.apife.entities.FlavorEntity;
+import com.vmware.photon.controller.apife.entities.ImageEntity;
 import com.vmware.photon.controller.apife.entities.LocalityEntity;
 import com.vmware.photon.controller.apife.entities.PersistentDiskEntity;
 import com.vmware.photon.controller.apife.entities.ProjectEntity;
@@ -78,6 +80,7 @@ import org.testng.annotations.Test;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.times;
@@ -144,6 +147,9 @@ public class ResourceReserveStepCmdTest extends PowerMockTestCase {
   @Mock
   private NetworkBackend networkBackend;
 
+  @Mock
+  private ImageBackend imageBackend;
+
   @Captor
   private ArgumentCaptor<Resource> resourceCaptor;
 
@@ -190,6 +196,11 @@ public class ResourceReserveStepCmdTest extends PowerMockTestCase {
     when(taskCommand.getRootSchedulerClient()).thenReturn(rootSchedulerClient);
     when(flavorBackend.getEntityById(vmFlavorEntity.getId())).thenReturn(vmFlavorEntity);
     when(flavorBackend.getEntityById(diskFlavorEntity.getId())).thenReturn(diskFlavorEntity);
+    when(imageBackend.findById(anyString())).thenAnswer(invocation -> {
+      ImageEntity image = new ImageEntity();
+      image.setId((String) invocation.getArguments()[0]);
+      return image;
+    });
   }
 
   @Test
@@ -571,6 +582,29 @@ public class ResourceReserveStepCmdTest extends PowerMockTestCase {
     command.execute();
   }
 
+  @Test
+  public void testSuccessfulVmReservationWithIdenticalImageForBootDisk() throws Throwable {
+    ImageEntity image = new ImageEntity();
+    image.setId("image-2");
+    image.setAliasOf("image-1");
+    when(imageBackend.findById("image-2")).thenReturn(image);
+
+    PlaceResponse placeResponse = generateResourcePlacementList();
+    placeResponse.getPlacementList().addToPlacements(generateResourcePlacement(ResourcePlacementType.DISK, "disk-id"));
+    when(rootSchedulerClient.place(any(Resource.class))).thenReturn(placeResponse);
+    when(hostClient.reserve(any(Resource.class), eq(42))).thenReturn(SUCCESSFUL_RESERVE_RESPONSE);
+
+    attachBootDisk(vm);
+    vm.setImageId("image-2");
+
+    ResourceReserveStepCmd command = getVmReservationCommand();
+    command.setInfrastructureEntity(vm);
+    command.execute();
+
+    verify(rootSchedulerClient).place(resourceCaptor.capture());
+    assertThat(resourceCaptor.getValue().getVm().getDisks().get(0).getImage().getId(), is("image-1"));
+  }
+
   @Test
   public void testCreateNetworkConstraints() throws Throwable {
     String networkId = "n1";
@@ -683,7 +717,7 @@ public class ResourceReserveStepCmdTest extends PowerMockTestCase {
     }
 
     return spy(new ResourceReserveStepCmd(
-        taskCommand, stepBackend, step, diskBackend, vmBackend, networkBackend, flavorBackend));
+        taskCommand, stepBackend, step, diskBackend, vmBackend, networkBackend, flavorBackend, imageBackend));
   }
 
   private ResourceReserveStepCmd getDiskReservationCommand() {
@@ -692,7 +726,7 @@ public class ResourceReserveStepCmdTest extends PowerMockTestCase {
     step.addResource(disk);
 
     return spy(new ResourceReserveStepCmd(
-        taskCommand, stepBackend, step, diskBackend, vmBackend, networkBackend, flavorBackend));
+        taskCommand, stepBackend, step, diskBackend, vmBackend, networkBackend, flavorBackend, imageBackend));
   }
 
   private void attachEphemeralDisk(VmEntity vm) throws ExternalException {
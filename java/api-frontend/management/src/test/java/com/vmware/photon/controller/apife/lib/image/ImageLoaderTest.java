@@ -14,6 +14,7 @@
 package com.vmware.photon.controller.apife.lib.image;
 
 import com.vmware.photon.controller.api.ImageReplicationType;
+import com.vmware.photon.controller.apife.backends.ImageBackend;
 import com.vmware.photon.controller.apife.entities.ImageEntity;
 import com.vmware.photon.controller.apife.exceptions.external.UnsupportedDiskControllerException;
 import com.vmware.photon.controller.apife.lib.VsphereImageStore;
@@ -21,12 +22,14 @@ import com.vmware.photon.controller.apife.lib.VsphereImageStoreImage;
 import com.vmware.photon.controller.apife.lib.ova.OvaTestModule;
 import com.vmware.transfer.nfc.NfcClient;
 
+import com.google.common.hash.Hashing;
 import org.mockito.InOrder;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyString;
@@ -36,6 +39,7 @@ import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -129,6 +133,56 @@ public class ImageLoaderTest {
       assertThat(result.imageSettings.size(), is(0));
     }
 
+    @Test
+    void fingerprintLoadImageTestVmdk() throws Throwable {
+      ova = OvaTestModule.generateOva(OvaTestModule.GOOD_OVF_FILE_CONTENT);
+      inputStream = ova.getRawVmdkStream();
+
+      ImageLoader.Result result = imageLoader.uploadImage(imageEntity, inputStream);
+      assertThat(result.contentFingerprint,
+          is(Hashing.sha256().hashBytes(ova.vmdkContent.getBytes()).toString()));
+      assertThat(result.aliasOf, nullValue());
+      verify(imageStore).finalizeImage(image);
+    }
+
+    @Test
+    void identicalLoadImageTest() throws Throwable {
+      ImageBackend imageBackend = mock(ImageBackend.class);
+      ImageEntity identicalImage = new ImageEntity();
+      identicalImage.setId("identical-image");
+      doReturn(identicalImage).when(imageBackend).findIdenticalImage(eq(imageEntity), anyString());
+      doReturn(true).when(imageBackend).registerAlias(imageEntity, identicalImage);
+      imageLoader = new ImageLoader(imageStore, imageBackend);
+
+      ova = OvaTestModule.generateOva(OvaTestModule.GOOD_OVF_FILE_CONTENT);
+      inputStream = ova.getOvaStream();
+
+      ImageLoader.Result result = imageLoader.uploadImage(imageEntity, inputStream);
+      assertThat(result.aliasOf, is("identical-image"));
+      verify(imageBackend).findIdenticalImage(imageEntity, result.contentFingerprint);
+      verify(imageBackend).registerAlias(imageEntity, identicalImage);
+      verify(imageStore).deleteUploadFolder(image);
+      verify(imageStore, never()).finalizeImage(image);
+    }
+
+    @Test
+    void identicalImageDeletedLoadImageTest() throws Throwable {
+      ImageBackend imageBackend = mock(ImageBackend.class);
+      ImageEntity identicalImage = new ImageEntity();
+      identicalImage.setId("identical-image");
+      doReturn(identicalImage).when(imageBackend).findIdenticalImage(eq(imageEntity), anyString());
+      doReturn(false).when(imageBackend).registerAlias(imageEntity, identicalImage);
+      imageLoader = new ImageLoader(imageStore, imageBackend);
+
+      ova = OvaTestModule.generateOva(OvaTestModule.GOOD_OVF_FILE_CONTENT);
+      inputStream = ova.getOvaStream();
+
+      ImageLoader.Result result = imageLoader.uploadImage(imageEntity, inputStream);
+      assertThat(result.aliasOf, nullValue());
+      verify(imageStore).finalizeImage(image);
+      verify(imageStore, never()).deleteUploadFolder(image);
+    }
+
     @Test(expectedExceptions = UnsupportedDiskControllerException.class)
     void badLoadImageTest() throws Throwable {
       ova = OvaTestModule.generateOva(OvaTestModule.BAD_OVF_UNKNOWN_CONTROLLER);
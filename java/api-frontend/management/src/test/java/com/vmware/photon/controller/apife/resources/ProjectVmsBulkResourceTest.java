@@ -0,0 +1,124 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.vmware.photon.controller.apife.resources;
+
+import com.vmware.photon.controller.api.ApiError;
+import com.vmware.photon.controller.api.Task;
+import com.vmware.photon.controller.api.VmBulkCreateSpec;
+import com.vmware.photon.controller.api.VmCreateSpec;
+import com.vmware.photon.controller.api.builders.AttachedDiskCreateSpecBuilder;
+import com.vmware.photon.controller.apife.clients.VmFeClient;
+import com.vmware.photon.controller.apife.resources.routes.ProjectResourceRoutes;
+import com.vmware.photon.controller.apife.resources.routes.TaskResourceRoutes;
+
+import com.google.common.collect.ImmutableList;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.testng.annotations.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriBuilder;
+
+import java.util.List;
+
+/**
+ * Tests {@link ProjectVmsBulkResource}.
+ */
+public class ProjectVmsBulkResourceTest extends ResourceTest {
+
+  private String projectId = "p1";
+
+  private String projectVmsBulkRoutePath =
+      UriBuilder.fromPath(ProjectResourceRoutes.PROJECT_VMS_BULK_PATH).build(projectId).toString();
+
+  private String taskId = "task1";
+
+  private String taskRoutePath =
+      UriBuilder.fromPath(TaskResourceRoutes.TASK_PATH).build(taskId).toString();
+
+  @Mock
+  private VmFeClient vmFeClient;
+
+  private VmCreateSpec spec;
+
+  @Override
+  protected void setUpResources() throws Exception {
+    spec = new VmCreateSpec();
+    spec.setName("vm");
+    spec.setFlavor("good-flavor");
+    spec.addDisk(new AttachedDiskCreateSpecBuilder().name("name").flavor("flavor").bootDisk(true).build());
+    spec.setSourceImageId("x");
+
+    addResource(new ProjectVmsBulkResource(vmFeClient));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testSuccessfulBulkCreate() throws Exception {
+    Task task = new Task();
+    task.setId(taskId);
+    when(vmFeClient.bulkCreate(eq(projectId), anyListOf(VmCreateSpec.class))).thenReturn(task);
+
+    VmBulkCreateSpec bulkSpec = new VmBulkCreateSpec();
+    bulkSpec.setSpec(spec);
+    bulkSpec.setCount(3);
+    Response response = bulkCreateVms(bulkSpec);
+    assertThat(response.getStatus(), is(201));
+
+    Task responseTask = response.readEntity(Task.class);
+    assertThat(responseTask, is(task));
+    assertThat(responseTask.getSelfLink().endsWith(taskRoutePath), is(true));
+
+    ArgumentCaptor<List> specs = ArgumentCaptor.forClass(List.class);
+    verify(vmFeClient).bulkCreate(eq(projectId), specs.capture());
+    assertThat(specs.getValue().size(), is(3));
+    assertThat(((VmCreateSpec) specs.getValue().get(2)).getName(), is("vm-3"));
+  }
+
+  @Test
+  public void testInvalidBulkSpec() throws Exception {
+    VmBulkCreateSpec bulkSpec = new VmBulkCreateSpec();
+    bulkSpec.setSpec(spec);
+    Response response = bulkCreateVms(bulkSpec);
+    assertThat(response.getStatus(), is(400));
+    assertThat(response.readEntity(ApiError.class).getCode(), equalTo("SpecInvalid"));
+  }
+
+  @Test
+  public void testInvalidVmSpec() throws Exception {
+    spec.setAttachedDisks(ImmutableList.of());
+    VmBulkCreateSpec bulkSpec = new VmBulkCreateSpec();
+    bulkSpec.setVms(ImmutableList.of(spec));
+    Response response = bulkCreateVms(bulkSpec);
+    assertThat(response.getStatus(), is(400));
+    assertThat(response.readEntity(ApiError.class).getCode(), equalTo("InvalidEntity"));
+  }
+
+  private Response bulkCreateVms(VmBulkCreateSpec bulkSpec) {
+    return client()
+        .target(projectVmsBulkRoutePath)
+        .request()
+        .post(Entity.entity(bulkSpec, MediaType.APPLICATION_JSON_TYPE));
+  }
+}
@@ -36,6 +36,7 @@ public enum Operation {
 
   RESERVE_RESOURCE("ReserveResource"),
   CREATE_VM("CreateVm"),
+  CREATE_VMS("CreateVms"),
   STOP_VM("StopVm"),
   START_VM("StartVm"),
   RESTART_VM("RestartVm"),
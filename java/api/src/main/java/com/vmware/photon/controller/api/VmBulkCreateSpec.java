@@ -0,0 +1,161 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.vmware.photon.controller.api;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.wordnik.swagger.annotations.ApiModel;
+import com.wordnik.swagger.annotations.ApiModelProperty;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.Size;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A batch of VMs is created using a JSON payload that maps to this class. The VMs are either given as a list of
+ * {@link VmCreateSpec}, or as a single {@link VmCreateSpec} and a count, in which case the VMs are named after the
+ * spec with a "-1", "-2"... suffix.
+ */
+@ApiModel(value = "A class used as the payload when creating a batch of VMs.")
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class VmBulkCreateSpec {
+
+  public static final int MAX_VMS = 1000;
+
+  @Valid
+  @JsonProperty
+  @ApiModelProperty(value = "The spec of each VM to create. Cannot be combined with spec and count.",
+      required = false)
+  @Size(max = MAX_VMS)
+  private List<VmCreateSpec> vms;
+
+  @Valid
+  @JsonProperty
+  @ApiModelProperty(value = "The spec shared by all the VMs to create, used along with count.",
+      required = false)
+  private VmCreateSpec spec;
+
+  @JsonProperty
+  @ApiModelProperty(value = "The number of VMs to create from spec.",
+      required = false)
+  @Min(1)
+  @Max(MAX_VMS)
+  private Integer count;
+
+  public List<VmCreateSpec> getVms() {
+    return vms;
+  }
+
+  public void setVms(List<VmCreateSpec> vms) {
+    this.vms = vms;
+  }
+
+  public VmCreateSpec getSpec() {
+    return spec;
+  }
+
+  public void setSpec(VmCreateSpec spec) {
+    this.spec = spec;
+  }
+
+  public Integer getCount() {
+    return count;
+  }
+
+  public void setCount(Integer count) {
+    this.count = count;
+  }
+
+  /**
+   * Returns the spec of each VM to create, or null if the payload neither has a list of VMs nor a spec and count.
+   */
+  public List<VmCreateSpec> toVmCreateSpecs() {
+    if (vms != null && spec == null && count == null) {
+      return vms;
+    }
+
+    if (vms != null || spec == null || count == null) {
+      return null;
+    }
+
+    List<VmCreateSpec> specs = new ArrayList<>(count);
+    for (int i = 1; i <= count; i++) {
+      specs.add(copy(spec, spec.getName() + "-" + i));
+    }
+
+    return specs;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    VmBulkCreateSpec other = (VmBulkCreateSpec) o;
+
+    return Objects.equals(vms, other.vms) &&
+        Objects.equals(spec, other.spec) &&
+        Objects.equals(count, other.count);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(vms, spec, count);
+  }
+
+  @Override
+  public String toString() {
+    return vms != null ? String.format("%d vms", vms.size()) : String.format("%s x %s", spec, count);
+  }
+
+  /**
+   * Copies the spec, including its disks since creating a VM updates the boot disk capacity.
+   */
+  private static VmCreateSpec copy(VmCreateSpec spec, String name) {
+    VmCreateSpec copy = new VmCreateSpec();
+    copy.setName(name);
+    copy.setFlavor(spec.getFlavor());
+    copy.setSourceImageId(spec.getSourceImageId());
+    copy.setTags(spec.getTags() != null ? new HashSet<>(spec.getTags()) : null);
+    copy.setEnvironment(spec.getEnvironment() != null ? new HashMap<>(spec.getEnvironment()) : null);
+    copy.setAffinities(spec.getAffinities() != null ? new ArrayList<>(spec.getAffinities()) : null);
+    copy.setNetworks(spec.getNetworks() != null ? new ArrayList<>(spec.getNetworks()) : null);
+
+    for (AttachedDiskCreateSpec disk : spec.getAttachedDisks()) {
+      AttachedDiskCreateSpec diskCopy = new AttachedDiskCreateSpec();
+      diskCopy.setName(disk.getName());
+      diskCopy.setKind(disk.getKind());
+      diskCopy.setFlavor(disk.getFlavor());
+      diskCopy.setCapacityGb(disk.getCapacityGb());
+      diskCopy.setBootDisk(disk.isBootDisk());
+      copy.addDisk(diskCopy);
+    }
+
+    return copy;
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.vmware.photon.controller.api;
+
+import com.vmware.photon.controller.api.builders.AttachedDiskCreateSpecBuilder;
+
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.List;
+
+/**
+ * Tests {@link VmBulkCreateSpec}.
+ */
+public class VmBulkCreateSpecTest {
+
+  private VmCreateSpec vmCreateSpec;
+
+  @BeforeMethod
+  public void setUp() {
+    vmCreateSpec = new VmCreateSpec();
+    vmCreateSpec.setName("myvm");
+    vmCreateSpec.setFlavor("good-flavor");
+    vmCreateSpec.setSourceImageId("image-id");
+    vmCreateSpec.addDisk(
+        new AttachedDiskCreateSpecBuilder().name("bootdisk").flavor("good-disk-100").bootDisk(true).build());
+  }
+
+  @Test
+  public void testSpecAndCount() {
+    VmBulkCreateSpec bulkSpec = new VmBulkCreateSpec();
+    bulkSpec.setSpec(vmCreateSpec);
+    bulkSpec.setCount(3);
+
+    List<VmCreateSpec> specs = bulkSpec.toVmCreateSpecs();
+    assertThat(specs.size(), is(3));
+    for (int i = 0; i < specs.size(); i++) {
+      VmCreateSpec spec = specs.get(i);
+      assertThat(spec.getName(), is("myvm-" + (i + 1)));
+      assertThat(spec.getFlavor(), is("good-flavor"));
+      assertThat(spec.getSourceImageId(), is("image-id"));
+      assertThat(spec.getAttachedDisks(), is(vmCreateSpec.getAttachedDisks()));
+      assertThat(spec.getAttachedDisks().get(0), not(sameInstance(vmCreateSpec.getAttachedDisks().get(0))));
+    }
+  }
+
+  @Test
+  public void testVms() {
+    VmBulkCreateSpec bulkSpec = new VmBulkCreateSpec();
+    bulkSpec.setVms(ImmutableList.of(vmCreateSpec));
+    assertThat(bulkSpec.toVmCreateSpecs(), is(ImmutableList.of(vmCreateSpec)));
+  }
+
+  @Test
+  public void testInvalidCombinations() {
+    VmBulkCreateSpec bulkSpec = new VmBulkCreateSpec();
+    assertThat(bulkSpec.toVmCreateSpecs(), nullValue());
+
+    bulkSpec.setSpec(vmCreateSpec);
+    assertThat(bulkSpec.toVmCreateSpecs(), nullValue());
+
+    bulkSpec.setCount(2);
+    bulkSpec.setVms(ImmutableList.of(vmCreateSpec));
+    assertThat(bulkSpec.toVmCreateSpecs(), nullValue());
+  }
+}
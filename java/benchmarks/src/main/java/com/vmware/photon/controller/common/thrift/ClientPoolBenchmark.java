@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.vmware.photon.controller.common.thrift;
+
+import com.vmware.photon.controller.host.gen.Host;
+
+import com.google.inject.TypeLiteral;
+import org.apache.thrift.async.TAsyncClientManager;
+import org.apache.thrift.protocol.TCompactProtocol;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetSocketAddress;
+import java.security.SecureRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link ClientPoolImpl#acquire()} and {@link ClientPoolImpl#release(org.apache.thrift.async.TAsyncClient,
+ * boolean)}. The clients never connect: the benchmark only measures the pool bookkeeping.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientPoolBenchmark {
+
+  @Param({"1", "4"})
+  public int numServers;
+
+  @Param({"8"})
+  public int maxClients;
+
+  private TAsyncClientManager clientManager;
+  private ScheduledExecutorService scheduledExecutor;
+  private ClientPoolImpl<Host.AsyncClient> clientPool;
+
+  @Setup
+  public void setUp() throws Throwable {
+    clientManager = new TAsyncClientManager();
+    scheduledExecutor = Executors.newScheduledThreadPool(1);
+
+    InetSocketAddress[] servers = new InetSocketAddress[numServers];
+    for (int i = 0; i < numServers; i++) {
+      servers[i] = new InetSocketAddress("127.0.0.1", 20000 + i);
+    }
+
+    ClientPoolOptions options = new ClientPoolOptions()
+        .setMaxClients(maxClients)
+        .setMaxWaiters(1000)
+        .setTimeout(10, TimeUnit.SECONDS);
+    clientPool = new ClientPoolImpl<>(
+        new SecureRandom(),
+        new TAsyncClientFactory<>(TypeLiteral.get(Host.AsyncClient.class), clientManager),
+        new TCompactProtocol.Factory(),
+        null,
+        scheduledExecutor,
+        new StaticServerSet(servers),
+        options);
+  }
+
+  @TearDown
+  public void tearDown() {
+    clientPool.close();
+    scheduledExecutor.shutdown();
+    clientManager.stop();
+  }
+
+  @Benchmark
+  @Threads(1)
+  public Host.AsyncClient acquireRelease() throws Throwable {
+    return acquireAndRelease();
+  }
+
+  @Benchmark
+  @Threads(16)
+  public Host.AsyncClient acquireReleaseContended() throws Throwable {
+    return acquireAndRelease();
+  }
+
+  private Host.AsyncClient acquireAndRelease() throws Throwable {
+    Host.AsyncClient client = clientPool.acquire().get();
+    clientPool.release(client, true);
+    return client;
+  }
+}
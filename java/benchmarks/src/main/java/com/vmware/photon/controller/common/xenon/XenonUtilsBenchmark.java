@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.vmware.photon.controller.common.xenon;
+
+import com.vmware.photon.controller.api.AgentState;
+import com.vmware.photon.controller.api.HostState;
+import com.vmware.photon.controller.api.UsageTag;
+import com.vmware.photon.controller.cloudstore.dcp.entity.HostService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the reflection based utilities every Xenon service of ours runs on start and patch:
+ * {@link PatchUtils}, {@link ValidationUtils} and {@link InitializationUtils}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XenonUtilsBenchmark {
+
+  private HostService.State startState;
+  private HostService.State patchState;
+
+  @Setup
+  public void setUp() {
+    startState = createHost();
+    patchState = new HostService.State();
+    patchState.agentState = AgentState.ACTIVE;
+    patchState.reportedDatastores = new HashSet<>(Arrays.asList("ds0", "ds1"));
+    patchState.reportedNetworks = new HashSet<>(Arrays.asList("nw0"));
+  }
+
+  @Benchmark
+  public HostService.State patchState() {
+    PatchUtils.patchState(startState, patchState);
+    return startState;
+  }
+
+  @Benchmark
+  public HostService.State validateState() {
+    ValidationUtils.validateState(startState);
+    return startState;
+  }
+
+  @Benchmark
+  public HostService.State validatePatch() {
+    ValidationUtils.validatePatch(startState, patchState);
+    return startState;
+  }
+
+  @Benchmark
+  public HostService.State initialize() {
+    HostService.State state = new HostService.State();
+    InitializationUtils.initialize(state);
+    return state;
+  }
+
+  private static HostService.State createHost() {
+    HostService.State host = new HostService.State();
+    host.state = HostState.READY;
+    host.hostAddress = "10.0.0.1";
+    host.agentPort = 8835;
+    host.userName = "root";
+    host.password = "password";
+    host.availabilityZoneId = "az0";
+    host.memoryMb = 65536;
+    host.cpuCount = 16;
+    host.usageTags = new HashSet<>(Arrays.asList(UsageTag.CLOUD.name()));
+    host.metadata = new HashMap<>();
+    host.esxVersion = "6.0";
+    host.agentState = AgentState.ACTIVE;
+    host.reportedDatastores = new HashSet<>(Arrays.asList("ds0"));
+    host.reportedNetworks = new HashSet<>(Arrays.asList("nw0"));
+    host.schedulingConstant = 1L;
+    host.triggerIntervalMillis = 60000L;
+    return host;
+  }
+}
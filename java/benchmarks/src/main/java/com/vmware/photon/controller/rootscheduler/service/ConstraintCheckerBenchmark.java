@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.vmware.photon.controller.rootscheduler.service;
+
+import com.vmware.photon.controller.common.zookeeper.gen.ServerAddress;
+import com.vmware.photon.controller.resource.gen.ResourceConstraint;
+import com.vmware.photon.controller.resource.gen.ResourceConstraintType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link ConstraintChecker#getCandidates(List, int)} for the in-memory checkers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConstraintCheckerBenchmark {
+
+  private static final int NUM_CANDIDATES = 4;
+
+  @Param({"100", "1000", "10000"})
+  public int numHosts;
+
+  private InMemoryConstraintChecker inMemoryConstraintChecker;
+  private HostCache hostCache;
+  private List<ResourceConstraint> noConstraints;
+  private List<ResourceConstraint> datastoreConstraints;
+  private List<ResourceConstraint> managementConstraints;
+
+  @Setup
+  public void setUp() throws Throwable {
+    inMemoryConstraintChecker = SchedulerBenchmarkData.createInMemoryConstraintChecker(numHosts);
+    hostCache = SchedulerBenchmarkData.createHostCache(numHosts);
+
+    noConstraints = new ArrayList<>();
+    datastoreConstraints = Arrays.asList(
+        new ResourceConstraint(ResourceConstraintType.DATASTORE, Arrays.asList("ds0")));
+    managementConstraints = Arrays.asList(
+        new ResourceConstraint(ResourceConstraintType.MANAGEMENT_ONLY, null),
+        new ResourceConstraint(ResourceConstraintType.NETWORK, Arrays.asList("nw0")));
+  }
+
+  @Benchmark
+  public Map<String, ServerAddress> inMemoryNoConstraints() {
+    return inMemoryConstraintChecker.getCandidates(noConstraints, NUM_CANDIDATES);
+  }
+
+  @Benchmark
+  public Map<String, ServerAddress> inMemoryDatastore() {
+    return inMemoryConstraintChecker.getCandidates(datastoreConstraints, NUM_CANDIDATES);
+  }
+
+  @Benchmark
+  public Map<String, ServerAddress> inMemoryManagementNetwork() {
+    return inMemoryConstraintChecker.getCandidates(managementConstraints, NUM_CANDIDATES);
+  }
+
+  @Benchmark
+  public Map<String, ServerAddress> hostCacheNoConstraints() {
+    return hostCache.getCandidates(noConstraints, NUM_CANDIDATES);
+  }
+
+  @Benchmark
+  public Map<String, ServerAddress> hostCacheDatastore() {
+    return hostCache.getCandidates(datastoreConstraints, NUM_CANDIDATES);
+  }
+
+  @Benchmark
+  public Map<String, ServerAddress> hostCacheManagementNetwork() {
+    return hostCache.getCandidates(managementConstraints, NUM_CANDIDATES);
+  }
+}
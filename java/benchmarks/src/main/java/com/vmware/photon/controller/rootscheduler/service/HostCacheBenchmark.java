@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.vmware.photon.controller.rootscheduler.service;
+
+import com.vmware.photon.controller.cloudstore.dcp.entity.HostService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the updates {@link HostCache} applies when cloudstore notifies it of host changes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HostCacheBenchmark {
+
+  @Param({"100", "1000", "10000"})
+  public int numHosts;
+
+  private HostCache hostCache;
+
+  // Each host twice: as created, and with a different datastore and network
+  private HostService.State[] hosts;
+  private HostService.State[] updatedHosts;
+  private int nextHost;
+
+  @Setup
+  public void setUp() {
+    hostCache = SchedulerBenchmarkData.createHostCache(numHosts);
+    int numDatastores = SchedulerBenchmarkData.getDatastoreCount(numHosts);
+    hosts = new HostService.State[numHosts];
+    updatedHosts = new HostService.State[numHosts];
+    for (int i = 0; i < numHosts; i++) {
+      hosts[i] = SchedulerBenchmarkData.createHost(i, numDatastores);
+      updatedHosts[i] = SchedulerBenchmarkData.createHost(i, numDatastores);
+      updatedHosts[i].reportedDatastores = new HashSet<>(Arrays.asList("ds" + ((i + 1) % numDatastores)));
+      updatedHosts[i].reportedNetworks = new HashSet<>(Arrays.asList("nw-updated"));
+    }
+  }
+
+  /**
+   * Alternates each host between its two versions.
+   */
+  @Benchmark
+  public void updateHost() {
+    int i = nextHost++ % (2 * numHosts);
+    if (i < numHosts) {
+      hostCache.addOrUpdateHost(updatedHosts[i]);
+    } else {
+      hostCache.addOrUpdateHost(hosts[i - numHosts]);
+    }
+  }
+
+  @Benchmark
+  public void deleteAndAddHost() {
+    HostService.State host = hosts[nextHost++ % numHosts];
+    hostCache.deleteHost(host);
+    hostCache.addOrUpdateHost(host);
+  }
+}
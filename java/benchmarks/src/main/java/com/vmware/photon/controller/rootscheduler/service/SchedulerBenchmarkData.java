@@ -0,0 +1,132 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.vmware.photon.controller.rootscheduler.service;
+
+import com.vmware.photon.controller.api.AgentState;
+import com.vmware.photon.controller.api.HostState;
+import com.vmware.photon.controller.api.UsageTag;
+import com.vmware.photon.controller.cloudstore.dcp.entity.DatastoreService;
+import com.vmware.photon.controller.cloudstore.dcp.entity.DatastoreServiceFactory;
+import com.vmware.photon.controller.cloudstore.dcp.entity.HostService;
+import com.vmware.photon.controller.cloudstore.dcp.entity.HostServiceFactory;
+import com.vmware.photon.controller.common.xenon.XenonRestClient;
+import com.vmware.xenon.common.Operation;
+import com.vmware.xenon.common.ServiceDocumentQueryResult;
+import com.vmware.xenon.common.UriUtils;
+import com.vmware.xenon.services.common.QueryTask;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * Builds the hosts and datastores used by the scheduler benchmarks.
+ *
+ * Host i uses datastore i % numDatastores, network i % NUM_NETWORKS and availability zone i % NUM_ZONES.
+ * One host out of MANAGEMENT_HOST_RATIO is a management host.
+ */
+final class SchedulerBenchmarkData {
+
+  static final int NUM_NETWORKS = 10;
+
+  static final int NUM_ZONES = 4;
+
+  static final int MANAGEMENT_HOST_RATIO = 8;
+
+  private SchedulerBenchmarkData() {
+  }
+
+  static int getDatastoreCount(int numHosts) {
+    return Math.max(1, numHosts / 10);
+  }
+
+  static HostService.State createHost(int i, int numDatastores) {
+    HostService.State host = new HostService.State();
+    host.documentSelfLink = UriUtils.buildUriPath(HostServiceFactory.SELF_LINK, "host" + i);
+    host.hostAddress = "host" + i;
+    host.agentPort = 8835;
+    host.state = HostState.READY;
+    host.agentState = AgentState.ACTIVE;
+    host.reportedDatastores = new HashSet<>(Arrays.asList("ds" + (i % numDatastores)));
+    host.reportedNetworks = new HashSet<>(Arrays.asList("nw" + (i % NUM_NETWORKS)));
+    host.availabilityZoneId = "az" + (i % NUM_ZONES);
+    if (i % MANAGEMENT_HOST_RATIO == 0) {
+      host.usageTags = new HashSet<>(Arrays.asList(UsageTag.MGMT.name()));
+    } else {
+      host.usageTags = new HashSet<>(Arrays.asList(UsageTag.CLOUD.name()));
+    }
+    return host;
+  }
+
+  static DatastoreService.State createDatastore(int i) {
+    DatastoreService.State datastore = new DatastoreService.State();
+    datastore.documentSelfLink = UriUtils.buildUriPath(DatastoreServiceFactory.SELF_LINK, "ds" + i);
+    datastore.id = "ds" + i;
+    datastore.name = "ds" + i;
+    datastore.type = "SHARED_VMFS";
+    datastore.tags = new HashSet<>(Arrays.asList("dstag" + i));
+    return datastore;
+  }
+
+  static HostCache createHostCache(int numHosts) {
+    int numDatastores = getDatastoreCount(numHosts);
+    HostCache hostCache = new HostCache();
+    for (int i = 0; i < numDatastores; i++) {
+      hostCache.addOrUpdateDatastore(createDatastore(i));
+    }
+    for (int i = 0; i < numHosts; i++) {
+      hostCache.addOrUpdateHost(createHost(i, numDatastores));
+    }
+    return hostCache;
+  }
+
+  /**
+   * Creates an in-memory constraint checker over a mock cloudstore client that returns the hosts, then the
+   * datastores.
+   */
+  static InMemoryConstraintChecker createInMemoryConstraintChecker(int numHosts) throws Throwable {
+    int numDatastores = getDatastoreCount(numHosts);
+    Map<String, Object> hosts = new HashMap<>();
+    for (int i = 0; i < numHosts; i++) {
+      HostService.State host = createHost(i, numDatastores);
+      hosts.put(host.documentSelfLink, host);
+    }
+
+    Map<String, Object> datastores = new HashMap<>();
+    for (int i = 0; i < numDatastores; i++) {
+      DatastoreService.State datastore = createDatastore(i);
+      datastores.put(datastore.documentSelfLink, datastore);
+    }
+
+    XenonRestClient client = mock(XenonRestClient.class);
+    when(client.query(any(QueryTask.QuerySpecification.class), anyBoolean()))
+        .thenReturn(createQueryResult(hosts), createQueryResult(datastores));
+    return new InMemoryConstraintChecker(client);
+  }
+
+  private static Operation createQueryResult(Map<String, Object> documents) {
+    QueryTask queryTask = new QueryTask();
+    queryTask.results = new ServiceDocumentQueryResult();
+    queryTask.results.documents = documents;
+    queryTask.results.documentLinks = new ArrayList<>(documents.keySet());
+    return new Operation().setBody(queryTask);
+  }
+}
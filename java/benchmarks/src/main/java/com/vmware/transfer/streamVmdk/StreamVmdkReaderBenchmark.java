@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.vmware.transfer.streamVmdk;
+
+import com.vmware.transfer.nfc.SparseUtil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks reading a stream-optimized disk with {@link StreamVmdkReader#getNextGrain(byte[])}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamVmdkReaderBenchmark {
+
+  @Param({"64"})
+  public int diskSizeMb;
+
+  private byte[] disk;
+
+  /**
+   * Writes a disk where a quarter of each grain is random, so that grains compress like typical disk data.
+   */
+  @Setup
+  public void setUp() throws Throwable {
+    long capacitySectors = diskSizeMb * 1024L * 1024L / SparseUtil.DISKLIB_SECTOR_SIZE;
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    StreamVmdkWriter writer = new StreamVmdkWriter(output, capacitySectors);
+    Map<String, String> ddb = new HashMap<>();
+    ddb.put("adapterType", "lsilogic");
+    writer.writeHeader(0, ddb);
+
+    Random random = new Random(0);
+    byte[] grain = new byte[SparseUtil.DEFAULT_GRAIN_SIZE_BYTES];
+    byte[] randomBytes = new byte[grain.length / 4];
+    for (long sector = 0; sector < capacitySectors; sector += SparseUtil.DEFAULT_GRAIN_SIZE) {
+      random.nextBytes(randomBytes);
+      System.arraycopy(randomBytes, 0, grain, 0, randomBytes.length);
+      writer.writeDataGrain(sector, grain);
+    }
+
+    writer.writeTrailer();
+    writer.close();
+    disk = output.toByteArray();
+  }
+
+  @Benchmark
+  public long readDisk() throws Throwable {
+    StreamVmdkReader reader = new StreamVmdkReader(new ByteArrayInputStream(disk));
+    byte[] grain = new byte[reader.getGrainSize() * SparseUtil.DISKLIB_SECTOR_SIZE];
+    long bytesRead = 0;
+    int grainSize;
+    while ((grainSize = reader.getNextGrain(grain)) >= 0) {
+      bytesRead += grainSize;
+    }
+    return bytesRead;
+  }
+}
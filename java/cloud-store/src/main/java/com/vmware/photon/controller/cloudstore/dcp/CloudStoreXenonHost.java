@@ -36,6 +36,7 @@ import com.vmware.photon.controller.cloudstore.dcp.entity.VirtualNetworkService;
 import com.vmware.photon.controller.cloudstore.dcp.entity.VmServiceFactory;
 import com.vmware.photon.controller.cloudstore.dcp.task.AvailabilityZoneCleanerFactoryService;
 import com.vmware.photon.controller.cloudstore.dcp.task.EntityLockCleanerFactoryService;
+import com.vmware.photon.controller.cloudstore.dcp.task.HostHealthCheckService;
 import com.vmware.photon.controller.cloudstore.dcp.task.TombstoneCleanerFactoryService;
 import com.vmware.photon.controller.cloudstore.dcp.task.trigger.AvailabilityZoneCleanerTriggerBuilder;
 import com.vmware.photon.controller.cloudstore.dcp.task.trigger.EntityLockCleanerTriggerBuilder;
@@ -210,6 +211,7 @@ public class CloudStoreXenonHost
 
     // Start all special services
     ServiceHostUtils.startService(this, StatusService.class);
+    ServiceHostUtils.startService(this, HostHealthCheckService.class);
     startTaskTriggerServices();
 
     return this;
@@ -236,6 +238,7 @@ public class CloudStoreXenonHost
             && checkServiceAvailable(TenantServiceFactory.SELF_LINK)
             && checkServiceAvailable(ResourceTicketServiceFactory.SELF_LINK)
             && checkServiceAvailable(StatusService.SELF_LINK)
+            && checkServiceAvailable(HostHealthCheckService.SELF_LINK)
             && checkServiceAvailable(VmServiceFactory.SELF_LINK)
             && checkServiceAvailable(DiskServiceFactory.SELF_LINK)
             && checkServiceAvailable(AttachedDiskServiceFactory.SELF_LINK)
@@ -13,14 +13,11 @@
 
 package com.vmware.photon.controller.cloudstore.dcp.entity;
 
-import com.vmware.photon.controller.agent.gen.AgentControl;
 import com.vmware.photon.controller.api.AgentState;
 import com.vmware.photon.controller.api.HostState;
 import com.vmware.photon.controller.api.UsageTag;
 import com.vmware.photon.controller.cloudstore.CloudStoreModule;
 import com.vmware.photon.controller.cloudstore.xenon.upgrade.HostTransformationService;
-import com.vmware.photon.controller.common.clients.AgentControlClient;
-import com.vmware.photon.controller.common.clients.AgentControlClientProvider;
 import com.vmware.photon.controller.common.clients.HostClient;
 import com.vmware.photon.controller.common.clients.HostClientProvider;
 import com.vmware.photon.controller.common.xenon.InitializationUtils;
@@ -44,18 +41,24 @@ import com.vmware.photon.controller.resource.gen.Datastore;
 import com.vmware.photon.controller.resource.gen.Network;
 import com.vmware.photon.controller.resource.gen.NetworkType;
 import com.vmware.xenon.common.Operation;
+import com.vmware.xenon.common.OperationJoin;
 import com.vmware.xenon.common.Service;
 import com.vmware.xenon.common.ServiceDocument;
-import com.vmware.xenon.common.ServiceMaintenanceRequest;
 import com.vmware.xenon.common.StatefulService;
 import com.vmware.xenon.common.UriUtils;
 import com.vmware.xenon.common.Utils;
 import com.vmware.xenon.services.common.QueryTask;
 
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import org.apache.thrift.TException;
+import org.apache.thrift.TSerializer;
 import org.apache.thrift.async.AsyncMethodCallback;
+import org.apache.thrift.protocol.TCompactProtocol;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -63,8 +66,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -75,32 +76,16 @@ public class HostService extends StatefulService {
 
   private final Random random = new Random();
 
-  /**
-   * All the default values specified below are just good starting points. We might
-   * need to adjust them after scale testing.
-   *
-   * DEFAULT_MAINTENANCE_INTERVAL = DEFAULT_MAX_PING_WAIT_TIME + MAX_TIME_TO_PING + BUFFER = 50 + 5 + 5 = 60s
-   *
-   * At DEFAULT_MAX_PING_WAIT_TIME of 50 seconds, we will send 20 pings every second if we have 1000 hosts and 200
-   * pings every second if we have 10,000 hosts. The actual ping, get and post are all asynchronous. So we should be
-   * able to scale to 1000 hosts without issues and 10,000 hosts depending on the load on cloud store by other services.
-   */
-
   /**
    * The default maintenance interval controls how often we poll the agent for its
-   * state (60 seconds).
+   * state (60 seconds). Agents are polled by the HostHealthCheckService of
+   * the node owning the host document.
    */
   public static final long DEFAULT_MAINTENANCE_INTERVAL_MILLIS = 60 * 1000;
 
   /**
-   * This value represents the upper bound of the wait time in milliseconds for a host
-   * service instance to ping the agent within its polling interval (10 seconds).
-   */
-  public static final int DEFAULT_MAX_PING_WAIT_TIME_MILLIS = 50 * 1000;
-
-  /**
-   * This value represents the time we have to wait for all the datastore documents to
-   * get updated before completing the maintenance.
+   * This value represents the time we wait for each datastore document update before
+   * completing the maintenance.
    */
   public static final int UPDATE_TIMEOUT_SECONDS = 5;
 
@@ -120,10 +105,10 @@ public class HostService extends StatefulService {
   public static final long UPDATE_HOST_METADATA_INTERVAL = TimeUnit.MINUTES.toMillis(10);
 
   /**
-   * This represents the soft state that maintains the last maintenance time of the host metadata (datastores and
-   * networks) update.
+   * This represents the soft state that maintains the content hash of the last host config which was applied to the
+   * host document and the datastore documents. When the agent reports the same host config again, nothing is written.
    */
-  private long lastHostMetadataUpdateTime;
+  private HashCode lastHostConfigHash;
 
   private static boolean inUnitTests = false;
 
@@ -132,9 +117,7 @@ public class HostService extends StatefulService {
     super.toggleOption(ServiceOption.OWNER_SELECTION, true);
     super.toggleOption(ServiceOption.PERSISTENCE, true);
     super.toggleOption(ServiceOption.REPLICATION, true);
-    super.toggleOption(ServiceOption.PERIODIC_MAINTENANCE, true);
     super.setMaintenanceIntervalMicros(TimeUnit.MILLISECONDS.toMicros(DEFAULT_MAINTENANCE_INTERVAL_MILLIS));
-    this.lastHostMetadataUpdateTime = System.currentTimeMillis();
   }
 
   @Override
@@ -168,6 +151,14 @@ public class HostService extends StatefulService {
     try {
       State startState = getState(patchOperation);
 
+      if (isSyncHostConfigRequest(patchOperation)) {
+        // Nothing changes in the document until the agent reports a new host config.
+        patchOperation.setStatusCode(Operation.STATUS_CODE_NOT_MODIFIED);
+        patchOperation.complete();
+        getHostConfig(null, startState);
+        return;
+      }
+
       State patchState = patchOperation.getBody(State.class);
       validatePatchState(startState, patchState);
 
@@ -183,8 +174,8 @@ public class HostService extends StatefulService {
       // proactively calls the agent to get host configuration
       // and update the host document. This is done as an
       // optimization for host provisioning.
-      // In-general, host configuration is updated as part of
-      // handleMaintenance of the Host Service.
+      // In-general, host configuration is updated when the
+      // HostHealthCheckService sends a SyncHostConfigRequest.
       if (stateChangedToReady) {
         getHostConfig(null, startState);
       }
@@ -211,98 +202,20 @@ public class HostService extends StatefulService {
     HostService.inUnitTests = inUnitTests;
   }
 
-  /**
-   * Handle periodic maintenance calls for all host service instances. We will be using this to ping all the hosts
-   * periodically to check if they are alive.
-   *
-   * @param maintenance
-   */
-  @Override
-  public void handleMaintenance(Operation maintenance) {
-    if (HostService.inUnitTests) {
-      return;
-    }
-    try {
-      // Return if the maintenance call is not the periodically scheduled one
-      ServiceMaintenanceRequest request = maintenance.getBody(ServiceMaintenanceRequest.class);
-      if (!request.reasons.contains(ServiceMaintenanceRequest.MaintenanceReason.PERIODIC_SCHEDULE)) {
-        maintenance.complete();
-        return;
-      }
-      getHost().schedule(() -> {
-        Operation getOperation = Operation.createGet(this, maintenance.getUri().getPath())
-            .setCompletion((op, ex) -> {
-              if (ex != null) {
-                ServiceUtils.logWarning(this, "Get request failed on Host Service to ping agent " + ex.getMessage());
-                maintenance.complete();
-                return;
-              }
-
-              State hostState = op.getBody(State.class);
-              // Retrieve host metadata if the interval has elapsed. Otherwise, just ping the
-              // host to perform a health-check.
-              if (System.currentTimeMillis() - lastHostMetadataUpdateTime >= UPDATE_HOST_METADATA_INTERVAL) {
-                getHostConfig(maintenance, hostState);
-              } else {
-                pingHost(maintenance, hostState);
-              }
-            });
-        sendRequest(getOperation);
-      }, ThreadLocalRandom.current().nextInt(1, DEFAULT_MAX_PING_WAIT_TIME_MILLIS), TimeUnit.MILLISECONDS);
-    } catch (Exception exception) {
-      ServiceUtils.logWarning(this, "Handle maintenance failed " + exception.getMessage());
-      maintenance.complete();
-    }
-  }
-
-  /**
-   * This method pings the agent on the host identified by the host document and updates the agent state in the host
-   * document if it determines a change in agent state.
-   * The thrift call to ping the agent is implemented as a runnable, which will be scheduled to run in the future.
-   * The time after which it runs is determined by a random integer between 1 and maxPingWaitTimeMillis. This is needed
-   * to achieve a randomized distribution of the polling task so that we reduce the number of concurrent connections.
-   *
-   * @param maintenance
-   * @param hostState
-   */
-  private void pingHost(Operation maintenance, State hostState) {
-    final Service service = this;
-    try {
-      AgentControlClient agentControlClient = ((AgentControlClientProvider) getHost()).getAgentControlClient();
-      agentControlClient.setIpAndPort(hostState.hostAddress, hostState.agentPort);
-      agentControlClient.ping(new AsyncMethodCallback<AgentControl.AsyncClient.ping_call>() {
-        @Override
-        public void onComplete(AgentControl.AsyncClient.ping_call pingCall) {
-          updateHostState(maintenance, hostState, AgentState.ACTIVE);
-        }
-
-        @Override
-        public void onError(Exception e) {
-          ServiceUtils.logInfo(service, "Failed to ping " + hostState.hostAddress + ", will be marked as missing:" +
-              e.getMessage());
-          updateHostState(maintenance, hostState, AgentState.MISSING);
-        }
-      });
-    } catch (Exception ex) {
-      ServiceUtils.logWarning(this, "Unexpected exception while pinging " + hostState.hostAddress + ", will be " +
-          "marked as missing:" + ex.getMessage());
-      updateHostState(maintenance, hostState, AgentState.MISSING);
-    }
+  public static boolean isInUnitTests() {
+    return HostService.inUnitTests;
   }
 
   /**
    * This method gets the host config (datastores, networks, etc.) from agent.
    * It also sets the agentState to ACTIVE or MISSING, depending on the result
-   * of the getHostConfig call. Because this updates agentState, handleMaintenance
-   * does not call pingHost when host configuration is updated.
+   * of the getHostConfig call.
    *
-   * The operation parameter is null when executed by handlePatch. But it
-   * is set for handleMaintenance.
+   * The operation parameter is null when executed by handlePatch.
    */
   private void getHostConfig(Operation operation, State hostState) {
     try {
       final Service service = this;
-      lastHostMetadataUpdateTime = System.currentTimeMillis();
       HostClient hostClient = ((HostClientProvider) getHost()).getHostClient();
       hostClient.setIpAndPort(hostState.hostAddress, hostState.agentPort);
       hostClient.getHostConfig(new AsyncMethodCallback<Host.AsyncClient.get_host_config_call>() {
@@ -341,10 +254,18 @@ public class HostService extends StatefulService {
    * @param hostConfig
    */
   private void processHostConfig(Operation operation, State hostState, HostConfig hostConfig) {
+    HashCode hostConfigHash = hashHostConfig(hostConfig);
+    if (hostConfigHash != null && hostConfigHash.equals(lastHostConfigHash)) {
+      ServiceUtils.logTrace(this, "Host config of %s did not change", hostState.hostAddress);
+      updateHostState(operation, hostState, AgentState.ACTIVE);
+      return;
+    }
+
     List<Datastore> datastores = hostConfig.getDatastores();
     List<Network> networks = hostConfig.getNetworks();
     Set<String> imageDatastoreIds = hostConfig.getImage_datastore_ids();
 
+    Operation hostPatch = null;
     try {
       HostService.State patchState = new HostService.State();
       patchState.agentState = AgentState.ACTIVE;
@@ -388,61 +309,89 @@ public class HostService extends StatefulService {
         patchState.memoryMb = hostConfig.getMemory_mb();
       }
 
-      TaskUtils.sendSelfPatch(this, patchState);
+      hostPatch = Operation.createPatch(this, getSelfLink()).setBody(patchState);
     } catch (Throwable ex) {
       ServiceUtils.logWarning(this, "Failed to update " + hostState.hostAddress + " with state: " +
           Utils.toJson(hostState) + " " + ex.getMessage());
+      hostConfigHash = null;
     }
 
-    // Update datastore state
-    setDatastoreState(operation, datastores, imageDatastoreIds);
+    // Update host and datastore state
+    setHostConfigState(operation, hostPatch, datastores, imageDatastoreIds, hostConfigHash);
   }
 
   /**
-   * This method creates or updates datastore state that was sent as a part of host config.
+   * This method computes the content hash of the host config, or returns null if it can not be serialized.
    *
+   * @param hostConfig
+   */
+  private HashCode hashHostConfig(HostConfig hostConfig) {
+    try {
+      return Hashing.sha256().hashBytes(new TSerializer(new TCompactProtocol.Factory()).serialize(hostConfig));
+    } catch (TException ex) {
+      ServiceUtils.logWarning(this, "Failed to hash host config " + ex.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * This method patches this host and creates or updates the datastore state that was sent as a part of
+   * host config. The operation gets completed once the host and all the datastore documents are updated,
+   * and the host config hash is recorded only if all of them were updated successfully.
+   *
+   * @param operation
+   * @param hostPatch
    * @param datastores
    * @param imageDatastores
-   * @param operation
+   * @param hostConfigHash
    */
-  private void setDatastoreState(Operation operation, List<Datastore> datastores, Set<String> imageDatastores) {
-    if (datastores != null) {
-      // Create datastore documents.
-      final CountDownLatch done = new CountDownLatch(datastores.size());
-      for (Datastore datastore : datastores) {
-        DatastoreService.State datastoreState = new DatastoreService.State();
-        datastoreState.documentSelfLink = datastore.getId();
-        datastoreState.id = datastore.getId();
-        datastoreState.name = datastore.getName();
-        datastoreState.type = datastore.getType().toString();
-        datastoreState.tags = datastore.getTags();
-        datastoreState.isImageDatastore = imageDatastores.contains(datastore.getId());
-
-        try {
-          Operation post = Operation
-              .createPost(UriUtils.buildUri(getHost(), DatastoreServiceFactory.SELF_LINK))
-              .setBody(datastoreState)
-              .setCompletion((op, ex) -> {
-                if (ex != null) {
-                  ServiceUtils.logWarning(this, "Set datastore state failed " + ex.getMessage());
-                }
-                done.countDown();
-              });
-          sendRequest(post);
-        } catch (Throwable t) {
-          ServiceUtils.logWarning(this, "Set datastore state failed " + t.getMessage());
-          done.countDown();
-        }
-      }
-      try {
-        done.await(UPDATE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
-      } catch (InterruptedException ex) {
-        logWarning("Got interrupted waiting for datastore update operations to complete");
-      }
+  private void setHostConfigState(Operation operation, Operation hostPatch, List<Datastore> datastores,
+                                  Set<String> imageDatastores, HashCode hostConfigHash) {
+    List<Operation> updates = new ArrayList<>();
+    if (hostPatch != null) {
+      updates.add(hostPatch);
     }
-    if (operation != null) {
-      operation.complete();
+
+    // Create datastore documents.
+    long expirationMicros = Utils.getNowMicrosUtc() + TimeUnit.SECONDS.toMicros(UPDATE_TIMEOUT_SECONDS);
+    for (Datastore datastore : datastores != null ? datastores : new ArrayList<Datastore>()) {
+      DatastoreService.State datastoreState = new DatastoreService.State();
+      datastoreState.documentSelfLink = datastore.getId();
+      datastoreState.id = datastore.getId();
+      datastoreState.name = datastore.getName();
+      datastoreState.type = datastore.getType().toString();
+      datastoreState.tags = datastore.getTags();
+      datastoreState.isImageDatastore = imageDatastores != null && imageDatastores.contains(datastore.getId());
+
+      updates.add(Operation
+          .createPost(UriUtils.buildUri(getHost(), DatastoreServiceFactory.SELF_LINK))
+          .setBody(datastoreState)
+          .setExpiration(expirationMicros));
     }
+
+    if (updates.isEmpty()) {
+      lastHostConfigHash = hostConfigHash;
+      if (operation != null) {
+        operation.complete();
+      }
+      return;
+    }
+
+    OperationJoin
+        .create(updates)
+        .setCompletion((ops, exs) -> {
+          if (exs != null && !exs.isEmpty()) {
+            ServiceUtils.logWarning(this, "Set host config state failed " +
+                exs.values().iterator().next().getMessage());
+          } else {
+            lastHostConfigHash = hostConfigHash;
+          }
+
+          if (operation != null) {
+            operation.complete();
+          }
+        })
+        .sendWith(this);
   }
 
   /**
@@ -526,11 +475,50 @@ public class HostService extends StatefulService {
         "Metadata must contain a value for key %s if the host is tagged as %s", key, UsageTag.MGMT.name()));
   }
 
+  /**
+   * The body is inspected without deserializing it, since getBody caches the body of the operation as the first
+   * type it is requested as.
+   */
+  private static boolean isSyncHostConfigRequest(Operation operation) {
+    Object body = operation.getBodyRaw();
+    if (body instanceof SyncHostConfigRequest) {
+      return SyncHostConfigRequest.KIND.equals(((SyncHostConfigRequest) body).kind);
+    }
+
+    if (body == null || body instanceof State) {
+      return false;
+    }
+
+    String json = body instanceof String ? (String) body : Utils.toJson(body);
+    SyncHostConfigRequest request = Utils.fromJson(json, SyncHostConfigRequest.class);
+    return request != null && SyncHostConfigRequest.KIND.equals(request.kind);
+  }
+
   private void validatePatchState(State startState, State patchState) {
     checkNotNull(patchState, "patch can not be null");
     ValidationUtils.validatePatch(startState, patchState);
   }
 
+  /**
+   * This class defines the body of a PATCH asking the host service to retrieve the
+   * host config from the agent and to update the host metadata if it changed.
+   */
+  public static class SyncHostConfigRequest {
+    public static final String KIND = Utils.buildKind(SyncHostConfigRequest.class);
+
+    /**
+     * This has no default value: any JSON body gets deserialized as a request when the host service inspects it,
+     * so only bodies which explicitly carry the kind are requests.
+     */
+    public String kind;
+
+    public static SyncHostConfigRequest create() {
+      SyncHostConfigRequest request = new SyncHostConfigRequest();
+      request.kind = KIND;
+      return request;
+    }
+  }
+
   /**
    * This class defines the document state associated with a single
    * {@link HostService} instance.
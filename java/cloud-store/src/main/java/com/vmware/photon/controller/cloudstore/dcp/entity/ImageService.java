@@ -246,6 +246,16 @@ public class ImageService extends StatefulService {
     @DefaultInteger(value = 0)
     public Integer replicatedImageDatastore;
 
+    /**
+     * SHA-256 fingerprint of the uploaded image file, used to find identical images.
+     */
+    public String contentFingerprint;
+
+    /**
+     * Id of the identical image whose datastore files this image uses instead of its own.
+     */
+    public String aliasOf;
+
     /**
      * Data object for additional image configuration settings.
      */
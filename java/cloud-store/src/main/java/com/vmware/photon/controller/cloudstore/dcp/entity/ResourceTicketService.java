@@ -32,9 +32,11 @@ import com.vmware.xenon.common.Utils;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Class ResourceTicketService is used for data persistence of Resource Ticket information.
@@ -45,6 +47,19 @@ public class ResourceTicketService extends StatefulService {
   private static final double BYTES_PER_MB = BYTES_PER_KB * 1024.0;
   private static final double BYTES_PER_GB = BYTES_PER_MB * 1024.0;
 
+  /**
+   * How long an escrow lease stays valid after it was last reserved or settled. The escrow of an expired lease
+   * keeps counting against the limits, since the API frontend node holding it may have consumed part of it
+   * without settling it yet.
+   */
+  public static final long ESCROW_LEASE_EXPIRATION_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+  /**
+   * How long the escrow of an expired lease is held for the lease holder to reconcile it with what it actually
+   * consumed, e.g. when it restarts. The escrow which is still not reconciled after that is released.
+   */
+  public static final long ESCROW_EXPIRED_LEASE_RETENTION_MICROS = TimeUnit.HOURS.toMicros(1);
+
   public ResourceTicketService() {
     super(State.class);
     super.toggleOption(ServiceOption.PERSISTENCE, true);
@@ -75,6 +90,7 @@ public class ResourceTicketService extends StatefulService {
       ServiceUtils.logInfo(this, "Patching service %s", getSelfLink());
       State currentState = getState(patchOperation);
       Patch patch = patchOperation.getBody(Patch.class);
+      expireEscrowLeases(currentState);
 
       switch (patch.patchtype) {
         case USAGE_CONSUME:
@@ -83,6 +99,14 @@ public class ResourceTicketService extends StatefulService {
         case USAGE_RETURN:
           returnUsage(patch, currentState);
           break;
+        case ESCROW_RESERVE:
+          checkEscrowHolderId(patch);
+          reserveEscrow(patch, currentState);
+          break;
+        case ESCROW_SETTLE:
+          checkEscrowHolderId(patch);
+          settleEscrow(patch, currentState);
+          break;
         default:
           String message =
               String.format("PatchType {%s} in patchOperation {%s}", patch.patchtype, patchOperation);
@@ -131,21 +155,7 @@ public class ResourceTicketService extends StatefulService {
 
     // now compare newUsage against limits. if usage > limit, then return false with no
     // side effects. otherwise, apply the new usage values, then blindly update rawUsage
-    for (QuotaLineItem qli : newUsage) {
-      if (!currentState.limitMap.containsKey(qli.getKey())) {
-        // only enforce limits is the usage entry is covered by
-        // limits
-        continue;
-      }
-
-      // test to see if the limit is less than the computed
-      // new usage. if it is, then abort
-      if (compare(currentState.limitMap.get(qli.getKey()), qli) < 0) {
-        throw new QuotaException(new QuotaErrorResponse(
-            currentState.limitMap.get(qli.getKey()),
-            currentState.usageMap.get(qli.getKey()), qli));
-      }
-    }
+    checkLimits(newUsage, currentState);
 
     // if we made it this far, commit the new usage
     for (QuotaLineItem qli : newUsage) {
@@ -162,6 +172,194 @@ public class ResourceTicketService extends StatefulService {
     }
   }
 
+  /**
+   * Reserves the cost of the patch as escrow for the lease holder. The escrow counts against the limits
+   * as if it were usage, so the holder can then consume it locally without patching this document.
+   */
+  private void reserveEscrow(Patch patch, State currentState)
+      throws QuotaException {
+    List<QuotaLineItem> newUsage = new ArrayList<>();
+    for (String key : patch.cost.keySet()) {
+      QuotaLineItem usage = currentState.usageMap.get(key);
+      if (usage == null) {
+        usage = new QuotaLineItem(key, 0.0, patch.cost.get(key).getUnit());
+      }
+      newUsage.add(add(usage, patch.cost.get(key)));
+    }
+
+    checkLimits(newUsage, currentState);
+
+    EscrowLease lease = currentState.escrowLeases.get(patch.escrowHolderId);
+    if (lease == null) {
+      lease = new EscrowLease();
+      currentState.escrowLeases.put(patch.escrowHolderId, lease);
+    }
+
+    for (Map.Entry<String, QuotaLineItem> entry : patch.cost.entrySet()) {
+      QuotaLineItem escrow = lease.escrowMap.get(entry.getKey());
+      lease.escrowMap.put(entry.getKey(), escrow == null ? entry.getValue() : add(escrow, entry.getValue()));
+    }
+
+    lease.expirationMicros = Utils.getNowMicrosUtc() + ESCROW_LEASE_EXPIRATION_MICROS;
+  }
+
+  /**
+   * Settles the escrow of the lease holder: the cost of the patch was consumed locally and becomes usage,
+   * and the released items are returned.
+   * <p>
+   * The cost is taken from the escrow of the lease, or from its expired escrow if the lease expired before the
+   * holder settled it. The consumption which is not covered by the lease at all, e.g. when the expired escrow was
+   * released already, is checked against the limits like USAGE_CONSUME. If the patch closes the lease, whatever
+   * the lease holds beyond the cost is released.
+   */
+  private void settleEscrow(Patch patch, State currentState)
+      throws QuotaException {
+    EscrowLease lease = currentState.escrowLeases.get(patch.escrowHolderId);
+    EscrowLease settledLease = copy(lease != null ? lease : new EscrowLease());
+
+    Map<String, QuotaLineItem> newUsage = new HashMap<>();
+    List<QuotaLineItem> uncoveredUsage = new ArrayList<>();
+    for (Map.Entry<String, QuotaLineItem> entry : patch.cost.entrySet()) {
+      QuotaLineItem uncovered = take(settledLease.expiredMap, take(settledLease.escrowMap, entry.getValue()));
+      QuotaLineItem usage = currentState.usageMap.get(entry.getKey());
+      usage = usage == null ? entry.getValue() : add(usage, entry.getValue());
+      newUsage.put(entry.getKey(), usage);
+      if (uncovered.getValue() > 0.0) {
+        uncoveredUsage.add(usage);
+      }
+    }
+
+    for (Map.Entry<String, QuotaLineItem> entry : patch.released.entrySet()) {
+      take(settledLease.expiredMap, take(settledLease.escrowMap, entry.getValue()));
+    }
+
+    if (patch.closeLease) {
+      settledLease.escrowMap.clear();
+      settledLease.expiredMap.clear();
+    }
+
+    Map<String, EscrowLease> leases = new HashMap<>(currentState.escrowLeases);
+    leases.put(patch.escrowHolderId, settledLease);
+    checkLimits(uncoveredUsage, currentState, leases);
+
+    currentState.usageMap.putAll(newUsage);
+    if (settledLease.escrowMap.isEmpty() && settledLease.expiredMap.isEmpty()) {
+      currentState.escrowLeases.remove(patch.escrowHolderId);
+      return;
+    }
+
+    if (!settledLease.escrowMap.isEmpty()) {
+      settledLease.expirationMicros = Utils.getNowMicrosUtc() + ESCROW_LEASE_EXPIRATION_MICROS;
+    }
+    currentState.escrowLeases.put(patch.escrowHolderId, settledLease);
+  }
+
+  /**
+   * Removes the item from the items, as far as they cover it, and returns the part of the item they did not cover.
+   */
+  private QuotaLineItem take(Map<String, QuotaLineItem> items, QuotaLineItem item) {
+    QuotaLineItem available = items.get(item.getKey());
+    if (available == null) {
+      return item;
+    }
+
+    if (compare(available, item) > 0) {
+      items.put(item.getKey(), subtract(available, item));
+      return new QuotaLineItem(item.getKey(), 0.0, item.getUnit());
+    }
+
+    items.remove(item.getKey());
+    return subtract(item, available);
+  }
+
+  private EscrowLease copy(EscrowLease lease) {
+    EscrowLease copy = new EscrowLease();
+    copy.escrowMap.putAll(lease.escrowMap);
+    copy.expiredMap.putAll(lease.expiredMap);
+    copy.expirationMicros = lease.expirationMicros;
+    copy.expiredMicros = lease.expiredMicros;
+    return copy;
+  }
+
+  private void checkEscrowHolderId(Patch patch) {
+    if (patch.escrowHolderId == null || patch.escrowHolderId.isEmpty()) {
+      throw new IllegalStateException("escrowHolderId cannot be empty for patch of type " + patch.patchtype);
+    }
+  }
+
+  /**
+   * Expires the leases which were neither reserved nor settled for a while. The holder may have consumed part of
+   * the escrow of an expired lease without settling it yet, e.g. if it restarted, so the escrow is not released:
+   * it keeps counting against the limits, without being counted as usage, until the holder settles it with what
+   * it actually consumed. The expired escrow of a holder which does not come back is released after a while.
+   */
+  private void expireEscrowLeases(State currentState) {
+    long now = Utils.getNowMicrosUtc();
+    Iterator<Map.Entry<String, EscrowLease>> iterator = currentState.escrowLeases.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<String, EscrowLease> entry = iterator.next();
+      EscrowLease lease = entry.getValue();
+      if (lease.expirationMicros != null && lease.expirationMicros >= now) {
+        continue;
+      }
+
+      if (!lease.escrowMap.isEmpty()) {
+        ServiceUtils.logInfo(this, "Escrow lease of %s expired, holding its escrow until it is settled",
+            entry.getKey());
+        for (QuotaLineItem escrow : lease.escrowMap.values()) {
+          QuotaLineItem expired = lease.expiredMap.get(escrow.getKey());
+          lease.expiredMap.put(escrow.getKey(), expired == null ? escrow : add(expired, escrow));
+        }
+
+        lease.escrowMap.clear();
+        lease.expiredMicros = now;
+      } else if (lease.expiredMicros == null || lease.expiredMicros + ESCROW_EXPIRED_LEASE_RETENTION_MICROS < now) {
+        if (!lease.expiredMap.isEmpty()) {
+          ServiceUtils.logWarning(this, "Escrow lease of %s was not settled, releasing its escrow %s",
+              entry.getKey(), lease.expiredMap.values());
+        }
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Checks the new usage values, plus the escrow held by all leases, expired or not, against the limits.
+   */
+  private void checkLimits(List<QuotaLineItem> newUsage, State currentState)
+      throws QuotaException {
+    checkLimits(newUsage, currentState, currentState.escrowLeases);
+  }
+
+  private void checkLimits(List<QuotaLineItem> newUsage, State currentState, Map<String, EscrowLease> leases)
+      throws QuotaException {
+    for (QuotaLineItem qli : newUsage) {
+      if (!currentState.limitMap.containsKey(qli.getKey())) {
+        // only enforce limits is the usage entry is covered by
+        // limits
+        continue;
+      }
+
+      QuotaLineItem committed = qli;
+      for (EscrowLease lease : leases.values()) {
+        if (lease.escrowMap.containsKey(qli.getKey())) {
+          committed = add(committed, lease.escrowMap.get(qli.getKey()));
+        }
+        if (lease.expiredMap.containsKey(qli.getKey())) {
+          committed = add(committed, lease.expiredMap.get(qli.getKey()));
+        }
+      }
+
+      // test to see if the limit is less than the computed
+      // new usage. if it is, then abort
+      if (compare(currentState.limitMap.get(qli.getKey()), committed) < 0) {
+        throw new QuotaException(new QuotaErrorResponse(
+            currentState.limitMap.get(qli.getKey()),
+            currentState.usageMap.get(qli.getKey()), committed));
+      }
+    }
+  }
+
   /**
    * Returns a QuotaLineItem whose value is this + val. The unit in the result are the same as
    * the unit in "this". That is to say if "this" is in KB and "val" is in MB, the result is in KB.
@@ -380,16 +578,44 @@ public class ResourceTicketService extends StatefulService {
 
     public Map<String, QuotaLineItem> cost = new HashMap<>();
 
+    // the escrow items returned unused, for ESCROW_SETTLE patches
+    public Map<String, QuotaLineItem> released = new HashMap<>();
+
+    // identifies the escrow lease, for ESCROW_RESERVE and ESCROW_SETTLE patches
+    public String escrowHolderId;
+
+    // releases all the escrow left in the lease after the cost, for ESCROW_SETTLE patches
+    public boolean closeLease;
+
     /**
      * Defines the purpose of the patch.
      */
     public enum PatchType {
       NONE,
       USAGE_CONSUME,
-      USAGE_RETURN
+      USAGE_RETURN,
+      ESCROW_RESERVE,
+      ESCROW_SETTLE
     }
   }
 
+  /**
+   * Headroom reserved by an API frontend node, which it consumes locally and settles in batches.
+   */
+  public static class EscrowLease {
+
+    // headroom reserved by the holder, counted against the limits on top of the usage
+    public Map<String, QuotaLineItem> escrowMap = new HashMap<>();
+
+    // escrow of the lease which expired before the holder settled it, still counted against the limits
+    public Map<String, QuotaLineItem> expiredMap = new HashMap<>();
+
+    public Long expirationMicros;
+
+    // when the escrow of the lease last expired
+    public Long expiredMicros;
+  }
+
   /**
    * Durable service state data. Class encapsulating the data for ResourceTicket.
    */
@@ -419,5 +645,8 @@ public class ResourceTicketService extends StatefulService {
     public Map<String, QuotaLineItem> limitMap = new HashMap<>();
 
     public Map<String, QuotaLineItem> usageMap = new HashMap<>();
+
+    // escrow leases by holder id, counted against the limits but not reported as usage
+    public Map<String, EscrowLease> escrowLeases = new HashMap<>();
   }
 }
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.vmware.photon.controller.cloudstore.dcp.task;
+
+import com.vmware.photon.controller.agent.gen.AgentControl;
+import com.vmware.photon.controller.api.AgentState;
+import com.vmware.photon.controller.cloudstore.dcp.entity.HostService;
+import com.vmware.photon.controller.common.clients.AgentControlClient;
+import com.vmware.photon.controller.common.clients.AgentControlClientProvider;
+import com.vmware.photon.controller.common.xenon.ServiceUriPaths;
+import com.vmware.photon.controller.common.xenon.ServiceUtils;
+import com.vmware.xenon.common.Operation;
+import com.vmware.xenon.common.OperationJoin;
+import com.vmware.xenon.common.ServiceDocument;
+import com.vmware.xenon.common.ServiceDocumentQueryResult;
+import com.vmware.xenon.common.StatelessService;
+import com.vmware.xenon.common.UriUtils;
+import com.vmware.xenon.common.Utils;
+import com.vmware.xenon.services.common.QueryTask;
+
+import org.apache.thrift.async.AsyncMethodCallback;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class implements a service which checks the health of the agents of the hosts.
+ * <p>
+ * Every cloud-store node runs an instance of this service, which only checks the hosts whose
+ * {@link HostService} documents are owned by the node, so the hosts are sharded across the nodes
+ * the same way as their documents. Each round pings the agents with a bounded number of pings in
+ * flight, over connections pooled per agent, and writes the agent state changes in batches. Every
+ * {@link HostService#UPDATE_HOST_METADATA_INTERVAL} the host service is asked to synchronize the
+ * host config instead of pinging the agent.
+ * <p>
+ * A round runs every maintenance interval, and on POST, which completes once the round is done.
+ */
+public class HostHealthCheckService extends StatelessService {
+
+  public static final String SELF_LINK = ServiceUriPaths.CLOUDSTORE_ROOT + "/host-health-checker";
+
+  /**
+   * This value represents the maximum number of agents being pinged at the same time.
+   */
+  public static final int MAX_CONCURRENT_PINGS = 64;
+
+  /**
+   * This value represents the maximum number of agent state updates being sent at the same time.
+   */
+  public static final int PATCH_BATCH_SIZE = 32;
+
+  private final AtomicBoolean checking = new AtomicBoolean(false);
+
+  /**
+   * This represents the soft state that maintains the last time the host config of each host was synchronized.
+   */
+  private final Map<String, Long> lastHostConfigSyncTimes = new ConcurrentHashMap<>();
+
+  public HostHealthCheckService() {
+    super.toggleOption(ServiceOption.PERIODIC_MAINTENANCE, true);
+    super.setMaintenanceIntervalMicros(TimeUnit.MILLISECONDS.toMicros(HostService.DEFAULT_MAINTENANCE_INTERVAL_MILLIS));
+  }
+
+  @Override
+  public void handlePost(Operation post) {
+    checkHosts(post);
+  }
+
+  @Override
+  public void handleMaintenance(Operation maintenance) {
+    maintenance.complete();
+    if (HostService.isInUnitTests()) {
+      return;
+    }
+
+    checkHosts(null);
+  }
+
+  /**
+   * Starts a round over the hosts owned by this node, unless a round is already running. The
+   * operation is completed once the round is done.
+   *
+   * @param operation
+   */
+  private void checkHosts(Operation operation) {
+    if (!checking.compareAndSet(false, true)) {
+      ServiceUtils.logInfo(this, "Skipping host health check, the previous one is still running");
+      if (operation != null) {
+        operation.complete();
+      }
+      return;
+    }
+
+    QueryTask.QuerySpecification querySpec = new QueryTask.QuerySpecification();
+    querySpec.query = new QueryTask.Query()
+        .setTermPropertyName(ServiceDocument.FIELD_NAME_KIND)
+        .setTermMatchValue(Utils.buildKind(HostService.State.class));
+    querySpec.options = EnumSet.of(QueryTask.QuerySpecification.QueryOption.EXPAND_CONTENT);
+
+    URI queryUri = UriUtils.buildUri(getHost(),
+        com.vmware.xenon.services.common.ServiceUriPaths.CORE_LOCAL_QUERY_TASKS);
+    sendRequest(Operation
+        .createPost(queryUri)
+        .setBody(QueryTask.create(querySpec).setDirect(true))
+        .setCompletion((op, ex) -> {
+          if (ex != null) {
+            ServiceUtils.logWarning(this, "Failed to query hosts: " + ex.getMessage());
+            finishCheck(operation);
+            return;
+          }
+
+          new HealthCheck(getOwnedHosts(op.getBody(QueryTask.class).results), operation).start();
+        }));
+  }
+
+  private List<HostService.State> getOwnedHosts(ServiceDocumentQueryResult results) {
+    List<HostService.State> hosts = new ArrayList<>();
+    Set<String> hostLinks = new HashSet<>();
+    if (results != null && results.documents != null) {
+      for (Object document : results.documents.values()) {
+        HostService.State hostState = Utils.fromJson(document, HostService.State.class);
+        if (getHost().getId().equals(hostState.documentOwner)) {
+          hosts.add(hostState);
+          hostLinks.add(hostState.documentSelfLink);
+        }
+      }
+    }
+
+    // Forget the hosts which were deleted or are now owned by another node.
+    lastHostConfigSyncTimes.keySet().retainAll(hostLinks);
+    return hosts;
+  }
+
+  private void finishCheck(Operation operation) {
+    checking.set(false);
+    if (operation != null) {
+      operation.complete();
+    }
+  }
+
+  /**
+   * This class implements a round of health checks.
+   */
+  private class HealthCheck {
+    private final Queue<HostService.State> pendingHosts;
+    private final AtomicInteger remainingHosts;
+    private final Map<String, AgentState> agentStateChanges = new ConcurrentHashMap<>();
+    private final Operation operation;
+
+    private HealthCheck(List<HostService.State> hosts, Operation operation) {
+      this.pendingHosts = new ConcurrentLinkedQueue<>(hosts);
+      this.remainingHosts = new AtomicInteger(hosts.size());
+      this.operation = operation;
+    }
+
+    private void start() {
+      if (pendingHosts.isEmpty()) {
+        finishCheck(operation);
+        return;
+      }
+
+      for (int i = Math.min(MAX_CONCURRENT_PINGS, pendingHosts.size()); i > 0; i--) {
+        checkNextHost();
+      }
+    }
+
+    private void checkNextHost() {
+      HostService.State hostState = pendingHosts.poll();
+      if (hostState == null) {
+        return;
+      }
+
+      long now = System.currentTimeMillis();
+      Long lastSyncTime = lastHostConfigSyncTimes.putIfAbsent(hostState.documentSelfLink, now);
+      if (lastSyncTime != null && now - lastSyncTime >= HostService.UPDATE_HOST_METADATA_INTERVAL) {
+        lastHostConfigSyncTimes.put(hostState.documentSelfLink, now);
+        syncHostConfig(hostState);
+      } else {
+        pingHost(hostState);
+      }
+    }
+
+    /**
+     * The host service retrieves the host config and updates the agent state by itself.
+     */
+    private void syncHostConfig(HostService.State hostState) {
+      sendRequest(Operation
+          .createPatch(UriUtils.buildUri(getHost(), hostState.documentSelfLink))
+          .setBody(HostService.SyncHostConfigRequest.create())
+          .setCompletion((op, ex) -> {
+            if (ex != null) {
+              ServiceUtils.logWarning(HostHealthCheckService.this, "Failed to sync host config of " +
+                  hostState.hostAddress + ": " + ex.getMessage());
+            }
+
+            hostChecked();
+          }));
+    }
+
+    private void pingHost(HostService.State hostState) {
+      AgentControlClient agentControlClient = null;
+      try {
+        agentControlClient = ((AgentControlClientProvider) getHost()).getAgentControlClient();
+        agentControlClient.setIpAndPort(hostState.hostAddress, hostState.agentPort);
+        final AgentControlClient client = agentControlClient;
+        agentControlClient.ping(new AsyncMethodCallback<AgentControl.AsyncClient.ping_call>() {
+          @Override
+          public void onComplete(AgentControl.AsyncClient.ping_call pingCall) {
+            client.close();
+            hostChecked(hostState, AgentState.ACTIVE);
+          }
+
+          @Override
+          public void onError(Exception e) {
+            ServiceUtils.logInfo(HostHealthCheckService.this, "Failed to ping " + hostState.hostAddress +
+                ", will be marked as missing:" + e.getMessage());
+            client.close();
+            hostChecked(hostState, AgentState.MISSING);
+          }
+        });
+      } catch (Exception ex) {
+        ServiceUtils.logWarning(HostHealthCheckService.this, "Unexpected exception while pinging " +
+            hostState.hostAddress + ", will be marked as missing:" + ex.getMessage());
+        if (agentControlClient != null) {
+          agentControlClient.close();
+        }
+        hostChecked(hostState, AgentState.MISSING);
+      }
+    }
+
+    private void hostChecked(HostService.State hostState, AgentState agentState) {
+      if (hostState.agentState != agentState) {
+        ServiceUtils.logInfo(HostHealthCheckService.this, "Agent state for host " + hostState.hostAddress +
+            " changed from " + hostState.agentState + " -> " + agentState);
+        agentStateChanges.put(hostState.documentSelfLink, agentState);
+      }
+
+      hostChecked();
+    }
+
+    private void hostChecked() {
+      if (remainingHosts.decrementAndGet() == 0) {
+        updateAgentStates();
+      } else {
+        checkNextHost();
+      }
+    }
+
+    private void updateAgentStates() {
+      if (agentStateChanges.isEmpty()) {
+        finishCheck(operation);
+        return;
+      }
+
+      List<Operation> patches = new ArrayList<>(agentStateChanges.size());
+      for (Map.Entry<String, AgentState> change : agentStateChanges.entrySet()) {
+        HostService.State patchState = new HostService.State();
+        patchState.agentState = change.getValue();
+        patches.add(Operation.createPatch(UriUtils.buildUri(getHost(), change.getKey())).setBody(patchState));
+      }
+
+      OperationJoin
+          .create(patches)
+          .setCompletion((ops, exs) -> {
+            if (exs != null && !exs.isEmpty()) {
+              ServiceUtils.logWarning(HostHealthCheckService.this, "Failed to update the agent state of " +
+                  exs.size() + " hosts: " + exs.values().iterator().next().getMessage());
+            }
+
+            finishCheck(operation);
+          })
+          .sendWith(HostHealthCheckService.this, PATCH_BATCH_SIZE);
+    }
+  }
+}
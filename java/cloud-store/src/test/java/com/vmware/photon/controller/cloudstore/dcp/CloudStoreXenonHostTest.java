@@ -40,6 +40,7 @@ import com.vmware.photon.controller.cloudstore.dcp.helpers.TestHelper;
 import com.vmware.photon.controller.cloudstore.dcp.helpers.UpgradeHelper;
 import com.vmware.photon.controller.cloudstore.dcp.task.AvailabilityZoneCleanerFactoryService;
 import com.vmware.photon.controller.cloudstore.dcp.task.EntityLockCleanerFactoryService;
+import com.vmware.photon.controller.cloudstore.dcp.task.HostHealthCheckService;
 import com.vmware.photon.controller.cloudstore.dcp.task.TombstoneCleanerFactoryService;
 import com.vmware.photon.controller.cloudstore.dcp.task.trigger.AvailabilityZoneCleanerTriggerBuilder;
 import com.vmware.photon.controller.cloudstore.dcp.task.trigger.EntityLockCleanerTriggerBuilder;
@@ -101,6 +102,7 @@ public class CloudStoreXenonHostTest {
       TenantServiceFactory.SELF_LINK,
       ResourceTicketServiceFactory.SELF_LINK,
       StatusService.SELF_LINK,
+      HostHealthCheckService.SELF_LINK,
       VmServiceFactory.SELF_LINK,
       DiskServiceFactory.SELF_LINK,
       AttachedDiskServiceFactory.SELF_LINK,
@@ -37,6 +37,7 @@ import com.vmware.xenon.common.Service;
 import com.vmware.xenon.common.ServiceConfiguration;
 import com.vmware.xenon.common.ServiceDocumentDescription;
 import com.vmware.xenon.common.ServiceDocumentQueryResult;
+import com.vmware.xenon.common.UriUtils;
 import com.vmware.xenon.common.Utils;
 import com.vmware.xenon.services.common.NodeGroupBroadcastResponse;
 import com.vmware.xenon.services.common.QueryTask;
@@ -63,6 +64,8 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.fail;
 
@@ -113,8 +116,7 @@ public class HostServiceTest {
           Service.ServiceOption.CONCURRENT_GET_HANDLING,
           Service.ServiceOption.OWNER_SELECTION,
           Service.ServiceOption.PERSISTENCE,
-          Service.ServiceOption.REPLICATION,
-          Service.ServiceOption.PERIODIC_MAINTENANCE);
+          Service.ServiceOption.REPLICATION);
 
       HostService service = new HostService();
       assertThat(service.getMaintenanceIntervalMicros(),
@@ -372,6 +374,35 @@ public class HostServiceTest {
       assertThat(savedState, is(Matchers.notNullValue()));
     }
 
+    /**
+     * This test verifies that patches with a JSON body, as received over HTTP or forwarded from another node,
+     * are applied and not mistaken for host config sync requests.
+     *
+     * @throws Throwable
+     */
+    @Test
+    public void testPatchWithJsonBody() throws Throwable {
+      host.startServiceSynchronously(new HostServiceFactory(), null);
+      Operation result = dcpRestClient.post(HostServiceFactory.SELF_LINK,
+          TestHelper.getHostServiceStartState());
+      assertThat(result.getStatusCode(), is(Operation.STATUS_CODE_OK));
+      HostService.State createdState = result.getBody(HostService.State.class);
+
+      HostService.State patchState = new HostService.State();
+      patchState.reportedDatastores = new HashSet<>();
+      patchState.reportedDatastores.add("d1");
+      Operation patch = Operation
+          .createPatch(UriUtils.buildUri(host, createdState.documentSelfLink))
+          .setBody(Utils.toJson(patchState))
+          .setContentType(Operation.MEDIA_TYPE_APPLICATION_JSON);
+      result = host.sendRequestAndWait(patch);
+      assertThat(result.getStatusCode(), is(Operation.STATUS_CODE_OK));
+
+      HostService.State savedState = dcpRestClient.get(createdState.documentSelfLink)
+          .getBody(HostService.State.class);
+      assertThat(savedState.reportedDatastores, containsInAnyOrder("d1"));
+    }
+
     @Test
     public void testInvalidPatchWithHostAddress() throws Throwable {
       host.startServiceSynchronously(new HostServiceFactory(), null);
@@ -575,6 +606,88 @@ public class HostServiceTest {
       assertThat(savedState.esxVersion, is(esxVersion));
     }
 
+    @Test
+    public void updateHostConfigUnchanged() throws Throwable {
+      HostClientFactory hostClientFactory = mockHostClient(true);
+      testEnvironment = new TestEnvironment.Builder()
+          .hostClientFactory(hostClientFactory)
+          .hostCount(1)
+          .build();
+
+      Operation result = testEnvironment.sendPostAndWait(HostServiceFactory.SELF_LINK,
+          TestHelper.getHostServiceStartState());
+      assertThat(result.getStatusCode(), is(Operation.STATUS_CODE_OK));
+      HostService.State createdState = result.getBody(HostService.State.class);
+
+      HostService.State patchState = new HostService.State();
+      patchState.state = HostState.READY;
+      testEnvironment.sendPatchAndWait(createdState.documentSelfLink, patchState);
+
+      String datastoreLink = DatastoreServiceFactory.getDocumentLink(datastoreList.get(0).getId());
+      DatastoreService.State datastoreState = null;
+      for (int retryCount = 0; datastoreState == null && retryCount < 10; retryCount++) {
+        Thread.sleep(500);
+        try {
+          datastoreState = testEnvironment.getServiceState(datastoreLink, DatastoreService.State.class);
+        } catch (Throwable t) {
+          // The datastore document is not created yet
+        }
+      }
+      assertNotNull(datastoreState, "Failed to update the datastores");
+
+      // The agent reports the same host config, so the datastores are not updated again
+      patchState.state = HostState.MAINTENANCE;
+      testEnvironment.sendPatchAndWait(createdState.documentSelfLink, patchState);
+      patchState.state = HostState.READY;
+      testEnvironment.sendPatchAndWait(createdState.documentSelfLink, patchState);
+
+      verify(hostClientFactory.create(), timeout(5000).times(2)).getHostConfig(any(AsyncMethodCallback.class));
+      Thread.sleep(500);
+      DatastoreService.State savedDatastoreState =
+          testEnvironment.getServiceState(datastoreLink, DatastoreService.State.class);
+      assertThat(savedDatastoreState.documentVersion, is(datastoreState.documentVersion));
+    }
+
+    @DataProvider(name = "SyncHostConfigBodies")
+    public Object[][] getSyncHostConfigBodies() {
+      return new Object[][]{
+          {HostService.SyncHostConfigRequest.create()},
+          {Utils.toJson(HostService.SyncHostConfigRequest.create())},
+      };
+    }
+
+    @Test(dataProvider = "SyncHostConfigBodies")
+    public void syncHostConfig(Object body) throws Throwable {
+      HostClientFactory hostClientFactory = mockHostClient(true);
+      testEnvironment = new TestEnvironment.Builder()
+          .hostClientFactory(hostClientFactory)
+          .hostCount(1)
+          .build();
+
+      Operation result = testEnvironment.sendPostAndWait(HostServiceFactory.SELF_LINK,
+          TestHelper.getHostServiceStartState());
+      assertThat(result.getStatusCode(), is(Operation.STATUS_CODE_OK));
+      HostService.State createdState = result.getBody(HostService.State.class);
+
+      Operation syncOperation = Operation
+          .createPatch(UriUtils.buildUri(testEnvironment.getHosts()[0], createdState.documentSelfLink))
+          .setBody(body)
+          .setContentType(Operation.MEDIA_TYPE_APPLICATION_JSON);
+      result = testEnvironment.sendRequestAndWait(syncOperation, testEnvironment.getHosts()[0]);
+      assertThat(result.getStatusCode(), is(Operation.STATUS_CODE_NOT_MODIFIED));
+
+      verify(hostClientFactory.create(), timeout(5000)).getHostConfig(any(AsyncMethodCallback.class));
+      int retryCount = 0;
+      HostService.State savedState;
+      do {
+        savedState = testEnvironment.getServiceState(createdState.documentSelfLink, HostService.State.class);
+        Thread.sleep(500);
+      } while (savedState.cpuCount == null && retryCount++ < 10);
+
+      assertThat(savedState.cpuCount, is(hostCpuCount));
+      assertThat(savedState.agentState, is(AgentState.ACTIVE));
+    }
+
     @Test
     public void updateHostConfigOnFailure() throws Throwable {
       HostClientFactory hostClient = mockHostClient(false);
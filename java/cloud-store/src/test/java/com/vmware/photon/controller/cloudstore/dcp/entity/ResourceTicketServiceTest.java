@@ -25,6 +25,7 @@ import com.vmware.photon.controller.common.xenon.exceptions.XenonRuntimeExceptio
 import com.vmware.xenon.common.Operation;
 import com.vmware.xenon.common.Service;
 import com.vmware.xenon.common.ServiceErrorResponse;
+import com.vmware.xenon.common.Utils;
 
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
@@ -373,6 +374,212 @@ public class ResourceTicketServiceTest {
       assertThat(patchedState.usageMap.get("key1").getValue(), is(0.0));
       assertThat(patchedState.usageMap.get("key2").getValue(), is(0.0));
     }
+
+    /**
+     * Test escrow reserved by a lease holder counts against the limits, and becomes usage when settled.
+     *
+     * @throws Throwable
+     */
+    @Test
+    public void testEscrowReserveAndSettle() throws Throwable {
+      Operation result = dcpRestClient.post(ResourceTicketServiceFactory.SELF_LINK, testState);
+      assertThat(result.getStatusCode(), is(200));
+      ResourceTicketService.State createdState = result.getBody(ResourceTicketService.State.class);
+
+      ResourceTicketService.Patch reserve = new ResourceTicketService.Patch();
+      reserve.patchtype = ResourceTicketService.Patch.PatchType.ESCROW_RESERVE;
+      reserve.escrowHolderId = "holder1";
+      reserve.cost.put("key1", new QuotaLineItem("key1", 6.0, QuotaUnit.COUNT));
+      dcpRestClient.patch(createdState.documentSelfLink, reserve);
+
+      ResourceTicketService.State patchedState =
+          dcpRestClient.get(createdState.documentSelfLink).getBody(ResourceTicketService.State.class);
+      assertThat(patchedState.usageMap.get("key1"), is(nullValue()));
+      assertThat(patchedState.escrowLeases.get("holder1").escrowMap.get("key1").getValue(), is(6.0));
+
+      // The escrow of holder1 is not available to other consumers
+      ResourceTicketService.Patch consume = new ResourceTicketService.Patch();
+      consume.patchtype = ResourceTicketService.Patch.PatchType.USAGE_CONSUME;
+      consume.cost.put("key1", new QuotaLineItem("key1", 5.0, QuotaUnit.COUNT));
+      try {
+        dcpRestClient.patch(createdState.documentSelfLink, consume);
+        fail("resource ticket consume above limits should have failed");
+      } catch (BadRequestException e) {
+        ResourceTicketService.QuotaErrorResponse quotaErrorResponse =
+            e.getCompletedOperation().getBody(ResourceTicketService.QuotaErrorResponse.class);
+        assertThat(quotaErrorResponse.newUsage.getValue(), is(11.0));
+      }
+
+      ResourceTicketService.Patch settle = new ResourceTicketService.Patch();
+      settle.patchtype = ResourceTicketService.Patch.PatchType.ESCROW_SETTLE;
+      settle.escrowHolderId = "holder1";
+      settle.cost.put("key1", new QuotaLineItem("key1", 2.0, QuotaUnit.COUNT));
+      settle.released.put("key1", new QuotaLineItem("key1", 4.0, QuotaUnit.COUNT));
+      dcpRestClient.patch(createdState.documentSelfLink, settle);
+
+      patchedState = dcpRestClient.get(createdState.documentSelfLink).getBody(ResourceTicketService.State.class);
+      assertThat(patchedState.usageMap.get("key1").getValue(), is(2.0));
+      assertThat(patchedState.escrowLeases.isEmpty(), is(true));
+
+      dcpRestClient.patch(createdState.documentSelfLink, consume);
+      patchedState = dcpRestClient.get(createdState.documentSelfLink).getBody(ResourceTicketService.State.class);
+      assertThat(patchedState.usageMap.get("key1").getValue(), is(7.0));
+    }
+
+    /**
+     * Test the escrow of an expired lease keeps counting against the limits without being counted as usage, and a
+     * late settlement is reconciled against it.
+     *
+     * @throws Throwable
+     */
+    @Test
+    public void testExpiredEscrowHeldUntilSettled() throws Throwable {
+      ResourceTicketService.EscrowLease lease = new ResourceTicketService.EscrowLease();
+      lease.escrowMap.put("key1", new QuotaLineItem("key1", 6.0, QuotaUnit.COUNT));
+      lease.expirationMicros = Utils.getNowMicrosUtc() - 1;
+      testState.escrowLeases.put("holder1", lease);
+      Operation result = dcpRestClient.post(ResourceTicketServiceFactory.SELF_LINK, testState);
+      assertThat(result.getStatusCode(), is(200));
+      ResourceTicketService.State createdState = result.getBody(ResourceTicketService.State.class);
+
+      // The holder may have consumed its escrow before it went away
+      ResourceTicketService.Patch consume = new ResourceTicketService.Patch();
+      consume.patchtype = ResourceTicketService.Patch.PatchType.USAGE_CONSUME;
+      consume.cost.put("key1", new QuotaLineItem("key1", 4.0, QuotaUnit.COUNT));
+      dcpRestClient.patch(createdState.documentSelfLink, consume);
+
+      ResourceTicketService.State patchedState =
+          dcpRestClient.get(createdState.documentSelfLink).getBody(ResourceTicketService.State.class);
+      assertThat(patchedState.usageMap.get("key1").getValue(), is(4.0));
+      assertThat(patchedState.escrowLeases.get("holder1").escrowMap.isEmpty(), is(true));
+      assertThat(patchedState.escrowLeases.get("holder1").expiredMap.get("key1").getValue(), is(6.0));
+
+      try {
+        dcpRestClient.patch(createdState.documentSelfLink, consume);
+        fail("resource ticket consume above limits should have failed");
+      } catch (BadRequestException e) {
+        ResourceTicketService.QuotaErrorResponse quotaErrorResponse =
+            e.getCompletedOperation().getBody(ResourceTicketService.QuotaErrorResponse.class);
+        assertThat(quotaErrorResponse.newUsage.getValue(), is(14.0));
+      }
+
+      // The late settlement counts what the holder actually consumed, and returns the released escrow
+      ResourceTicketService.Patch settle = new ResourceTicketService.Patch();
+      settle.patchtype = ResourceTicketService.Patch.PatchType.ESCROW_SETTLE;
+      settle.escrowHolderId = "holder1";
+      settle.cost.put("key1", new QuotaLineItem("key1", 2.0, QuotaUnit.COUNT));
+      settle.released.put("key1", new QuotaLineItem("key1", 4.0, QuotaUnit.COUNT));
+      dcpRestClient.patch(createdState.documentSelfLink, settle);
+
+      patchedState = dcpRestClient.get(createdState.documentSelfLink).getBody(ResourceTicketService.State.class);
+      assertThat(patchedState.usageMap.get("key1").getValue(), is(6.0));
+      assertThat(patchedState.escrowLeases.isEmpty(), is(true));
+    }
+
+    /**
+     * Test the expired escrow which the holder does not settle is eventually released rather than counted as usage.
+     *
+     * @throws Throwable
+     */
+    @Test
+    public void testExpiredEscrowReleasedAfterRetention() throws Throwable {
+      ResourceTicketService.EscrowLease lease = new ResourceTicketService.EscrowLease();
+      lease.expiredMap.put("key1", new QuotaLineItem("key1", 6.0, QuotaUnit.COUNT));
+      lease.expirationMicros = Utils.getNowMicrosUtc() - ResourceTicketService.ESCROW_EXPIRED_LEASE_RETENTION_MICROS;
+      lease.expiredMicros = lease.expirationMicros - 1;
+      testState.escrowLeases.put("holder1", lease);
+      Operation result = dcpRestClient.post(ResourceTicketServiceFactory.SELF_LINK, testState);
+      assertThat(result.getStatusCode(), is(200));
+      ResourceTicketService.State createdState = result.getBody(ResourceTicketService.State.class);
+
+      ResourceTicketService.Patch consume = new ResourceTicketService.Patch();
+      consume.patchtype = ResourceTicketService.Patch.PatchType.USAGE_CONSUME;
+      consume.cost.put("key1", new QuotaLineItem("key1", 10.0, QuotaUnit.COUNT));
+      dcpRestClient.patch(createdState.documentSelfLink, consume);
+
+      ResourceTicketService.State patchedState =
+          dcpRestClient.get(createdState.documentSelfLink).getBody(ResourceTicketService.State.class);
+      assertThat(patchedState.usageMap.get("key1").getValue(), is(10.0));
+      assertThat(patchedState.escrowLeases.isEmpty(), is(true));
+    }
+
+    /**
+     * Test a settlement closing the lease releases the escrow left in it, expired or not.
+     *
+     * @throws Throwable
+     */
+    @Test
+    public void testSettleClosingLease() throws Throwable {
+      ResourceTicketService.EscrowLease lease = new ResourceTicketService.EscrowLease();
+      lease.escrowMap.put("key1", new QuotaLineItem("key1", 3.0, QuotaUnit.COUNT));
+      lease.expiredMap.put("key1", new QuotaLineItem("key1", 3.0, QuotaUnit.COUNT));
+      lease.expirationMicros = Utils.getNowMicrosUtc() + ResourceTicketService.ESCROW_LEASE_EXPIRATION_MICROS;
+      testState.escrowLeases.put("holder1", lease);
+      Operation result = dcpRestClient.post(ResourceTicketServiceFactory.SELF_LINK, testState);
+      assertThat(result.getStatusCode(), is(200));
+      ResourceTicketService.State createdState = result.getBody(ResourceTicketService.State.class);
+
+      ResourceTicketService.Patch settle = new ResourceTicketService.Patch();
+      settle.patchtype = ResourceTicketService.Patch.PatchType.ESCROW_SETTLE;
+      settle.escrowHolderId = "holder1";
+      settle.cost.put("key1", new QuotaLineItem("key1", 2.0, QuotaUnit.COUNT));
+      settle.closeLease = true;
+      dcpRestClient.patch(createdState.documentSelfLink, settle);
+
+      ResourceTicketService.State patchedState =
+          dcpRestClient.get(createdState.documentSelfLink).getBody(ResourceTicketService.State.class);
+      assertThat(patchedState.usageMap.get("key1").getValue(), is(2.0));
+      assertThat(patchedState.escrowLeases.isEmpty(), is(true));
+    }
+
+    /**
+     * Test the consumption settled without a lease covering it is checked against the limits.
+     *
+     * @throws Throwable
+     */
+    @Test
+    public void testSettleWithoutLeaseChecksLimits() throws Throwable {
+      Operation result = dcpRestClient.post(ResourceTicketServiceFactory.SELF_LINK, testState);
+      assertThat(result.getStatusCode(), is(200));
+      ResourceTicketService.State createdState = result.getBody(ResourceTicketService.State.class);
+
+      ResourceTicketService.Patch settle = new ResourceTicketService.Patch();
+      settle.patchtype = ResourceTicketService.Patch.PatchType.ESCROW_SETTLE;
+      settle.escrowHolderId = "holder1";
+      settle.cost.put("key1", new QuotaLineItem("key1", 11.0, QuotaUnit.COUNT));
+      try {
+        dcpRestClient.patch(createdState.documentSelfLink, settle);
+        fail("resource ticket settle above limits should have failed");
+      } catch (BadRequestException e) {
+        ResourceTicketService.QuotaErrorResponse quotaErrorResponse =
+            e.getCompletedOperation().getBody(ResourceTicketService.QuotaErrorResponse.class);
+        assertThat(quotaErrorResponse.newUsage.getValue(), is(11.0));
+      }
+
+      settle.cost.put("key1", new QuotaLineItem("key1", 3.0, QuotaUnit.COUNT));
+      dcpRestClient.patch(createdState.documentSelfLink, settle);
+
+      ResourceTicketService.State patchedState =
+          dcpRestClient.get(createdState.documentSelfLink).getBody(ResourceTicketService.State.class);
+      assertThat(patchedState.usageMap.get("key1").getValue(), is(3.0));
+      assertThat(patchedState.escrowLeases.isEmpty(), is(true));
+    }
+
+    /**
+     * Test escrow patches need a lease holder.
+     *
+     * @throws Throwable
+     */
+    @Test(expectedExceptions = BadRequestException.class)
+    public void testEscrowReserveWithoutHolder() throws Throwable {
+      Operation result = dcpRestClient.post(ResourceTicketServiceFactory.SELF_LINK, testState);
+      ResourceTicketService.State createdState = result.getBody(ResourceTicketService.State.class);
+
+      ResourceTicketService.Patch reserve = new ResourceTicketService.Patch();
+      reserve.patchtype = ResourceTicketService.Patch.PatchType.ESCROW_RESERVE;
+      reserve.cost.put("key1", new QuotaLineItem("key1", 1.0, QuotaUnit.COUNT));
+      dcpRestClient.patch(createdState.documentSelfLink, reserve);
+    }
   }
 
   /**
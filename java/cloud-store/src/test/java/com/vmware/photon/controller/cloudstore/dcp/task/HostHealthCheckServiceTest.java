@@ -0,0 +1,169 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.vmware.photon.controller.cloudstore.dcp.task;
+
+import com.vmware.photon.controller.agent.gen.AgentControl;
+import com.vmware.photon.controller.api.AgentState;
+import com.vmware.photon.controller.cloudstore.dcp.entity.HostService;
+import com.vmware.photon.controller.cloudstore.dcp.entity.HostServiceFactory;
+import com.vmware.photon.controller.cloudstore.dcp.helpers.TestEnvironment;
+import com.vmware.photon.controller.cloudstore.dcp.helpers.TestHelper;
+import com.vmware.photon.controller.common.clients.AgentControlClient;
+import com.vmware.photon.controller.common.clients.AgentControlClientFactory;
+import com.vmware.xenon.common.Operation;
+import com.vmware.xenon.common.Service;
+import com.vmware.xenon.common.ServiceDocument;
+
+import org.apache.thrift.TException;
+import org.apache.thrift.async.AsyncMethodCallback;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests {@link HostHealthCheckService}.
+ */
+public class HostHealthCheckServiceTest {
+
+  /**
+   * Dummy test case to make Intellij recognize this as a test class.
+   */
+  @Test(enabled = false)
+  private void dummy() {
+  }
+
+  /**
+   * Tests for the constructors.
+   */
+  public class InitializationTest {
+
+    @Test
+    public void testServiceOptions() {
+      HostHealthCheckService service = new HostHealthCheckService();
+      assertThat(service.hasOption(Service.ServiceOption.PERIODIC_MAINTENANCE), is(true));
+      assertThat(service.getMaintenanceIntervalMicros(),
+          is(TimeUnit.MILLISECONDS.toMicros(HostService.DEFAULT_MAINTENANCE_INTERVAL_MILLIS)));
+    }
+  }
+
+  /**
+   * Tests for the health check rounds.
+   */
+  public class HealthCheckTest {
+
+    private TestEnvironment testEnvironment;
+    private AgentControlClient agentControlClient;
+
+    @AfterMethod
+    public void tearDown() throws Throwable {
+      if (testEnvironment != null) {
+        testEnvironment.stop();
+        testEnvironment = null;
+      }
+    }
+
+    @Test
+    public void testPingFailureMarksHostMissing() throws Throwable {
+      createTestEnvironment(false);
+      HostService.State hostState = createHost(AgentState.ACTIVE);
+
+      checkHosts();
+
+      HostService.State savedState = testEnvironment.getServiceState(hostState.documentSelfLink,
+          HostService.State.class);
+      assertThat(savedState.agentState, is(AgentState.MISSING));
+      verify(agentControlClient).ping(any(AsyncMethodCallback.class));
+    }
+
+    @Test
+    public void testPingSuccessMarksHostActive() throws Throwable {
+      createTestEnvironment(true);
+      HostService.State hostState = createHost(AgentState.MISSING);
+
+      checkHosts();
+
+      HostService.State savedState = testEnvironment.getServiceState(hostState.documentSelfLink,
+          HostService.State.class);
+      assertThat(savedState.agentState, is(AgentState.ACTIVE));
+    }
+
+    @Test
+    public void testUnchangedAgentStateIsNotWritten() throws Throwable {
+      createTestEnvironment(true);
+      HostService.State hostState = createHost(AgentState.ACTIVE);
+
+      checkHosts();
+      checkHosts();
+
+      HostService.State savedState = testEnvironment.getServiceState(hostState.documentSelfLink,
+          HostService.State.class);
+      assertThat(savedState.agentState, is(AgentState.ACTIVE));
+      assertThat(savedState.documentVersion, is(hostState.documentVersion));
+      verify(agentControlClient, times(2)).ping(any(AsyncMethodCallback.class));
+    }
+
+    @Test
+    public void testNoHosts() throws Throwable {
+      createTestEnvironment(true);
+
+      checkHosts();
+
+      verify(agentControlClient, never()).ping(any(AsyncMethodCallback.class));
+    }
+
+    private void createTestEnvironment(boolean pingSucceeds) throws Throwable {
+      AgentControlClientFactory agentControlClientFactory = mock(AgentControlClientFactory.class);
+      agentControlClient = mock(AgentControlClient.class);
+      doReturn(agentControlClient).when(agentControlClientFactory).create();
+
+      doAnswer(invocation -> {
+        AsyncMethodCallback<AgentControl.AsyncClient.ping_call> callback =
+            (AsyncMethodCallback<AgentControl.AsyncClient.ping_call>) invocation.getArguments()[0];
+        if (pingSucceeds) {
+          callback.onComplete(mock(AgentControl.AsyncClient.ping_call.class));
+        } else {
+          callback.onError(new TException("ping failed"));
+        }
+        return null;
+      }).when(agentControlClient).ping(any(AsyncMethodCallback.class));
+
+      testEnvironment = new TestEnvironment.Builder()
+          .agentControlClientFactory(agentControlClientFactory)
+          .hostCount(1)
+          .build();
+    }
+
+    private HostService.State createHost(AgentState agentState) throws Throwable {
+      HostService.State startState = TestHelper.getHostServiceStartState();
+      startState.agentState = agentState;
+      Operation result = testEnvironment.sendPostAndWait(HostServiceFactory.SELF_LINK, startState);
+      assertThat(result.getStatusCode(), is(Operation.STATUS_CODE_OK));
+      return result.getBody(HostService.State.class);
+    }
+
+    private void checkHosts() throws Throwable {
+      Operation result = testEnvironment.sendPostAndWait(HostHealthCheckService.SELF_LINK, new ServiceDocument());
+      assertThat(result.getStatusCode(), is(Operation.STATUS_CODE_OK));
+    }
+  }
+}
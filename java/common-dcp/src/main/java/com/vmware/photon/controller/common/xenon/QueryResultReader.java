@@ -0,0 +1,226 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.vmware.photon.controller.common.xenon;
+
+import com.vmware.photon.controller.common.xenon.exceptions.XenonRuntimeException;
+import com.vmware.xenon.common.ServiceDocument;
+import com.vmware.xenon.common.ServiceDocumentQueryResult;
+import com.vmware.xenon.common.Utils;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.NoSuchElementException;
+
+/**
+ * Decodes the documents of a serialized query task straight into typed documents.
+ * <p>
+ * The JSON of the query task is read with a streaming parser: each document is parsed on its own and
+ * converted to the document type, instead of parsing the whole query task into a generic tree and then
+ * converting every document of the tree again. Documents are decoded lazily as the reader is iterated,
+ * and the fields of the query result which follow the documents are read once the iteration is done.
+ *
+ * @param <T> document type
+ */
+public class QueryResultReader<T extends ServiceDocument> implements Iterator<T>, Closeable {
+
+  private static final String FIELD_NAME_RESULTS = "results";
+  private static final String FIELD_NAME_DOCUMENTS = "documents";
+  private static final String FIELD_NAME_DOCUMENT_LINKS = "documentLinks";
+  private static final String FIELD_NAME_DOCUMENT_COUNT = "documentCount";
+  private static final String FIELD_NAME_NEXT_PAGE_LINK = "nextPageLink";
+  private static final String FIELD_NAME_PREV_PAGE_LINK = "prevPageLink";
+  private static final String FIELD_NAME_DOCUMENT_OWNER = "documentOwner";
+
+  /**
+   * Position of the reader in the query task.
+   */
+  private enum Position {
+    START,
+    QUERY_TASK,
+    RESULTS,
+    DOCUMENTS,
+    END
+  }
+
+  private final Class<T> documentType;
+  private final JsonReader reader;
+  private final JsonParser parser = new JsonParser();
+  private final ServiceDocumentQueryResult results = new ServiceDocumentQueryResult();
+  private Position position = Position.START;
+  private String documentOwner;
+  private String nextDocumentLink;
+
+  public QueryResultReader(Class<T> documentType, String queryTaskJson) {
+    this.documentType = documentType;
+    this.reader = new JsonReader(new StringReader(queryTaskJson));
+  }
+
+  /**
+   * Returns true if the query result has more documents. The link of the next document is then available
+   * from {@link #getNextDocumentLink()}.
+   */
+  @Override
+  public boolean hasNext() {
+    if (nextDocumentLink != null) {
+      return true;
+    }
+
+    try {
+      return advance();
+    } catch (IOException e) {
+      throw new XenonRuntimeException(e);
+    }
+  }
+
+  @Override
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    nextDocumentLink = null;
+    JsonElement document = parser.parse(reader);
+    return Utils.fromJson(document, documentType);
+  }
+
+  public String getNextDocumentLink() {
+    return nextDocumentLink;
+  }
+
+  /**
+   * Reads the remaining documents and returns the query result, with its documents decoded as T. The documents
+   * which were already iterated over are not part of the returned result.
+   */
+  public ServiceDocumentQueryResult readAll() {
+    while (hasNext()) {
+      String documentLink = nextDocumentLink;
+      results.documents.put(documentLink, next());
+    }
+
+    return results;
+  }
+
+  /**
+   * Returns the owner of the query task. The owner is only known once all the documents were read.
+   */
+  public String getDocumentOwner() {
+    return documentOwner;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  /**
+   * Moves the reader to the next document, reading the fields of the query task and of the query result
+   * found on the way. Returns false once the whole query task was read.
+   */
+  private boolean advance() throws IOException {
+    while (true) {
+      switch (position) {
+        case START:
+          reader.beginObject();
+          position = Position.QUERY_TASK;
+          break;
+
+        case QUERY_TASK:
+          if (!reader.hasNext()) {
+            reader.endObject();
+            position = Position.END;
+            break;
+          }
+
+          String name = reader.nextName();
+          if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+          } else if (name.equals(FIELD_NAME_RESULTS)) {
+            reader.beginObject();
+            position = Position.RESULTS;
+          } else if (name.equals(FIELD_NAME_DOCUMENT_OWNER)) {
+            documentOwner = reader.nextString();
+          } else {
+            reader.skipValue();
+          }
+          break;
+
+        case RESULTS:
+          if (!reader.hasNext()) {
+            reader.endObject();
+            position = Position.QUERY_TASK;
+            break;
+          }
+
+          readResultsField(reader.nextName());
+          break;
+
+        case DOCUMENTS:
+          if (!reader.hasNext()) {
+            reader.endObject();
+            position = Position.RESULTS;
+            break;
+          }
+
+          nextDocumentLink = reader.nextName();
+          return true;
+
+        case END:
+        default:
+          return false;
+      }
+    }
+  }
+
+  private void readResultsField(String name) throws IOException {
+    if (reader.peek() == JsonToken.NULL) {
+      reader.nextNull();
+      return;
+    }
+
+    switch (name) {
+      case FIELD_NAME_DOCUMENTS:
+        results.documents = new LinkedHashMap<>();
+        reader.beginObject();
+        position = Position.DOCUMENTS;
+        break;
+      case FIELD_NAME_DOCUMENT_LINKS:
+        results.documentLinks = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+          results.documentLinks.add(reader.nextString());
+        }
+        reader.endArray();
+        break;
+      case FIELD_NAME_DOCUMENT_COUNT:
+        results.documentCount = reader.nextLong();
+        break;
+      case FIELD_NAME_NEXT_PAGE_LINK:
+        results.nextPageLink = reader.nextString();
+        break;
+      case FIELD_NAME_PREV_PAGE_LINK:
+        results.prevPageLink = reader.nextString();
+        break;
+      default:
+        reader.skipValue();
+    }
+  }
+}
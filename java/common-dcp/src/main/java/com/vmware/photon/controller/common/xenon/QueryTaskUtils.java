@@ -17,6 +17,7 @@ import com.vmware.photon.controller.common.xenon.exceptions.XenonRuntimeExceptio
 import com.vmware.xenon.common.Operation;
 import com.vmware.xenon.common.Service;
 import com.vmware.xenon.common.ServiceDocument;
+import com.vmware.xenon.common.ServiceDocumentQueryResult;
 import com.vmware.xenon.common.TaskState;
 import com.vmware.xenon.common.UriUtils;
 import com.vmware.xenon.common.Utils;
@@ -24,6 +25,7 @@ import com.vmware.xenon.services.common.NodeGroupBroadcastResponse;
 import com.vmware.xenon.services.common.QueryTask;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -33,6 +35,7 @@ import java.lang.reflect.Field;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -209,13 +212,14 @@ public class QueryTaskUtils {
 
     List<T> documents = new ArrayList<>();
     for (Map.Entry<URI, String> entry : response.jsonResponses.entrySet()) {
-      QueryTask queryTask = Utils.fromJson(entry.getValue(), QueryTask.class);
-      if (null != queryTask.results && queryTask.results.documents != null) {
-        for (Object value : queryTask.results.documents.values()) {
-          T document = Utils.fromJson(value, documentType);
-          if (queryTask.documentOwner.equals(document.documentOwner)) {
-            documents.add(document);
-          }
+      // The owner of the query task is serialized after its results, so the documents of a response
+      // are filtered once the response was read
+      QueryResultReader<T> reader = new QueryResultReader<>(documentType, entry.getValue());
+      List<T> responseDocuments = new ArrayList<>();
+      reader.forEachRemaining(responseDocuments::add);
+      for (T document : responseDocuments) {
+        if (reader.getDocumentOwner().equals(document.documentOwner)) {
+          documents.add(document);
         }
       }
     }
@@ -223,6 +227,66 @@ public class QueryTaskUtils {
     return documents;
   }
 
+  /**
+   * This method gets the results of an operation whose body is a {@link QueryTask}, with the documents
+   * decoded as documentType. When the body was received over the wire, the documents are decoded straight
+   * from the JSON of the response. The documents are left as they are when documentType is null.
+   *
+   * @param documentType
+   * @param queryResult
+   * @return
+   */
+  public static <T extends ServiceDocument> ServiceDocumentQueryResult getQueryResult(
+      Class<T> documentType, Operation queryResult) {
+    Object body = queryResult.getBodyRaw();
+    if (documentType != null && body instanceof String) {
+      return new QueryResultReader<>(documentType, (String) body).readAll();
+    }
+
+    return queryResult.getBody(QueryTask.class).results;
+  }
+
+  /**
+   * This method iterates over the documents of an operation whose body is a {@link QueryTask}. The documents
+   * are decoded as documentType one at a time, as the iteration goes, so that the documents of a large query
+   * do not all have to be converted up front.
+   *
+   * @param documentType
+   * @param queryResult
+   * @return
+   */
+  public static <T extends ServiceDocument> Iterable<T> iterateQueryResultDocuments(
+      Class<T> documentType, Operation queryResult) {
+    Object body = queryResult.getBodyRaw();
+    if (body instanceof String) {
+      return () -> new QueryResultReader<>(documentType, (String) body);
+    }
+
+    ServiceDocumentQueryResult results = queryResult.getBody(QueryTask.class).results;
+    if (results == null || results.documents == null) {
+      return Collections.emptyList();
+    }
+
+    return () -> Iterators.transform(results.documents.values().iterator(),
+        (document) -> getDocument(documentType, document));
+  }
+
+  /**
+   * This method converts a document of a {@link ServiceDocumentQueryResult} to documentType. Documents which
+   * were already decoded as documentType are returned as is.
+   *
+   * @param documentType
+   * @param document
+   * @return
+   */
+  public static <T> T getDocument(Class<T> documentType, Object document) {
+    if (documentType.isInstance(document)) {
+      return documentType.cast(document);
+    }
+
+    return Utils.fromJson(document, documentType);
+  }
+
   /**
    * Get the URI of the service document from the query response.
    * <p>
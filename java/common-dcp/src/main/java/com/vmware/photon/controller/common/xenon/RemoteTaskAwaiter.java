@@ -0,0 +1,185 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.vmware.photon.controller.common.xenon;
+
+import com.vmware.xenon.common.Service;
+
+import com.google.common.base.Predicate;
+import com.google.common.util.concurrent.FutureCallback;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This class implements waiting for a remote operation, such as an API-level task, to complete on behalf of a
+ * Xenon task service.
+ * <p>
+ * The remote state is polled in memory, backing off exponentially between polls up to a maximum delay, so the
+ * waiting task does not persist a self-patch for each polling iteration: only its stage transitions are persisted.
+ * If the host restarts while waiting, the task restarts the wait when it resumes its current stage.
+ *
+ * @param <T> Supplies the type of the remote state.
+ */
+public class RemoteTaskAwaiter<T> {
+
+  /**
+   * This value represents the default maximum delay between polls, as a multiple of the initial poll delay.
+   */
+  public static final int DEFAULT_MAX_BACKOFF = 8;
+
+  /**
+   * This interface represents an asynchronous read of the remote state.
+   *
+   * @param <T> Supplies the type of the remote state.
+   */
+  @FunctionalInterface
+  public interface Poll<T> {
+    void poll(FutureCallback<T> callback) throws Throwable;
+  }
+
+  private final Service service;
+  private final Poll<T> poll;
+  private final Predicate<T> isDone;
+  private final FutureCallback<T> callback;
+
+  private long pollDelay;
+  private int maxBackoff = DEFAULT_MAX_BACKOFF;
+  private int maxPolls = Integer.MAX_VALUE;
+
+  private long nextPollDelay;
+  private int pollCount;
+  private boolean finished;
+
+  private RemoteTaskAwaiter(Service service, Poll<T> poll, Predicate<T> isDone, FutureCallback<T> callback) {
+    this.service = service;
+    this.poll = poll;
+    this.isDone = isDone;
+    this.callback = callback;
+  }
+
+  /**
+   * This function creates an awaiter which reports the first remote state accepted by the specified predicate to
+   * the callback. Polling failures are reported to the callback as well, and end the wait.
+   *
+   * @param service  Supplies the Xenon service waiting for the remote operation.
+   * @param poll     Supplies the read of the remote state.
+   * @param isDone   Supplies the predicate which accepts the final remote state.
+   * @param callback Supplies the callback to notify when the wait is over.
+   * @param <T>      Supplies the type of the remote state.
+   * @return The awaiter, which must be started.
+   */
+  public static <T> RemoteTaskAwaiter<T> create(Service service,
+                                                Poll<T> poll,
+                                                Predicate<T> isDone,
+                                                FutureCallback<T> callback) {
+    return new RemoteTaskAwaiter<>(service, poll, isDone, callback);
+  }
+
+  /**
+   * This function sets the delay, in milliseconds, before the second poll.
+   */
+  public RemoteTaskAwaiter<T> setPollDelay(long pollDelay) {
+    this.pollDelay = pollDelay;
+    return this;
+  }
+
+  /**
+   * This function sets the maximum delay between polls, as a multiple of the initial poll delay. A value of 1
+   * polls at a fixed rate.
+   */
+  public RemoteTaskAwaiter<T> setMaxBackoff(int maxBackoff) {
+    this.maxBackoff = maxBackoff;
+    return this;
+  }
+
+  /**
+   * This function sets the number of polls after which the wait fails with a {@link TimeoutException}.
+   */
+  public RemoteTaskAwaiter<T> setMaxPolls(int maxPolls) {
+    this.maxPolls = maxPolls;
+    return this;
+  }
+
+  /**
+   * This function starts the wait by polling the remote state immediately.
+   */
+  public void start() {
+    nextPollDelay = pollDelay;
+    pollCount = 0;
+    finished = false;
+    pollOnce();
+  }
+
+  private void pollOnce() {
+    if (service.getProcessingStage() == Service.ProcessingStage.STOPPED) {
+      ServiceUtils.logInfo(service, "Service was stopped, abandoning wait for remote task");
+      return;
+    }
+
+    pollCount++;
+    try {
+      poll.poll(new FutureCallback<T>() {
+        @Override
+        public void onSuccess(T result) {
+          try {
+            processResult(result);
+          } catch (Throwable t) {
+            finishWithFailure(t);
+          }
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+          finishWithFailure(t);
+        }
+      });
+    } catch (Throwable t) {
+      finishWithFailure(t);
+    }
+  }
+
+  private void processResult(T result) {
+    if (finished) {
+      return;
+    }
+
+    if (isDone.apply(result)) {
+      finished = true;
+      callback.onSuccess(result);
+      return;
+    }
+
+    if (pollCount >= maxPolls) {
+      finishWithFailure(new TimeoutException("Remote task did not complete after " + pollCount + " polls"));
+      return;
+    }
+
+    long delay = nextPollDelay;
+    nextPollDelay = Math.min(nextPollDelay * 2, pollDelay * maxBackoff);
+    service.getHost().schedule(this::pollOnce, delay, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * This function reports a failure to the callback unless the wait is already over. In particular, an exception
+   * thrown by the success callback is logged rather than reported as a failure of the same wait.
+   */
+  private void finishWithFailure(Throwable t) {
+    if (finished) {
+      ServiceUtils.logWarning(service, "Ignoring failure after the wait for remote task finished: %s", t);
+      return;
+    }
+
+    finished = true;
+    callback.onFailure(t);
+  }
+}
@@ -23,9 +23,11 @@ import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.FutureCallback;
 
-import java.util.Random;
+import java.net.URI;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * This class implements utility functions for tasks.
@@ -35,6 +37,13 @@ public class TaskUtils {
   public static Set<TaskState.TaskStage> finalTaskStages =
       ImmutableSet.of(TaskState.TaskStage.CANCELLED, TaskState.TaskStage.FINISHED, TaskState.TaskStage.FAILED);
 
+  /**
+   * This value represents the maximum delay between polls of a task state in
+   * {@link #checkProgress(Service, String, Predicate, Class, int, FutureCallback)}, as a multiple of the task poll
+   * delay.
+   */
+  public static final int MAX_TASK_POLL_BACKOFF = 8;
+
   public static <T extends ServiceDocument> void startTaskAsync(
       final Service service,
       String factoryLink,
@@ -66,6 +75,22 @@ public class TaskUtils {
     service.sendRequest(post);
   }
 
+  /**
+   * This function waits for the specified task service to reach a state accepted by the predicate without
+   * blocking the calling thread.
+   * <p>
+   * The waiting service subscribes to the task document and checks the task state whenever the task is
+   * updated. The task state is polled as well, backing off from taskPollDelay up to
+   * {@link #MAX_TASK_POLL_BACKOFF} times that delay, in case the subscription fails or misses an update.
+   *
+   * @param service       Supplies the Xenon service waiting for the task.
+   * @param serviceLink   Supplies the document self-link of the task service.
+   * @param predicate     Supplies the predicate which accepts the final task state.
+   * @param type          Supplies the type of the task document.
+   * @param taskPollDelay Supplies the initial delay, in milliseconds, between polls of the task state.
+   * @param callback      Supplies the callback to notify when the task state is accepted or cannot be read.
+   * @param <T>           Supplies the type of the task document.
+   */
   public static <T extends ServiceDocument> void checkProgress(
       final Service service,
       final String serviceLink,
@@ -74,50 +99,7 @@ public class TaskUtils {
       final int taskPollDelay,
       final FutureCallback<T> callback) {
 
-    try {
-      Thread.sleep(Math.abs(new Random().nextLong()) % (taskPollDelay + 1) + 1);
-    } catch (InterruptedException e) {
-      e.printStackTrace();
-    }
-
-    Operation.CompletionHandler completionHandler = new Operation.CompletionHandler() {
-      @Override
-      public void handle(Operation operation, Throwable throwable) {
-        if (null != throwable) {
-          ServiceUtils.logSevere(service, "error when contacting [" + serviceLink + "] " + throwable.getMessage());
-          ServiceUtils.logSevere(service, throwable);
-          callback.onFailure(throwable);
-          return;
-        }
-        final T state = operation.getBody(type);
-
-        if (predicate.apply(state)) {
-          callback.onSuccess(state);
-          return;
-        }
-
-        Runnable runnable = new Runnable() {
-          @Override
-          public void run() {
-            try {
-              checkProgress(service, serviceLink, predicate, type, taskPollDelay, callback);
-            } catch (Throwable t) {
-              ServiceUtils.logSevere(service,
-                  "error when contacting [" + state.documentSelfLink + "]" + t.getMessage());
-              ServiceUtils.logSevere(service, t);
-              callback.onFailure(t);
-            }
-          }
-        };
-        service.getHost().schedule(runnable, taskPollDelay, TimeUnit.MILLISECONDS);
-      }
-    };
-
-    ServiceUtils.logInfo(service, "Querying this link " + serviceLink);
-    Operation get = Operation
-        .createGet(UriUtils.buildUri(service.getHost(), serviceLink))
-        .setCompletion(completionHandler);
-    service.sendRequest(get);
+    new TaskProgressTracker<>(service, serviceLink, predicate, type, taskPollDelay, callback).start();
   }
 
   /**
@@ -187,4 +169,142 @@ public class TaskUtils {
 
     service.sendRequest(patchOp);
   }
+
+  /**
+   * This class implements tracking the progress of a task service on behalf of a waiting service.
+   *
+   * @param <T> Supplies the type of the task document.
+   */
+  private static class TaskProgressTracker<T extends ServiceDocument> {
+
+    private final Service service;
+    private final String serviceLink;
+    private final Predicate<T> predicate;
+    private final Class<T> type;
+    private final int taskPollDelay;
+    private final FutureCallback<T> callback;
+    private final AtomicBoolean done = new AtomicBoolean(false);
+    private final AtomicReference<URI> subscriptionUri = new AtomicReference<>();
+
+    private long nextPollDelay;
+
+    private TaskProgressTracker(Service service,
+                                String serviceLink,
+                                Predicate<T> predicate,
+                                Class<T> type,
+                                int taskPollDelay,
+                                FutureCallback<T> callback) {
+      this.service = service;
+      this.serviceLink = serviceLink;
+      this.predicate = predicate;
+      this.type = type;
+      this.taskPollDelay = taskPollDelay;
+      this.callback = callback;
+    }
+
+    private void start() {
+      nextPollDelay = Math.max(taskPollDelay, 1);
+      subscribe();
+      poll();
+    }
+
+    private void subscribe() {
+      try {
+        Operation subscribeOp = Operation
+            .createPost(UriUtils.buildUri(service.getHost(), serviceLink))
+            .setReferer(service.getUri())
+            .setCompletion((operation, throwable) -> {
+              if (null != throwable) {
+                ServiceUtils.logInfo(service, "Failed to subscribe to [" + serviceLink + "], polling it instead: " +
+                    throwable.getMessage());
+              }
+            });
+        subscriptionUri.set(service.getHost().startSubscriptionService(subscribeOp, this::handleNotification));
+        if (done.get()) {
+          unsubscribe();
+        }
+      } catch (Throwable t) {
+        ServiceUtils.logInfo(service, "Failed to subscribe to [" + serviceLink + "], polling it instead: " +
+            t.getMessage());
+      }
+    }
+
+    private void handleNotification(Operation notifyOp) {
+      notifyOp.complete();
+      if (!done.get()) {
+        checkState(null);
+      }
+    }
+
+    private void poll() {
+      if (done.get()) {
+        return;
+      }
+
+      if (service.getProcessingStage() == Service.ProcessingStage.STOPPED) {
+        ServiceUtils.logInfo(service, "Service was stopped, abandoning wait for [" + serviceLink + "]");
+        done.set(true);
+        unsubscribe();
+        return;
+      }
+
+      checkState(() -> {
+        long delay = nextPollDelay;
+        nextPollDelay = Math.min(nextPollDelay * 2, (long) Math.max(taskPollDelay, 1) * MAX_TASK_POLL_BACKOFF);
+        service.getHost().schedule(this::poll, delay, TimeUnit.MILLISECONDS);
+      });
+    }
+
+    private void checkState(Runnable onPending) {
+      ServiceUtils.logTrace(service, "Querying this link " + serviceLink);
+      Operation get = Operation
+          .createGet(UriUtils.buildUri(service.getHost(), serviceLink))
+          .setCompletion((operation, throwable) -> {
+            if (null != throwable) {
+              ServiceUtils.logSevere(service, "error when contacting [" + serviceLink + "] " + throwable.getMessage());
+              ServiceUtils.logSevere(service, throwable);
+              fail(throwable);
+              return;
+            }
+
+            T state = operation.getBody(type);
+            if (predicate.apply(state)) {
+              succeed(state);
+            } else if (onPending != null) {
+              onPending.run();
+            }
+          });
+      service.sendRequest(get);
+    }
+
+    private void succeed(T state) {
+      if (done.compareAndSet(false, true)) {
+        unsubscribe();
+        callback.onSuccess(state);
+      }
+    }
+
+    private void fail(Throwable throwable) {
+      if (done.compareAndSet(false, true)) {
+        unsubscribe();
+        callback.onFailure(throwable);
+      }
+    }
+
+    private void unsubscribe() {
+      URI notificationTarget = subscriptionUri.getAndSet(null);
+      if (notificationTarget == null) {
+        return;
+      }
+
+      try {
+        Operation unsubscribeOp = Operation
+            .createDelete(UriUtils.buildUri(service.getHost(), serviceLink))
+            .setReferer(service.getUri());
+        service.getHost().stopSubscriptionService(unsubscribeOp, notificationTarget);
+      } catch (Throwable t) {
+        ServiceUtils.logWarning(service, "Failed to unsubscribe from [" + serviceLink + "]: " + t.getMessage());
+      }
+    }
+  }
 }
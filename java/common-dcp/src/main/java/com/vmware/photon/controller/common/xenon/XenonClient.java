@@ -27,10 +27,15 @@ import java.net.URI;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
 
 /**
  * REST client API to access Xenon services.
+ *
+ * The methods returning a {@link CompletableFuture} do not block the caller. Their futures fail with the
+ * exceptions the corresponding synchronous methods throw, and are completed from the client executor, so
+ * dependent stages must not block.
  */
 public interface XenonClient {
   void start();
@@ -90,7 +95,29 @@ public interface XenonClient {
   ServiceDocumentQueryResult queryDocumentPage(String pageLink)
       throws BadRequestException, DocumentNotFoundException, TimeoutException, InterruptedException;
 
+  <T extends ServiceDocument> ServiceDocumentQueryResult queryDocumentPage(String pageLink, Class<T> documentType)
+      throws BadRequestException, DocumentNotFoundException, TimeoutException, InterruptedException;
+
   <T extends ServiceDocument> List<String> queryDocumentsForLinks(Class<T> documentType,
                                                                   ImmutableMap<String, String> terms)
       throws BadRequestException, DocumentNotFoundException, TimeoutException, InterruptedException;
+
+  CompletableFuture<Operation> postAsync(String serviceSelfLink, ServiceDocument body);
+
+  CompletableFuture<Operation> putAsync(String serviceSelfLink, ServiceDocument body);
+
+  CompletableFuture<Operation> getAsync(String documentSelfLink);
+
+  <T extends ServiceDocument> CompletableFuture<T> getDocumentAsync(String documentSelfLink, Class<T> documentType);
+
+  CompletableFuture<Operation> deleteAsync(String documentSelfLink, ServiceDocument body);
+
+  CompletableFuture<Operation> patchAsync(String serviceSelfLink, ServiceDocument body);
+
+  CompletableFuture<Operation> queryAsync(QueryTask queryTask);
+
+  <T extends ServiceDocument> CompletableFuture<List<T>> queryDocumentsAsync(Class<T> documentType,
+                                                                           ImmutableMap<String, String> terms);
+
+  CompletableFuture<Operation> waitForTaskToFinishAsync(URI taskUri);
 }
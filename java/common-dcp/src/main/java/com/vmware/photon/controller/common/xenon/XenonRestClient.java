@@ -49,13 +49,20 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 /**
  * REST client to access Xenon services.
+ *
+ * The synchronous methods block the caller until the operation completes. The asynchronous methods return
+ * futures completed from the client executor, with the same exceptions the synchronous methods throw.
  */
 public class XenonRestClient implements XenonClient {
 
@@ -76,6 +83,7 @@ public class XenonRestClient implements XenonClient {
   private long serviceDocumentStatusCheckIntervalMillis = SERVICE_DOCUMENT_STATUS_CHECK_INTERVAL_MILLIS;
   private static final Logger logger = LoggerFactory.getLogger(XenonRestClient.class);
   private NettyHttpServiceClient client;
+  private final ScheduledExecutorService scheduledExecutor;
   private ServerSet serverSet;
   private URI localHostUri;
   private List<String> localHostIpAddresses;
@@ -86,11 +94,12 @@ public class XenonRestClient implements XenonClient {
     checkNotNull(executor, "Cannot construct XenonRestClient with null executor");
 
     this.serverSet = serverSet;
+    this.scheduledExecutor = Executors.newScheduledThreadPool(1);
     try {
       client = (NettyHttpServiceClient) NettyHttpServiceClient.create(
           XenonRestClient.class.getCanonicalName(),
           executor,
-          Executors.newScheduledThreadPool(0));
+          scheduledExecutor);
     } catch (URISyntaxException uriSyntaxException) {
       logger.error("ctor: URISyntaxException={}", uriSyntaxException.toString());
       throw new RuntimeException(uriSyntaxException);
@@ -109,6 +118,7 @@ public class XenonRestClient implements XenonClient {
   @Override
   public void stop() {
     client.stop();
+    scheduledExecutor.shutdownNow();
     logger.info("client stopped");
   }
 
@@ -125,68 +135,47 @@ public class XenonRestClient implements XenonClient {
   @Override
   public Operation post(Boolean forceIndexUpdate, String serviceSelfLink, ServiceDocument body)
       throws BadRequestException, DocumentNotFoundException, TimeoutException, InterruptedException {
-    URI serviceUri = getServiceUri(serviceSelfLink);
-
-    Operation postOperation = Operation
-        .createPost(serviceUri)
-        .setUri(serviceUri)
-        .setExpiration(Utils.getNowMicrosUtc() + getPostOperationExpirationMicros())
-        .setBody(body)
-        .setReferer(this.localHostUri)
-        .setContextId(LoggingUtils.getRequestId());
-
-    if (forceIndexUpdate) {
-      // this pragma will allow POST to a previously deleted service.
-      postOperation.addPragmaDirective(Operation.PRAGMA_DIRECTIVE_FORCE_INDEX_UPDATE);
-    }
+    return send(createPostOperation(forceIndexUpdate, serviceSelfLink, body));
+  }
 
-    return send(postOperation);
+  @Override
+  public CompletableFuture<Operation> postAsync(String serviceSelfLink, ServiceDocument body) {
+    return sendAsync(createPostOperation(false, serviceSelfLink, body));
   }
 
   @Override
   public Operation put(String serviceSelfLink, ServiceDocument body)
       throws BadRequestException, DocumentNotFoundException, TimeoutException, InterruptedException {
-    URI serviceUri = getServiceUri(serviceSelfLink);
-
-    Operation putOperation = Operation
-        .createPut(serviceUri)
-        .setExpiration(Utils.getNowMicrosUtc() + getPutOperationExpirationMicros())
-        .setBody(body)
-        .setReferer(this.localHostUri)
-        .setContextId(LoggingUtils.getRequestId());
+    return send(createPutOperation(serviceSelfLink, body));
+  }
 
-    return send(putOperation);
+  @Override
+  public CompletableFuture<Operation> putAsync(String serviceSelfLink, ServiceDocument body) {
+    return sendAsync(createPutOperation(serviceSelfLink, body));
   }
 
   @Override
   public Operation get(String documentSelfLink)
       throws BadRequestException, DocumentNotFoundException, TimeoutException, InterruptedException {
-    URI serviceUri = getServiceUri(documentSelfLink);
+    return send(createGetOperation(getServiceUri(documentSelfLink)));
+  }
 
-    Operation getOperation = Operation
-        .createGet(serviceUri)
-        .setUri(serviceUri)
-        .addPragmaDirective(Operation.PRAGMA_DIRECTIVE_NO_QUEUING)
-        .setExpiration(Utils.getNowMicrosUtc() + getGetOperationExpirationMicros())
-        .setReferer(this.localHostUri)
-        .setContextId(LoggingUtils.getRequestId());
+  @Override
+  public CompletableFuture<Operation> getAsync(String documentSelfLink) {
+    return sendAsync(createGetOperation(getServiceUri(documentSelfLink)));
+  }
 
-    return send(getOperation);
+  @Override
+  public <T extends ServiceDocument> CompletableFuture<T> getDocumentAsync(String documentSelfLink,
+                                                                           Class<T> documentType) {
+    checkNotNull(documentType, "Cannot get document with null documentType");
+    return getAsync(documentSelfLink).thenApply((completedOperation) -> completedOperation.getBody(documentType));
   }
 
   @Override
   public Operation get(URI documentServiceUri)
       throws BadRequestException, DocumentNotFoundException, TimeoutException, InterruptedException {
-
-    Operation getOperation = Operation
-        .createGet(documentServiceUri)
-        .setUri(documentServiceUri)
-        .addPragmaDirective(Operation.PRAGMA_DIRECTIVE_NO_QUEUING)
-        .setExpiration(Utils.getNowMicrosUtc() + getGetOperationExpirationMicros())
-        .setReferer(this.localHostUri)
-        .setContextId(LoggingUtils.getRequestId());
-
-    return send(getOperation);
+    return send(createGetOperation(documentServiceUri));
   }
 
   @Override
@@ -225,18 +214,12 @@ public class XenonRestClient implements XenonClient {
   @Override
   public Operation delete(String documentSelfLink, ServiceDocument body)
       throws BadRequestException, DocumentNotFoundException, TimeoutException, InterruptedException {
-    URI serviceUri = getServiceUri(documentSelfLink);
-
-    Operation deleteOperation = Operation
-        .createDelete(serviceUri)
-        .setUri(serviceUri)
-        .addPragmaDirective(Operation.PRAGMA_DIRECTIVE_NO_QUEUING)
-        .setExpiration(Utils.getNowMicrosUtc() + getDeleteOperationExpirationMicros())
-        .setReferer(this.localHostUri)
-        .setContextId(LoggingUtils.getRequestId())
-        .setBody(body);
+    return send(createDeleteOperation(documentSelfLink, body));
+  }
 
-    return send(deleteOperation);
+  @Override
+  public CompletableFuture<Operation> deleteAsync(String documentSelfLink, ServiceDocument body) {
+    return sendAsync(createDeleteOperation(documentSelfLink, body));
   }
 
   @Override
@@ -265,42 +248,18 @@ public class XenonRestClient implements XenonClient {
         DocumentNotFoundException,
         TimeoutException,
         InterruptedException {
-
-    // Build the URI that will broadcast. The base URI is something like /core-node-selectors/default/forwarding
-    // (which is the node selector's forwarder that will pick all nodes), and there is a query term to
-    // tell it where to forward the query to on each node (for us it's /core/local-query-tasks)
-    URI serviceUri = UriUtils.buildBroadcastRequestUri(
-        getServiceUri(ServiceUriPaths.CORE_LOCAL_QUERY_TASKS),
-        ServiceUriPaths.DEFAULT_NODE_SELECTOR);
-
-    query.setDirect(true);
-
-    Operation queryOperation = Operation
-        .createPost(serviceUri)
-        .setUri(serviceUri)
-        .setExpiration(Utils.getNowMicrosUtc() + getQueryOperationExpirationMicros())
-        .setBody(query)
-        .setReferer(this.localHostUri)
-        .setContextId(LoggingUtils.getRequestId());
-
-    return send(queryOperation);
+    return send(createBroadcastQueryOperation(query));
   }
 
   @Override
   public Operation patch(String serviceSelfLink, ServiceDocument body)
       throws BadRequestException, DocumentNotFoundException, TimeoutException, InterruptedException {
-    URI serviceUri = getServiceUri(serviceSelfLink);
-
-    Operation patchOperation = Operation
-        .createPatch(serviceUri)
-        .setUri(serviceUri)
-        .addPragmaDirective(Operation.PRAGMA_DIRECTIVE_NO_QUEUING)
-        .setExpiration(Utils.getNowMicrosUtc() + getPatchOperationExpirationMicros())
-        .setBody(body)
-        .setReferer(this.localHostUri)
-        .setContextId(LoggingUtils.getRequestId());
+    return send(createPatchOperation(serviceSelfLink, body));
+  }
 
-    return send(patchOperation);
+  @Override
+  public CompletableFuture<Operation> patchAsync(String serviceSelfLink, ServiceDocument body) {
+    return sendAsync(createPatchOperation(serviceSelfLink, body));
   }
 
   @Override
@@ -312,18 +271,12 @@ public class XenonRestClient implements XenonClient {
   @Override
   public Operation query(QueryTask queryTask)
       throws BadRequestException, DocumentNotFoundException, TimeoutException, InterruptedException {
+    return send(createQueryOperation(queryTask));
+  }
 
-    URI queryFactoryUri = getServiceUri(ServiceUriPaths.CORE_QUERY_TASKS);
-
-    Operation queryOperation = Operation
-        .createPost(queryFactoryUri)
-        .setUri(queryFactoryUri)
-        .setExpiration(Utils.getNowMicrosUtc() + getQueryOperationExpirationMicros())
-        .setBody(queryTask)
-        .setReferer(this.localHostUri)
-        .setContextId(LoggingUtils.getRequestId());
-
-    return send(queryOperation);
+  @Override
+  public CompletableFuture<Operation> queryAsync(QueryTask queryTask) {
+    return sendAsync(createQueryOperation(queryTask));
   }
 
   /**
@@ -350,6 +303,26 @@ public class XenonRestClient implements XenonClient {
     return QueryTaskUtils.getBroadcastQueryDocuments(documentType, result);
   }
 
+  /**
+   * Asynchronous version of {@link #queryDocuments(Class, ImmutableMap)}.
+   *
+   * @param documentType
+   * @param terms
+   * @param <T>
+   * @return
+   */
+  @Override
+  public <T extends ServiceDocument> CompletableFuture<List<T>> queryDocumentsAsync(
+      Class<T> documentType,
+      ImmutableMap<String, String> terms) {
+    checkNotNull(documentType, "Cannot query documents with null documentType");
+
+    QueryTask.QuerySpecification spec = QueryTaskUtils.buildQuerySpec(documentType, terms);
+    spec.options = EnumSet.of(QueryTask.QuerySpecification.QueryOption.EXPAND_CONTENT);
+    return sendAsync(createBroadcastQueryOperation(QueryTask.create(spec)))
+        .thenApply((result) -> QueryTaskUtils.getBroadcastQueryDocuments(documentType, result));
+  }
+
   @Override
   public <T extends ServiceDocument> ServiceDocumentQueryResult queryDocuments(Class<T> documentType,
                                                                                ImmutableMap<String, String> terms,
@@ -406,13 +379,15 @@ public class XenonRestClient implements XenonClient {
     URI queryServiceUri = QueryTaskUtils.getServiceDocumentUri(result);
 
     // Wait for the query task to finish and then retrieve the documents
+    // Only expanded results have documents to decode
+    Class<T> resultType = expandContent ? documentType : null;
     result = waitForTaskToFinish(queryServiceUri);
-    ServiceDocumentQueryResult queryResult = result.getBody(QueryTask.class).results;
+    ServiceDocumentQueryResult queryResult = QueryTaskUtils.getQueryResult(resultType, result);
 
     if (pageSize.isPresent() && queryResult.nextPageLink != null) {
       // Pagination case, the first query always return empty set. Need to
       // go ahead and get the first page if the nextPageLink is not null.
-      return queryDocumentPage(encodePageLink(queryResult.nextPageLink));
+      return queryDocumentPage(encodePageLink(queryResult.nextPageLink), resultType);
     } else {
       // No pagination, the result already has the content.
       return queryResult;
@@ -432,6 +407,26 @@ public class XenonRestClient implements XenonClient {
   @Override
   public ServiceDocumentQueryResult queryDocumentPage(String pageLink)
       throws BadRequestException, DocumentNotFoundException, TimeoutException, InterruptedException {
+    return queryDocumentPage(pageLink, null);
+  }
+
+  /**
+   * Query a document page using the given page link, with the documents of the page decoded as documentType.
+   * The documents are left as generic JSON objects when documentType is null.
+   *
+   * @param pageLink
+   * @param documentType
+   * @param <T>
+   * @return
+   * @throws BadRequestException
+   * @throws DocumentNotFoundException
+   * @throws TimeoutException
+   * @throws InterruptedException
+   */
+  @Override
+  public <T extends ServiceDocument> ServiceDocumentQueryResult queryDocumentPage(String pageLink,
+                                                                                  Class<T> documentType)
+      throws BadRequestException, DocumentNotFoundException, TimeoutException, InterruptedException {
 
     checkNotNull(pageLink, "Cannot query documents with null pageLink");
     checkArgument(!pageLink.isEmpty(), "Cannot query documents with empty pageLink");
@@ -440,7 +435,7 @@ public class XenonRestClient implements XenonClient {
 
     Operation result = get(pageLink);
 
-    ServiceDocumentQueryResult queryResult = result.getBody(QueryTask.class).results;
+    ServiceDocumentQueryResult queryResult = QueryTaskUtils.getQueryResult(documentType, result);
     queryResult.nextPageLink = encodePageLink(queryResult.nextPageLink);
     queryResult.prevPageLink = encodePageLink(queryResult.prevPageLink);
 
@@ -475,6 +470,21 @@ public class XenonRestClient implements XenonClient {
     return ImmutableList.copyOf(documentLinks);
   }
 
+  /**
+   * Waits for the task at the given URI to reach the FINISHED, FAILED or CANCELLED stage. The task state is
+   * polled without blocking any thread between polls, and the future fails with a TimeoutException if the
+   * task does not finish within the get operation expiration.
+   *
+   * @param taskUri
+   * @return
+   */
+  @Override
+  public CompletableFuture<Operation> waitForTaskToFinishAsync(URI taskUri) {
+    CompletableFuture<Operation> future = new CompletableFuture<>();
+    pollTaskState(taskUri, Utils.getNowMicrosUtc() + getGetOperationExpirationMicros(), future);
+    return future;
+  }
+
   /**
    * This method sifts through errors from Xenon operations into checked and unchecked(RuntimeExceptions) This is the
    * default handling but it can be overridden by different clients based on their needs.
@@ -564,6 +574,31 @@ public class XenonRestClient implements XenonClient {
     return completedOperation;
   }
 
+  /**
+   * Sends the operation without waiting for its completion. The returned future is completed with the completed
+   * operation, or with the exception {@link #handleOperationResult} throws for it.
+   *
+   * @param requestedOperation
+   * @return
+   */
+  @VisibleForTesting
+  protected CompletableFuture<Operation> sendAsync(Operation requestedOperation) {
+    logger.info("sendAsync: STARTED {}", OperationUtils.createLogMessageWithBody(requestedOperation));
+    CompletableFuture<Operation> future = new CompletableFuture<>();
+    requestedOperation.setCompletion((completedOperation, failure) -> {
+      try {
+        logCompletedOperation(completedOperation);
+        handleOperationResult(requestedOperation, completedOperation);
+        future.complete(completedOperation);
+      } catch (Throwable t) {
+        future.completeExceptionally(t);
+      }
+    });
+
+    client.send(requestedOperation);
+    return future;
+  }
+
   @VisibleForTesting
   protected Map<String, Operation> send(Map<Long, Operation> requestedOperations,
                                         Map<Long, String> sourceLinks,
@@ -640,6 +675,103 @@ public class XenonRestClient implements XenonClient {
     return inetSocketAddress.getPort();
   }
 
+  private Operation createPostOperation(Boolean forceIndexUpdate, String serviceSelfLink, ServiceDocument body) {
+    URI serviceUri = getServiceUri(serviceSelfLink);
+
+    Operation postOperation = Operation
+        .createPost(serviceUri)
+        .setUri(serviceUri)
+        .setExpiration(Utils.getNowMicrosUtc() + getPostOperationExpirationMicros())
+        .setBody(body)
+        .setReferer(this.localHostUri)
+        .setContextId(LoggingUtils.getRequestId());
+
+    if (forceIndexUpdate) {
+      // this pragma will allow POST to a previously deleted service.
+      postOperation.addPragmaDirective(Operation.PRAGMA_DIRECTIVE_FORCE_INDEX_UPDATE);
+    }
+
+    return postOperation;
+  }
+
+  private Operation createPutOperation(String serviceSelfLink, ServiceDocument body) {
+    URI serviceUri = getServiceUri(serviceSelfLink);
+
+    return Operation
+        .createPut(serviceUri)
+        .setExpiration(Utils.getNowMicrosUtc() + getPutOperationExpirationMicros())
+        .setBody(body)
+        .setReferer(this.localHostUri)
+        .setContextId(LoggingUtils.getRequestId());
+  }
+
+  private Operation createGetOperation(URI documentServiceUri) {
+    return Operation
+        .createGet(documentServiceUri)
+        .setUri(documentServiceUri)
+        .addPragmaDirective(Operation.PRAGMA_DIRECTIVE_NO_QUEUING)
+        .setExpiration(Utils.getNowMicrosUtc() + getGetOperationExpirationMicros())
+        .setReferer(this.localHostUri)
+        .setContextId(LoggingUtils.getRequestId());
+  }
+
+  private Operation createDeleteOperation(String documentSelfLink, ServiceDocument body) {
+    URI serviceUri = getServiceUri(documentSelfLink);
+
+    return Operation
+        .createDelete(serviceUri)
+        .setUri(serviceUri)
+        .addPragmaDirective(Operation.PRAGMA_DIRECTIVE_NO_QUEUING)
+        .setExpiration(Utils.getNowMicrosUtc() + getDeleteOperationExpirationMicros())
+        .setReferer(this.localHostUri)
+        .setContextId(LoggingUtils.getRequestId())
+        .setBody(body);
+  }
+
+  private Operation createPatchOperation(String serviceSelfLink, ServiceDocument body) {
+    URI serviceUri = getServiceUri(serviceSelfLink);
+
+    return Operation
+        .createPatch(serviceUri)
+        .setUri(serviceUri)
+        .addPragmaDirective(Operation.PRAGMA_DIRECTIVE_NO_QUEUING)
+        .setExpiration(Utils.getNowMicrosUtc() + getPatchOperationExpirationMicros())
+        .setBody(body)
+        .setReferer(this.localHostUri)
+        .setContextId(LoggingUtils.getRequestId());
+  }
+
+  private Operation createQueryOperation(QueryTask queryTask) {
+    URI queryFactoryUri = getServiceUri(ServiceUriPaths.CORE_QUERY_TASKS);
+
+    return Operation
+        .createPost(queryFactoryUri)
+        .setUri(queryFactoryUri)
+        .setExpiration(Utils.getNowMicrosUtc() + getQueryOperationExpirationMicros())
+        .setBody(queryTask)
+        .setReferer(this.localHostUri)
+        .setContextId(LoggingUtils.getRequestId());
+  }
+
+  private Operation createBroadcastQueryOperation(QueryTask query) {
+    // Build the URI that will broadcast. The base URI is something like /core-node-selectors/default/forwarding
+    // (which is the node selector's forwarder that will pick all nodes), and there is a query term to
+    // tell it where to forward the query to on each node (for us it's /core/local-query-tasks)
+    URI serviceUri = UriUtils.buildBroadcastRequestUri(
+        getServiceUri(ServiceUriPaths.CORE_LOCAL_QUERY_TASKS),
+        ServiceUriPaths.DEFAULT_NODE_SELECTOR);
+
+    query.setDirect(true);
+
+    return Operation
+        .createPost(serviceUri)
+        .setUri(serviceUri)
+        .setExpiration(Utils.getNowMicrosUtc() + getQueryOperationExpirationMicros())
+        .setBody(query)
+        .setReferer(this.localHostUri)
+        .setContextId(LoggingUtils.getRequestId());
+  }
+
   private void handleUnknownError(Operation requestedOperation, Operation completedOperation) {
     throw new XenonRuntimeException(requestedOperation, completedOperation);
   }
@@ -710,23 +842,62 @@ public class XenonRestClient implements XenonClient {
 
   private Operation waitForTaskToFinish(URI serviceUri)
       throws BadRequestException, DocumentNotFoundException, TimeoutException, InterruptedException {
+    return await(waitForTaskToFinishAsync(serviceUri));
+  }
+
+  private void pollTaskState(URI taskUri, long expirationMicros, CompletableFuture<Operation> future) {
+    sendAsync(createGetOperation(taskUri)).whenComplete((result, failure) -> {
+      if (failure != null) {
+        future.completeExceptionally(failure);
+        return;
+      }
 
-    Operation result = null;
-    do {
-      result = get(serviceUri);
       TaskState.TaskStage taskStage = QueryTaskUtils.getServiceState(result);
       if (taskStage == TaskState.TaskStage.FINISHED
           || taskStage == TaskState.TaskStage.FAILED
           || taskStage == TaskState.TaskStage.CANCELLED) {
+        future.complete(result);
+        return;
+      }
 
-        return result;
+      if (Utils.getNowMicrosUtc() > expirationMicros) {
+        future.completeExceptionally(new TimeoutException(
+            String.format("Timeout:{%s}, TimeUnit:{%s}", expirationMicros, TimeUnit.MICROSECONDS)));
+        return;
       }
 
-      Thread.sleep(getServiceDocumentStatusCheckIntervalMillis());
-    } while (Utils.getNowMicrosUtc() <= result.getExpirationMicrosUtc());
+      try {
+        scheduledExecutor.schedule(() -> pollTaskState(taskUri, expirationMicros, future),
+            getServiceDocumentStatusCheckIntervalMillis(), TimeUnit.MILLISECONDS);
+      } catch (RejectedExecutionException rejectedExecutionException) {
+        // The client was stopped while the task was running.
+        future.completeExceptionally(rejectedExecutionException);
+      }
+    });
+  }
 
-    throw new TimeoutException(String.format("Timeout:{%s}, TimeUnit:{%s}", result.getExpirationMicrosUtc(),
-        TimeUnit.MICROSECONDS));
+  /**
+   * Waits for a future returned by one of the asynchronous methods, and throws the exception it failed with.
+   */
+  private <T> T await(CompletableFuture<T> future)
+      throws BadRequestException, DocumentNotFoundException, TimeoutException, InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException executionException) {
+      Throwable cause = executionException.getCause();
+      if (cause instanceof BadRequestException) {
+        throw (BadRequestException) cause;
+      } else if (cause instanceof DocumentNotFoundException) {
+        throw (DocumentNotFoundException) cause;
+      } else if (cause instanceof TimeoutException) {
+        throw (TimeoutException) cause;
+      } else if (cause instanceof InterruptedException) {
+        throw (InterruptedException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new XenonRuntimeException(cause);
+    }
   }
 
   private String encodePageLink(String pageLink) {
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.vmware.photon.controller.common.xenon.scheduler;
+
+import com.vmware.xenon.common.TaskState;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Class TaskAdmissionQueue: keeps track of the tasks of a {@link TaskSchedulerService} which are running and
+ * queued, and decides which queued tasks to start so that no more than the tasks limit are running.
+ *
+ * The counts are updated from task stage change notifications, and replaced with query results during the
+ * periodic reconciliation. Queued tasks are started in the order in which they were created.
+ */
+public class TaskAdmissionQueue {
+
+  private final Set<String> runningTasks = new HashSet<>();
+
+  private final Set<String> pendingTasks = new HashSet<>();
+
+  private final LinkedHashSet<String> queuedTasks = new LinkedHashSet<>();
+
+  private int tasksLimit;
+
+  /**
+   * Updates the number of tasks that can be running simultaneously.
+   *
+   * @param tasksLimit
+   * @return The links of the tasks to start.
+   */
+  public synchronized List<String> setTasksLimit(int tasksLimit) {
+    this.tasksLimit = tasksLimit;
+    return admitTasks();
+  }
+
+  /**
+   * Records a task stage change.
+   *
+   * @param taskLink
+   * @param stage    The new stage of the task, or null if the task was deleted.
+   * @return The links of the tasks to start.
+   */
+  public synchronized List<String> onStageChange(String taskLink, TaskState.TaskStage stage) {
+    if (stage == TaskState.TaskStage.CREATED) {
+      if (!runningTasks.contains(taskLink)) {
+        queuedTasks.add(taskLink);
+      }
+    } else if (stage == TaskState.TaskStage.STARTED) {
+      queuedTasks.remove(taskLink);
+      pendingTasks.remove(taskLink);
+      runningTasks.add(taskLink);
+    } else {
+      queuedTasks.remove(taskLink);
+      pendingTasks.remove(taskLink);
+      runningTasks.remove(taskLink);
+    }
+
+    return admitTasks();
+  }
+
+  /**
+   * Records the completion of the patch that moves a task from CREATED to STARTED.
+   *
+   * @param taskLink
+   * @param failed   Whether the patch failed, in which case the task no longer counts as running.
+   * @return The links of the tasks to start.
+   */
+  public synchronized List<String> onStartCompleted(String taskLink, boolean failed) {
+    if (pendingTasks.remove(taskLink) && failed) {
+      runningTasks.remove(taskLink);
+    }
+
+    return admitTasks();
+  }
+
+  /**
+   * Replaces the tracked tasks with the results of the reconciliation queries. Tasks which are being started
+   * keep counting as running, since the queries may not reflect their start patch yet.
+   *
+   * @param startedTaskLinks
+   * @param createdTaskLinks
+   * @return The links of the tasks to start.
+   */
+  public synchronized List<String> reconcile(Collection<String> startedTaskLinks,
+                                             Collection<String> createdTaskLinks) {
+    runningTasks.clear();
+    runningTasks.addAll(startedTaskLinks);
+    runningTasks.addAll(pendingTasks);
+
+    // Keep the order of the tasks we already knew about, and append the new ones
+    queuedTasks.retainAll(createdTaskLinks);
+    for (String taskLink : createdTaskLinks) {
+      if (!runningTasks.contains(taskLink)) {
+        queuedTasks.add(taskLink);
+      }
+    }
+    queuedTasks.removeAll(runningTasks);
+
+    return admitTasks();
+  }
+
+  public synchronized int getRunningCount() {
+    return runningTasks.size();
+  }
+
+  public synchronized int getQueuedCount() {
+    return queuedTasks.size();
+  }
+
+  /**
+   * Moves queued tasks to running while there are free slots.
+   *
+   * @return The links of the tasks to start.
+   */
+  private List<String> admitTasks() {
+    List<String> taskLinks = new ArrayList<>();
+    Iterator<String> iterator = queuedTasks.iterator();
+    while (runningTasks.size() < tasksLimit && iterator.hasNext()) {
+      String taskLink = iterator.next();
+      iterator.remove();
+      runningTasks.add(taskLink);
+      pendingTasks.add(taskLink);
+      taskLinks.add(taskLink);
+    }
+
+    return taskLinks;
+  }
+}
@@ -27,6 +27,7 @@ import com.vmware.xenon.common.NodeSelectorService;
 import com.vmware.xenon.common.Operation;
 import com.vmware.xenon.common.ServiceDocument;
 import com.vmware.xenon.common.ServiceDocumentQueryResult;
+import com.vmware.xenon.common.ServiceSubscriptionState.ServiceSubscriber;
 import com.vmware.xenon.common.StatefulService;
 import com.vmware.xenon.common.TaskState;
 import com.vmware.xenon.common.UriUtils;
@@ -34,12 +35,42 @@ import com.vmware.xenon.common.Utils;
 import com.vmware.xenon.services.common.LuceneQueryTaskFactoryService;
 import com.vmware.xenon.services.common.QueryTask;
 
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
- * Class TaskSchedulerService: periodically starts new services based on the threshold of how many services
+ * Class TaskSchedulerService: starts new services based on the threshold of how many services
  * can be running simultaneously.
+ *
+ * The owner of the scheduler subscribes to a continuous query on the stage of the services, and starts
+ * queued services as soon as a running one leaves the STARTED stage. The periodic maintenance reconciles
+ * the running and queued services with the index, in case notifications were missed.
  */
 public class TaskSchedulerService extends StatefulService {
 
+  /**
+   * Expiration of the continuous query on the stage of the services.
+   */
+  private static final long CONTINUOUS_QUERY_EXPIRATION = TimeUnit.DAYS.toMicros(365);
+
+  private final TaskAdmissionQueue admissionQueue = new TaskAdmissionQueue();
+
+  private final AtomicBoolean subscribed = new AtomicBoolean(false);
+
+  private volatile boolean isOwner;
+
+  private volatile Field taskStateField;
+
+  private volatile String continuousQueryLink;
+
+  private volatile URI subscriptionUri;
+
   /**
    * Default constructor.
    */
@@ -68,6 +99,29 @@ public class TaskSchedulerService extends StatefulService {
     }
   }
 
+  @Override
+  public void handleStop(Operation stop) {
+    isOwner = false;
+    String queryLink = continuousQueryLink;
+    if (queryLink != null) {
+      URI notificationTarget = subscriptionUri;
+      if (notificationTarget != null) {
+        try {
+          Operation unsubscribeOp = Operation
+              .createDelete(UriUtils.buildUri(getHost(), queryLink))
+              .setReferer(getUri());
+          getHost().stopSubscriptionService(unsubscribeOp, notificationTarget);
+        } catch (Throwable t) {
+          ServiceUtils.logWarning(this, "Failed to unsubscribe from [" + queryLink + "]: " + t.getMessage());
+        }
+      }
+
+      sendRequest(Operation.createDelete(UriUtils.buildUri(getHost(), queryLink)).setReferer(getUri()));
+    }
+
+    super.handleStop(stop);
+  }
+
   /**
    * Handle service patch.
    */
@@ -99,6 +153,15 @@ public class TaskSchedulerService extends StatefulService {
   public void handleMaintenance(Operation post) {
     post.complete();
 
+    runIfOwner(() -> sendSelfPatch(new State()));
+  }
+
+  /**
+   * Checks whether this node owns the scheduler, records it, and runs the action only if it does.
+   *
+   * @param action
+   */
+  private void runIfOwner(Runnable action) {
     Operation.CompletionHandler handler = (Operation op, Throwable failure) -> {
       if (null != failure) {
         // query failed so abort and retry next time
@@ -107,15 +170,15 @@ public class TaskSchedulerService extends StatefulService {
       }
 
       NodeSelectorService.SelectOwnerResponse rsp = op.getBody(NodeSelectorService.SelectOwnerResponse.class);
-      if (!getHost().getId().equals(rsp.ownerNodeId)) {
+      isOwner = getHost().getId().equals(rsp.ownerNodeId);
+      if (!isOwner) {
         ServiceUtils.logInfo(TaskSchedulerService.this,
             "Host[%s]: Not owner of scheduler [%s] (Owner Info [%s])",
             getHost().getId(), getSelfLink(), Utils.toJson(rsp));
         return;
       }
 
-      State state = new State();
-      sendSelfPatch(state);
+      action.run();
     };
 
     Operation selectOwnerOp = Operation
@@ -165,11 +228,23 @@ public class TaskSchedulerService extends StatefulService {
   }
 
   /**
-   * Process patch. Triggers a query task for started service, and if the count of services in STARTED is less than
-   * the pre-defined threshold, it will move the services in CREATED stage to STARTED stage, until the count
-   * reached the threshold.
+   * Process patch. Makes sure we are notified of the stage changes of the services, and reconciles the running
+   * and queued services with the index: triggers a query task for services in STARTED stage and one for services
+   * in CREATED stage, then moves services in CREATED stage to STARTED stage until the count of services in STARTED
+   * stage reaches the pre-defined threshold. Only the owner of the scheduler starts services.
    */
   private void processPatch(final State current) {
+    runIfOwner(() -> reconcileWithIndex(current));
+  }
+
+  /**
+   * Subscribes to the stage changes of the services and reconciles the running and queued services with the
+   * index.
+   */
+  private void reconcileWithIndex(final State current) {
+    startServices(current, admissionQueue.setTasksLimit(current.tasksLimits));
+    subscribeToStageChanges(current);
+
     Operation.CompletionHandler handler = new Operation.CompletionHandler() {
       @Override
       public void handle(Operation completedOp, Throwable failure) {
@@ -180,13 +255,8 @@ public class TaskSchedulerService extends StatefulService {
           return;
         }
 
-        int serviceCount = completedOp.getBody(QueryTask.class).results.documentLinks.size();
-        int runningTasksLimit = current.tasksLimits;
-        if (serviceCount >= runningTasksLimit) {
-          return;
-        }
-
-        startServices(current, runningTasksLimit - serviceCount);
+        List<String> startedLinks = completedOp.getBody(QueryTask.class).results.documentLinks;
+        reconcileServices(current, startedLinks);
       }
     };
 
@@ -194,9 +264,9 @@ public class TaskSchedulerService extends StatefulService {
   }
 
   /**
-   * Triggers a query task for started service in CREATED stage and moves servicesToStartCount service to STARTED stage.
+   * Triggers a query task for services in CREATED stage and reconciles the admission queue with the results.
    */
-  private void startServices(final State current, final int servicesToStartCount) {
+  private void reconcileServices(final State current, final List<String> startedLinks) {
     Operation.CompletionHandler handler = new Operation.CompletionHandler() {
       @Override
       public void handle(Operation completedOp, Throwable failure) {
@@ -206,41 +276,165 @@ public class TaskSchedulerService extends StatefulService {
         }
 
         ServiceDocumentQueryResult results = completedOp.getBody(QueryTask.class).results;
-        if (results.documentLinks.size() == 0) {
-          return;
-        }
-
-        ServiceUtils.logInfo(TaskSchedulerService.this,
-            "Host[%s]: Services to start: %s", getHost().getId(), Utils.toJson(results.documentLinks));
-        for (int count = 0; count < Math.min(servicesToStartCount, results.documentLinks.size()); count++) {
-          String docLink = results.documentLinks.get(count);
-          sendStartPatch(current, docLink);
-        }
+        startServices(current, admissionQueue.reconcile(startedLinks, results.documentLinks));
       }
     };
 
     sendTaskStateQuery(current, TaskState.TaskStage.CREATED, handler);
   }
 
+  /**
+   * Moves the services indicated by docSelfLinks from CREATED to STARTED stage.
+   */
+  private void startServices(final State current, final List<String> docSelfLinks) {
+    if (docSelfLinks.isEmpty()) {
+      return;
+    }
+
+    ServiceUtils.logInfo(TaskSchedulerService.this,
+        "Host[%s]: Services to start: %s", getHost().getId(), Utils.toJson(docSelfLinks));
+    for (String docLink : docSelfLinks) {
+      sendStartPatch(current, docLink);
+    }
+  }
+
+  /**
+   * Creates a continuous query on the stage of the services and subscribes to it, unless we already did.
+   */
+  private void subscribeToStageChanges(final State current) {
+    if (!subscribed.compareAndSet(false, true)) {
+      return;
+    }
+
+    try {
+      Class<?> documentClass = Class.forName(current.schedulerServiceClassName).getDeclaredClasses()[0];
+      taskStateField = findTaskStateField(documentClass);
+
+      QueryTask.QuerySpecification spec =
+          QueryTaskUtils.buildTaskStatusQuerySpec(documentClass, TaskState.TaskStage.values());
+      spec.options = EnumSet.of(
+          QueryTask.QuerySpecification.QueryOption.EXPAND_CONTENT,
+          QueryTask.QuerySpecification.QueryOption.CONTINUOUS);
+
+      QueryTask query = QueryTask.create(spec);
+      query.documentExpirationTimeMicros = Utils.getNowMicrosUtc() + CONTINUOUS_QUERY_EXPIRATION;
+      Operation queryPost = Operation
+          .createPost(UriUtils.buildUri(getHost(), LuceneQueryTaskFactoryService.SELF_LINK))
+          .setBody(query)
+          .setReferer(getUri())
+          .setCompletion((completedOp, failure) -> {
+            if (failure != null) {
+              // Retry on the next patch, the periodic reconciliation keeps starting services meanwhile
+              logFailure(failure);
+              subscribed.set(false);
+              return;
+            }
+
+            continuousQueryLink = completedOp.getBody(QueryTask.class).documentSelfLink;
+            Operation subscribeOp = Operation
+                .createPost(UriUtils.buildUri(getHost(), continuousQueryLink))
+                .setReferer(getUri());
+            subscriptionUri = getHost().startSubscriptionService(subscribeOp,
+                this::handleStageChange, ServiceSubscriber.create(true));
+          });
+      sendRequest(queryPost);
+    } catch (Throwable e) {
+      logFailure(e);
+      subscribed.set(false);
+    }
+  }
+
+  /**
+   * Handles a notification of the continuous query: updates the admission queue with the new stage of the
+   * services and starts queued services if slots freed up.
+   */
+  private void handleStageChange(Operation notifyOp) {
+    notifyOp.complete();
+    if (!notifyOp.hasBody()) {
+      return;
+    }
+
+    QueryTask queryTask = notifyOp.getBody(QueryTask.class);
+    if (queryTask.results == null || queryTask.results.documents == null || !isOwner) {
+      // Services started by the current owner get picked up by our next reconciliation
+      return;
+    }
+
+    try {
+      Class<?> documentClass = taskStateField.getDeclaringClass();
+      for (Map.Entry<String, Object> entry : queryTask.results.documents.entrySet()) {
+        ServiceDocument document = (ServiceDocument) Utils.fromJson(entry.getValue(), documentClass);
+        TaskState.TaskStage stage = null;
+        if (!Action.DELETE.toString().equals(document.documentUpdateAction)) {
+          TaskState taskState = (TaskState) taskStateField.get(document);
+          stage = taskState != null ? taskState.stage : null;
+        }
+
+        startServicesWithLatestState(admissionQueue.onStageChange(entry.getKey(), stage));
+      }
+    } catch (Throwable e) {
+      logFailure(e);
+    }
+  }
+
+  /**
+   * Moves the services indicated by docSelfLinks from CREATED to STARTED stage, using the current state of the
+   * scheduler. This is used from callbacks that run outside of a patch, where the state we had may be stale.
+   */
+  private void startServicesWithLatestState(final List<String> docSelfLinks) {
+    if (docSelfLinks.isEmpty()) {
+      return;
+    }
+
+    Operation get = Operation
+        .createGet(UriUtils.buildUri(getHost(), getSelfLink()))
+        .setReferer(getUri())
+        .setCompletion((completedOp, failure) -> {
+          if (failure != null) {
+            // Give up on these services, the next reconciliation finds them in CREATED stage again
+            logFailure(failure);
+            List<String> abandonedLinks = docSelfLinks;
+            while (!abandonedLinks.isEmpty()) {
+              List<String> admittedLinks = new ArrayList<>();
+              for (String docSelfLink : abandonedLinks) {
+                admittedLinks.addAll(admissionQueue.onStartCompleted(docSelfLink, true));
+              }
+              abandonedLinks = admittedLinks;
+            }
+            return;
+          }
+
+          startServices(completedOp.getBody(State.class), docSelfLinks);
+        });
+    sendRequest(get);
+  }
+
   /**
    * Sends a patch to move the service indicated by documentSelfLink from CREATED to STARTED stage.
    *
    * @param docSelfLink
    */
-  private void sendStartPatch(final State current, String docSelfLink) {
+  private void sendStartPatch(final State current, final String docSelfLink) {
     try {
       ServiceDocument startedPatch =
           TaskSchedulerServiceStateBuilder
               .getStartPatch(Class.forName(current.schedulerServiceClassName));
       Operation patch = Operation.createPatch(UriUtils.buildUri(getHost(), docSelfLink))
           .setBody(startedPatch)
-          .setReferer(UriUtils.buildUri(getHost(), getSelfLink()));
+          .setReferer(UriUtils.buildUri(getHost(), getSelfLink()))
+          .setCompletion((completedOp, failure) -> {
+            if (failure != null) {
+              logFailure(failure);
+            }
+            startServicesWithLatestState(admissionQueue.onStartCompleted(docSelfLink, failure != null));
+          });
       sendRequest(patch);
 
       ServiceUtils.logInfo(this,
           "Host[%s]: TaskSchedulerService moving service %s from CREATED to STARTED", getHost().getId(), docSelfLink);
     } catch (Exception e) {
       logFailure(e);
+      admissionQueue.onStartCompleted(docSelfLink, true);
     }
   }
 
@@ -280,6 +474,22 @@ public class TaskSchedulerService extends StatefulService {
     sendRequest(patch);
   }
 
+  /**
+   * Finds the field holding the TaskState of the service documents.
+   *
+   * @param documentClass
+   */
+  private static Field findTaskStateField(Class<?> documentClass) {
+    for (Field field : documentClass.getFields()) {
+      if (TaskState.class.isAssignableFrom(field.getType())) {
+        return field;
+      }
+    }
+
+    throw new IllegalArgumentException(
+        String.format("%s does not have a member of type %s", documentClass, TaskState.class));
+  }
+
   /**
    * Log failed query.
    *
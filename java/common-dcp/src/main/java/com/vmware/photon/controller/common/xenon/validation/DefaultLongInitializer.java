@@ -15,7 +15,6 @@ package com.vmware.photon.controller.common.xenon.validation;
 
 import com.vmware.xenon.common.ServiceDocument;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 
 /**
@@ -26,15 +25,9 @@ public enum DefaultLongInitializer {
 
   public static void initialize(ServiceDocument state) {
     try {
-      Field[] declaredFields = state.getClass().getDeclaredFields();
-      for (Field field : declaredFields) {
+      for (Field field : ServiceDocumentFields.of(state.getClass()).getAnnotatedFields(DefaultLong.class)) {
         if (field.get(state) == null) {
-          Annotation[] declaredAnnotations = field.getDeclaredAnnotations();
-          for (Annotation annotation : declaredAnnotations) {
-            if (annotation.annotationType() == DefaultLong.class) {
-              field.set(state, new Long(((DefaultLong) annotation).value()));
-            }
-          }
+          field.set(state, new Long(field.getAnnotation(DefaultLong.class).value()));
         }
       }
     } catch (Throwable t) {
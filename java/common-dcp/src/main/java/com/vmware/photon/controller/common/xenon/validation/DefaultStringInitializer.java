@@ -15,7 +15,6 @@ package com.vmware.photon.controller.common.xenon.validation;
 
 import com.vmware.xenon.common.ServiceDocument;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 
 /**
@@ -26,15 +25,9 @@ public enum DefaultStringInitializer {
 
   public static void initialize(ServiceDocument state) {
     try {
-      Field[] declaredFields = state.getClass().getDeclaredFields();
-      for (Field field : declaredFields) {
+      for (Field field : ServiceDocumentFields.of(state.getClass()).getAnnotatedFields(DefaultString.class)) {
         if (field.get(state) == null) {
-          Annotation[] declaredAnnotations = field.getDeclaredAnnotations();
-          for (Annotation annotation : declaredAnnotations) {
-            if (annotation.annotationType() == DefaultString.class) {
-              field.set(state, new String(((DefaultString) annotation).value()));
-            }
-          }
+          field.set(state, new String(field.getAnnotation(DefaultString.class).value()));
         }
       }
     } catch (Throwable t) {
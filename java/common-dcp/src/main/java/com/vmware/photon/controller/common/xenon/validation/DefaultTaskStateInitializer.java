@@ -16,7 +16,6 @@ package com.vmware.photon.controller.common.xenon.validation;
 import com.vmware.xenon.common.ServiceDocument;
 import com.vmware.xenon.common.TaskState;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 
 /**
@@ -27,17 +26,11 @@ public enum DefaultTaskStateInitializer {
 
   public static void initialize(ServiceDocument state) throws RuntimeException {
     try {
-      Field[] declaredFields = state.getClass().getDeclaredFields();
-      for (Field field : declaredFields) {
+      for (Field field : ServiceDocumentFields.of(state.getClass()).getAnnotatedFields(DefaultTaskState.class)) {
         if (field.get(state) == null) {
-          Annotation[] declaredAnnotations = field.getDeclaredAnnotations();
-          for (Annotation annotation : declaredAnnotations) {
-            if (annotation.annotationType() == DefaultTaskState.class) {
-              TaskState defaultState = (TaskState) field.getType().newInstance();
-              defaultState.stage = ((DefaultTaskState) annotation).value();
-              field.set(state, defaultState);
-            }
-          }
+          TaskState defaultState = (TaskState) field.getType().newInstance();
+          defaultState.stage = field.getAnnotation(DefaultTaskState.class).value();
+          field.set(state, defaultState);
         }
       }
     } catch (Throwable t) {
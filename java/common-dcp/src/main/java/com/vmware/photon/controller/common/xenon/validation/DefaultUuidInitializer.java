@@ -15,7 +15,6 @@ package com.vmware.photon.controller.common.xenon.validation;
 
 import com.vmware.xenon.common.ServiceDocument;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.util.UUID;
 
@@ -27,15 +26,9 @@ public enum DefaultUuidInitializer {
 
   public static void initialize(ServiceDocument state) {
     try {
-      Field[] declaredFields = state.getClass().getDeclaredFields();
-      for (Field field : declaredFields) {
+      for (Field field : ServiceDocumentFields.of(state.getClass()).getAnnotatedFields(DefaultUuid.class)) {
         if (field.get(state) == null) {
-          Annotation[] declaredAnnotations = field.getDeclaredAnnotations();
-          for (Annotation annotation : declaredAnnotations) {
-            if (annotation.annotationType() == DefaultUuid.class) {
-              field.set(state, UUID.randomUUID().toString());
-            }
-          }
+          field.set(state, UUID.randomUUID().toString());
         }
       }
     } catch (Throwable t) {
@@ -18,7 +18,6 @@ import com.vmware.xenon.common.ServiceDocument;
 import org.apache.commons.lang3.StringUtils;
 import static com.google.common.base.Preconditions.checkState;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 
 /**
@@ -30,17 +29,12 @@ public enum NotBlankValidator {
 
   public static void validate(ServiceDocument state) {
     try {
-      Field[] declaredFields = state.getClass().getDeclaredFields();
-      for (Field field : declaredFields) {
-        Annotation[] declaredAnnotations = field.getDeclaredAnnotations();
-        for (Annotation annotation : declaredAnnotations) {
-          if (annotation.annotationType() == NotBlank.class) {
-            checkState(null != field.get(state), String.format("%s cannot be null", field.getName()));
-            if (String.class.equals(field.getType())) {
-              checkState((StringUtils.isNotBlank((String) field.get(state))),
-                  String.format("%s cannot be blank", field.getName()));
-            }
-          }
+      for (Field field : ServiceDocumentFields.of(state.getClass()).getAnnotatedFields(NotBlank.class)) {
+        Object value = field.get(state);
+        checkState(null != value, String.format("%s cannot be null", field.getName()));
+        if (String.class.equals(field.getType())) {
+          checkState((StringUtils.isNotBlank((String) value)),
+              String.format("%s cannot be blank", field.getName()));
         }
       }
     } catch (IllegalStateException e) {
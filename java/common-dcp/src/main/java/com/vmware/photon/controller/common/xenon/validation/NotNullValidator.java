@@ -17,7 +17,6 @@ import com.vmware.xenon.common.ServiceDocument;
 
 import static com.google.common.base.Preconditions.checkState;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 
 /**
@@ -29,14 +28,8 @@ public enum NotNullValidator {
 
   public static void validate(ServiceDocument state) {
     try {
-      Field[] declaredFields = state.getClass().getDeclaredFields();
-      for (Field field : declaredFields) {
-        Annotation[] declaredAnnotations = field.getDeclaredAnnotations();
-        for (Annotation annotation : declaredAnnotations) {
-          if (annotation.annotationType() == NotNull.class) {
-            checkState(null != field.get(state), String.format("%s cannot be null", field.getName()));
-          }
-        }
+      for (Field field : ServiceDocumentFields.of(state.getClass()).getAnnotatedFields(NotNull.class)) {
+        checkState(null != field.get(state), String.format("%s cannot be null", field.getName()));
       }
     } catch (IllegalStateException e) {
       throw e;
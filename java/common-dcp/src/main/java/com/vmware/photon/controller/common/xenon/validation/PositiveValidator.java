@@ -17,7 +17,6 @@ import com.vmware.xenon.common.ServiceDocument;
 
 import static com.google.common.base.Preconditions.checkState;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 
 /**
@@ -29,18 +28,10 @@ public enum PositiveValidator {
 
   public static void validate(ServiceDocument state) {
     try {
-      Field[] declaredFields = state.getClass().getDeclaredFields();
-      for (Field field : declaredFields) {
-        Annotation[] declaredAnnotations = field.getDeclaredAnnotations();
-        for (Annotation annotation : declaredAnnotations) {
-          if (annotation.annotationType() != Positive.class) {
-            continue;
-          }
-
-          checkState(null == field.get(state) || 0 < ((Number) field.get(state)).longValue(),
-              String.format("%s must be greater than zero", field.getName()));
-
-        }
+      for (Field field : ServiceDocumentFields.of(state.getClass()).getAnnotatedFields(Positive.class)) {
+        Object value = field.get(state);
+        checkState(null == value || 0 < ((Number) value).longValue(),
+            String.format("%s must be greater than zero", field.getName()));
       }
     } catch (IllegalStateException e) {
       throw e;
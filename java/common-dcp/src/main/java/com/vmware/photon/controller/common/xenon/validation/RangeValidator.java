@@ -17,7 +17,6 @@ import com.vmware.xenon.common.ServiceDocument;
 
 import static com.google.common.base.Preconditions.checkState;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 
 /**
@@ -29,17 +28,13 @@ public enum RangeValidator {
 
   public static void validate(ServiceDocument state) {
     try {
-      Field[] declaredFields = state.getClass().getDeclaredFields();
-      for (Field field : declaredFields) {
-        for (Annotation annotation : field.getDeclaredAnnotations()) {
-          if (annotation.annotationType() == Range.class) {
-            long min = ((Range) annotation).min();
-            long max = ((Range) annotation).max();
-            Number value = (Number) field.get(state);
-            checkState(value == null || (value.longValue() >= min && value.longValue() <= max),
-                String.format("%s is not within range %d, %d", field.getName(), min, max));
-          }
-        }
+      for (Field field : ServiceDocumentFields.of(state.getClass()).getAnnotatedFields(Range.class)) {
+        Range range = field.getAnnotation(Range.class);
+        long min = range.min();
+        long max = range.max();
+        Number value = (Number) field.get(state);
+        checkState(value == null || (value.longValue() >= min && value.longValue() <= max),
+            String.format("%s is not within range %d, %d", field.getName(), min, max));
       }
     } catch (IllegalStateException e) {
       throw e;
@@ -16,7 +16,6 @@ package com.vmware.photon.controller.common.xenon.validation;
 import com.vmware.xenon.common.ServiceDocument;
 import com.vmware.xenon.common.Utils;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.List;
@@ -31,22 +30,13 @@ public enum RenamedFieldHandler {
       RuntimeException {
     List<Field> result = new ArrayList<Field>();
     try {
-      Field[] declaredFields = destinationState.getClass().getDeclaredFields();
-      for (Field field : declaredFields) {
-        Annotation[] declaredAnnotations = field.getDeclaredAnnotations();
-        if (declaredAnnotations != null) {
-          for (Annotation annotation : declaredAnnotations) {
-            if (annotation.annotationType() == RenamedField.class) {
-              // Find the original field in source
-              Object originalFieldValue = getNamedFieldValue(sourceJsonObject, ((RenamedField) annotation)
-                      .originalName(),
-                  field.getType());
-              if (originalFieldValue != null) {
-                field.set(destinationState, originalFieldValue);
-                result.add(field);
-              }
-            }
-          }
+      for (Field field : ServiceDocumentFields.of(destinationState.getClass()).getAnnotatedFields(RenamedField.class)) {
+        // Find the original field in source
+        Object originalFieldValue = getNamedFieldValue(sourceJsonObject,
+            field.getAnnotation(RenamedField.class).originalName(), field.getType());
+        if (originalFieldValue != null) {
+          field.set(destinationState, originalFieldValue);
+          result.add(field);
         }
       }
     } catch (Throwable t) {
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.vmware.photon.controller.common.xenon.validation;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class caches the reflection metadata of a document class: its declared fields, grouped by
+ * annotation, and the fields a patch may set. The validators, the initializers and the patch utilities
+ * run on every start and patch of every service, so they look up the fields here instead of scanning
+ * the class each time.
+ */
+public final class ServiceDocumentFields {
+
+  private static final Field[] NO_FIELDS = new Field[0];
+
+  private static final ClassValue<ServiceDocumentFields> CACHE = new ClassValue<ServiceDocumentFields>() {
+    @Override
+    protected ServiceDocumentFields computeValue(Class<?> documentClass) {
+      return new ServiceDocumentFields(documentClass);
+    }
+  };
+
+  private final Map<Class<? extends Annotation>, Field[]> annotatedFields;
+  private final Field[] patchableFields;
+
+  private ServiceDocumentFields(Class<?> documentClass) {
+    Map<Class<? extends Annotation>, List<Field>> annotatedFields = new HashMap<>();
+    List<Field> patchableFields = new ArrayList<>();
+
+    for (Field field : documentClass.getDeclaredFields()) {
+      if (Modifier.isPublic(field.getModifiers())) {
+        // Skip the access checks when reading and writing the field
+        field.setAccessible(true);
+      }
+
+      for (Annotation annotation : field.getDeclaredAnnotations()) {
+        annotatedFields.computeIfAbsent(annotation.annotationType(), (key) -> new ArrayList<>()).add(field);
+      }
+
+      if (!Modifier.isStatic(field.getModifiers()) && !field.isAnnotationPresent(Immutable.class)) {
+        patchableFields.add(field);
+      }
+    }
+
+    this.annotatedFields = new HashMap<>();
+    for (Map.Entry<Class<? extends Annotation>, List<Field>> entry : annotatedFields.entrySet()) {
+      this.annotatedFields.put(entry.getKey(), entry.getValue().toArray(new Field[entry.getValue().size()]));
+    }
+    this.patchableFields = patchableFields.toArray(new Field[patchableFields.size()]);
+  }
+
+  /**
+   * Returns the metadata of a document class, computing it the first time.
+   */
+  public static ServiceDocumentFields of(Class<?> documentClass) {
+    return CACHE.get(documentClass);
+  }
+
+  /**
+   * Returns the declared fields that carry the given annotation. The array is shared and must not be
+   * modified.
+   */
+  public Field[] getAnnotatedFields(Class<? extends Annotation> annotationType) {
+    Field[] fields = annotatedFields.get(annotationType);
+    return fields != null ? fields : NO_FIELDS;
+  }
+
+  /**
+   * Returns the declared fields a patch may set: the non-static fields without the {@link Immutable}
+   * annotation. The array is shared and must not be modified.
+   */
+  public Field[] getPatchableFields() {
+    return patchableFields;
+  }
+}
@@ -17,7 +17,6 @@ import com.vmware.xenon.common.ServiceDocument;
 
 import static com.google.common.base.Preconditions.checkState;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 
 /**
@@ -28,18 +27,12 @@ public enum WriteOnceValidator {
 
   public static void validate(ServiceDocument startState, ServiceDocument patchState) {
     try {
-      Field[] declaredFields = startState.getClass().getDeclaredFields();
-      for (Field field : declaredFields) {
-        Annotation[] declaredAnnotations = field.getDeclaredAnnotations();
-        for (Annotation annotation : declaredAnnotations) {
-          if (annotation.annotationType() == WriteOnce.class) {
-            Object startValue = field.get(startState);
-            Object patchValue = field.get(patchState);
-            if (null != patchValue) {
-              checkState(null == startValue,
-                  String.format("%s cannot be set or changed in a patch", field.getName()));
-            }
-          }
+      for (Field field : ServiceDocumentFields.of(startState.getClass()).getAnnotatedFields(WriteOnce.class)) {
+        Object startValue = field.get(startState);
+        Object patchValue = field.get(patchState);
+        if (null != patchValue) {
+          checkState(null == startValue,
+              String.format("%s cannot be set or changed in a patch", field.getName()));
         }
       }
     } catch (IllegalStateException e) {
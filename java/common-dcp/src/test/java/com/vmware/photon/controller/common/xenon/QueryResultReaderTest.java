@@ -0,0 +1,181 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.vmware.photon.controller.common.xenon;
+
+import com.vmware.xenon.common.ServiceDocumentQueryResult;
+import com.vmware.xenon.common.Utils;
+import com.vmware.xenon.services.common.ExampleService;
+import com.vmware.xenon.services.common.NodeGroupBroadcastResponse;
+import com.vmware.xenon.services.common.QueryTask;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Tests {@link QueryResultReader}.
+ */
+public class QueryResultReaderTest {
+
+  private static final String OWNER = "owner-node";
+
+  private QueryTask queryTask;
+
+  @BeforeMethod
+  public void setUp() {
+    queryTask = new QueryTask();
+    queryTask.documentOwner = OWNER;
+    queryTask.results = new ServiceDocumentQueryResult();
+    queryTask.results.documents = new LinkedHashMap<>();
+    queryTask.results.nextPageLink = "/next-page";
+    queryTask.results.prevPageLink = "/prev-page";
+    for (int i = 0; i < 3; i++) {
+      ExampleService.ExampleServiceState document = createDocument(i, OWNER);
+      queryTask.results.documentLinks.add(document.documentSelfLink);
+      queryTask.results.documents.put(document.documentSelfLink, document);
+    }
+    queryTask.results.documentCount = 3L;
+  }
+
+  /**
+   * Tests reading the whole query result.
+   */
+  @Test
+  public void testReadAll() {
+    QueryResultReader<ExampleService.ExampleServiceState> reader =
+        new QueryResultReader<>(ExampleService.ExampleServiceState.class, Utils.toJson(queryTask));
+    ServiceDocumentQueryResult results = reader.readAll();
+
+    assertThat(results.documentLinks, contains("/examples/0", "/examples/1", "/examples/2"));
+    assertThat(results.documentCount, is(3L));
+    assertThat(results.nextPageLink, is("/next-page"));
+    assertThat(results.prevPageLink, is("/prev-page"));
+    assertThat(results.documents.keySet(), contains("/examples/0", "/examples/1", "/examples/2"));
+    for (int i = 0; i < 3; i++) {
+      Object document = results.documents.get("/examples/" + i);
+      assertThat(document, instanceOf(ExampleService.ExampleServiceState.class));
+      assertThat(((ExampleService.ExampleServiceState) document).name, is("example-" + i));
+      assertThat(((ExampleService.ExampleServiceState) document).counter, is((long) i));
+    }
+    assertThat(reader.getDocumentOwner(), is(OWNER));
+  }
+
+  /**
+   * Tests iterating over the documents one at a time.
+   */
+  @Test
+  public void testIterate() {
+    QueryResultReader<ExampleService.ExampleServiceState> reader =
+        new QueryResultReader<>(ExampleService.ExampleServiceState.class, Utils.toJson(queryTask));
+
+    assertThat(reader.hasNext(), is(true));
+    assertThat(reader.getNextDocumentLink(), is("/examples/0"));
+    assertThat(reader.next().name, is("example-0"));
+
+    // The rest of the documents are returned by readAll
+    ServiceDocumentQueryResult results = reader.readAll();
+    assertThat(results.documents.keySet(), contains("/examples/1", "/examples/2"));
+    assertThat(reader.hasNext(), is(false));
+  }
+
+  /**
+   * Tests that next fails once all the documents were read.
+   */
+  @Test(expectedExceptions = NoSuchElementException.class)
+  public void testNextWithoutDocuments() {
+    queryTask.results.documents.clear();
+    QueryResultReader<ExampleService.ExampleServiceState> reader =
+        new QueryResultReader<>(ExampleService.ExampleServiceState.class, Utils.toJson(queryTask));
+
+    assertThat(reader.hasNext(), is(false));
+    reader.next();
+  }
+
+  /**
+   * Tests reading a query result whose content was not expanded.
+   */
+  @Test
+  public void testReadWithoutContent() {
+    queryTask.results.documents = null;
+    ServiceDocumentQueryResult results =
+        new QueryResultReader<>(ExampleService.ExampleServiceState.class, Utils.toJson(queryTask)).readAll();
+
+    assertThat(results.documents, nullValue());
+    assertThat(results.documentLinks, contains("/examples/0", "/examples/1", "/examples/2"));
+  }
+
+  /**
+   * Tests reading a query task without results.
+   */
+  @Test
+  public void testReadWithoutResults() {
+    queryTask.results = null;
+    QueryResultReader<ExampleService.ExampleServiceState> reader =
+        new QueryResultReader<>(ExampleService.ExampleServiceState.class, Utils.toJson(queryTask));
+
+    assertThat(reader.hasNext(), is(false));
+    assertThat(reader.readAll().documents, nullValue());
+    assertThat(reader.getDocumentOwner(), is(OWNER));
+  }
+
+  /**
+   * Tests that only the documents sent by their owner are returned from a broadcast query.
+   */
+  @Test
+  public void testGetBroadcastQueryDocuments() {
+    QueryTask otherQueryTask = new QueryTask();
+    otherQueryTask.documentOwner = "other-node";
+    otherQueryTask.results = new ServiceDocumentQueryResult();
+    otherQueryTask.results.documents = new LinkedHashMap<>();
+    ExampleService.ExampleServiceState replica = createDocument(0, OWNER);
+    ExampleService.ExampleServiceState owned = createDocument(3, "other-node");
+    otherQueryTask.results.documents.put(replica.documentSelfLink, replica);
+    otherQueryTask.results.documents.put(owned.documentSelfLink, owned);
+
+    NodeGroupBroadcastResponse response = new NodeGroupBroadcastResponse();
+    response.failures = new HashMap<>();
+    response.jsonResponses = new HashMap<>();
+    response.jsonResponses.put(URI.create("http://node1"), Utils.toJson(queryTask));
+    response.jsonResponses.put(URI.create("http://node2"), Utils.toJson(otherQueryTask));
+
+    List<String> names = new ArrayList<>();
+    for (ExampleService.ExampleServiceState document :
+        QueryTaskUtils.getBroadcastQueryDocuments(ExampleService.ExampleServiceState.class, response)) {
+      names.add(document.name);
+    }
+
+    assertThat(names, containsInAnyOrder("example-0", "example-1", "example-2", "example-3"));
+  }
+
+  private static ExampleService.ExampleServiceState createDocument(int i, String owner) {
+    ExampleService.ExampleServiceState document = new ExampleService.ExampleServiceState();
+    document.documentSelfLink = "/examples/" + i;
+    document.documentOwner = owner;
+    document.documentKind = Utils.buildKind(ExampleService.ExampleServiceState.class);
+    document.name = "example-" + i;
+    document.counter = (long) i;
+    return document;
+  }
+}
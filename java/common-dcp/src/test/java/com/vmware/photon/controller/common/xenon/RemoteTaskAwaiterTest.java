@@ -0,0 +1,172 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.vmware.photon.controller.common.xenon;
+
+import com.vmware.xenon.common.Service;
+import com.vmware.xenon.common.ServiceHost;
+
+import com.google.common.util.concurrent.FutureCallback;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This class implements tests for {@link RemoteTaskAwaiter}.
+ */
+public class RemoteTaskAwaiterTest {
+
+  private Service service;
+  private ServiceHost host;
+  private List<Long> delays;
+  private Integer result;
+  private Throwable failure;
+
+  @BeforeMethod
+  public void setUp() {
+    service = mock(Service.class);
+    host = mock(ServiceHost.class);
+    when(service.getHost()).thenReturn(host);
+
+    delays = new ArrayList<>();
+    doAnswer((invocation) -> {
+      delays.add((Long) invocation.getArguments()[1]);
+      ((Runnable) invocation.getArguments()[0]).run();
+      return null;
+    }).when(host).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+
+    result = null;
+    failure = null;
+  }
+
+  @Test
+  public void testBacksOffUntilDone() {
+    int[] polls = new int[1];
+    RemoteTaskAwaiter.<Integer>create(service, (callback) -> callback.onSuccess(++polls[0]), (value) -> value == 6,
+        callback())
+        .setPollDelay(10)
+        .setMaxBackoff(4)
+        .start();
+
+    assertThat(result, is(6));
+    assertThat(failure, nullValue());
+    assertThat(delays, contains(10L, 20L, 40L, 40L, 40L));
+  }
+
+  @Test
+  public void testDoneOnFirstPoll() {
+    RemoteTaskAwaiter.<Integer>create(service, (callback) -> callback.onSuccess(1), (value) -> true, callback())
+        .setPollDelay(10)
+        .start();
+
+    assertThat(result, is(1));
+    verify(host, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+  }
+
+  @Test
+  public void testFailsAfterMaxPolls() {
+    RemoteTaskAwaiter.<Integer>create(service, (callback) -> callback.onSuccess(1), (value) -> false, callback())
+        .setPollDelay(10)
+        .setMaxPolls(3)
+        .start();
+
+    assertThat(result, nullValue());
+    assertThat(failure, instanceOf(TimeoutException.class));
+    assertThat(delays.size(), is(2));
+  }
+
+  @Test
+  public void testPollFailure() {
+    RuntimeException pollFailure = new RuntimeException();
+    RemoteTaskAwaiter.<Integer>create(service, (callback) -> {
+      throw pollFailure;
+    }, (value) -> true, callback())
+        .start();
+
+    assertThat(failure, is(pollFailure));
+  }
+
+  @Test
+  public void testSuccessCallbackFailureIsNotReported() {
+    int[] failures = new int[1];
+    FutureCallback<Integer> throwingCallback = new FutureCallback<Integer>() {
+      @Override
+      public void onSuccess(Integer value) {
+        result = value;
+        throw new RuntimeException();
+      }
+
+      @Override
+      public void onFailure(Throwable t) {
+        failures[0]++;
+      }
+    };
+
+    RemoteTaskAwaiter.<Integer>create(service, (callback) -> callback.onSuccess(1), (value) -> true, throwingCallback)
+        .start();
+
+    assertThat(result, is(1));
+    assertThat(failures[0], is(0));
+  }
+
+  @Test
+  public void testPollFailureAfterSuccessIsNotReported() {
+    RemoteTaskAwaiter.<Integer>create(service, (callback) -> {
+      callback.onSuccess(1);
+      throw new RuntimeException();
+    }, (value) -> true, callback())
+        .start();
+
+    assertThat(result, is(1));
+    assertThat(failure, nullValue());
+  }
+
+  @Test
+  public void testStoppedServiceAbandonsWait() {
+    when(service.getProcessingStage()).thenReturn(Service.ProcessingStage.STOPPED);
+    RemoteTaskAwaiter.<Integer>create(service, (callback) -> callback.onSuccess(1), (value) -> true, callback())
+        .start();
+
+    assertThat(result, nullValue());
+    assertThat(failure, nullValue());
+  }
+
+  private FutureCallback<Integer> callback() {
+    return new FutureCallback<Integer>() {
+      @Override
+      public void onSuccess(Integer value) {
+        result = value;
+      }
+
+      @Override
+      public void onFailure(Throwable t) {
+        failure = t;
+      }
+    };
+  }
+}
@@ -20,6 +20,7 @@ import com.vmware.xenon.common.ServiceHost;
 import com.vmware.xenon.common.UriUtils;
 
 import com.google.common.util.concurrent.FutureCallback;
+import org.mockito.ArgumentCaptor;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.testng.annotations.BeforeMethod;
@@ -27,6 +28,7 @@ import org.testng.annotations.Test;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -34,7 +36,11 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.fail;
 
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * This class implements tests for {@link TaskUtilsTest}.
@@ -204,10 +210,62 @@ public class TaskUtilsTest {
           "factoryLink",
           (input) -> false,
           null,
-          0,
+          10,
           null);
 
-      verify(service, times(2)).getHost();
+      verify(host).schedule(any(Runnable.class), eq(10L), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    @Test
+    public void successOnNotification() {
+      final AtomicInteger count = new AtomicInteger(0);
+      final AtomicBoolean finished = new AtomicBoolean(false);
+      ServiceDocument document = new ServiceDocument();
+      document.documentSelfLink = "selfLink";
+      when(operation.getBody(any(Class.class))).thenReturn(document);
+      doAnswer(new Answer() {
+        @Override
+        public Object answer(InvocationOnMock invocation) throws Throwable {
+          ((Operation) invocation.getArguments()[0]).getCompletion().handle(operation, null);
+          return null;
+        }
+      }).when(service).sendRequest(any(Operation.class));
+      URI subscriptionUri = UriUtils.buildUri("http://localhost:0/mock/subscription");
+      when(host.startSubscriptionService(any(Operation.class), any(Consumer.class))).thenReturn(subscriptionUri);
+
+      FutureCallback<ServiceDocument> futureCallback = new FutureCallback<ServiceDocument>() {
+        @Override
+        public void onSuccess(ServiceDocument result) {
+          count.incrementAndGet();
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+          fail();
+        }
+      };
+
+      TaskUtils.checkProgress(service,
+          "factoryLink",
+          (input) -> finished.get(),
+          null,
+          10,
+          futureCallback);
+
+      ArgumentCaptor<Consumer> notificationConsumer = ArgumentCaptor.forClass(Consumer.class);
+      verify(host).startSubscriptionService(any(Operation.class), notificationConsumer.capture());
+      assertThat(count.get(), is(0));
+
+      finished.set(true);
+      notificationConsumer.getValue().accept(mock(Operation.class));
+      assertThat(count.get(), is(1));
+      verify(host).stopSubscriptionService(any(Operation.class), eq(subscriptionUri));
+
+      // Late notifications and polls are ignored
+      notificationConsumer.getValue().accept(mock(Operation.class));
+      assertThat(count.get(), is(1));
+      verify(service, times(2)).sendRequest(any(Operation.class));
     }
 
     @SuppressWarnings({ "unchecked", "rawtypes" })
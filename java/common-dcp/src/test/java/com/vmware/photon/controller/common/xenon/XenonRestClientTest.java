@@ -20,6 +20,7 @@ import com.vmware.xenon.common.Operation;
 import com.vmware.xenon.common.ServiceDocument;
 import com.vmware.xenon.common.ServiceDocumentQueryResult;
 import com.vmware.xenon.common.ServiceErrorResponse;
+import com.vmware.xenon.common.TaskState;
 import com.vmware.xenon.common.Utils;
 import com.vmware.xenon.services.common.ExampleService;
 import com.vmware.xenon.services.common.LimitedReplicationExampleFactoryService;
@@ -65,6 +66,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -366,6 +368,85 @@ public class XenonRestClientTest {
     }
   }
 
+  /**
+   * Tests for the asynchronous operations.
+   */
+  public class AsyncTest {
+
+    @BeforeMethod
+    public void setUp() throws Throwable {
+      setUpHostAndClient();
+      xenonRestClient.start();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Throwable {
+      if (host != null) {
+        host.destroy();
+      }
+
+      if (xenonRestClient != null) {
+        xenonRestClient.stop();
+      }
+    }
+
+    @Test
+    public void testPostPatchAndGetDocument() throws Throwable {
+      ExampleService.ExampleServiceState exampleServiceState = new ExampleService.ExampleServiceState();
+      exampleServiceState.name = UUID.randomUUID().toString();
+
+      Operation result = xenonRestClient.postAsync(ExampleService.FACTORY_LINK, exampleServiceState).get();
+      assertThat(result.getStatusCode(), is(200));
+      String documentSelfLink = result.getBody(ExampleService.ExampleServiceState.class).documentSelfLink;
+
+      ExampleService.ExampleServiceState patchState = new ExampleService.ExampleServiceState();
+      patchState.counter = 5L;
+      xenonRestClient.patchAsync(documentSelfLink, patchState).get();
+
+      ExampleService.ExampleServiceState savedState =
+          xenonRestClient.getDocumentAsync(documentSelfLink, ExampleService.ExampleServiceState.class).get();
+      assertThat(savedState.name, is(equalTo(exampleServiceState.name)));
+      assertThat(savedState.counter, is(5L));
+    }
+
+    @Test
+    public void testGetOfNonExistingDocument() throws Throwable {
+      try {
+        xenonRestClient.getAsync(ExampleService.FACTORY_LINK + "/" + UUID.randomUUID().toString()).get();
+        fail("getAsync should have failed with DocumentNotFoundException");
+      } catch (ExecutionException e) {
+        assertThat(e.getCause() instanceof DocumentNotFoundException, is(true));
+      }
+    }
+
+    @Test
+    public void testQueryDocuments() throws Throwable {
+      ExampleService.ExampleServiceState exampleServiceState = new ExampleService.ExampleServiceState();
+      exampleServiceState.name = UUID.randomUUID().toString();
+      String documentSelfLink = createDocument(exampleServiceState);
+
+      List<ExampleService.ExampleServiceState> documents = xenonRestClient.queryDocumentsAsync(
+          ExampleService.ExampleServiceState.class, ImmutableMap.of("name", exampleServiceState.name)).get();
+      assertThat(documents.size(), is(1));
+      assertThat(documents.get(0).documentSelfLink, is(equalTo(documentSelfLink)));
+    }
+
+    @Test
+    public void testWaitForTaskToFinish() throws Throwable {
+      ExampleService.ExampleServiceState exampleServiceState = new ExampleService.ExampleServiceState();
+      exampleServiceState.name = UUID.randomUUID().toString();
+      createDocument(exampleServiceState);
+
+      QueryTask.QuerySpecification spec =
+          QueryTaskUtils.buildQuerySpec(ExampleService.ExampleServiceState.class, ImmutableMap.of());
+      Operation result = xenonRestClient.queryAsync(QueryTask.create(spec)).get();
+
+      Operation finished = xenonRestClient.waitForTaskToFinishAsync(
+          QueryTaskUtils.getServiceDocumentUri(result)).get();
+      assertThat(QueryTaskUtils.getServiceState(finished), is(TaskState.TaskStage.FINISHED));
+    }
+  }
+
   /**
    * Tests for the send operation.
    */
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.vmware.photon.controller.common.xenon.scheduler;
+
+import com.vmware.xenon.common.TaskState;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Tests {@link TaskAdmissionQueue}.
+ */
+public class TaskAdmissionQueueTest {
+
+  private TaskAdmissionQueue queue;
+
+  @BeforeMethod
+  public void setUp() {
+    queue = new TaskAdmissionQueue();
+    assertThat(queue.setTasksLimit(2), is(empty()));
+  }
+
+  @Test
+  public void testTasksStartInCreationOrder() {
+    assertThat(queue.onStageChange("task1", TaskState.TaskStage.CREATED), contains("task1"));
+    assertThat(queue.onStageChange("task2", TaskState.TaskStage.CREATED), contains("task2"));
+    assertThat(queue.onStageChange("task3", TaskState.TaskStage.CREATED), is(empty()));
+    assertThat(queue.onStageChange("task4", TaskState.TaskStage.CREATED), is(empty()));
+    assertThat(queue.getRunningCount(), is(2));
+    assertThat(queue.getQueuedCount(), is(2));
+
+    // The start patch notifications do not change the counts
+    assertThat(queue.onStageChange("task1", TaskState.TaskStage.STARTED), is(empty()));
+    assertThat(queue.onStartCompleted("task1", false), is(empty()));
+    assertThat(queue.getRunningCount(), is(2));
+
+    // A slot frees up as soon as a task finishes
+    assertThat(queue.onStageChange("task1", TaskState.TaskStage.FINISHED), contains("task3"));
+    assertThat(queue.onStageChange("task2", null), contains("task4"));
+    assertThat(queue.getQueuedCount(), is(0));
+  }
+
+  @Test
+  public void testFailedStartFreesSlot() {
+    queue.onStageChange("task1", TaskState.TaskStage.CREATED);
+    queue.onStageChange("task2", TaskState.TaskStage.CREATED);
+    queue.onStageChange("task3", TaskState.TaskStage.CREATED);
+
+    assertThat(queue.onStartCompleted("task1", true), contains("task3"));
+    assertThat(queue.getRunningCount(), is(2));
+  }
+
+  @Test
+  public void testTasksLimitChange() {
+    queue.onStageChange("task1", TaskState.TaskStage.CREATED);
+    queue.onStageChange("task2", TaskState.TaskStage.CREATED);
+    queue.onStageChange("task3", TaskState.TaskStage.CREATED);
+
+    assertThat(queue.setTasksLimit(3), contains("task3"));
+  }
+
+  @Test
+  public void testReconcile() {
+    queue.onStageChange("task1", TaskState.TaskStage.CREATED);
+    queue.onStageChange("task2", TaskState.TaskStage.CREATED);
+
+    // task1 is still being started, task2 and task3 were started by a previous owner, task4 was missed
+    queue.onStartCompleted("task2", false);
+    assertThat(queue.reconcile(Arrays.asList("task2", "task3"), Arrays.asList("task1", "task4")), is(empty()));
+    assertThat(queue.getRunningCount(), is(3));
+    assertThat(queue.getQueuedCount(), is(1));
+
+    queue.onStageChange("task2", TaskState.TaskStage.FINISHED);
+    assertThat(queue.reconcile(Collections.singletonList("task1"), Collections.singletonList("task4")),
+        contains("task4"));
+    assertThat(queue.getRunningCount(), is(2));
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.vmware.photon.controller.common.xenon.validation;
+
+import com.vmware.xenon.common.ServiceDocument;
+
+import org.testng.annotations.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContainingInAnyOrder;
+import static org.hamcrest.Matchers.emptyArray;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.lang.reflect.Field;
+
+/**
+ * This class implements tests for {@link ServiceDocumentFields}.
+ */
+public class ServiceDocumentFieldsTest {
+
+  @Test
+  public void testAnnotatedFields() {
+    ServiceDocumentFields fields = ServiceDocumentFields.of(AnnotatedDocument.class);
+    assertThat(getNames(fields.getAnnotatedFields(NotNull.class)), arrayContainingInAnyOrder("id", "count"));
+    assertThat(getNames(fields.getAnnotatedFields(Immutable.class)), arrayContainingInAnyOrder("id"));
+    assertThat(getNames(fields.getAnnotatedFields(Positive.class)), arrayContainingInAnyOrder("count"));
+    assertThat(fields.getAnnotatedFields(WriteOnce.class), emptyArray());
+  }
+
+  @Test
+  public void testPatchableFields() {
+    ServiceDocumentFields fields = ServiceDocumentFields.of(AnnotatedDocument.class);
+    assertThat(getNames(fields.getPatchableFields()), arrayContainingInAnyOrder("count", "name"));
+  }
+
+  @Test
+  public void testCached() {
+    assertThat(ServiceDocumentFields.of(AnnotatedDocument.class),
+        sameInstance(ServiceDocumentFields.of(AnnotatedDocument.class)));
+    assertThat(ServiceDocumentFields.of(AnnotatedDocument.class).getPatchableFields(),
+        sameInstance(ServiceDocumentFields.of(AnnotatedDocument.class).getPatchableFields()));
+    assertThat(ServiceDocumentFields.of(ServiceDocument.class) == ServiceDocumentFields.of(AnnotatedDocument.class),
+        is(false));
+  }
+
+  private static String[] getNames(Field[] fields) {
+    String[] names = new String[fields.length];
+    for (int i = 0; i < fields.length; i++) {
+      names[i] = fields[i].getName();
+    }
+    return names;
+  }
+
+  /**
+   * Test ServiceDocument.
+   */
+  public static class AnnotatedDocument extends ServiceDocument {
+    public static final String FIELD_NAME_ID = "id";
+
+    @NotNull
+    @Immutable
+    public String id;
+
+    @NotNull
+    @Positive
+    public Integer count;
+
+    public String name;
+  }
+}
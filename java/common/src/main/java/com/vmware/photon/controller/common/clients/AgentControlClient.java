@@ -27,6 +27,7 @@ import com.vmware.photon.controller.common.clients.exceptions.SystemErrorExcepti
 import com.vmware.photon.controller.common.thrift.ClientPool;
 import com.vmware.photon.controller.common.thrift.ClientPoolFactory;
 import com.vmware.photon.controller.common.thrift.ClientPoolOptions;
+import com.vmware.photon.controller.common.thrift.ClientPoolRegistry;
 import com.vmware.photon.controller.common.thrift.ClientProxyFactory;
 import com.vmware.photon.controller.common.zookeeper.gen.ServerAddress;
 import com.vmware.photon.controller.resource.gen.ImageDatastore;
@@ -66,6 +67,15 @@ public class AgentControlClient {
       .setMaxWaiters(100)
       .setTimeout(30, TimeUnit.SECONDS)
       .setServiceName("AgentControl");
+  /**
+   * Options of the per-host pools shared through the {@link ClientPoolRegistry}. Unlike the pools
+   * created for a single client, these are used by concurrent callers, so they allow more clients.
+   */
+  protected static final ClientPoolOptions SHARED_CLIENT_POOL_OPTIONS = new ClientPoolOptions()
+      .setMaxClients(4)
+      .setMaxWaiters(100)
+      .setTimeout(30, TimeUnit.SECONDS)
+      .setServiceName("AgentControl");
   private static final int DEFAULT_PORT_NUMBER = 8835;
   private static final int MAX_RESERVED_PORT_NUMBER = 1023;
 
@@ -76,6 +86,7 @@ public class AgentControlClient {
   private static final long PING_TIMEOUT_MS = 5000;
   private final ClientProxyFactory<AgentControl.AsyncClient> clientProxyFactory;
   private final ClientPoolFactory<AgentControl.AsyncClient> clientPoolFactory;
+  private final ClientPoolRegistry<AgentControl.AsyncClient> clientPoolRegistry;
   /**
    * clientProxy acquires a new client from ClientPool for every thrift call.
    */
@@ -84,11 +95,22 @@ public class AgentControlClient {
   private int port;
   private ClientPool<AgentControl.AsyncClient> clientPool;
 
-  @Inject
   public AgentControlClient(ClientProxyFactory<AgentControl.AsyncClient> clientProxyFactory,
                             ClientPoolFactory<AgentControl.AsyncClient> clientPoolFactory) {
+    this(clientProxyFactory, clientPoolFactory, null);
+  }
+
+  /**
+   * When a client pool registry is given, connections to an agent are shared with the other clients
+   * talking to the same agent, and are kept open between calls.
+   */
+  @Inject
+  public AgentControlClient(ClientProxyFactory<AgentControl.AsyncClient> clientProxyFactory,
+                            ClientPoolFactory<AgentControl.AsyncClient> clientPoolFactory,
+                            ClientPoolRegistry<AgentControl.AsyncClient> clientPoolRegistry) {
     this.clientProxyFactory = clientProxyFactory;
     this.clientPoolFactory = clientPoolFactory;
+    this.clientPoolRegistry = clientPoolRegistry;
   }
 
   public String getHostIp() {
@@ -149,9 +171,12 @@ public class AgentControlClient {
 
   private void createClientProxyWithIpAndPort() {
     logger.debug("Creating host async client of hostIp {} and port {}", this.getHostIp(), this.getPort());
-    this.clientPool = this.clientPoolFactory.create(
-        ImmutableSet.of(new InetSocketAddress(this.getHostIp(), this.getPort())),
-        CLIENT_POOL_OPTIONS);
+    InetSocketAddress address = new InetSocketAddress(this.getHostIp(), this.getPort());
+    if (this.clientPoolRegistry != null) {
+      this.clientPool = this.clientPoolRegistry.get(address, SHARED_CLIENT_POOL_OPTIONS);
+    } else {
+      this.clientPool = this.clientPoolFactory.create(ImmutableSet.of(address), CLIENT_POOL_OPTIONS);
+    }
     this.clientProxy = clientProxyFactory.create(clientPool).get();
   }
 
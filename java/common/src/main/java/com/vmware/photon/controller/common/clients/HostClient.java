@@ -42,6 +42,7 @@ import com.vmware.photon.controller.common.clients.exceptions.VmNotPoweredOffExc
 import com.vmware.photon.controller.common.thrift.ClientPool;
 import com.vmware.photon.controller.common.thrift.ClientPoolFactory;
 import com.vmware.photon.controller.common.thrift.ClientPoolOptions;
+import com.vmware.photon.controller.common.thrift.ClientPoolRegistry;
 import com.vmware.photon.controller.common.thrift.ClientProxyFactory;
 import com.vmware.photon.controller.common.zookeeper.gen.ServerAddress;
 import com.vmware.photon.controller.host.gen.AttachISORequest;
@@ -137,6 +138,15 @@ public class HostClient {
       .setMaxWaiters(100)
       .setTimeout(30, TimeUnit.SECONDS)
       .setServiceName("Host");
+  /**
+   * Options of the per-host pools shared through the {@link ClientPoolRegistry}. Unlike the pools
+   * created for a single client, these are used by concurrent callers, so they allow more clients.
+   */
+  protected static final ClientPoolOptions SHARED_CLIENT_POOL_OPTIONS = new ClientPoolOptions()
+      .setMaxClients(8)
+      .setMaxWaiters(100)
+      .setTimeout(30, TimeUnit.SECONDS)
+      .setServiceName("Host");
   private static final int DEFAULT_PORT_NUMBER = 8835;
   private static final int MAX_RESERVED_PORT_NUMBER = 1023;
 
@@ -166,6 +176,7 @@ public class HostClient {
   private static final long RESERVE_TIMEOUT_MS = 60000;
   private final ClientProxyFactory<Host.AsyncClient> clientProxyFactory;
   private final ClientPoolFactory<Host.AsyncClient> clientPoolFactory;
+  private final ClientPoolRegistry<Host.AsyncClient> clientPoolRegistry;
   /**
    * clientProxy acquires a new client from ClientPool for every thrift call.
    * Reference: {@link ClientProxyImpl#createMethodHandler() createMethodHandler}.
@@ -175,11 +186,22 @@ public class HostClient {
   private int port;
   private ClientPool<Host.AsyncClient> clientPool;
 
-  @Inject
   public HostClient(ClientProxyFactory<Host.AsyncClient> clientProxyFactory,
                     ClientPoolFactory<Host.AsyncClient> clientPoolFactory) {
+    this(clientProxyFactory, clientPoolFactory, null);
+  }
+
+  /**
+   * When a client pool registry is given, connections to a host are shared with the other clients
+   * talking to the same host, and are kept open between calls.
+   */
+  @Inject
+  public HostClient(ClientProxyFactory<Host.AsyncClient> clientProxyFactory,
+                    ClientPoolFactory<Host.AsyncClient> clientPoolFactory,
+                    ClientPoolRegistry<Host.AsyncClient> clientPoolRegistry) {
     this.clientProxyFactory = clientProxyFactory;
     this.clientPoolFactory = clientPoolFactory;
+    this.clientPoolRegistry = clientPoolRegistry;
   }
 
   public String getHostIp() {
@@ -1391,7 +1413,8 @@ public class HostClient {
 
   @VisibleForTesting
   protected void ensureClient() {
-    if (clientProxy != null) {
+    // The registry closes shared pools that are evicted or idle, in which case we need a new one
+    if (clientProxy != null && (clientPool == null || !clientPool.isClosed())) {
       return;
     }
 
@@ -1412,9 +1435,12 @@ public class HostClient {
 
   private void createClientProxyWithIpAndPort() {
     logger.debug("Creating host async client of hostIp {} and port {}", this.getHostIp(), this.getPort());
-    this.clientPool = this.clientPoolFactory.create(
-        ImmutableSet.of(new InetSocketAddress(this.getHostIp(), this.getPort())),
-        CLIENT_POOL_OPTIONS);
+    InetSocketAddress address = new InetSocketAddress(this.getHostIp(), this.getPort());
+    if (this.clientPoolRegistry != null) {
+      this.clientPool = this.clientPoolRegistry.get(address, SHARED_CLIENT_POOL_OPTIONS);
+    } else {
+      this.clientPool = this.clientPoolFactory.create(ImmutableSet.of(address), CLIENT_POOL_OPTIONS);
+    }
     this.clientProxy = clientProxyFactory.create(clientPool).get();
   }
 
@@ -33,22 +33,27 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.security.SecureRandom;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Implementation of {@link ClientPool}.
  *
+ * The pool does not take any lock: idle clients are kept in a lock-free queue per server, waiters in a
+ * lock-free queue, and the number of clients and waiters are accounted for with atomic counters.
+ * A client is handed to a waiter by whichever thread manages to remove the waiter from the queue.
+ *
  * @param <C> thrift async client type
  */
 class ClientPoolImpl<C extends TAsyncClient> implements ClientPool<C>, ServerSet.ChangeListener {
@@ -62,12 +67,15 @@ class ClientPoolImpl<C extends TAsyncClient> implements ClientPool<C>, ServerSet
   private final ScheduledExecutorService scheduledExecutor;
   private final ServerSet serverSet;
   private final ClientPoolOptions options;
-  private final ListMultimap<InetSocketAddress, C> availableClients;
+  private final Map<InetSocketAddress, Queue<C>> availableClients;
   private final Map<C, InetSocketAddress> acquiredClients;
   private final Set<InetSocketAddress> availableServers;
   private final Map<C, TNonblockingTransport> clientTransportMap;
   private final Queue<Promise<C>> promises;
-  private boolean closed;
+  // Number of clients, available or acquired, including the ones being created
+  private final AtomicInteger clientCount;
+  private final AtomicInteger waiterCount;
+  private final AtomicBoolean closed;
 
   @Inject
   public ClientPoolImpl(SecureRandom random,
@@ -84,115 +92,133 @@ class ClientPoolImpl<C extends TAsyncClient> implements ClientPool<C>, ServerSet
     this.scheduledExecutor = scheduledExecutor;
     this.serverSet = serverSet;
     this.options = new ClientPoolOptions(options);
-    this.availableClients = ArrayListMultimap.create();
-    this.acquiredClients = new HashMap<>();
-    this.availableServers = new HashSet<>();
-    this.clientTransportMap = new HashMap<>();
-    this.promises = new LinkedList<>();
-    this.closed = false;
+    this.availableClients = new ConcurrentHashMap<>();
+    this.acquiredClients = new ConcurrentHashMap<>();
+    this.availableServers = ConcurrentHashMap.newKeySet();
+    this.clientTransportMap = new ConcurrentHashMap<>();
+    this.promises = new ConcurrentLinkedQueue<>();
+    this.clientCount = new AtomicInteger(0);
+    this.waiterCount = new AtomicInteger(0);
+    this.closed = new AtomicBoolean(false);
 
     // Must be last since it can start firing events immediately
     this.serverSet.addChangeListener(this);
   }
 
-  public synchronized void onServerAdded(InetSocketAddress address) {
+  public void onServerAdded(InetSocketAddress address) {
     logger.debug("Server {} added", address);
     availableServers.add(address);
-    if (!availableClients.containsKey(address) &&
-        canCreateClient()) {
+    if (getAvailableClientQueue(address).isEmpty() && reserveClient()) {
       try {
-        availableClients.put(address, createNewClient(address));
+        addAvailableClient(address, createNewClient(address));
       } catch (IOException ex) {
+        clientCount.decrementAndGet();
         logger.error("Error occurred when createNewClient for {}", address);
       }
     }
     processPromises();
   }
 
-  public synchronized void onServerRemoved(InetSocketAddress address) {
+  public void onServerRemoved(InetSocketAddress address) {
     logger.debug("Server {} removed", address);
     availableServers.remove(address);
-    List<C> clients = availableClients.removeAll(address);
-    for (C client : clients) {
-      removeClient(client);
+    Queue<C> clients = availableClients.remove(address);
+    if (clients != null) {
+      for (C client = clients.poll(); client != null; client = clients.poll()) {
+        removeClient(client);
+      }
     }
   }
 
   @Override
-  public synchronized ListenableFuture<C> acquire() {
-    if (promises.size() < options.getMaxWaiters()) {
-      SettableFuture<C> future = SettableFuture.create();
-      Promise<C> promise = new Promise<>(future);
-      promises.add(promise);
-      processPromises();
-      logger.info("options.getTimeoutMs() is {}", options.getTimeoutMs());
-      if (options.getTimeoutMs() > 0 && !future.isDone()) {
-        setTimeout(promise);
+  public ListenableFuture<C> acquire() {
+    // Only bypass the waiters when there are none, so that they get served in order
+    if (waiterCount.get() == 0) {
+      try {
+        C client = reserveAvailableOrNewClient();
+        if (client != null) {
+          logger.debug("{}, client pool {}, acquired client {}",
+              options.getServiceName(), System.identityHashCode(this), client);
+          return Futures.immediateFuture(client);
+        }
+      } catch (IOException ex) {
+        logger.error("reserveAvailableOrNewClient has IOException", ex);
+        return Futures.immediateFailedFuture(ex);
       }
-      logger.info("{} Promise processed {}", options.getServiceName(), promise);
-      return future;
     }
 
-    return Futures.immediateFailedFuture(new ClientPoolException("Too many waiters"));
+    if (waiterCount.incrementAndGet() > options.getMaxWaiters()) {
+      waiterCount.decrementAndGet();
+      return Futures.immediateFailedFuture(new ClientPoolException("Too many waiters"));
+    }
+
+    SettableFuture<C> future = SettableFuture.create();
+    Promise<C> promise = new Promise<>(future);
+    promises.add(promise);
+    if (options.getTimeoutMs() > 0) {
+      setTimeout(promise);
+    }
+
+    // A client may have been released after we looked for one and before we queued the promise
+    processPromises();
+    logger.debug("{} Promise processed {}", options.getServiceName(), promise);
+    return future;
   }
 
   private void setTimeout(final Promise<C> promise) {
     ScheduledFuture<Void> schedule = scheduledExecutor.schedule(new Callable<Void>() {
       @Override
       public Void call() {
-        synchronized (ClientPoolImpl.this) {
-          promise.setException(new ClientPoolException(String.format("Timeout acquiring client: %s", serverSet)));
+        if (promises.remove(promise)) {
+          waiterCount.decrementAndGet();
         }
+        promise.setException(new ClientPoolException(String.format("Timeout acquiring client: %s", serverSet)));
         return VOID;
       }
     }, getPromiseTimeoutMs(), TimeUnit.MILLISECONDS);
     promise.setTimeout(schedule);
-    logger.info("Timeout set for the promise {}", getPromiseTimeoutMs());
+    logger.debug("Timeout set for the promise {}", getPromiseTimeoutMs());
   }
 
   @Override
-  public synchronized void close() {
+  public void close() {
     logger.info("{}, closing client pool {}", options.getServiceName(), System.identityHashCode(this));
-    Preconditions.checkState(!closed);
+    Preconditions.checkState(closed.compareAndSet(false, true));
 
     serverSet.removeChangeListener(this);
 
-    Iterator<Promise<C>> promiseIterator = promises.iterator();
-    while (promiseIterator.hasNext()) {
-      Promise<C> promise = promiseIterator.next();
+    for (Promise<C> promise = promises.poll(); promise != null; promise = promises.poll()) {
+      waiterCount.decrementAndGet();
       promise.setException(new ClientPoolException("Client pool closing"));
-      promiseIterator.remove();
     }
 
-    Iterator<C> clientIterator = availableClients.values().iterator();
-    while (clientIterator.hasNext()) {
-      C client = clientIterator.next();
-      removeClient(client);
-      clientIterator.remove();
+    for (Queue<C> clients : availableClients.values()) {
+      for (C client = clients.poll(); client != null; client = clients.poll()) {
+        removeClient(client);
+      }
     }
 
     availableClients.clear();
-    closed = true;
   }
 
   @Override
-  public synchronized boolean isClosed() {
-    return this.closed;
+  public boolean isClosed() {
+    return closed.get();
   }
 
   @Override
-  public synchronized void release(C client, boolean healthy) {
-    logger.info("{}, client pool {}, releasing: {} healthy: {}",
+  public void release(C client, boolean healthy) {
+    logger.debug("{}, client pool {}, releasing: {} healthy: {}",
         options.getServiceName(), System.identityHashCode(this), client, healthy);
     InetSocketAddress address = acquiredClients.remove(client);
     if (address == null) {
       throw new IllegalArgumentException("Client is not currently acquired by the pool: " + client);
     }
 
-    if (!closed && healthy && availableServers.contains(address)) {
-      availableClients.put(address, client);
+    if (!closed.get() && healthy && availableServers.contains(address)) {
+      addAvailableClient(address, client);
     } else {
-      logger.info("{}, client pool {}, closing transport for client: {}, healthy: {}",
+      logger.debug("{}, client pool {}, closing transport for client: {}, healthy: {}",
           options.getServiceName(), System.identityHashCode(this), client, healthy);
       removeClient(client);
     }
@@ -201,8 +227,8 @@ class ClientPoolImpl<C extends TAsyncClient> implements ClientPool<C>, ServerSet
   }
 
   @Override
-  public synchronized int getWaiters() {
-    return promises.size();
+  public int getWaiters() {
+    return waiterCount.get();
   }
 
   @VisibleForTesting
@@ -210,59 +236,109 @@ class ClientPoolImpl<C extends TAsyncClient> implements ClientPool<C>, ServerSet
     return promises;
   }
 
+  /**
+   * Returns a snapshot of the available clients.
+   */
   @VisibleForTesting
   protected ListMultimap<InetSocketAddress, C> getAvailableClients() {
-    return availableClients;
+    ListMultimap<InetSocketAddress, C> snapshot = ArrayListMultimap.create();
+    for (Map.Entry<InetSocketAddress, Queue<C>> entry : availableClients.entrySet()) {
+      snapshot.putAll(entry.getKey(), entry.getValue());
+    }
+    return snapshot;
   }
 
+  /**
+   * Hands available or new clients to the waiters, in order, until we run out of waiters or clients.
+   */
   private void processPromises() {
-    while (!promises.isEmpty()) {
-      // Find a promise that hasn't timeout yet
+    while (true) {
       Promise<C> promise = promises.peek();
+      if (promise == null) {
+        return;
+      }
+
+      // Drop the promises that timed out
       if (promise.isDone()) {
-        promises.remove();
+        if (promises.remove(promise)) {
+          waiterCount.decrementAndGet();
+        }
         continue;
       }
 
-      logger.debug("process promise");
-      if (availableClients.isEmpty()) {
-        logger.info("{}, no avail clients: acq {}, avail {}, promises {}",
-            options.getServiceName(), acquiredClients.size(),
-            availableClients.size(), promises.size());
+      C client;
+      try {
+        client = reserveAvailableOrNewClient();
+      } catch (IOException ex) {
+        logger.error("reserveAvailableOrNewClient has IOException", ex);
+        if (promises.remove(promise)) {
+          waiterCount.decrementAndGet();
+          promise.setException(ex);
+        }
+        return;
       }
 
-      if (!canCreateClient()) {
-        logger.info("{}, client pool {}, not creating new client, request is queued until a client is available: " +
-                "client(s) in use {}, request(s) waiting {}, available client(s) {}",
-            options.getServiceName(), System.identityHashCode(this), acquiredClients.size(),
-            promises.size(), availableClients.size());
+      if (client == null) {
+        logger.debug("{}, client pool {}, request is queued until a client is available: " +
+                "client(s) in use {}, request(s) waiting {}",
+            options.getServiceName(), System.identityHashCode(this), acquiredClients.size(), waiterCount.get());
+        return;
       }
 
-      C client = fulfillWithAvailableClient();
-      if (client == null && canCreateClient()) {
-        try {
-          client = fulfillWithNewClient();
-        } catch (IOException ex) {
-          logger.error("fulfillWithNewClient has IOException", ex);
-          promises.remove().setException(ex);
-          break;
+      if (promises.remove(promise)) {
+        waiterCount.decrementAndGet();
+        if (promise.set(client)) {
+          logger.debug("{}, client pool {}, set promise with client {}",
+              options.getServiceName(), System.identityHashCode(this), client);
+          continue;
         }
       }
 
-      if (client != null) {
-        logger.info("{}, client pool {}, set promise with client {}",
-            options.getServiceName(), System.identityHashCode(this), client);
-        promises.remove().set(client);
-        return;
-      }
+      // Another thread served this promise, or it timed out: put the client back
+      InetSocketAddress address = acquiredClients.remove(client);
+      addAvailableClient(address, client);
+    }
+  }
+
+  /**
+   * Reserves an available client, or creates a new one if the pool is not full. Returns null if there is
+   * no client to hand out.
+   */
+  private C reserveAvailableOrNewClient() throws IOException {
+    C client = reserveAvailableClient();
+    if (client == null) {
+      client = reserveNewClient();
+    }
+    return client;
+  }
+
+  private Queue<C> getAvailableClientQueue(InetSocketAddress address) {
+    return availableClients.computeIfAbsent(address, (key) -> new ConcurrentLinkedQueue<>());
+  }
+
+  private void addAvailableClient(InetSocketAddress address, C client) {
+    Queue<C> clients = getAvailableClientQueue(address);
+    clients.add(client);
 
-      break;
+    // The server may have been removed concurrently, in which case nobody else is going to clean up
+    if (!availableServers.contains(address) && clients.remove(client)) {
+      removeClient(client);
     }
   }
 
-  private boolean canCreateClient() {
-    return (availableClients.size() + acquiredClients.size()) < options.getMaxClients() &&
-        !availableServers.isEmpty();
+  /**
+   * Atomically accounts for one more client, if the pool is not full.
+   */
+  private boolean reserveClient() {
+    while (true) {
+      int count = clientCount.get();
+      if (count >= options.getMaxClients()) {
+        return false;
+      }
+      if (clientCount.compareAndSet(count, count + 1)) {
+        return true;
+      }
+    }
   }
 
   /**
@@ -273,86 +349,115 @@ class ClientPoolImpl<C extends TAsyncClient> implements ClientPool<C>, ServerSet
    */
   private void moveClient(InetSocketAddress address) {
     logger.debug("Try to move a client to {}", address);
-    C newClient = null;
-    for (InetSocketAddress availableClientAddress : availableClients.keySet()) {
-      if (availableClients.get(availableClientAddress).size() > 1) {
-        logger.debug("Address {} has {} clients, move one to {}",
-            availableClientAddress,
-            availableClients.get(availableClientAddress).size(),
-            address);
-
-        try {
-          newClient = createNewClient(address);
-          removeClient(availableClients.get(availableClientAddress).remove(0));
-          break;
-        } catch (IOException ex) {
-          logger.error("moveClient: fail to create new client for {}", address);
-          return;
-        }
+    for (Map.Entry<InetSocketAddress, Queue<C>> entry : availableClients.entrySet()) {
+      Queue<C> clients = entry.getValue();
+      if (entry.getKey().equals(address) || clients.size() <= 1) {
+        continue;
+      }
+
+      C client = clients.poll();
+      if (client == null) {
+        continue;
+      }
+
+      logger.debug("Address {} has more than one client, move one to {}", entry.getKey(), address);
+      C newClient;
+      try {
+        newClient = createNewClient(address);
+      } catch (IOException ex) {
+        logger.error("moveClient: fail to create new client for {}", address);
+        addAvailableClient(entry.getKey(), client);
+        return;
       }
-    }
 
-    if (newClient == null) {
-      logger.debug("No client to move in {}", availableClients);
+      // The moved client keeps its slot, so only its transport gets closed
+      TNonblockingTransport transport = clientTransportMap.remove(client);
+      if (transport != null) {
+        transport.close();
+      }
+      addAvailableClient(address, newClient);
       return;
     }
 
-    availableClients.put(address, newClient);
+    logger.debug("No client to move to {}", address);
   }
 
   private void removeClient(C client) {
     logger.debug("remove client {}", client);
     TNonblockingTransport transport = clientTransportMap.remove(client);
-    transport.close();
+    if (transport != null) {
+      transport.close();
+    }
+    clientCount.decrementAndGet();
   }
 
-  private C fulfillWithAvailableClient() {
-    logger.debug("start fulfillWithAvailableClient");
+  private C reserveAvailableClient() {
+    logger.debug("start reserveAvailableClient");
     // In case of an address does not have any available client,
     // we try to find other address that has more than one client
     // and move it so that that address will have one client instead
     // of none.
     for (InetSocketAddress server : availableServers) {
-      if (!availableClients.containsKey(server)) {
+      if (getAvailableClientQueue(server).isEmpty()) {
         moveClient(server);
       }
     }
 
-    C client = null;
-    while (!availableClients.isEmpty() && client == null) {
+    while (true) {
       // The random selection occurs on InetSocketAddress, not clients
-      Set<InetSocketAddress> keys = availableClients.keySet();
-      InetSocketAddress[] addresses = keys.toArray(new InetSocketAddress[keys.size()]);
-      int randomIndex = random.nextInt(addresses.length);
-      InetSocketAddress randomAddress = addresses[randomIndex];
-      client = reserveAvailableClient(randomAddress);
-    }
+      List<InetSocketAddress> addresses = new ArrayList<>(availableClients.size());
+      for (Map.Entry<InetSocketAddress, Queue<C>> entry : availableClients.entrySet()) {
+        if (!entry.getValue().isEmpty()) {
+          addresses.add(entry.getKey());
+        }
+      }
 
-    logger.debug("fulfillWithAvailableClient returns client {}", client);
-    return client;
+      if (addresses.isEmpty()) {
+        return null;
+      }
+
+      InetSocketAddress address = addresses.get(random.nextInt(addresses.size()));
+      C client = getAvailableClientQueue(address).poll();
+      if (client == null) {
+        continue;
+      }
+
+      if (client.hasError()) {
+        logger.warn("service {} available client {} has error",
+            options.getServiceName(), client, client.getError());
+        removeClient(client);
+        continue;
+      }
+
+      acquiredClients.put(client, address);
+      logger.debug("reserveAvailableClient returns client {}", client);
+      return client;
+    }
   }
 
-  private C reserveAvailableClient(InetSocketAddress address) {
-    C client = availableClients.get(address).remove(0);
-    if (client.hasError()) {
-      logger.warn("service {} available client {} has error",
-          options.getServiceName(), client, client.getError());
-      removeClient(client);
+  private C reserveNewClient() throws IOException {
+    logger.debug("start reserveNewClient");
+    if (availableServers.isEmpty() || !reserveClient()) {
       return null;
     }
 
-    acquiredClients.put(client, address);
-    return client;
-  }
+    InetSocketAddress[] servers = availableServers.toArray(new InetSocketAddress[0]);
+    if (servers.length == 0) {
+      clientCount.decrementAndGet();
+      return null;
+    }
+
+    InetSocketAddress address = servers[random.nextInt(servers.length)];
+    C client;
+    try {
+      client = createNewClient(address);
+    } catch (IOException ex) {
+      clientCount.decrementAndGet();
+      throw ex;
+    }
 
-  private C fulfillWithNewClient() throws IOException {
-    logger.debug("start fulfillWithNewClient");
-    InetSocketAddress[] servers = availableServers.toArray(new InetSocketAddress[availableServers.size()]);
-    int randomIndex = random.nextInt(servers.length);
-    InetSocketAddress address = servers[randomIndex];
-    C client = createNewClient(address);
     acquiredClients.put(client, address);
-    logger.debug("fulfillWithNewClient return client {}", client);
+    logger.debug("reserveNewClient return client {}", client);
     return client;
   }
 
@@ -362,6 +467,6 @@ class ClientPoolImpl<C extends TAsyncClient> implements ClientPool<C>, ServerSet
   }
 
   private long getPromiseTimeoutMs() {
-    return options.getTimeoutMs() * Math.max(1, promises.size());
+    return options.getTimeoutMs() * Math.max(1, waiterCount.get());
   }
 }
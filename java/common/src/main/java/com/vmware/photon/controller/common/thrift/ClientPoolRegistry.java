@@ -0,0 +1,272 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.vmware.photon.controller.common.thrift;
+
+import com.vmware.photon.controller.common.metrics.DefaultMetricRegistry;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.inject.Inject;
+import org.apache.thrift.async.TAsyncClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registry of client pools, one per server address, shared by all the clients talking to that server.
+ * This lets short RPCs (ping, place...) reuse connections instead of opening a new one per call.
+ *
+ * The registry is bounded: when it holds more than maxPools pools, the least recently handed out pool
+ * that is not in use is closed. Pools that have not been used for idleTimeoutMs are closed as well,
+ * which closes their idle connections.
+ *
+ * @param <C> thrift async client type
+ */
+public class ClientPoolRegistry<C extends TAsyncClient> {
+
+  public static final int DEFAULT_MAX_POOLS = 1024;
+
+  public static final long DEFAULT_IDLE_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(5);
+
+  private static final Logger logger = LoggerFactory.getLogger(ClientPoolRegistry.class);
+
+  private final ClientPoolFactory<C> clientPoolFactory;
+  private final ScheduledExecutorService scheduledExecutor;
+  private final int maxPools;
+  private final long idleTimeoutMs;
+
+  // Pools in access order, so the first entry is the least recently handed out pool
+  private final LinkedHashMap<InetSocketAddress, SharedClientPool<C>> pools;
+  private ScheduledFuture<?> reaper;
+
+  @Inject
+  public ClientPoolRegistry(ClientPoolFactory<C> clientPoolFactory,
+                            @ClientPoolTimer ScheduledExecutorService scheduledExecutor) {
+    this(clientPoolFactory, scheduledExecutor, DEFAULT_MAX_POOLS, DEFAULT_IDLE_TIMEOUT_MS);
+  }
+
+  public ClientPoolRegistry(ClientPoolFactory<C> clientPoolFactory,
+                            ScheduledExecutorService scheduledExecutor,
+                            int maxPools,
+                            long idleTimeoutMs) {
+    this.clientPoolFactory = clientPoolFactory;
+    this.scheduledExecutor = scheduledExecutor;
+    this.maxPools = maxPools;
+    this.idleTimeoutMs = idleTimeoutMs;
+    this.pools = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  /**
+   * Returns the pool for the given server, creating it if needed. The options are only used when the
+   * pool gets created. Callers must not rely on closing the returned pool: it is shared, and the
+   * registry closes it when it gets evicted or idle.
+   */
+  public synchronized ClientPool<C> get(InetSocketAddress address, ClientPoolOptions options) {
+    SharedClientPool<C> pool = pools.get(address);
+    if (pool != null && !pool.isClosed()) {
+      pool.metrics.hits.mark();
+      return pool;
+    }
+
+    PoolMetrics metrics = new PoolMetrics(options.getServiceName());
+    metrics.misses.mark();
+    logger.debug("Creating client pool for {}", address);
+    pool = new SharedClientPool<>(clientPoolFactory.create(new StaticServerSet(address), options), metrics);
+    pools.put(address, pool);
+    metrics.pools.inc();
+
+    evictPools();
+    if (reaper == null) {
+      long reapIntervalMs = Math.max(1, idleTimeoutMs / 2);
+      reaper = scheduledExecutor.scheduleWithFixedDelay(this::reapIdlePools, reapIntervalMs, reapIntervalMs,
+          TimeUnit.MILLISECONDS);
+    }
+
+    return pool;
+  }
+
+  /**
+   * Closes all the pools.
+   */
+  public synchronized void close() {
+    if (reaper != null) {
+      reaper.cancel(false);
+      reaper = null;
+    }
+
+    for (SharedClientPool<C> pool : pools.values()) {
+      pool.closeShared();
+    }
+
+    pools.clear();
+  }
+
+  @VisibleForTesting
+  synchronized int getPoolCount() {
+    return pools.size();
+  }
+
+  /**
+   * Closes pools that have not been used for idleTimeoutMs.
+   */
+  @VisibleForTesting
+  synchronized void reapIdlePools() {
+    long now = System.currentTimeMillis();
+    Iterator<Map.Entry<InetSocketAddress, SharedClientPool<C>>> iterator = pools.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<InetSocketAddress, SharedClientPool<C>> entry = iterator.next();
+      SharedClientPool<C> pool = entry.getValue();
+      if (pool.isClosed() || (!pool.isInUse() && now - pool.getLastUsedMillis() >= idleTimeoutMs)) {
+        logger.debug("Closing idle client pool for {}", entry.getKey());
+        pool.metrics.reaped.mark();
+        pool.closeShared();
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Closes the least recently handed out pools until we are back within bounds. Pools that are in use are
+   * skipped, so the registry may go over its bound while all its pools are busy.
+   */
+  private void evictPools() {
+    Iterator<Map.Entry<InetSocketAddress, SharedClientPool<C>>> iterator = pools.entrySet().iterator();
+    while (pools.size() > maxPools && iterator.hasNext()) {
+      Map.Entry<InetSocketAddress, SharedClientPool<C>> entry = iterator.next();
+      SharedClientPool<C> pool = entry.getValue();
+      if (!pool.isInUse()) {
+        logger.debug("Evicting client pool for {}", entry.getKey());
+        pool.metrics.evictions.mark();
+        pool.closeShared();
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Metrics reported for the pools of one service.
+   */
+  private static class PoolMetrics {
+    private final Counter pools;
+    private final Meter hits;
+    private final Meter misses;
+    private final Meter evictions;
+    private final Meter reaped;
+
+    private PoolMetrics(String serviceName) {
+      String prefix = MetricRegistry.name(ClientPoolRegistry.class, serviceName != null ? serviceName : "default");
+      this.pools = DefaultMetricRegistry.REGISTRY.counter(MetricRegistry.name(prefix, "pools"));
+      this.hits = DefaultMetricRegistry.REGISTRY.meter(MetricRegistry.name(prefix, "hits"));
+      this.misses = DefaultMetricRegistry.REGISTRY.meter(MetricRegistry.name(prefix, "misses"));
+      this.evictions = DefaultMetricRegistry.REGISTRY.meter(MetricRegistry.name(prefix, "evictions"));
+      this.reaped = DefaultMetricRegistry.REGISTRY.meter(MetricRegistry.name(prefix, "reaped"));
+    }
+  }
+
+  /**
+   * Client pool handed out by the registry. It keeps track of its usage, and ignores close() since it is
+   * shared between callers.
+   *
+   * @param <C> thrift async client type
+   */
+  private static class SharedClientPool<C extends TAsyncClient> implements ClientPool<C> {
+
+    private final ClientPool<C> delegate;
+    private final PoolMetrics metrics;
+    private final AtomicInteger acquiredClients = new AtomicInteger(0);
+    private volatile long lastUsedMillis = System.currentTimeMillis();
+
+    private SharedClientPool(ClientPool<C> delegate, PoolMetrics metrics) {
+      this.delegate = delegate;
+      this.metrics = metrics;
+    }
+
+    @Override
+    public ListenableFuture<C> acquire() {
+      lastUsedMillis = System.currentTimeMillis();
+      // Count the client as acquired right away, so the pool doesn't get closed while the
+      // acquisition is pending.
+      acquiredClients.incrementAndGet();
+      ListenableFuture<C> future;
+      try {
+        future = delegate.acquire();
+      } catch (RuntimeException ex) {
+        acquiredClients.decrementAndGet();
+        throw ex;
+      }
+
+      Futures.addCallback(future, new FutureCallback<C>() {
+        @Override
+        public void onSuccess(C result) {
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+          acquiredClients.decrementAndGet();
+        }
+      });
+      return future;
+    }
+
+    @Override
+    public void close() {
+      // Shared pools get closed by the registry
+    }
+
+    @Override
+    public void release(C client, boolean healthy) {
+      lastUsedMillis = System.currentTimeMillis();
+      acquiredClients.decrementAndGet();
+      delegate.release(client, healthy);
+    }
+
+    @Override
+    public int getWaiters() {
+      return delegate.getWaiters();
+    }
+
+    @Override
+    public boolean isClosed() {
+      return delegate.isClosed();
+    }
+
+    private boolean isInUse() {
+      return acquiredClients.get() > 0 || delegate.getWaiters() > 0;
+    }
+
+    private long getLastUsedMillis() {
+      return lastUsedMillis;
+    }
+
+    private void closeShared() {
+      if (!delegate.isClosed()) {
+        delegate.close();
+        metrics.pools.dec();
+      }
+    }
+  }
+}
@@ -16,81 +16,133 @@ package com.vmware.photon.controller.common.thrift;
 import com.vmware.photon.controller.agent.gen.AgentControl;
 import com.vmware.photon.controller.agent.gen.PingRequest;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.inject.Inject;
 import com.google.inject.assistedinject.Assisted;
 import com.google.inject.name.Named;
-import org.apache.thrift.TException;
-import org.apache.thrift.protocol.TCompactProtocol;
-import org.apache.thrift.protocol.TMultiplexedProtocol;
-import org.apache.thrift.protocol.TProtocol;
-import org.apache.thrift.transport.TFramedTransport;
-import org.apache.thrift.transport.TSocket;
-import org.apache.thrift.transport.TTransport;
+import org.apache.thrift.async.AsyncMethodCallback;
+import org.apache.thrift.async.TAsyncClientManager;
+import org.apache.thrift.protocol.TProtocolFactory;
+import org.apache.thrift.transport.TNonblockingSocket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 /**
  * A heartbeat-based server set. This implementation of ServerSet monitors a set
  * of scheduler servers by pinging them periodically. This class is meant to be
  * used by the root scheduler to monitor its children.
+ *
+ * Each server is pinged over a persistent non-blocking connection, so all the
+ * pings are multiplexed over the selector thread of the shared
+ * TAsyncClientManager instead of opening a socket and holding a thread per
+ * ping. Pings are spread over the heartbeat interval with some jitter and
+ * time out before the next ping is due. State changes are delivered to the
+ * listeners in batches, outside of the lock guarding the server state.
  */
 public class HeartbeatServerSet implements ServerSet {
   private static final Logger logger =
       LoggerFactory.getLogger(HeartbeatServerSet.class);
 
+  private static final String SERVICE_NAME = "AgentControl";
+
+  // Each ping interval is randomly shortened or lengthened by up to this
+  // fraction of the heartbeat frequency, so pings don't synchronize.
+  private static final double JITTER = 0.1;
+
   // ID of this scheduler.
   private final String schedulerId;
   private final int heartbeatFrequencyMs;
   private final int socketTimeoutMs;
 
+  private final TAsyncClientManager clientManager;
+  private final TProtocolFactory protocolFactory;
   private final ScheduledExecutorService executor;
+  private final List<Heartbeater> heartbeaters = new ArrayList<>();
 
-  // Access to listeners and activeServers must be synchronized to ensure that
-  // the listeners don't miss any update.
+  // Access to listeners, activeServers, inactiveServers and pendingChanges
+  // must be synchronized to ensure that the listeners don't miss any update.
   private final Set<ChangeListener> listeners = new HashSet<>();
-  ;
   private final Set<InetSocketAddress> activeServers = new HashSet<>();
   private final Set<InetSocketAddress> inactiveServers = new HashSet<>();
 
+  // State changes not delivered to the listeners yet: true if the server came
+  // online, false if it went offline.
+  private final Map<InetSocketAddress, Boolean> pendingChanges = new LinkedHashMap<>();
+
+  // Serializes the delivery of state changes, so that listeners see them in
+  // order.
+  private final Object notificationLock = new Object();
+
+  private volatile boolean closed;
+
   @Inject
   public HeartbeatServerSet(@Assisted String schedulerId,
                             @Assisted List<InetSocketAddress> servers,
                             @Assisted int timeoutMs,
-                            @Named("heartbeat_pool_size") int poolSize) {
+                            @Named("heartbeat_pool_size") int poolSize,
+                            TAsyncClientManager clientManager,
+                            ThriftFactory thriftFactory) {
     this.schedulerId = schedulerId;
     // A server is considered inactive if it doesn't respond to a heartbeat
     // request for $timeoutMs milliseconds. The accepted range for $timeoutMs
     // is between 1000 and 120000 milliseconds.
-    socketTimeoutMs = timeoutMs / 3;
     heartbeatFrequencyMs = timeoutMs / 3;
+    // Pings time out well before the shortest interval between two pings,
+    // so a ping is normally done by the time the next one is due.
+    socketTimeoutMs = (int) (heartbeatFrequencyMs * (1 - 2 * JITTER));
+    this.clientManager = clientManager;
+    this.protocolFactory = thriftFactory.create(SERVICE_NAME);
+    // These threads only issue the asynchronous pings and deliver the
+    // notifications, the pings themselves are handled by the selector thread.
     executor = Executors.newScheduledThreadPool(poolSize);
-    long initialDelayMs = 0;
     for (InetSocketAddress server : servers) {
-      this.executor.scheduleAtFixedRate(new Heartbeater(server),
-          initialDelayMs, heartbeatFrequencyMs, MILLISECONDS);
+      Heartbeater heartbeater = new Heartbeater(server);
+      heartbeaters.add(heartbeater);
+      // Spread the first pings over the heartbeat interval.
+      executor.schedule(heartbeater,
+          ThreadLocalRandom.current().nextInt(Math.max(1, heartbeatFrequencyMs)), MILLISECONDS);
     }
   }
 
   @Override
-  public synchronized void addChangeListener(ChangeListener listener) {
+  public void addChangeListener(ChangeListener listener) {
     logger.debug("adding a listener {}", listener);
-    listeners.add(listener);
-    // tell this newly added listener about currently active and inactive
-    // servers.
-    for (InetSocketAddress server : activeServers) {
-      listener.onServerAdded(server);
-    }
-    for (InetSocketAddress server : inactiveServers) {
-      listener.onServerRemoved(server);
+    synchronized (notificationLock) {
+      Map<InetSocketAddress, Boolean> changes;
+      List<ChangeListener> currentListeners;
+      Set<InetSocketAddress> active;
+      Set<InetSocketAddress> inactive;
+      synchronized (this) {
+        changes = drainPendingChanges();
+        currentListeners = new ArrayList<>(listeners);
+        active = new HashSet<>(activeServers);
+        inactive = new HashSet<>(inactiveServers);
+        listeners.add(listener);
+      }
+
+      // Bring the existing listeners up to date first, then tell this newly
+      // added listener about currently active and inactive servers.
+      deliver(changes, currentListeners);
+      for (InetSocketAddress server : active) {
+        listener.onServerAdded(server);
+      }
+      for (InetSocketAddress server : inactive) {
+        listener.onServerRemoved(server);
+      }
     }
   }
 
@@ -102,83 +154,174 @@ public class HeartbeatServerSet implements ServerSet {
 
   @Override
   public void close() throws IOException {
+    closed = true;
     executor.shutdown();
+    for (Heartbeater heartbeater : heartbeaters) {
+      heartbeater.closeClient();
+    }
   }
 
   @Override
-  public Set<InetSocketAddress> getServers() {
+  public synchronized Set<InetSocketAddress> getServers() {
     Set<InetSocketAddress> allServers = new HashSet<InetSocketAddress>();
     allServers.addAll(this.activeServers);
     allServers.addAll(this.inactiveServers);
     return allServers;
   }
 
+  /**
+   * Delivers the pending state changes to the listeners.
+   */
+  @VisibleForTesting
+  void notifyListeners() {
+    synchronized (notificationLock) {
+      Map<InetSocketAddress, Boolean> changes;
+      List<ChangeListener> currentListeners;
+      synchronized (this) {
+        changes = drainPendingChanges();
+        currentListeners = new ArrayList<>(listeners);
+      }
+
+      deliver(changes, currentListeners);
+    }
+  }
+
+  /**
+   * Records a state change of a server. Notifications are delivered by the
+   * executor, so that a burst of changes gets delivered in a single pass and
+   * the selector thread never runs listener code.
+   */
+  private void setServerState(InetSocketAddress server, boolean online) {
+    boolean scheduleNotification;
+    synchronized (this) {
+      Set<InetSocketAddress> from = online ? inactiveServers : activeServers;
+      Set<InetSocketAddress> to = online ? activeServers : inactiveServers;
+      if (!to.add(server)) {
+        return;
+      }
+
+      logger.debug("{} went {}", server, online ? "online" : "offline");
+      from.remove(server);
+      scheduleNotification = pendingChanges.isEmpty();
+      pendingChanges.put(server, online);
+    }
+
+    if (scheduleNotification && !closed) {
+      executor.execute(this::notifyListeners);
+    }
+  }
+
+  private Map<InetSocketAddress, Boolean> drainPendingChanges() {
+    Map<InetSocketAddress, Boolean> changes = new LinkedHashMap<>(pendingChanges);
+    pendingChanges.clear();
+    return changes;
+  }
+
+  private static void deliver(Map<InetSocketAddress, Boolean> changes, List<ChangeListener> listeners) {
+    for (Map.Entry<InetSocketAddress, Boolean> change : changes.entrySet()) {
+      for (ChangeListener listener : listeners) {
+        if (change.getValue()) {
+          listener.onServerAdded(change.getKey());
+        } else {
+          listener.onServerRemoved(change.getKey());
+        }
+      }
+    }
+  }
+
   private class Heartbeater implements Runnable {
     private final InetSocketAddress server;
 
+    // Set while a ping is outstanding, an async client handles one call at a
+    // time.
+    private final AtomicBoolean pinging = new AtomicBoolean();
+
+    private TNonblockingSocket socket;
+    private AgentControl.AsyncClient client;
+
     public Heartbeater(InetSocketAddress server) {
       this.server = server;
     }
 
     public void run() {
-      TTransport transport = null;
+      if (closed) {
+        return;
+      }
+
       try {
-        logger.debug("pinging {}", server);
-        TSocket socket = new TSocket(server.getHostString(), server.getPort());
-        socket.setTimeout(socketTimeoutMs);
-        transport = new TFramedTransport(socket);
-        transport.open();
-        TProtocol proto = new TCompactProtocol(transport);
-        TMultiplexedProtocol mp = new TMultiplexedProtocol(proto, "AgentControl");
-        AgentControl.Client client = new AgentControl.Client(mp);
+        ping();
+      } finally {
+        if (!closed) {
+          long jitterMs = (long) (heartbeatFrequencyMs * JITTER * (2 * ThreadLocalRandom.current().nextDouble() - 1));
+          executor.schedule(this, Math.max(1, heartbeatFrequencyMs + jitterMs), MILLISECONDS);
+        }
+      }
+    }
+
+    private void ping() {
+      if (!pinging.compareAndSet(false, true)) {
+        // The previous ping is about to complete or time out, which updates
+        // the state of the server, so just skip this one.
+        logger.info("previous ping to {} is still outstanding, skipping", server);
+        return;
+      }
 
+      try {
+        logger.debug("pinging {}", server);
         PingRequest req = new PingRequest();
         req.setScheduler_id(schedulerId);
-        client.ping(req);
-        pingSucceeded();
-      } catch (TException ex) {
-        // TODO(mmutsuzaki) temporarily bumping log level to INFO to find out
-        // why ping requests fail under load.
-        logger.info("failed to ping {}", server, ex);
-        pingFailed();
+        getClient().ping(req, new AsyncMethodCallback<AgentControl.AsyncClient.ping_call>() {
+          @Override
+          public void onComplete(AgentControl.AsyncClient.ping_call call) {
+            try {
+              call.getResult();
+              pingDone(true);
+            } catch (Exception ex) {
+              onError(ex);
+            }
+          }
+
+          @Override
+          public void onError(Exception ex) {
+            // TODO(mmutsuzaki) temporarily bumping log level to INFO to find out
+            // why ping requests fail under load.
+            logger.info("failed to ping {}", server, ex);
+            pingDone(false);
+          }
+        });
       } catch (Exception ex) {
         logger.error("Unexpected exception while pinging {}", server, ex);
-        pingFailed();
-      } finally {
-        if (transport != null && transport.isOpen()) {
-          transport.close();
-        }
+        pingDone(false);
       }
     }
 
-    public void pingSucceeded() {
-      // Synchronize on the outer class since this method accesses fields from
-      // the outer class.
-      synchronized (HeartbeatServerSet.this) {
-        if (!activeServers.contains(server)) {
-          logger.debug("{} came online", server);
-          activeServers.add(server);
-          inactiveServers.remove(server);
-          for (ChangeListener listener : listeners) {
-            listener.onServerAdded(server);
-          }
-        }
+    private void pingDone(boolean succeeded) {
+      if (!succeeded) {
+        // The client is unusable after an error, reconnect on the next ping.
+        closeClient();
+      }
+
+      pinging.set(false);
+      setServerState(server, succeeded);
+    }
+
+    private synchronized AgentControl.AsyncClient getClient() throws IOException {
+      if (client == null) {
+        socket = new TNonblockingSocket(server.getHostString(), server.getPort());
+        client = new AgentControl.AsyncClient(protocolFactory, clientManager, socket);
+        client.setTimeout(socketTimeoutMs);
       }
+
+      return client;
     }
 
-    public void pingFailed() {
-      // Synchronize on the outer class since this method accesses fields from
-      // the outer class.
-      synchronized (HeartbeatServerSet.this) {
-        if (!inactiveServers.contains(server)) {
-          logger.debug("{} went offline", server);
-          inactiveServers.add(server);
-          activeServers.remove(server);
-          for (ChangeListener listener : listeners) {
-            listener.onServerRemoved(server);
-          }
-        }
+    private synchronized void closeClient() {
+      if (socket != null) {
+        socket.close();
       }
+
+      socket = null;
+      client = null;
     }
   }
 }
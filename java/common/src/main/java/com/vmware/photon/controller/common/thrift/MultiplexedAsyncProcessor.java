@@ -0,0 +1,155 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.vmware.photon.controller.common.thrift;
+
+import org.apache.thrift.AsyncProcessFunction;
+import org.apache.thrift.TApplicationException;
+import org.apache.thrift.TAsyncProcessor;
+import org.apache.thrift.TBase;
+import org.apache.thrift.TBaseAsyncProcessor;
+import org.apache.thrift.TException;
+import org.apache.thrift.TProcessor;
+import org.apache.thrift.async.AsyncMethodCallback;
+import org.apache.thrift.protocol.TMessage;
+import org.apache.thrift.protocol.TMessageType;
+import org.apache.thrift.protocol.TMultiplexedProtocol;
+import org.apache.thrift.protocol.TProtocol;
+import org.apache.thrift.protocol.TProtocolException;
+import org.apache.thrift.protocol.TProtocolUtil;
+import org.apache.thrift.protocol.TType;
+import org.apache.thrift.server.AbstractNonblockingServer.AsyncFrameBuffer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Asynchronous counterpart of {@link org.apache.thrift.TMultiplexedProcessor}, to serve several Thrift services
+ * with async handlers from a single non-blocking server. Clients talk to it through a
+ * {@link TMultiplexedProtocol}, as they do with the synchronous multiplexed processor.
+ * <p>
+ * The handlers complete the calls from their callbacks, so no server thread is held while a call is in progress.
+ */
+public class MultiplexedAsyncProcessor implements TAsyncProcessor, TProcessor {
+
+  private final Map<String, RegisteredService<?>> services = new HashMap<>();
+
+  /**
+   * Registers the async processor of a service under the given service name.
+   *
+   * @param serviceName name of the service, as set by the clients in their {@link TMultiplexedProtocol}
+   * @param iface       async handler of the service
+   * @param processor   async processor generated for the service
+   * @param <I>         async interface of the service
+   */
+  public <I> void registerProcessor(String serviceName, I iface, TBaseAsyncProcessor<I> processor) {
+    services.put(serviceName, new RegisteredService<>(iface, processor.getProcessMapView()));
+  }
+
+  @Override
+  public boolean process(AsyncFrameBuffer fb) throws TException {
+    TProtocol in = fb.getInputProtocol();
+    TMessage message = in.readMessageBegin();
+    if (message.type != TMessageType.CALL && message.type != TMessageType.ONEWAY) {
+      throw new TException("Unexpected message type: " + message.type);
+    }
+
+    int index = message.name.indexOf(TMultiplexedProtocol.SEPARATOR);
+    if (index < 0) {
+      throw new TException("Service name not found in message name: " + message.name + ".  Did you " +
+          "forget to call a TMultiplexProtocol in your client?");
+    }
+
+    String serviceName = message.name.substring(0, index);
+    RegisteredService<?> service = services.get(serviceName);
+    if (service == null) {
+      throw new TException("Service name not found: " + serviceName + ".  Did you forget " +
+          "to call registerProcessor()?");
+    }
+
+    String methodName = message.name.substring(index + TMultiplexedProtocol.SEPARATOR.length());
+    service.process(fb, new TMessage(methodName, message.type, message.seqid));
+    return true;
+  }
+
+  /**
+   * Synchronous processing is not supported: this processor has to be served by a non-blocking server.
+   */
+  @Override
+  public boolean process(TProtocol in, TProtocol out) throws TException {
+    return false;
+  }
+
+  /**
+   * A service registered with the processor.
+   *
+   * @param <I> async interface of the service
+   */
+  private static class RegisteredService<I> {
+
+    private final I iface;
+    private final Map<String, AsyncProcessFunction<I, ? extends TBase, ?>> functions;
+
+    private RegisteredService(I iface, Map<String, AsyncProcessFunction<I, ? extends TBase, ?>> functions) {
+      this.iface = iface;
+      this.functions = functions;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void process(AsyncFrameBuffer fb, TMessage message) throws TException {
+      TProtocol in = fb.getInputProtocol();
+      AsyncProcessFunction<I, TBase, Object> function =
+          (AsyncProcessFunction<I, TBase, Object>) functions.get(message.name);
+      if (function == null) {
+        TProtocolUtil.skip(in, TType.STRUCT);
+        in.readMessageEnd();
+        sendError(fb, message, new TApplicationException(TApplicationException.UNKNOWN_METHOD,
+            "Invalid method name: '" + message.name + "'"));
+        return;
+      }
+
+      TBase args = function.getEmptyArgsInstance();
+      try {
+        args.read(in);
+      } catch (TProtocolException e) {
+        in.readMessageEnd();
+        sendError(fb, message, new TApplicationException(TApplicationException.PROTOCOL_ERROR, e.getMessage()));
+        return;
+      }
+
+      in.readMessageEnd();
+      if (message.type == TMessageType.ONEWAY) {
+        fb.responseReady();
+      }
+
+      AsyncMethodCallback<Object> resultHandler = function.getResultHandler(fb, message.seqid);
+      try {
+        function.start(iface, args, resultHandler);
+      } catch (Exception e) {
+        resultHandler.onError(e);
+      }
+    }
+
+    private static void sendError(AsyncFrameBuffer fb, TMessage message, TApplicationException error)
+        throws TException {
+      if (message.type != TMessageType.ONEWAY) {
+        TProtocol out = fb.getOutputProtocol();
+        out.writeMessageBegin(new TMessage(message.name, TMessageType.EXCEPTION, message.seqid));
+        error.write(out);
+        out.writeMessageEnd();
+        out.getTransport().flush();
+      }
+
+      fb.responseReady();
+    }
+  }
+}
@@ -14,6 +14,7 @@
 package com.vmware.photon.controller.common.thrift;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Singleton;
 import com.google.inject.TypeLiteral;
 import com.google.inject.assistedinject.FactoryModuleBuilder;
 import com.google.inject.name.Names;
@@ -44,6 +45,7 @@ public class ThriftServiceModule<C extends TAsyncClient> extends AbstractModule
   protected void configure() {
     bindClientPoolFactory();
     bindClientProxyFactory();
+    bindClientPoolRegistry();
   }
 
   @SuppressWarnings("unchecked")
@@ -54,6 +56,12 @@ public class ThriftServiceModule<C extends TAsyncClient> extends AbstractModule
     install(new FactoryModuleBuilder().implement(source, target).build(clientProxyFactory));
   }
 
+  @SuppressWarnings("unchecked")
+  private void bindClientPoolRegistry() {
+    TypeLiteral clientPoolRegistry = getTypeLiteral(ClientPoolRegistry.class, client.getType());
+    bind(clientPoolRegistry).in(Singleton.class);
+  }
+
   @SuppressWarnings("unchecked")
   private void bindClientPoolFactory() {
     TypeLiteral clientPoolFactory = getTypeLiteral(ClientPoolFactory.class, client.getType());
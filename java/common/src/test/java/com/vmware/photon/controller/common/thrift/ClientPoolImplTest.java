@@ -43,6 +43,9 @@ import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -185,6 +188,41 @@ public class ClientPoolImplTest extends PowerMockTestCase {
     }
   }
 
+  @Test
+  public void testConcurrentAcquireAndRelease() throws Throwable {
+    TestServerSet serverSet = new TestServerSet();
+    serverSet.addServer(InetSocketAddress.createUnresolved("/127.0.0.1", 80));
+    serverSet.addServer(InetSocketAddress.createUnresolved("/127.0.0.1", 81));
+
+    int poolMaxClients = 4;
+    List<Echoer.AsyncClient> clients = Collections.synchronizedList(new ArrayList<>());
+    List<Echoer.AsyncClient> acquiredClients = new ArrayList<>();
+    setupPool(poolMaxClients, 1000, serverSet, clients, acquiredClients);
+    for (Echoer.AsyncClient acquiredClient : acquiredClients) {
+      pool.release(acquiredClient, true);
+    }
+
+    ExecutorService threads = Executors.newFixedThreadPool(8);
+    List<Future<?>> results = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      results.add(threads.submit(() -> {
+        for (int j = 0; j < 200; j++) {
+          Echoer.AsyncClient client = Futures.get(pool.acquire(), 5, TimeUnit.SECONDS, ClientPoolException.class);
+          pool.release(client, true);
+        }
+        return null;
+      }));
+    }
+
+    for (Future<?> result : results) {
+      result.get();
+    }
+    threads.shutdown();
+
+    assertThat(pool.getWaiters(), is(0));
+    assertThat(pool.getAvailableClients().size(), is(poolMaxClients));
+  }
+
   private Set<InetSocketAddress> setupPool(
       int poolMaxClients,
       int poolMaxWaiter,
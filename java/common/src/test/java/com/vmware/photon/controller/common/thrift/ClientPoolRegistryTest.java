@@ -0,0 +1,181 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.vmware.photon.controller.common.thrift;
+
+import com.example.echo.Echoer;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests {@link ClientPoolRegistry}.
+ */
+public class ClientPoolRegistryTest {
+
+  private static final ClientPoolOptions OPTIONS = new ClientPoolOptions().setServiceName("Echoer");
+
+  private ClientPoolFactory<Echoer.AsyncClient> factory;
+  private ScheduledExecutorService executor;
+  private List<FakeClientPool> createdPools;
+
+  @BeforeMethod
+  @SuppressWarnings("unchecked")
+  public void setUp() {
+    createdPools = new ArrayList<>();
+    factory = mock(ClientPoolFactory.class);
+    when(factory.create(any(ServerSet.class), any(ClientPoolOptions.class))).thenAnswer((invocation) -> {
+      FakeClientPool pool = new FakeClientPool();
+      createdPools.add(pool);
+      return pool;
+    });
+    executor = mock(ScheduledExecutorService.class);
+  }
+
+  @Test
+  public void testPoolsAreShared() {
+    ClientPoolRegistry<Echoer.AsyncClient> registry = new ClientPoolRegistry<>(factory, executor, 10, 1000);
+    ClientPool<Echoer.AsyncClient> pool = registry.get(address(1), OPTIONS);
+    assertThat(registry.get(address(1), OPTIONS), sameInstance(pool));
+    assertThat(registry.get(address(2), OPTIONS), not(sameInstance(pool)));
+    assertThat(registry.getPoolCount(), is(2));
+    verify(factory, times(2)).create(any(ServerSet.class), any(ClientPoolOptions.class));
+    verify(executor).scheduleWithFixedDelay(any(Runnable.class), eq(500L), eq(500L), eq(TimeUnit.MILLISECONDS));
+
+    // Closing a shared pool does not close the connections
+    pool.close();
+    assertThat(createdPools.get(0).isClosed(), is(false));
+
+    registry.close();
+    assertThat(createdPools.get(0).isClosed(), is(true));
+    assertThat(createdPools.get(1).isClosed(), is(true));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedPoolIsEvicted() throws Throwable {
+    ClientPoolRegistry<Echoer.AsyncClient> registry = new ClientPoolRegistry<>(factory, executor, 2, 1000);
+    ClientPool<Echoer.AsyncClient> pool1 = registry.get(address(1), OPTIONS);
+    registry.get(address(2), OPTIONS);
+    registry.get(address(1), OPTIONS);
+    registry.get(address(3), OPTIONS);
+
+    assertThat(registry.getPoolCount(), is(2));
+    assertThat(createdPools.get(0).isClosed(), is(false));
+    assertThat(createdPools.get(1).isClosed(), is(true));
+
+    // Pools in use are not evicted
+    Echoer.AsyncClient client = pool1.acquire().get();
+    registry.get(address(4), OPTIONS);
+    assertThat(registry.getPoolCount(), is(2));
+    assertThat(createdPools.get(0).isClosed(), is(false));
+    assertThat(createdPools.get(2).isClosed(), is(true));
+
+    pool1.release(client, true);
+    registry.get(address(5), OPTIONS);
+    assertThat(createdPools.get(0).isClosed(), is(true));
+  }
+
+  @Test
+  public void testIdlePoolsAreReaped() throws Throwable {
+    ClientPoolRegistry<Echoer.AsyncClient> registry = new ClientPoolRegistry<>(factory, executor, 10, 0);
+    ClientPool<Echoer.AsyncClient> pool = registry.get(address(1), OPTIONS);
+    Echoer.AsyncClient client = pool.acquire().get();
+
+    registry.reapIdlePools();
+    assertThat(registry.getPoolCount(), is(1));
+
+    pool.release(client, true);
+    registry.reapIdlePools();
+    assertThat(registry.getPoolCount(), is(0));
+    assertThat(pool.isClosed(), is(true));
+
+    // A new pool gets created once the previous one got reaped
+    assertThat(registry.get(address(1), OPTIONS), not(sameInstance(pool)));
+    verify(executor).scheduleWithFixedDelay(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+  }
+
+  @Test
+  public void testPoolsWithPendingAcquisitionsAreNotReaped() throws Throwable {
+    ClientPoolRegistry<Echoer.AsyncClient> registry = new ClientPoolRegistry<>(factory, executor, 10, 0);
+    ClientPool<Echoer.AsyncClient> pool = registry.get(address(1), OPTIONS);
+    SettableFuture<Echoer.AsyncClient> acquisition = SettableFuture.create();
+    createdPools.get(0).nextAcquisition = acquisition;
+    pool.acquire();
+
+    registry.reapIdlePools();
+    assertThat(registry.getPoolCount(), is(1));
+
+    // A failed acquisition does not keep the pool in use
+    acquisition.setException(new RuntimeException());
+    registry.reapIdlePools();
+    assertThat(registry.getPoolCount(), is(0));
+  }
+
+  private static InetSocketAddress address(int i) {
+    return InetSocketAddress.createUnresolved("host" + i, 8835);
+  }
+
+  /**
+   * Client pool that hands out mock clients.
+   */
+  private static class FakeClientPool implements ClientPool<Echoer.AsyncClient> {
+    private boolean closed;
+    private ListenableFuture<Echoer.AsyncClient> nextAcquisition;
+
+    @Override
+    public ListenableFuture<Echoer.AsyncClient> acquire() {
+      if (nextAcquisition != null) {
+        return nextAcquisition;
+      }
+      return Futures.immediateFuture(mock(Echoer.AsyncClient.class));
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+
+    @Override
+    public void release(Echoer.AsyncClient client, boolean healthy) {
+    }
+
+    @Override
+    public int getWaiters() {
+      return 0;
+    }
+
+    @Override
+    public boolean isClosed() {
+      return closed;
+    }
+  }
+}
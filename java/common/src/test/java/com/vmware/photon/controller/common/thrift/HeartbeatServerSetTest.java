@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.vmware.photon.controller.common.thrift;
+
+import org.apache.thrift.async.TAsyncClientManager;
+import org.apache.thrift.async.TAsyncMethodCall;
+import org.apache.thrift.protocol.TCompactProtocol;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.Arrays;
+
+/**
+ * Tests {@link HeartbeatServerSet}.
+ */
+public class HeartbeatServerSetTest {
+
+  // Pings every 500 milliseconds.
+  private static final int TIMEOUT_MS = 1500;
+
+  private ThriftFactory thriftFactory;
+  private ServerSocket serverSocket;
+  private InetSocketAddress server;
+  private HeartbeatServerSet serverSet;
+
+  @BeforeMethod
+  public void setUp() throws Throwable {
+    thriftFactory = mock(ThriftFactory.class);
+    when(thriftFactory.create("AgentControl"))
+        .thenReturn(new MultiplexedProtocolFactory(new TCompactProtocol.Factory(), "AgentControl"));
+
+    // A server that accepts connections but never responds to pings.
+    serverSocket = new ServerSocket(0, 10, InetAddress.getLoopbackAddress());
+    server = new InetSocketAddress(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+  }
+
+  @AfterMethod
+  public void tearDown() throws Throwable {
+    if (serverSet != null) {
+      serverSet.close();
+      serverSet = null;
+    }
+
+    serverSocket.close();
+  }
+
+  /**
+   * Tests that a ping that doesn't complete makes the next pings get skipped instead of
+   * marking the server as inactive.
+   */
+  @Test
+  public void testOutstandingPingIsSkipped() throws Throwable {
+    // The calls are never completed nor timed out.
+    TAsyncClientManager clientManager = mock(TAsyncClientManager.class);
+    serverSet = new HeartbeatServerSet("scheduler", Arrays.asList(server), TIMEOUT_MS, 1, clientManager,
+        thriftFactory);
+    ServerSet.ChangeListener listener = mock(ServerSet.ChangeListener.class);
+    serverSet.addChangeListener(listener);
+
+    verify(clientManager, timeout(TIMEOUT_MS)).call(any(TAsyncMethodCall.class));
+    Thread.sleep(TIMEOUT_MS * 2);
+
+    verify(clientManager).call(any(TAsyncMethodCall.class));
+    verifyNoMoreInteractions(listener);
+  }
+
+  /**
+   * Tests that a ping that times out marks the server as inactive.
+   */
+  @Test
+  public void testPingTimeout() throws Throwable {
+    TAsyncClientManager clientManager = new TAsyncClientManager();
+    try {
+      serverSet = new HeartbeatServerSet("scheduler", Arrays.asList(server), TIMEOUT_MS, 1, clientManager,
+          thriftFactory);
+      ServerSet.ChangeListener listener = mock(ServerSet.ChangeListener.class);
+      serverSet.addChangeListener(listener);
+
+      verify(listener, timeout(TIMEOUT_MS * 2)).onServerRemoved(server);
+      verify(listener, never()).onServerAdded(server);
+    } finally {
+      serverSet.close();
+      serverSet = null;
+      clientManager.stop();
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.vmware.photon.controller.common.thrift;
+
+import com.example.echo.EchoRequest;
+import com.example.echo.Echoer;
+import org.apache.thrift.TException;
+import org.apache.thrift.async.AsyncMethodCallback;
+import org.apache.thrift.protocol.TCompactProtocol;
+import org.apache.thrift.protocol.TMultiplexedProtocol;
+import org.apache.thrift.server.TServer;
+import org.apache.thrift.server.TThreadedSelectorServer;
+import org.apache.thrift.transport.TFastFramedTransport;
+import org.apache.thrift.transport.TNonblockingServerSocket;
+import org.apache.thrift.transport.TSocket;
+import org.apache.thrift.transport.TTransport;
+import org.apache.thrift.transport.TTransportException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests {@link MultiplexedAsyncProcessor}.
+ */
+public class MultiplexedAsyncProcessorTest {
+
+  private ExecutorService executor;
+  private TServer server;
+  private int port;
+
+  @BeforeMethod
+  public void setUp() throws Throwable {
+    executor = Executors.newCachedThreadPool();
+    TNonblockingServerSocket transport = new TNonblockingServerSocket(0);
+    port = transport.getPort();
+
+    MultiplexedAsyncProcessor processor = new MultiplexedAsyncProcessor();
+    Echoer.AsyncIface echoer = new AsyncEchoServer();
+    processor.registerProcessor("Echoer", echoer, new Echoer.AsyncProcessor<>(echoer));
+
+    server = new TThreadedSelectorServer(new TThreadedSelectorServer.Args(transport)
+        .protocolFactory(new TCompactProtocol.Factory())
+        .processor(processor));
+    executor.submit(() -> server.serve());
+    for (int i = 0; i < 50 && !server.isServing(); i++) {
+      Thread.sleep(100);
+    }
+  }
+
+  @AfterMethod
+  public void tearDown() throws Throwable {
+    server.stop();
+    executor.shutdownNow();
+    executor.awaitTermination(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testCallsCompleteFromCallbacks() throws TException {
+    TTransport transport = new TFastFramedTransport(new TSocket("localhost", port));
+    transport.open();
+    try {
+      Echoer.Client client = new Echoer.Client(new TMultiplexedProtocol(new TCompactProtocol(transport), "Echoer"));
+      assertThat(client.echo("Hello"), is("Echoed: Hello"));
+      assertThat(client.echo("World"), is("Echoed: World"));
+    } finally {
+      transport.close();
+    }
+  }
+
+  @Test(expectedExceptions = TTransportException.class)
+  public void testUnknownService() throws TException {
+    TTransport transport = new TFastFramedTransport(new TSocket("localhost", port));
+    transport.open();
+    try {
+      Echoer.Client client = new Echoer.Client(new TMultiplexedProtocol(new TCompactProtocol(transport), "Unknown"));
+      client.echo("Hello");
+    } finally {
+      transport.close();
+    }
+  }
+
+  /**
+   * Echo server which completes the calls from another thread.
+   */
+  private class AsyncEchoServer implements Echoer.AsyncIface {
+    @Override
+    @SuppressWarnings("unchecked")
+    public void echo(String message, AsyncMethodCallback resultHandler) throws TException {
+      executor.submit(() -> resultHandler.onComplete("Echoed: " + message));
+    }
+
+    @Override
+    public void tracedEcho(EchoRequest request, AsyncMethodCallback resultHandler) throws TException {
+      echo(request.getMessage(), resultHandler);
+    }
+  }
+}
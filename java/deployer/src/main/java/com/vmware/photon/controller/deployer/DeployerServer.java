@@ -28,10 +28,9 @@ import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import org.apache.thrift.TMultiplexedProcessor;
 import org.apache.thrift.protocol.TProtocolFactory;
 import org.apache.thrift.server.TServer;
-import org.apache.thrift.server.TThreadPoolServer;
-import org.apache.thrift.transport.TServerSocket;
+import org.apache.thrift.server.TThreadedSelectorServer;
+import org.apache.thrift.transport.TNonblockingServerSocket;
 import org.apache.thrift.transport.TTransportException;
-import org.apache.thrift.transport.TTransportFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,7 +48,6 @@ public class DeployerServer {
   private static final Logger logger = LoggerFactory.getLogger(DeployerServer.class);
 
   private final ServiceNodeFactory serviceNodeFactory;
-  private final TTransportFactory transportFactory;
   private final TProtocolFactory protocolFactory;
   private final ThriftFactory thriftFactory;
   private final DeployerService deployerService;
@@ -65,14 +63,12 @@ public class DeployerServer {
   @Inject
   public DeployerServer(ServiceNodeFactory serviceNodeFactory,
                         TProtocolFactory protocolFactory,
-                        TTransportFactory transportFactory,
                         ThriftFactory thriftFactory,
                         DeployerService deployerService,
                         BuildInfo buildInfo,
                         ThriftConfig thriftConfig,
                         CloseableHttpAsyncClient httpClient) {
     this.serviceNodeFactory = serviceNodeFactory;
-    this.transportFactory = transportFactory;
     this.protocolFactory = protocolFactory;
     this.thriftFactory = thriftFactory;
     this.deployerService = deployerService;
@@ -93,22 +89,22 @@ public class DeployerServer {
 
     InetAddress bindIpAddress = InetAddress.getByName(bind);
     InetSocketAddress bindSocketAddress = new InetSocketAddress(bindIpAddress, port);
-    TServerSocket transport = new TServerSocket(bindSocketAddress);
+    TNonblockingServerSocket transport = new TNonblockingServerSocket(bindSocketAddress);
 
     Deployer.Processor<DeployerService> deployerProcessor = new Deployer.Processor<>(deployerService);
     TMultiplexedProcessor processor = new TMultiplexedProcessor();
     processor.registerProcessor(SERVICE_NAME, deployerProcessor);
 
-    server = new TThreadPoolServer(
-        new TThreadPoolServer.Args(transport)
+    // The non-blocking server reads and writes the frames itself, so no transport factory is set
+    server = new TThreadedSelectorServer(
+        new TThreadedSelectorServer.Args(transport)
             .processor(processor)
             .protocolFactory(protocolFactory)
-            .transportFactory(transportFactory)
     );
 
     // Need to re-fetch local port in case it was 0
     InetSocketAddress registrationSocketAddress = new InetSocketAddress(registrationIpAddress,
-        transport.getServerSocket().getLocalPort());
+        transport.getPort());
     serviceNode = serviceNodeFactory.createSimple("deployer", registrationSocketAddress);
 
     server.setServerEventHandler(getThriftEventHandler());
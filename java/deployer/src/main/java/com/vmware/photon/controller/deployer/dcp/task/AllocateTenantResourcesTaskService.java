@@ -54,7 +54,6 @@ import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 /**
  * This class implements a Xenon task service which allocates tenant resources for a deployment.
@@ -148,13 +147,6 @@ public class AllocateTenantResourcesTaskService extends StatefulService {
     @WriteOnce
     public String createTenantTaskId;
 
-    /**
-     * This value represents the number of polling iterations which have been performed by the
-     * current task while waiting for the tenant to be created. It is informational only.
-     */
-    @DefaultInteger(value = 0)
-    public Integer createTenantPollCount;
-
     /**
      * This value represents the ID of the API-level tenant object created by the current task.
      */
@@ -167,14 +159,6 @@ public class AllocateTenantResourcesTaskService extends StatefulService {
     @WriteOnce
     public String createResourceTicketTaskId;
 
-    /**
-     * This value represents the number of polling iterations which have been performed by the
-     * current task while waiting for the resource ticket to be created. It is informational
-     * only.
-     */
-    @DefaultInteger(value = 0)
-    public Integer createResourceTicketPollCount;
-
     /**
      * This value represents the ID of the API-level resource ticket object created by the current
      * task.
@@ -188,13 +172,6 @@ public class AllocateTenantResourcesTaskService extends StatefulService {
     @WriteOnce
     public String createProjectTaskId;
 
-    /**
-     * This value represents the number of polling iterations which have been performed by the
-     * current task while waiting for the project to be created. It is informational only.
-     */
-    @DefaultInteger(value = 0)
-    public Integer createProjectPollCount;
-
     /**
      * This value represents the ID of the API-level project object created by the current task.
      */
@@ -384,7 +361,6 @@ public class AllocateTenantResourcesTaskService extends StatefulService {
       case "STARTED":
         State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_TENANT);
         patchState.createTenantTaskId = task.getId();
-        patchState.createTenantPollCount = 1;
         TaskUtils.sendSelfPatch(this, patchState);
         break;
       case "COMPLETED":
@@ -401,40 +377,29 @@ public class AllocateTenantResourcesTaskService extends StatefulService {
   // WAIT_FOR_TENANT sub-stage routines
   //
 
-  private void processWaitForTenantSubStage(State currentState) throws Throwable {
+  private void processWaitForTenantSubStage(State currentState) {
 
-    HostUtils.getApiClient(this)
-        .getTasksApi()
-        .getTaskAsync(currentState.createTenantTaskId,
-            new FutureCallback<Task>() {
-              @Override
-              public void onSuccess(@javax.validation.constraints.NotNull Task task) {
-                try {
-                  processTenantCreationTaskResult(currentState, task);
-                } catch (Throwable t) {
-                  failTask(t);
-                }
-              }
+    ApiUtils.awaitTaskAsync(this, HostUtils.getApiClient(this), currentState.createTenantTaskId,
+        currentState.taskPollDelay,
+        new FutureCallback<Task>() {
+          @Override
+          public void onSuccess(@javax.validation.constraints.NotNull Task task) {
+            try {
+              processTenantCreationTaskResult(task);
+            } catch (Throwable t) {
+              failTask(t);
+            }
+          }
 
-              @Override
-              public void onFailure(Throwable throwable) {
-                failTask(throwable);
-              }
-            });
+          @Override
+          public void onFailure(Throwable throwable) {
+            failTask(throwable);
+          }
+        });
   }
 
-  private void processTenantCreationTaskResult(State currentState, Task task) {
+  private void processTenantCreationTaskResult(Task task) {
     switch (task.getState().toUpperCase()) {
-      case "QUEUED":
-      case "STARTED":
-        getHost().schedule(
-            () -> {
-              State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_TENANT);
-              patchState.createTenantPollCount = currentState.createTenantPollCount + 1;
-              TaskUtils.sendSelfPatch(this, patchState);
-            },
-            currentState.taskPollDelay, TimeUnit.MILLISECONDS);
-        break;
       case "COMPLETED":
         updateTenantId(task.getEntity().getId());
         break;
@@ -491,7 +456,6 @@ public class AllocateTenantResourcesTaskService extends StatefulService {
       case "STARTED":
         State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_RESOURCE_TICKET);
         patchState.createResourceTicketTaskId = task.getId();
-        patchState.createResourceTicketPollCount = 1;
         sendStageProgressPatch(patchState);
         break;
       case "COMPLETED":
@@ -508,40 +472,29 @@ public class AllocateTenantResourcesTaskService extends StatefulService {
   // WAIT_FOR_RESOURCE_TICKET sub-stage routines
   //
 
-  private void processWaitForResourceTicketSubStage(State currentState) throws Throwable {
+  private void processWaitForResourceTicketSubStage(State currentState) {
 
-    HostUtils.getApiClient(this)
-        .getTasksApi()
-        .getTaskAsync(currentState.createResourceTicketTaskId,
-            new FutureCallback<Task>() {
-              @Override
-              public void onSuccess(@javax.validation.constraints.NotNull Task task) {
-                try {
-                  processResourceTicketCreationTaskResult(currentState, task);
-                } catch (Throwable t) {
-                  failTask(t);
-                }
-              }
+    ApiUtils.awaitTaskAsync(this, HostUtils.getApiClient(this), currentState.createResourceTicketTaskId,
+        currentState.taskPollDelay,
+        new FutureCallback<Task>() {
+          @Override
+          public void onSuccess(@javax.validation.constraints.NotNull Task task) {
+            try {
+              processResourceTicketCreationTaskResult(task);
+            } catch (Throwable t) {
+              failTask(t);
+            }
+          }
 
-              @Override
-              public void onFailure(Throwable throwable) {
-                failTask(throwable);
-              }
-            });
+          @Override
+          public void onFailure(Throwable throwable) {
+            failTask(throwable);
+          }
+        });
   }
 
-  private void processResourceTicketCreationTaskResult(State currentState, Task task) {
+  private void processResourceTicketCreationTaskResult(Task task) {
     switch (task.getState().toUpperCase()) {
-      case "QUEUED":
-      case "STARTED":
-        getHost().schedule(
-            () -> {
-              State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_RESOURCE_TICKET);
-              patchState.createResourceTicketPollCount = currentState.createResourceTicketPollCount + 1;
-              TaskUtils.sendSelfPatch(this, patchState);
-            },
-            currentState.taskPollDelay, TimeUnit.MILLISECONDS);
-        break;
       case "COMPLETED":
         updateResourceTicketId(task.getEntity().getId());
         break;
@@ -599,7 +552,6 @@ public class AllocateTenantResourcesTaskService extends StatefulService {
       case "STARTED":
         State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_PROJECT);
         patchState.createProjectTaskId = task.getId();
-        patchState.createProjectPollCount = 1;
         sendStageProgressPatch(patchState);
         break;
       case "COMPLETED":
@@ -616,40 +568,29 @@ public class AllocateTenantResourcesTaskService extends StatefulService {
   // WAIT_FOR_PROJECT sub-stage routines
   //
 
-  private void processWaitForProjectSubStage(State currentState) throws Throwable {
+  private void processWaitForProjectSubStage(State currentState) {
 
-    HostUtils.getApiClient(this)
-        .getTasksApi()
-        .getTaskAsync(currentState.createProjectTaskId,
-            new FutureCallback<Task>() {
-              @Override
-              public void onSuccess(@javax.validation.constraints.NotNull Task task) {
-                try {
-                  processProjectCreationTaskResult(currentState, task);
-                } catch (Throwable t) {
-                  failTask(t);
-                }
-              }
+    ApiUtils.awaitTaskAsync(this, HostUtils.getApiClient(this), currentState.createProjectTaskId,
+        currentState.taskPollDelay,
+        new FutureCallback<Task>() {
+          @Override
+          public void onSuccess(@javax.validation.constraints.NotNull Task task) {
+            try {
+              processProjectCreationTaskResult(task);
+            } catch (Throwable t) {
+              failTask(t);
+            }
+          }
 
-              @Override
-              public void onFailure(Throwable throwable) {
-                failTask(throwable);
-              }
-            });
+          @Override
+          public void onFailure(Throwable throwable) {
+            failTask(throwable);
+          }
+        });
   }
 
-  private void processProjectCreationTaskResult(State currentState, Task task) {
+  private void processProjectCreationTaskResult(Task task) {
     switch (task.getState().toUpperCase()) {
-      case "QUEUED":
-      case "STARTED":
-        getHost().schedule(
-            () -> {
-              State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_PROJECT);
-              patchState.createProjectPollCount = currentState.createProjectPollCount + 1;
-              TaskUtils.sendSelfPatch(this, patchState);
-            },
-            currentState.taskPollDelay, TimeUnit.MILLISECONDS);
-        break;
       case "COMPLETED":
         updateProjectId(task.getEntity().getId());
         break;
@@ -17,6 +17,7 @@ import com.vmware.photon.controller.cloudstore.dcp.entity.DeploymentService;
 import com.vmware.photon.controller.common.xenon.ControlFlags;
 import com.vmware.photon.controller.common.xenon.InitializationUtils;
 import com.vmware.photon.controller.common.xenon.PatchUtils;
+import com.vmware.photon.controller.common.xenon.RemoteTaskAwaiter;
 import com.vmware.photon.controller.common.xenon.ServiceUtils;
 import com.vmware.photon.controller.common.xenon.TaskUtils;
 import com.vmware.photon.controller.common.xenon.ValidationUtils;
@@ -40,6 +41,7 @@ import com.vmware.xenon.common.StatefulService;
 import com.vmware.xenon.common.Utils;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.FutureCallback;
 import static com.google.common.base.Preconditions.checkState;
 
 import javax.annotation.Nullable;
@@ -47,7 +49,7 @@ import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * This class implements a Xenon task service which brings up a Photon Controller service inside a container and
@@ -158,19 +160,6 @@ public class CreateContainerTaskService extends StatefulService {
      */
     @Immutable
     public Integer taskPollDelay;
-
-    /**
-     * This value represents the number of polling iterations which have been performed by the current task.
-     */
-    @DefaultInteger(value = 0)
-    public Integer pollCount;
-
-    /**
-     * This value represents the number of consecutive successful polling iterations which have been performed by the
-     * current task.
-     */
-    @DefaultInteger(value = 0)
-    public Integer successfulPollCount;
   }
 
   public CreateContainerTaskService() {
@@ -487,29 +476,40 @@ public class CreateContainerTaskService extends StatefulService {
         .create(this, containerType, vmState.ipAddress)
         .getHealthChecker();
 
-    if (healthChecker.isReady()) {
-      currentState.pollCount++;
-      currentState.successfulPollCount++;
-    } else {
-      currentState.pollCount++;
-      currentState.successfulPollCount = 0;
-    }
+    //
+    // N.B. The service must be ready for several consecutive polling iterations, so the health checks are performed
+    // at a fixed rate.
+    //
+
+    int[] successfulPollCount = {0};
+    RemoteTaskAwaiter
+        .<Boolean>create(this,
+            (callback) -> callback.onSuccess(healthChecker.isReady()),
+            (isReady) -> {
+              successfulPollCount[0] = isReady ? successfulPollCount[0] + 1 : 0;
+              return successfulPollCount[0] >= currentState.requiredPollCount;
+            },
+            new FutureCallback<Boolean>() {
+              @Override
+              public void onSuccess(@Nullable Boolean isReady) {
+                sendStageProgressPatch(TaskState.TaskStage.FINISHED, null);
+              }
 
-    if (currentState.successfulPollCount >= currentState.requiredPollCount) {
-      sendStageProgressPatch(TaskState.TaskStage.FINISHED, null);
-    } else if (currentState.pollCount >= currentState.maximumPollCount) {
-      failTask(new IllegalStateException("Container " + containerState.containerId + " of type " + containerType +
-          " on VM " + vmState.ipAddress + " failed to become ready after " + currentState.pollCount + " iterations"));
-    } else {
-      getHost().schedule(
-          () -> {
-            State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_SERVICE, null);
-            patchState.pollCount = currentState.pollCount;
-            patchState.successfulPollCount = currentState.successfulPollCount;
-            TaskUtils.sendSelfPatch(this, patchState);
-          },
-          currentState.taskPollDelay, TimeUnit.MILLISECONDS);
-    }
+              @Override
+              public void onFailure(Throwable throwable) {
+                if (throwable instanceof TimeoutException) {
+                  failTask(new IllegalStateException("Container " + containerState.containerId + " of type " +
+                      containerType + " on VM " + vmState.ipAddress + " failed to become ready after " +
+                      currentState.maximumPollCount + " iterations"));
+                } else {
+                  failTask(throwable);
+                }
+              }
+            })
+        .setPollDelay(currentState.taskPollDelay)
+        .setMaxBackoff(1)
+        .setMaxPolls(currentState.maximumPollCount)
+        .start();
   }
 
   //
@@ -26,6 +26,7 @@ import com.vmware.photon.controller.cloudstore.dcp.entity.HostService;
 import com.vmware.photon.controller.common.xenon.ControlFlags;
 import com.vmware.photon.controller.common.xenon.InitializationUtils;
 import com.vmware.photon.controller.common.xenon.PatchUtils;
+import com.vmware.photon.controller.common.xenon.RemoteTaskAwaiter;
 import com.vmware.photon.controller.common.xenon.ServiceUtils;
 import com.vmware.photon.controller.common.xenon.TaskUtils;
 import com.vmware.photon.controller.common.xenon.ValidationUtils;
@@ -86,6 +87,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -193,13 +195,6 @@ public class CreateManagementVmTaskService extends StatefulService {
     @WriteOnce
     public String createVmFlavorTaskId;
 
-    /**
-     * This value represents the number of polling iterations which have been performed by the
-     * current task while waiting for the VM flavor to be created. It is informational only.
-     */
-    @DefaultInteger(value = 0)
-    public Integer createVmFlavorPollCount;
-
     /**
      * This value represents the name of the API-level VM flavor object created by the current task.
      */
@@ -212,13 +207,6 @@ public class CreateManagementVmTaskService extends StatefulService {
     @WriteOnce
     public String createDiskFlavorTaskId;
 
-    /**
-     * This value represents the number of polling iterations which have been performed by the
-     * current task while waiting for the disk flavor to be created. It is informational only.
-     */
-    @DefaultInteger(value = 0)
-    public Integer createDiskFlavorPollCount;
-
     /**
      * This value represents the ID of the API-level disk flavor object created by the current
      * task.
@@ -232,13 +220,6 @@ public class CreateManagementVmTaskService extends StatefulService {
     @WriteOnce
     public String createVmTaskId;
 
-    /**
-     * This value represents the number of polling iterations which have been performed by the
-     * current task while waiting for the VM to be created. It is informational only.
-     */
-    @DefaultInteger(value = 0)
-    public Integer createVmPollCount;
-
     /**
      * This value represents the ID of the API-level VM object created by the current task.
      */
@@ -251,13 +232,6 @@ public class CreateManagementVmTaskService extends StatefulService {
     @WriteOnce
     public String updateVmMetadataTaskId;
 
-    /**
-     * This value represents the number of polling iterations which have been performed by the
-     * current task while waiting for the VM metadata to be updated. It is informational only.
-     */
-    @DefaultInteger(value = 0)
-    public Integer updateVmMetadataPollCount;
-
     /**
      * This value represents the path on the local file system of the working directory which is
      * used by the current task to generate the container configuration information for the VM. It
@@ -280,27 +254,12 @@ public class CreateManagementVmTaskService extends StatefulService {
     @WriteOnce
     public String attachIsoTaskId;
 
-    /**
-     * This value represents the number of polling iterations which have been performed by the
-     * current task while waiting for the settings ISO to be attached to the VM. It is informational
-     * only.
-     */
-    @DefaultInteger(value = 0)
-    public Integer attachIsoPollCount;
-
     /**
      * This value represents the ID of the API-level task to power on the VM.
      */
     @WriteOnce
     public String startVmTaskId;
 
-    /**
-     * This value represents the number of polling iterations which have been performed by the
-     * current task while waiting for the VM to be powered on. It is informational only.
-     */
-    @DefaultInteger(value = 0)
-    public Integer startVmPollCount;
-
     /**
      * This value represents the IP address of the Docker endpoint on the remote VM.
      */
@@ -315,13 +274,6 @@ public class CreateManagementVmTaskService extends StatefulService {
     @Positive
     @Immutable
     public Integer maxDockerPollIterations;
-
-    /**
-     * This value represents the number of polling iterations which have been performed by the
-     * current task while waiting for the Docker daemon to come up on the remote machine.
-     */
-    @DefaultInteger(value = 0)
-    public Integer dockerPollIterations;
   }
 
   public CreateManagementVmTaskService() {
@@ -599,7 +551,6 @@ public class CreateManagementVmTaskService extends StatefulService {
       case "STARTED":
         State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_VM_FLAVOR, null);
         patchState.createVmFlavorTaskId = task.getId();
-        patchState.createVmFlavorPollCount = 1;
         sendStageProgressPatch(patchState);
         break;
       case "COMPLETED":
@@ -616,40 +567,29 @@ public class CreateManagementVmTaskService extends StatefulService {
   // WAIT_FOR_VM_FLAVOR sub-stage methods
   //
 
-  private void processWaitForVmFlavorSubStage(State currentState) throws Throwable {
+  private void processWaitForVmFlavorSubStage(State currentState) {
 
-    HostUtils.getApiClient(this)
-        .getTasksApi()
-        .getTaskAsync(currentState.createVmFlavorTaskId,
-            new FutureCallback<Task>() {
-              @Override
-              public void onSuccess(@javax.validation.constraints.NotNull Task task) {
-                try {
-                  processVmFlavorCreationTaskResult(currentState, task);
-                } catch (Throwable t) {
-                  failTask(t);
-                }
-              }
+    ApiUtils.awaitTaskAsync(this, HostUtils.getApiClient(this), currentState.createVmFlavorTaskId,
+        currentState.taskPollDelay,
+        new FutureCallback<Task>() {
+          @Override
+          public void onSuccess(@javax.validation.constraints.NotNull Task task) {
+            try {
+              processVmFlavorCreationTaskResult(task);
+            } catch (Throwable t) {
+              failTask(t);
+            }
+          }
 
-              @Override
-              public void onFailure(Throwable throwable) {
-                failTask(throwable);
-              }
-            });
+          @Override
+          public void onFailure(Throwable throwable) {
+            failTask(throwable);
+          }
+        });
   }
 
-  private void processVmFlavorCreationTaskResult(State currentState, Task task) {
+  private void processVmFlavorCreationTaskResult(Task task) {
     switch (task.getState().toUpperCase()) {
-      case "QUEUED":
-      case "STARTED":
-        getHost().schedule(
-            () -> {
-              State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_VM_FLAVOR, null);
-              patchState.createVmFlavorPollCount = currentState.createVmFlavorPollCount + 1;
-              TaskUtils.sendSelfPatch(this, patchState);
-            },
-            currentState.taskPollDelay, TimeUnit.MILLISECONDS);
-        break;
       case "COMPLETED":
         updateVmFlavorId(currentState, task.getEntity().getId());
         break;
@@ -746,7 +686,6 @@ public class CreateManagementVmTaskService extends StatefulService {
       case "STARTED":
         State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_DISK_FLAVOR, null);
         patchState.createDiskFlavorTaskId = task.getId();
-        patchState.createDiskFlavorPollCount = 1;
         sendStageProgressPatch(patchState);
         break;
       case "COMPLETED":
@@ -763,41 +702,29 @@ public class CreateManagementVmTaskService extends StatefulService {
   // WAIT_FOR_DISK_FLAVOR sub-stage methods
   //
 
-  private void processWaitForDiskFlavorSubStage(State currentState) throws Throwable {
+  private void processWaitForDiskFlavorSubStage(State currentState) {
 
-    HostUtils.getApiClient(this)
-        .getTasksApi()
-        .getTaskAsync(currentState.createDiskFlavorTaskId,
-            new FutureCallback<Task>() {
-              @Override
-              public void onSuccess(@javax.validation.constraints.NotNull Task task) {
-                try {
-                  processDiskFlavorCreationTaskResult(currentState, task);
-                } catch (Throwable t) {
-                  failTask(t);
-                }
-              }
+    ApiUtils.awaitTaskAsync(this, HostUtils.getApiClient(this), currentState.createDiskFlavorTaskId,
+        currentState.taskPollDelay,
+        new FutureCallback<Task>() {
+          @Override
+          public void onSuccess(@javax.validation.constraints.NotNull Task task) {
+            try {
+              processDiskFlavorCreationTaskResult(task);
+            } catch (Throwable t) {
+              failTask(t);
+            }
+          }
 
-              @Override
-              public void onFailure(Throwable throwable) {
-                failTask(throwable);
-              }
-            });
+          @Override
+          public void onFailure(Throwable throwable) {
+            failTask(throwable);
+          }
+        });
   }
 
-  private void processDiskFlavorCreationTaskResult(State currentState, Task task) {
+  private void processDiskFlavorCreationTaskResult(Task task) {
     switch (task.getState().toUpperCase()) {
-      case "QUEUED":
-      case "STARTED":
-        getHost().schedule(
-            () -> {
-              State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_DISK_FLAVOR,
-                  null);
-              patchState.createDiskFlavorPollCount = currentState.createDiskFlavorPollCount + 1;
-              TaskUtils.sendSelfPatch(this, patchState);
-            },
-            currentState.taskPollDelay, TimeUnit.MILLISECONDS);
-        break;
       case "COMPLETED":
         updateDiskFlavorId(currentState, task.getEntity().getId());
         break;
@@ -929,7 +856,6 @@ public class CreateManagementVmTaskService extends StatefulService {
       case "STARTED":
         State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_VM_CREATION, null);
         patchState.createVmTaskId = task.getId();
-        patchState.createVmPollCount = 1;
         sendStageProgressPatch(patchState);
         break;
       case "COMPLETED":
@@ -946,40 +872,29 @@ public class CreateManagementVmTaskService extends StatefulService {
   // WAIT_FOR_VM sub-stage routines
   //
 
-  private void processWaitForVmCreationSubStage(State currentState) throws Throwable {
+  private void processWaitForVmCreationSubStage(State currentState) {
 
-    HostUtils.getApiClient(this)
-        .getTasksApi()
-        .getTaskAsync(currentState.createVmTaskId,
-            new FutureCallback<Task>() {
-              @Override
-              public void onSuccess(@javax.validation.constraints.NotNull Task task) {
-                try {
-                  processVmCreationTaskResult(currentState, task);
-                } catch (Throwable t) {
-                  failTask(t);
-                }
-              }
+    ApiUtils.awaitTaskAsync(this, HostUtils.getApiClient(this), currentState.createVmTaskId,
+        currentState.taskPollDelay,
+        new FutureCallback<Task>() {
+          @Override
+          public void onSuccess(@javax.validation.constraints.NotNull Task task) {
+            try {
+              processVmCreationTaskResult(task);
+            } catch (Throwable t) {
+              failTask(t);
+            }
+          }
 
-              @Override
-              public void onFailure(Throwable throwable) {
-                failTask(throwable);
-              }
-            });
+          @Override
+          public void onFailure(Throwable throwable) {
+            failTask(throwable);
+          }
+        });
   }
 
-  private void processVmCreationTaskResult(State currentState, Task task) {
+  private void processVmCreationTaskResult(Task task) {
     switch (task.getState().toUpperCase()) {
-      case "QUEUED":
-      case "STARTED":
-        getHost().schedule(
-            () -> {
-              State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_VM_CREATION, null);
-              patchState.createVmPollCount = currentState.createVmPollCount + 1;
-              TaskUtils.sendSelfPatch(this, patchState);
-            },
-            currentState.taskPollDelay, TimeUnit.MILLISECONDS);
-        break;
       case "COMPLETED":
         updateVmId(currentState, task.getEntity().getId());
         break;
@@ -1113,7 +1028,6 @@ public class CreateManagementVmTaskService extends StatefulService {
       case "STARTED":
         State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_METADATA_UPDATE, null);
         patchState.updateVmMetadataTaskId = task.getId();
-        patchState.updateVmMetadataPollCount = 1;
         sendStageProgressPatch(patchState);
         break;
       case "COMPLETED":
@@ -1130,41 +1044,29 @@ public class CreateManagementVmTaskService extends StatefulService {
   // WAIT_FOR_METADATA_UPDATE sub-stage methods
   //
 
-  private void processWaitForMetadataUpdateSubStage(State currentState) throws Throwable {
+  private void processWaitForMetadataUpdateSubStage(State currentState) {
 
-    HostUtils.getApiClient(this)
-        .getTasksApi()
-        .getTaskAsync(currentState.updateVmMetadataTaskId,
-            new FutureCallback<Task>() {
-              @Override
-              public void onSuccess(@javax.validation.constraints.NotNull Task task) {
-                try {
-                  processMetadataUpdateTaskResult(currentState, task);
-                } catch (Throwable t) {
-                  failTask(t);
-                }
-              }
+    ApiUtils.awaitTaskAsync(this, HostUtils.getApiClient(this), currentState.updateVmMetadataTaskId,
+        currentState.taskPollDelay,
+        new FutureCallback<Task>() {
+          @Override
+          public void onSuccess(@javax.validation.constraints.NotNull Task task) {
+            try {
+              processMetadataUpdateTaskResult(task);
+            } catch (Throwable t) {
+              failTask(t);
+            }
+          }
 
-              @Override
-              public void onFailure(Throwable throwable) {
-                failTask(throwable);
-              }
-            });
+          @Override
+          public void onFailure(Throwable throwable) {
+            failTask(throwable);
+          }
+        });
   }
 
-  private void processMetadataUpdateTaskResult(State currentState, Task task) {
+  private void processMetadataUpdateTaskResult(Task task) {
     switch (task.getState().toUpperCase()) {
-      case "QUEUED":
-      case "STARTED":
-        getHost().schedule(
-            () -> {
-              State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_METADATA_UPDATE,
-                  null);
-              patchState.updateVmMetadataPollCount = currentState.updateVmMetadataPollCount + 1;
-              TaskUtils.sendSelfPatch(this, patchState);
-            },
-            currentState.taskPollDelay, TimeUnit.MILLISECONDS);
-        break;
       case "COMPLETED":
         sendStageProgressPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.ATTACH_ISO);
         break;
@@ -1465,7 +1367,6 @@ public class CreateManagementVmTaskService extends StatefulService {
       case "STARTED":
         State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_ATTACH_ISO, null);
         patchState.attachIsoTaskId = task.getId();
-        patchState.attachIsoPollCount = 1;
         sendStageProgressPatch(patchState);
         break;
       case "COMPLETED":
@@ -1484,40 +1385,29 @@ public class CreateManagementVmTaskService extends StatefulService {
   // WAIT_FOR_ATTACH_ISO sub-stage routines
   //
 
-  private void processWaitForAttachIsoSubStage(State currentState) throws Throwable {
+  private void processWaitForAttachIsoSubStage(State currentState) {
 
-    HostUtils.getApiClient(this)
-        .getTasksApi()
-        .getTaskAsync(currentState.attachIsoTaskId,
-            new FutureCallback<Task>() {
-              @Override
-              public void onSuccess(@javax.validation.constraints.NotNull Task task) {
-                try {
-                  processWaitForAttachIsoSubStage(currentState, task);
-                } catch (Throwable t) {
-                  failTask(t);
-                }
-              }
+    ApiUtils.awaitTaskAsync(this, HostUtils.getApiClient(this), currentState.attachIsoTaskId,
+        currentState.taskPollDelay,
+        new FutureCallback<Task>() {
+          @Override
+          public void onSuccess(@javax.validation.constraints.NotNull Task task) {
+            try {
+              processWaitForAttachIsoSubStage(currentState, task);
+            } catch (Throwable t) {
+              failTask(t);
+            }
+          }
 
-              @Override
-              public void onFailure(Throwable throwable) {
-                failTask(throwable);
-              }
-            });
+          @Override
+          public void onFailure(Throwable throwable) {
+            failTask(throwable);
+          }
+        });
   }
 
   private void processWaitForAttachIsoSubStage(State currentState, Task task) throws Throwable {
     switch (task.getState().toUpperCase()) {
-      case "QUEUED":
-      case "STARTED":
-        getHost().schedule(
-            () -> {
-              State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_ATTACH_ISO, null);
-              patchState.attachIsoPollCount = currentState.attachIsoPollCount + 1;
-              TaskUtils.sendSelfPatch(this, patchState);
-            },
-            currentState.taskPollDelay, TimeUnit.MILLISECONDS);
-        break;
       case "COMPLETED":
         FileUtils.deleteDirectory(Paths.get(currentState.serviceConfigDirectory).toFile());
         FileUtils.deleteDirectory(Paths.get(currentState.vmConfigDirectory).toFile());
@@ -1564,15 +1454,12 @@ public class CreateManagementVmTaskService extends StatefulService {
             () -> {
               State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_VM_START, null);
               patchState.startVmTaskId = task.getId();
-              patchState.startVmPollCount = 1;
               sendStageProgressPatch(patchState);
             },
             currentState.taskPollDelay, TimeUnit.MILLISECONDS);
         break;
       case "COMPLETED":
-        State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_DOCKER, null);
-        patchState.dockerPollIterations = 1;
-        sendStageProgressPatch(patchState);
+        sendStageProgressPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_DOCKER);
         break;
       case "ERROR":
         throw new IllegalStateException(ApiUtils.getErrors(task));
@@ -1585,44 +1472,31 @@ public class CreateManagementVmTaskService extends StatefulService {
   // WAIT_FOR_VM_START sub-stage routines
   //
 
-  private void processWaitForVmStartSubStage(State currentState) throws Throwable {
+  private void processWaitForVmStartSubStage(State currentState) {
 
-    HostUtils.getApiClient(this)
-        .getTasksApi()
-        .getTaskAsync(currentState.startVmTaskId,
-            new FutureCallback<Task>() {
-              @Override
-              public void onSuccess(@javax.validation.constraints.NotNull Task task) {
-                try {
-                  processWaitForVmStartTaskResult(currentState, task);
-                } catch (Throwable t) {
-                  failTask(t);
-                }
-              }
+    ApiUtils.awaitTaskAsync(this, HostUtils.getApiClient(this), currentState.startVmTaskId,
+        currentState.taskPollDelay,
+        new FutureCallback<Task>() {
+          @Override
+          public void onSuccess(@javax.validation.constraints.NotNull Task task) {
+            try {
+              processWaitForVmStartTaskResult(task);
+            } catch (Throwable t) {
+              failTask(t);
+            }
+          }
 
-              @Override
-              public void onFailure(Throwable throwable) {
-                failTask(throwable);
-              }
-            });
+          @Override
+          public void onFailure(Throwable throwable) {
+            failTask(throwable);
+          }
+        });
   }
 
-  private void processWaitForVmStartTaskResult(State currentState, Task task) {
+  private void processWaitForVmStartTaskResult(Task task) {
     switch (task.getState().toUpperCase()) {
-      case "QUEUED":
-      case "STARTED":
-        getHost().schedule(
-            () -> {
-              State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_VM_START, null);
-              patchState.startVmPollCount = currentState.startVmPollCount + 1;
-              TaskUtils.sendSelfPatch(this, patchState);
-            },
-            currentState.taskPollDelay, TimeUnit.MILLISECONDS);
-        break;
       case "COMPLETED":
-        State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_DOCKER, null);
-        patchState.dockerPollIterations = 1;
-        sendStageProgressPatch(patchState);
+        sendStageProgressPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_DOCKER);
         break;
       case "ERROR":
         throw new IllegalStateException(ApiUtils.getErrors(task));
@@ -1666,36 +1540,43 @@ public class CreateManagementVmTaskService extends StatefulService {
     // client library.
     //
 
-    HostUtils.getListeningExecutorService(this).submit(
-        () -> {
-          try {
-            String dockerInfo = HostUtils.getDockerProvisionerFactory(this)
-                .create(currentState.dockerEndpointAddress)
-                .getInfo();
-
-            ServiceUtils.logInfo(this, "Received Docker status response: " + dockerInfo);
-            sendStageProgressPatch(TaskState.TaskStage.FINISHED, null);
-          } catch (Throwable t) {
-            processFailedDockerPollingInterval(currentState, t);
-          }
-        });
-  }
+    RemoteTaskAwaiter
+        .<String>create(this,
+            (callback) -> HostUtils.getListeningExecutorService(this).submit(
+                () -> {
+                  try {
+                    callback.onSuccess(HostUtils.getDockerProvisionerFactory(this)
+                        .create(currentState.dockerEndpointAddress)
+                        .getInfo());
+                  } catch (Throwable t) {
+                    ServiceUtils.logTrace(this, t);
+                    callback.onSuccess(null);
+                  }
+                }),
+            (dockerInfo) -> dockerInfo != null,
+            new FutureCallback<String>() {
+              @Override
+              public void onSuccess(@Nullable String dockerInfo) {
+                ServiceUtils.logInfo(CreateManagementVmTaskService.this, "Received Docker status response: " +
+                    dockerInfo);
+                sendStageProgressPatch(TaskState.TaskStage.FINISHED, null);
+              }
 
-  private void processFailedDockerPollingInterval(State currentState, Throwable failure) {
-    if (currentState.dockerPollIterations >= currentState.maxDockerPollIterations) {
-      ServiceUtils.logSevere(this, failure);
-      failTask(new IllegalStateException("The docker endpoint on VM " + currentState.dockerEndpointAddress +
-          " failed to become ready after " + currentState.dockerPollIterations + " polling iterations"));
-    } else {
-      ServiceUtils.logTrace(this, failure);
-      getHost().schedule(
-          () -> {
-            State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_DOCKER, null);
-            patchState.dockerPollIterations = currentState.dockerPollIterations + 1;
-            TaskUtils.sendSelfPatch(this, patchState);
-          },
-          currentState.taskPollDelay, TimeUnit.MILLISECONDS);
-    }
+              @Override
+              public void onFailure(Throwable throwable) {
+                if (throwable instanceof TimeoutException) {
+                  failTask(new IllegalStateException("The docker endpoint on VM " +
+                      currentState.dockerEndpointAddress + " failed to become ready after " +
+                      currentState.maxDockerPollIterations + " polling iterations"));
+                } else {
+                  failTask(throwable);
+                }
+              }
+            })
+        .setPollDelay(currentState.taskPollDelay)
+        .setMaxBackoff(1)
+        .setMaxPolls(currentState.maxDockerPollIterations)
+        .start();
   }
 
   //
@@ -15,11 +15,13 @@ package com.vmware.photon.controller.deployer.dcp.task;
 
 import com.vmware.photon.controller.api.Image;
 import com.vmware.photon.controller.api.ImageReplicationType;
+import com.vmware.photon.controller.api.ImageState;
 import com.vmware.photon.controller.api.Task;
 import com.vmware.photon.controller.cloudstore.dcp.entity.DeploymentService;
 import com.vmware.photon.controller.common.xenon.ControlFlags;
 import com.vmware.photon.controller.common.xenon.InitializationUtils;
 import com.vmware.photon.controller.common.xenon.PatchUtils;
+import com.vmware.photon.controller.common.xenon.RemoteTaskAwaiter;
 import com.vmware.photon.controller.common.xenon.ServiceUriPaths;
 import com.vmware.photon.controller.common.xenon.ServiceUtils;
 import com.vmware.photon.controller.common.xenon.TaskUtils;
@@ -58,7 +60,6 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 /**
  * This class implements a Xenon service which uploads an image.
@@ -161,27 +162,12 @@ public class UploadImageTaskService extends StatefulService {
     @WriteOnce
     public String uploadImageTaskId;
 
-    /**
-     * This value represents the number of polling iterations which have been performed by the
-     * current task while waiting for the image upload operation to complete. It is informational
-     * only.
-     */
-    @DefaultInteger(value = 0)
-    public Integer uploadImagePollCount;
-
     /**
      * This value represents the ID of the API-level image object created by the current task.
      */
     @WriteOnce
     public String imageId;
 
-    /**
-     * This value represents the number of polling iterations which have been performed by the
-     * current task while waiting for image replication to complete. It is informational only.
-     */
-    @DefaultInteger(value = 0)
-    public Integer imageSeedingPollCount;
-
     /**
      * This value represents the seeding progress of the image, as reported by the image API.
      * It is informational only.
@@ -495,7 +481,6 @@ public class UploadImageTaskService extends StatefulService {
       case "STARTED":
         State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_IMAGE_UPLOAD);
         patchState.uploadImageTaskId = task.getId();
-        patchState.uploadImagePollCount = 1;
         sendStageProgressPatch(patchState);
         break;
       case "COMPLETED":
@@ -512,40 +497,29 @@ public class UploadImageTaskService extends StatefulService {
   // WAIT_FOR_IMAGE_UPLOAD sub-stage routines
   //
 
-  private void processWaitForImageUploadSubStage(State currentState) throws Throwable {
+  private void processWaitForImageUploadSubStage(State currentState) {
 
-    HostUtils.getApiClient(this)
-        .getTasksApi()
-        .getTaskAsync(currentState.uploadImageTaskId,
-            new FutureCallback<Task>() {
-              @Override
-              public void onSuccess(@javax.validation.constraints.NotNull Task task) {
-                try {
-                  processWaitForImageUploadTaskResult(currentState, task);
-                } catch (Throwable t) {
-                  failTask(t);
-                }
-              }
+    ApiUtils.awaitTaskAsync(this, HostUtils.getApiClient(this), currentState.uploadImageTaskId,
+        currentState.taskPollDelay,
+        new FutureCallback<Task>() {
+          @Override
+          public void onSuccess(@javax.validation.constraints.NotNull Task task) {
+            try {
+              processWaitForImageUploadTaskResult(task);
+            } catch (Throwable t) {
+              failTask(t);
+            }
+          }
 
-              @Override
-              public void onFailure(Throwable throwable) {
-                failTask(throwable);
-              }
-            });
+          @Override
+          public void onFailure(Throwable throwable) {
+            failTask(throwable);
+          }
+        });
   }
 
-  private void processWaitForImageUploadTaskResult(State currentState, Task task) {
+  private void processWaitForImageUploadTaskResult(Task task) {
     switch (task.getState().toUpperCase()) {
-      case "QUEUED":
-      case "STARTED":
-        getHost().schedule(
-            () -> {
-              State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_IMAGE_UPLOAD);
-              patchState.uploadImagePollCount = currentState.uploadImagePollCount + 1;
-              TaskUtils.sendSelfPatch(this, patchState);
-            },
-            currentState.taskPollDelay, TimeUnit.MILLISECONDS);
-        break;
       case "COMPLETED":
         updateImageId(task.getEntity().getId());
         break;
@@ -559,7 +533,6 @@ public class UploadImageTaskService extends StatefulService {
   private void updateImageId(String imageId) {
     ServiceUtils.logInfo(this, "Created image with ID " + imageId);
     State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_IMAGE_SEEDING);
-    patchState.imageSeedingPollCount = 1;
     patchState.imageId = imageId;
     sendStageProgressPatch(patchState);
   }
@@ -568,16 +541,31 @@ public class UploadImageTaskService extends StatefulService {
   // WAIT_FOR_IMAGE_SEEDING sub-stage routines
   //
 
-  private void processWaitForImageSeedingSubStage(State currentState) throws Throwable {
+  private void processWaitForImageSeedingSubStage(State currentState) {
+
+    String[] lastSeedingProgress = {currentState.imageSeedingProgress};
+    RemoteTaskAwaiter
+        .<Image>create(this,
+            (callback) -> HostUtils.getApiClient(this).getImagesApi().getImageAsync(currentState.imageId, callback),
+            (image) -> {
+              if (image.getState() != ImageState.READY || isSeedingComplete(image.getSeedingProgress())) {
+                return true;
+              }
+
+              String imageSeedingProgress = image.getSeedingProgress();
+              if (imageSeedingProgress != null && !imageSeedingProgress.equals(lastSeedingProgress[0])) {
+                ServiceUtils.logInfo(this, "Image " + image.getId() + " reached seeding progress " +
+                    imageSeedingProgress.replace("%", "%%"));
+                lastSeedingProgress[0] = imageSeedingProgress;
+              }
 
-    HostUtils.getApiClient(this)
-        .getImagesApi()
-        .getImageAsync(currentState.imageId,
+              return false;
+            },
             new FutureCallback<Image>() {
               @Override
               public void onSuccess(@javax.validation.constraints.NotNull Image image) {
                 try {
-                  processImage(currentState, image);
+                  processImage(image);
                 } catch (Throwable t) {
                   failTask(t);
                 }
@@ -587,39 +575,25 @@ public class UploadImageTaskService extends StatefulService {
               public void onFailure(Throwable throwable) {
                 failTask(throwable);
               }
-            });
+            })
+        .setPollDelay(currentState.taskPollDelay)
+        .start();
+  }
+
+  //
+  // N.B. This is a best-effort computation based on the information provided in the image
+  // API. It's not clear that this pattern will work well for callers.
+  //
+  private static boolean isSeedingComplete(String imageSeedingProgress) {
+    return imageSeedingProgress != null && Float.valueOf(imageSeedingProgress.trim().replace("%", "")) == 100.0;
   }
 
-  private void processImage(State currentState, Image image) {
+  private void processImage(Image image) {
     switch (image.getState()) {
       case READY:
-        String imageSeedingProgress = image.getSeedingProgress();
-
-        //
-        // N.B. This is a best-effort computation based on the information provided in the image
-        // API. It's not clear that this pattern will work well for callers.
-        //
-
-        if (imageSeedingProgress != null && Float.valueOf(imageSeedingProgress.trim().replace("%", "")) == 100.0) {
-          State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.UPDATE_VMS);
-          patchState.imageSeedingProgress = imageSeedingProgress;
-          sendStageProgressPatch(patchState);
-          return;
-        }
-
-        if (imageSeedingProgress != null && !imageSeedingProgress.equals(currentState.imageSeedingProgress)) {
-          ServiceUtils.logInfo(this, "Image " + image.getId() + " reached seeding progress " +
-              imageSeedingProgress.replace("%", "%%"));
-        }
-
-        getHost().schedule(
-            () -> {
-              State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.WAIT_FOR_IMAGE_SEEDING);
-              patchState.imageSeedingProgress = imageSeedingProgress;
-              patchState.imageSeedingPollCount = currentState.imageSeedingPollCount + 1;
-              TaskUtils.sendSelfPatch(this, patchState);
-            },
-            currentState.taskPollDelay, TimeUnit.MILLISECONDS);
+        State patchState = buildPatch(TaskState.TaskStage.STARTED, TaskState.SubStage.UPDATE_VMS);
+        patchState.imageSeedingProgress = image.getSeedingProgress();
+        sendStageProgressPatch(patchState);
         break;
       case ERROR:
         ServiceUtils.logSevere(this, "Image reached ERROR state: " + Utils.toJsonHtml(image));
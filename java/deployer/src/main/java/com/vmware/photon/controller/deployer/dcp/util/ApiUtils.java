@@ -17,6 +17,7 @@ import com.vmware.photon.controller.api.ApiError;
 import com.vmware.photon.controller.api.Step;
 import com.vmware.photon.controller.api.Task;
 import com.vmware.photon.controller.client.ApiClient;
+import com.vmware.photon.controller.common.xenon.RemoteTaskAwaiter;
 import com.vmware.photon.controller.common.xenon.ServiceUtils;
 import com.vmware.xenon.common.Service;
 
@@ -61,6 +62,43 @@ public class ApiUtils {
     return errorList.toString();
   }
 
+  /**
+   * This method returns whether an API-level task is still queued or running.
+   *
+   * @param task Supplies the task object.
+   * @return True if the task has not reached a final state yet.
+   */
+  public static boolean isTaskRunning(Task task) {
+    switch (task.getState().toUpperCase()) {
+      case "QUEUED":
+      case "STARTED":
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * This method waits asynchronously for an API-level task to reach a final state. The task is polled in memory,
+   * so the waiting service does not need to persist anything while waiting.
+   *
+   * @param service       Supplies the Xenon service which is waiting on the task completion.
+   * @param client        Supplies the API client object.
+   * @param taskId        Supplies the ID of the task.
+   * @param taskPollDelay Supplies the initial delay between task status queries.
+   * @param callback      Supplies the callback to be invoked with the task in its final state.
+   */
+  public static void awaitTaskAsync(final Service service, final ApiClient client, final String taskId,
+                                    final int taskPollDelay, final FutureCallback<Task> callback) {
+    RemoteTaskAwaiter
+        .<Task>create(service,
+            (pollCallback) -> client.getTasksApi().getTaskAsync(taskId, pollCallback),
+            (task) -> !isTaskRunning(task),
+            callback)
+        .setPollDelay(taskPollDelay)
+        .start();
+  }
+
   /**
    * This method polls the task status asynchronously until the task completes or fails.
    *
@@ -507,13 +507,10 @@ public class AllocateTenantResourcesTaskServiceTest {
       TestHelper.assertTaskStateFinished(finalState.taskState);
       assertThat(finalState.taskState.subStage, nullValue());
       assertThat(finalState.createTenantTaskId, is("CREATE_TENANT_TASK_ID"));
-      assertThat(finalState.createTenantPollCount, is(3));
       assertThat(finalState.tenantId, is(tenantId));
       assertThat(finalState.createResourceTicketTaskId, is("CREATE_RESOURCE_TICKET_TASK_ID"));
-      assertThat(finalState.createResourceTicketPollCount, is(3));
       assertThat(finalState.resourceTicketId, is(resourceTicketId));
       assertThat(finalState.createProjectTaskId, is("CREATE_PROJECT_TASK_ID"));
-      assertThat(finalState.createProjectPollCount, is(3));
       assertThat(finalState.projectId, is(projectId));
 
       verify(tenantsApi).createAsync(
@@ -585,13 +582,10 @@ public class AllocateTenantResourcesTaskServiceTest {
       TestHelper.assertTaskStateFinished(finalState.taskState);
       assertThat(finalState.taskState.subStage, nullValue());
       assertThat(finalState.createTenantTaskId, nullValue());
-      assertThat(finalState.createTenantPollCount, is(0));
       assertThat(finalState.tenantId, is(tenantId));
       assertThat(finalState.createResourceTicketTaskId, nullValue());
-      assertThat(finalState.createResourceTicketPollCount, is(0));
       assertThat(finalState.resourceTicketId, is(resourceTicketId));
       assertThat(finalState.createProjectTaskId, nullValue());
-      assertThat(finalState.createProjectPollCount, is(0));
       assertThat(finalState.projectId, is(projectId));
 
       verify(tenantsApi).createAsync(
@@ -670,7 +664,6 @@ public class AllocateTenantResourcesTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString(ApiUtils.getErrors(failedTask)));
       assertThat(finalState.createTenantTaskId, is("CREATE_TENANT_TASK_ID"));
-      assertThat(finalState.createTenantPollCount, is(3));
     }
 
     @Test
@@ -692,7 +685,6 @@ public class AllocateTenantResourcesTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString(ApiUtils.getErrors(failedTask)));
       assertThat(finalState.createTenantTaskId, nullValue());
-      assertThat(finalState.createTenantPollCount, is(0));
     }
 
     @Test
@@ -715,7 +707,6 @@ public class AllocateTenantResourcesTaskServiceTest {
       assertThat(finalState.taskState.failure.message,
           containsString("I/O exception during tenants API createAsync call"));
       assertThat(finalState.createTenantTaskId, nullValue());
-      assertThat(finalState.createTenantPollCount, is(0));
     }
 
     @Test
@@ -737,7 +728,6 @@ public class AllocateTenantResourcesTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString("I/O exception during getTaskAsync call"));
       assertThat(finalState.createTenantTaskId, is("CREATE_TENANT_TASK_ID"));
-      assertThat(finalState.createTenantPollCount, is(1));
     }
 
     @Test
@@ -761,10 +751,8 @@ public class AllocateTenantResourcesTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString(ApiUtils.getErrors(failedTask)));
       assertThat(finalState.createTenantTaskId, is("CREATE_TENANT_TASK_ID"));
-      assertThat(finalState.createTenantPollCount, is(3));
       assertThat(finalState.tenantId, is(tenantId));
       assertThat(finalState.createResourceTicketTaskId, is("CREATE_RESOURCE_TICKET_TASK_ID"));
-      assertThat(finalState.createResourceTicketPollCount, is(3));
     }
 
     @Test
@@ -787,10 +775,8 @@ public class AllocateTenantResourcesTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString(ApiUtils.getErrors(failedTask)));
       assertThat(finalState.createTenantTaskId, is("CREATE_TENANT_TASK_ID"));
-      assertThat(finalState.createTenantPollCount, is(3));
       assertThat(finalState.tenantId, is(tenantId));
       assertThat(finalState.createResourceTicketTaskId, nullValue());
-      assertThat(finalState.createResourceTicketPollCount, is(0));
     }
 
     @Test
@@ -814,10 +800,8 @@ public class AllocateTenantResourcesTaskServiceTest {
       assertThat(finalState.taskState.failure.message,
           containsString("I/O exception in createResourceTicketAsync call"));
       assertThat(finalState.createTenantTaskId, is("CREATE_TENANT_TASK_ID"));
-      assertThat(finalState.createTenantPollCount, is(3));
       assertThat(finalState.tenantId, is(tenantId));
       assertThat(finalState.createResourceTicketTaskId, nullValue());
-      assertThat(finalState.createResourceTicketPollCount, is(0));
     }
 
     @Test
@@ -839,10 +823,8 @@ public class AllocateTenantResourcesTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString("I/O exception in getTaskAsync call"));
       assertThat(finalState.createTenantTaskId, is("CREATE_TENANT_TASK_ID"));
-      assertThat(finalState.createTenantPollCount, is(3));
       assertThat(finalState.tenantId, is(tenantId));
       assertThat(finalState.createResourceTicketTaskId, is("CREATE_RESOURCE_TICKET_TASK_ID"));
-      assertThat(finalState.createResourceTicketPollCount, is(1));
     }
 
     @Test
@@ -866,13 +848,10 @@ public class AllocateTenantResourcesTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString(ApiUtils.getErrors(failedTask)));
       assertThat(finalState.createTenantTaskId, is("CREATE_TENANT_TASK_ID"));
-      assertThat(finalState.createTenantPollCount, is(3));
       assertThat(finalState.tenantId, is(tenantId));
       assertThat(finalState.createResourceTicketTaskId, is("CREATE_RESOURCE_TICKET_TASK_ID"));
-      assertThat(finalState.createResourceTicketPollCount, is(3));
       assertThat(finalState.resourceTicketId, is(resourceTicketId));
       assertThat(finalState.createProjectTaskId, is("CREATE_PROJECT_TASK_ID"));
-      assertThat(finalState.createProjectPollCount, is(3));
     }
 
     @Test
@@ -894,13 +873,10 @@ public class AllocateTenantResourcesTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString(ApiUtils.getErrors(failedTask)));
       assertThat(finalState.createTenantTaskId, is("CREATE_TENANT_TASK_ID"));
-      assertThat(finalState.createTenantPollCount, is(3));
       assertThat(finalState.tenantId, is(tenantId));
       assertThat(finalState.createResourceTicketTaskId, is("CREATE_RESOURCE_TICKET_TASK_ID"));
-      assertThat(finalState.createResourceTicketPollCount, is(3));
       assertThat(finalState.resourceTicketId, is(resourceTicketId));
       assertThat(finalState.createProjectTaskId, nullValue());
-      assertThat(finalState.createProjectPollCount, is(0));
     }
 
     @Test
@@ -922,13 +898,10 @@ public class AllocateTenantResourcesTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString("I/O exception in createProjectAsync call"));
       assertThat(finalState.createTenantTaskId, is("CREATE_TENANT_TASK_ID"));
-      assertThat(finalState.createTenantPollCount, is(3));
       assertThat(finalState.tenantId, is(tenantId));
       assertThat(finalState.createResourceTicketTaskId, is("CREATE_RESOURCE_TICKET_TASK_ID"));
-      assertThat(finalState.createResourceTicketPollCount, is(3));
       assertThat(finalState.resourceTicketId, is(resourceTicketId));
       assertThat(finalState.createProjectTaskId, nullValue());
-      assertThat(finalState.createProjectPollCount, is(0));
     }
 
     @Test
@@ -950,13 +923,10 @@ public class AllocateTenantResourcesTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString("I/O exception in getTaskAsync call"));
       assertThat(finalState.createTenantTaskId, is("CREATE_TENANT_TASK_ID"));
-      assertThat(finalState.createTenantPollCount, is(3));
       assertThat(finalState.tenantId, is(tenantId));
       assertThat(finalState.createResourceTicketTaskId, is("CREATE_RESOURCE_TICKET_TASK_ID"));
-      assertThat(finalState.createResourceTicketPollCount, is(3));
       assertThat(finalState.resourceTicketId, is(resourceTicketId));
       assertThat(finalState.createProjectTaskId, is("CREATE_PROJECT_TASK_ID"));
-      assertThat(finalState.createProjectPollCount, is(1));
     }
   }
 
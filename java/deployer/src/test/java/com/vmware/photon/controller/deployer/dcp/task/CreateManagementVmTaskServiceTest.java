@@ -269,10 +269,8 @@ public class CreateManagementVmTaskServiceTest {
     public Object[][] getOptionalFieldNames() {
       return new Object[][]{
           {"createVmTaskId"},
-          {"createVmPollCount"},
           {"vmId"},
           {"updateVmMetadataTaskId"},
-          {"updateVmMetadataPollCount"},
       };
     }
 
@@ -654,23 +652,16 @@ public class CreateManagementVmTaskServiceTest {
       TestHelper.assertTaskStateFinished(finalState.taskState);
       assertThat(finalState.taskState.subStage, nullValue());
       assertThat(finalState.createVmFlavorTaskId, is("CREATE_VM_FLAVOR_TASK_ID"));
-      assertThat(finalState.createVmFlavorPollCount, is(3));
       assertThat(finalState.vmFlavorId, is("VM_FLAVOR_ID"));
       assertThat(finalState.createDiskFlavorTaskId, is("CREATE_DISK_FLAVOR_TASK_ID"));
-      assertThat(finalState.createDiskFlavorPollCount, is(3));
       assertThat(finalState.diskFlavorId, is("DISK_FLAVOR_ID"));
       assertThat(finalState.createVmTaskId, is("CREATE_VM_TASK_ID"));
-      assertThat(finalState.createVmPollCount, is(3));
       assertThat(finalState.vmId, is(vmId));
       assertThat(finalState.updateVmMetadataTaskId, is("SET_METADATA_TASK_ID"));
-      assertThat(finalState.updateVmMetadataPollCount, is(3));
       assertThat(finalState.serviceConfigDirectory, notNullValue());
       assertThat(finalState.vmConfigDirectory, notNullValue());
       assertThat(finalState.attachIsoTaskId, is("UPLOAD_AND_ATTACH_ISO_TASK_ID"));
-      assertThat(finalState.attachIsoPollCount, is(3));
       assertThat(finalState.startVmTaskId, is("START_VM_TASK_ID"));
-      assertThat(finalState.startVmPollCount, is(3));
-      assertThat(finalState.dockerPollIterations, is(3));
 
       verify(flavorApi).createAsync(
           eq(getExpectedVmFlavorCreateSpec(expectedCpuCount, expectedMemoryMb)),
@@ -781,21 +772,15 @@ public class CreateManagementVmTaskServiceTest {
       TestHelper.assertTaskStateFinished(finalState.taskState);
       assertThat(finalState.taskState.subStage, nullValue());
       assertThat(finalState.createVmFlavorTaskId, nullValue());
-      assertThat(finalState.createVmFlavorPollCount, is(0));
       assertThat(finalState.vmFlavorId, is("VM_FLAVOR_ID"));
       assertThat(finalState.createDiskFlavorTaskId, nullValue());
-      assertThat(finalState.createDiskFlavorPollCount, is(0));
       assertThat(finalState.diskFlavorId, is("DISK_FLAVOR_ID"));
       assertThat(finalState.createVmTaskId, nullValue());
-      assertThat(finalState.createVmPollCount, is(0));
       assertThat(finalState.vmId, is(vmId));
       assertThat(finalState.updateVmMetadataTaskId, nullValue());
-      assertThat(finalState.updateVmMetadataPollCount, is(0));
       assertThat(finalState.serviceConfigDirectory, notNullValue());
       assertThat(finalState.vmConfigDirectory, notNullValue());
       assertThat(finalState.startVmTaskId, nullValue());
-      assertThat(finalState.startVmPollCount, is(0));
-      assertThat(finalState.dockerPollIterations, is(1));
 
       verify(flavorApi).createAsync(
           eq(getExpectedVmFlavorCreateSpec(1, 1636L)),
@@ -984,7 +969,6 @@ public class CreateManagementVmTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString(ApiUtils.getErrors(failedTask)));
       assertThat(finalState.createVmFlavorTaskId, is("CREATE_VM_FLAVOR_TASK_ID"));
-      assertThat(finalState.createVmFlavorPollCount, is(3));
       assertThat(finalState.vmFlavorId, nullValue());
     }
 
@@ -1007,7 +991,6 @@ public class CreateManagementVmTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString(ApiUtils.getErrors(failedTask)));
       assertThat(finalState.createVmFlavorTaskId, nullValue());
-      assertThat(finalState.createVmFlavorPollCount, is(0));
       assertThat(finalState.vmFlavorId, nullValue());
     }
 
@@ -1031,7 +1014,6 @@ public class CreateManagementVmTaskServiceTest {
       assertThat(finalState.taskState.failure.message,
           containsString("I/O exception during flavor API createAsync call"));
       assertThat(finalState.createVmFlavorTaskId, nullValue());
-      assertThat(finalState.createVmFlavorPollCount, is(0));
       assertThat(finalState.vmFlavorId, nullValue());
     }
 
@@ -1054,7 +1036,6 @@ public class CreateManagementVmTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString("I/O exception during getTaskAsync call"));
       assertThat(finalState.createVmFlavorTaskId, is("CREATE_VM_FLAVOR_TASK_ID"));
-      assertThat(finalState.createVmFlavorPollCount, is(1));
       assertThat(finalState.vmFlavorId, nullValue());
     }
 
@@ -1079,10 +1060,8 @@ public class CreateManagementVmTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString(ApiUtils.getErrors(failedTask)));
       assertThat(finalState.createVmFlavorTaskId, is("CREATE_VM_FLAVOR_TASK_ID"));
-      assertThat(finalState.createVmFlavorPollCount, is(3));
       assertThat(finalState.vmFlavorId, is("VM_FLAVOR_ID"));
       assertThat(finalState.createDiskFlavorTaskId, is("CREATE_DISK_FLAVOR_TASK_ID"));
-      assertThat(finalState.createDiskFlavorPollCount, is(3));
       assertThat(finalState.diskFlavorId, nullValue());
     }
 
@@ -1105,10 +1084,8 @@ public class CreateManagementVmTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString(ApiUtils.getErrors(failedTask)));
       assertThat(finalState.createVmFlavorTaskId, is("CREATE_VM_FLAVOR_TASK_ID"));
-      assertThat(finalState.createVmFlavorPollCount, is(3));
       assertThat(finalState.vmFlavorId, is("VM_FLAVOR_ID"));
       assertThat(finalState.createDiskFlavorTaskId, nullValue());
-      assertThat(finalState.createDiskFlavorPollCount, is(0));
       assertThat(finalState.diskFlavorId, nullValue());
     }
 
@@ -1132,10 +1109,8 @@ public class CreateManagementVmTaskServiceTest {
       assertThat(finalState.taskState.failure.message,
           containsString("I/O exception during flavor API createAsync call"));
       assertThat(finalState.createVmFlavorTaskId, is("CREATE_VM_FLAVOR_TASK_ID"));
-      assertThat(finalState.createVmFlavorPollCount, is(3));
       assertThat(finalState.vmFlavorId, is("VM_FLAVOR_ID"));
       assertThat(finalState.createDiskFlavorTaskId, nullValue());
-      assertThat(finalState.createDiskFlavorPollCount, is(0));
       assertThat(finalState.diskFlavorId, nullValue());
     }
 
@@ -1158,10 +1133,8 @@ public class CreateManagementVmTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString("I/O exception during getTaskAsync call"));
       assertThat(finalState.createVmFlavorTaskId, is("CREATE_VM_FLAVOR_TASK_ID"));
-      assertThat(finalState.createVmFlavorPollCount, is(3));
       assertThat(finalState.vmFlavorId, is("VM_FLAVOR_ID"));
       assertThat(finalState.createDiskFlavorTaskId, is("CREATE_DISK_FLAVOR_TASK_ID"));
-      assertThat(finalState.createDiskFlavorPollCount, is(1));
       assertThat(finalState.diskFlavorId, nullValue());
     }
 
@@ -1186,13 +1159,10 @@ public class CreateManagementVmTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString(ApiUtils.getErrors(failedTask)));
       assertThat(finalState.createVmFlavorTaskId, is("CREATE_VM_FLAVOR_TASK_ID"));
-      assertThat(finalState.createVmFlavorPollCount, is(3));
       assertThat(finalState.vmFlavorId, is("VM_FLAVOR_ID"));
       assertThat(finalState.createDiskFlavorTaskId, is("CREATE_DISK_FLAVOR_TASK_ID"));
-      assertThat(finalState.createDiskFlavorPollCount, is(3));
       assertThat(finalState.diskFlavorId, is("DISK_FLAVOR_ID"));
       assertThat(finalState.createVmTaskId, is("CREATE_VM_TASK_ID"));
-      assertThat(finalState.createVmPollCount, is(3));
     }
 
     @Test
@@ -1214,13 +1184,10 @@ public class CreateManagementVmTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString(ApiUtils.getErrors(failedTask)));
       assertThat(finalState.createVmFlavorTaskId, is("CREATE_VM_FLAVOR_TASK_ID"));
-      assertThat(finalState.createVmFlavorPollCount, is(3));
       assertThat(finalState.vmFlavorId, is("VM_FLAVOR_ID"));
       assertThat(finalState.createDiskFlavorTaskId, is("CREATE_DISK_FLAVOR_TASK_ID"));
-      assertThat(finalState.createDiskFlavorPollCount, is(3));
       assertThat(finalState.diskFlavorId, is("DISK_FLAVOR_ID"));
       assertThat(finalState.createVmTaskId, nullValue());
-      assertThat(finalState.createVmPollCount, is(0));
     }
 
     @Test
@@ -1242,13 +1209,10 @@ public class CreateManagementVmTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString("I/O exception during createVmAsync call"));
       assertThat(finalState.createVmFlavorTaskId, is("CREATE_VM_FLAVOR_TASK_ID"));
-      assertThat(finalState.createVmFlavorPollCount, is(3));
       assertThat(finalState.vmFlavorId, is("VM_FLAVOR_ID"));
       assertThat(finalState.createDiskFlavorTaskId, is("CREATE_DISK_FLAVOR_TASK_ID"));
-      assertThat(finalState.createDiskFlavorPollCount, is(3));
       assertThat(finalState.diskFlavorId, is("DISK_FLAVOR_ID"));
       assertThat(finalState.createVmTaskId, nullValue());
-      assertThat(finalState.createVmPollCount, is(0));
     }
 
     @Test
@@ -1270,13 +1234,10 @@ public class CreateManagementVmTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString("I/O exception during getTaskAsync call"));
       assertThat(finalState.createVmFlavorTaskId, is("CREATE_VM_FLAVOR_TASK_ID"));
-      assertThat(finalState.createVmFlavorPollCount, is(3));
       assertThat(finalState.vmFlavorId, is("VM_FLAVOR_ID"));
       assertThat(finalState.createDiskFlavorTaskId, is("CREATE_DISK_FLAVOR_TASK_ID"));
-      assertThat(finalState.createDiskFlavorPollCount, is(3));
       assertThat(finalState.diskFlavorId, is("DISK_FLAVOR_ID"));
       assertThat(finalState.createVmTaskId, is("CREATE_VM_TASK_ID"));
-      assertThat(finalState.createVmPollCount, is(1));
     }
 
     @Test
@@ -1300,16 +1261,12 @@ public class CreateManagementVmTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString(ApiUtils.getErrors(failedTask)));
       assertThat(finalState.createVmFlavorTaskId, is("CREATE_VM_FLAVOR_TASK_ID"));
-      assertThat(finalState.createVmFlavorPollCount, is(3));
       assertThat(finalState.vmFlavorId, is("VM_FLAVOR_ID"));
       assertThat(finalState.createDiskFlavorTaskId, is("CREATE_DISK_FLAVOR_TASK_ID"));
-      assertThat(finalState.createDiskFlavorPollCount, is(3));
       assertThat(finalState.diskFlavorId, is("DISK_FLAVOR_ID"));
       assertThat(finalState.createVmTaskId, is("CREATE_VM_TASK_ID"));
-      assertThat(finalState.createVmPollCount, is(3));
       assertThat(finalState.vmId, is(vmId));
       assertThat(finalState.updateVmMetadataTaskId, is("SET_METADATA_TASK_ID"));
-      assertThat(finalState.updateVmMetadataPollCount, is(3));
     }
 
     @Test
@@ -1331,16 +1288,12 @@ public class CreateManagementVmTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString(ApiUtils.getErrors(failedTask)));
       assertThat(finalState.createVmFlavorTaskId, is("CREATE_VM_FLAVOR_TASK_ID"));
-      assertThat(finalState.createVmFlavorPollCount, is(3));
       assertThat(finalState.vmFlavorId, is("VM_FLAVOR_ID"));
       assertThat(finalState.createDiskFlavorTaskId, is("CREATE_DISK_FLAVOR_TASK_ID"));
-      assertThat(finalState.createDiskFlavorPollCount, is(3));
       assertThat(finalState.diskFlavorId, is("DISK_FLAVOR_ID"));
       assertThat(finalState.createVmTaskId, is("CREATE_VM_TASK_ID"));
-      assertThat(finalState.createVmPollCount, is(3));
       assertThat(finalState.vmId, is(vmId));
       assertThat(finalState.updateVmMetadataTaskId, nullValue());
-      assertThat(finalState.updateVmMetadataPollCount, is(0));
     }
 
     @Test
@@ -1362,16 +1315,12 @@ public class CreateManagementVmTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString("I/O exception during setMetadataAsync call"));
       assertThat(finalState.createVmFlavorTaskId, is("CREATE_VM_FLAVOR_TASK_ID"));
-      assertThat(finalState.createVmFlavorPollCount, is(3));
       assertThat(finalState.vmFlavorId, is("VM_FLAVOR_ID"));
       assertThat(finalState.createDiskFlavorTaskId, is("CREATE_DISK_FLAVOR_TASK_ID"));
-      assertThat(finalState.createDiskFlavorPollCount, is(3));
       assertThat(finalState.diskFlavorId, is("DISK_FLAVOR_ID"));
       assertThat(finalState.createVmTaskId, is("CREATE_VM_TASK_ID"));
-      assertThat(finalState.createVmPollCount, is(3));
       assertThat(finalState.vmId, is(vmId));
       assertThat(finalState.updateVmMetadataTaskId, nullValue());
-      assertThat(finalState.updateVmMetadataPollCount, is(0));
     }
 
     @Test
@@ -1393,16 +1342,12 @@ public class CreateManagementVmTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString("I/O exception during getTaskAsync call"));
       assertThat(finalState.createVmFlavorTaskId, is("CREATE_VM_FLAVOR_TASK_ID"));
-      assertThat(finalState.createVmFlavorPollCount, is(3));
       assertThat(finalState.vmFlavorId, is("VM_FLAVOR_ID"));
       assertThat(finalState.createDiskFlavorTaskId, is("CREATE_DISK_FLAVOR_TASK_ID"));
-      assertThat(finalState.createDiskFlavorPollCount, is(3));
       assertThat(finalState.diskFlavorId, is("DISK_FLAVOR_ID"));
       assertThat(finalState.createVmTaskId, is("CREATE_VM_TASK_ID"));
-      assertThat(finalState.createVmPollCount, is(3));
       assertThat(finalState.vmId, is(vmId));
       assertThat(finalState.updateVmMetadataTaskId, is("SET_METADATA_TASK_ID"));
-      assertThat(finalState.updateVmMetadataPollCount, is(1));
     }
 
     @Test
@@ -1428,16 +1373,12 @@ public class CreateManagementVmTaskServiceTest {
       assertThat(finalState.taskState.failure.message,
           containsString("Runtime exception during config directory copy"));
       assertThat(finalState.createVmFlavorTaskId, is("CREATE_VM_FLAVOR_TASK_ID"));
-      assertThat(finalState.createVmFlavorPollCount, is(3));
       assertThat(finalState.vmFlavorId, is("VM_FLAVOR_ID"));
       assertThat(finalState.createDiskFlavorTaskId, is("CREATE_DISK_FLAVOR_TASK_ID"));
-      assertThat(finalState.createDiskFlavorPollCount, is(3));
       assertThat(finalState.diskFlavorId, is("DISK_FLAVOR_ID"));
       assertThat(finalState.createVmTaskId, is("CREATE_VM_TASK_ID"));
-      assertThat(finalState.createVmPollCount, is(3));
       assertThat(finalState.vmId, is(vmId));
       assertThat(finalState.updateVmMetadataTaskId, is("SET_METADATA_TASK_ID"));
-      assertThat(finalState.updateVmMetadataPollCount, is(3));
     }
 
     @Test
@@ -1458,16 +1399,12 @@ public class CreateManagementVmTaskServiceTest {
       assertThat(finalState.taskState.failure.message, containsString("Creating the configuration ISO for VM " +
           vmId + " failed with exit code 1"));
       assertThat(finalState.createVmFlavorTaskId, is("CREATE_VM_FLAVOR_TASK_ID"));
-      assertThat(finalState.createVmFlavorPollCount, is(3));
       assertThat(finalState.vmFlavorId, is("VM_FLAVOR_ID"));
       assertThat(finalState.createDiskFlavorTaskId, is("CREATE_DISK_FLAVOR_TASK_ID"));
-      assertThat(finalState.createDiskFlavorPollCount, is(3));
       assertThat(finalState.diskFlavorId, is("DISK_FLAVOR_ID"));
       assertThat(finalState.createVmTaskId, is("CREATE_VM_TASK_ID"));
-      assertThat(finalState.createVmPollCount, is(3));
       assertThat(finalState.vmId, is(vmId));
       assertThat(finalState.updateVmMetadataTaskId, is("SET_METADATA_TASK_ID"));
-      assertThat(finalState.updateVmMetadataPollCount, is(3));
       assertThat(finalState.serviceConfigDirectory, notNullValue());
     }
 
@@ -1492,20 +1429,15 @@ public class CreateManagementVmTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString(ApiUtils.getErrors(failedTask)));
       assertThat(finalState.createVmFlavorTaskId, is("CREATE_VM_FLAVOR_TASK_ID"));
-      assertThat(finalState.createVmFlavorPollCount, is(3));
       assertThat(finalState.vmFlavorId, is("VM_FLAVOR_ID"));
       assertThat(finalState.createDiskFlavorTaskId, is("CREATE_DISK_FLAVOR_TASK_ID"));
-      assertThat(finalState.createDiskFlavorPollCount, is(3));
       assertThat(finalState.diskFlavorId, is("DISK_FLAVOR_ID"));
       assertThat(finalState.createVmTaskId, is("CREATE_VM_TASK_ID"));
-      assertThat(finalState.createVmPollCount, is(3));
       assertThat(finalState.vmId, is(vmId));
       assertThat(finalState.updateVmMetadataTaskId, is("SET_METADATA_TASK_ID"));
-      assertThat(finalState.updateVmMetadataPollCount, is(3));
       assertThat(finalState.serviceConfigDirectory, notNullValue());
       assertThat(finalState.vmConfigDirectory, notNullValue());
       assertThat(finalState.attachIsoTaskId, is("UPLOAD_AND_ATTACH_ISO_TASK_ID"));
-      assertThat(finalState.attachIsoPollCount, is(3));
     }
 
     @Test
@@ -1527,16 +1459,12 @@ public class CreateManagementVmTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString(ApiUtils.getErrors(failedTask)));
       assertThat(finalState.createVmFlavorTaskId, is("CREATE_VM_FLAVOR_TASK_ID"));
-      assertThat(finalState.createVmFlavorPollCount, is(3));
       assertThat(finalState.vmFlavorId, is("VM_FLAVOR_ID"));
       assertThat(finalState.createDiskFlavorTaskId, is("CREATE_DISK_FLAVOR_TASK_ID"));
-      assertThat(finalState.createDiskFlavorPollCount, is(3));
       assertThat(finalState.diskFlavorId, is("DISK_FLAVOR_ID"));
       assertThat(finalState.createVmTaskId, is("CREATE_VM_TASK_ID"));
-      assertThat(finalState.createVmPollCount, is(3));
       assertThat(finalState.vmId, is(vmId));
       assertThat(finalState.updateVmMetadataTaskId, is("SET_METADATA_TASK_ID"));
-      assertThat(finalState.updateVmMetadataPollCount, is(3));
       assertThat(finalState.serviceConfigDirectory, notNullValue());
       assertThat(finalState.vmConfigDirectory, notNullValue());
     }
@@ -1562,20 +1490,15 @@ public class CreateManagementVmTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString(ApiUtils.getErrors(failedTask)));
       assertThat(finalState.createVmFlavorTaskId, is("CREATE_VM_FLAVOR_TASK_ID"));
-      assertThat(finalState.createVmFlavorPollCount, is(3));
       assertThat(finalState.vmFlavorId, is("VM_FLAVOR_ID"));
       assertThat(finalState.createDiskFlavorTaskId, is("CREATE_DISK_FLAVOR_TASK_ID"));
-      assertThat(finalState.createDiskFlavorPollCount, is(3));
       assertThat(finalState.diskFlavorId, is("DISK_FLAVOR_ID"));
       assertThat(finalState.createVmTaskId, is("CREATE_VM_TASK_ID"));
-      assertThat(finalState.createVmPollCount, is(3));
       assertThat(finalState.vmId, is(vmId));
       assertThat(finalState.updateVmMetadataTaskId, is("SET_METADATA_TASK_ID"));
-      assertThat(finalState.updateVmMetadataPollCount, is(3));
       assertThat(finalState.serviceConfigDirectory, notNullValue());
       assertThat(finalState.vmConfigDirectory, notNullValue());
       assertThat(finalState.startVmTaskId, is("START_VM_TASK_ID"));
-      assertThat(finalState.startVmPollCount, is(3));
     }
 
     @Test
@@ -1597,20 +1520,15 @@ public class CreateManagementVmTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString(ApiUtils.getErrors(failedTask)));
       assertThat(finalState.createVmFlavorTaskId, is("CREATE_VM_FLAVOR_TASK_ID"));
-      assertThat(finalState.createVmFlavorPollCount, is(3));
       assertThat(finalState.vmFlavorId, is("VM_FLAVOR_ID"));
       assertThat(finalState.createDiskFlavorTaskId, is("CREATE_DISK_FLAVOR_TASK_ID"));
-      assertThat(finalState.createDiskFlavorPollCount, is(3));
       assertThat(finalState.diskFlavorId, is("DISK_FLAVOR_ID"));
       assertThat(finalState.createVmTaskId, is("CREATE_VM_TASK_ID"));
-      assertThat(finalState.createVmPollCount, is(3));
       assertThat(finalState.vmId, is(vmId));
       assertThat(finalState.updateVmMetadataTaskId, is("SET_METADATA_TASK_ID"));
-      assertThat(finalState.updateVmMetadataPollCount, is(3));
       assertThat(finalState.serviceConfigDirectory, notNullValue());
       assertThat(finalState.vmConfigDirectory, notNullValue());
       assertThat(finalState.startVmTaskId, nullValue());
-      assertThat(finalState.startVmPollCount, is(0));
     }
 
     @Test
@@ -1633,20 +1551,15 @@ public class CreateManagementVmTaskServiceTest {
       assertThat(finalState.taskState.failure.message,
           containsString("I/O exception during performStartOperationAsync call"));
       assertThat(finalState.createVmFlavorTaskId, is("CREATE_VM_FLAVOR_TASK_ID"));
-      assertThat(finalState.createVmFlavorPollCount, is(3));
       assertThat(finalState.vmFlavorId, is("VM_FLAVOR_ID"));
       assertThat(finalState.createDiskFlavorTaskId, is("CREATE_DISK_FLAVOR_TASK_ID"));
-      assertThat(finalState.createDiskFlavorPollCount, is(3));
       assertThat(finalState.diskFlavorId, is("DISK_FLAVOR_ID"));
       assertThat(finalState.createVmTaskId, is("CREATE_VM_TASK_ID"));
-      assertThat(finalState.createVmPollCount, is(3));
       assertThat(finalState.vmId, is(vmId));
       assertThat(finalState.updateVmMetadataTaskId, is("SET_METADATA_TASK_ID"));
-      assertThat(finalState.updateVmMetadataPollCount, is(3));
       assertThat(finalState.serviceConfigDirectory, notNullValue());
       assertThat(finalState.vmConfigDirectory, notNullValue());
       assertThat(finalState.startVmTaskId, nullValue());
-      assertThat(finalState.startVmPollCount, is(0));
     }
 
     @Test
@@ -1668,20 +1581,15 @@ public class CreateManagementVmTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString("I/O exception during getTaskAsync call"));
       assertThat(finalState.createVmFlavorTaskId, is("CREATE_VM_FLAVOR_TASK_ID"));
-      assertThat(finalState.createVmFlavorPollCount, is(3));
       assertThat(finalState.vmFlavorId, is("VM_FLAVOR_ID"));
       assertThat(finalState.createDiskFlavorTaskId, is("CREATE_DISK_FLAVOR_TASK_ID"));
-      assertThat(finalState.createDiskFlavorPollCount, is(3));
       assertThat(finalState.diskFlavorId, is("DISK_FLAVOR_ID"));
       assertThat(finalState.createVmTaskId, is("CREATE_VM_TASK_ID"));
-      assertThat(finalState.createVmPollCount, is(3));
       assertThat(finalState.vmId, is(vmId));
       assertThat(finalState.updateVmMetadataTaskId, is("SET_METADATA_TASK_ID"));
-      assertThat(finalState.updateVmMetadataPollCount, is(3));
       assertThat(finalState.serviceConfigDirectory, notNullValue());
       assertThat(finalState.vmConfigDirectory, notNullValue());
       assertThat(finalState.startVmTaskId, is("START_VM_TASK_ID"));
-      assertThat(finalState.startVmPollCount, is(1));
     }
 
     @Test
@@ -1704,21 +1612,15 @@ public class CreateManagementVmTaskServiceTest {
       assertThat(finalState.taskState.failure.message,
           containsString("The docker endpoint on VM ipAddress failed to become ready after 3 polling iterations"));
       assertThat(finalState.createVmFlavorTaskId, is("CREATE_VM_FLAVOR_TASK_ID"));
-      assertThat(finalState.createVmFlavorPollCount, is(3));
       assertThat(finalState.vmFlavorId, is("VM_FLAVOR_ID"));
       assertThat(finalState.createDiskFlavorTaskId, is("CREATE_DISK_FLAVOR_TASK_ID"));
-      assertThat(finalState.createDiskFlavorPollCount, is(3));
       assertThat(finalState.diskFlavorId, is("DISK_FLAVOR_ID"));
       assertThat(finalState.createVmTaskId, is("CREATE_VM_TASK_ID"));
-      assertThat(finalState.createVmPollCount, is(3));
       assertThat(finalState.vmId, is(vmId));
       assertThat(finalState.updateVmMetadataTaskId, is("SET_METADATA_TASK_ID"));
-      assertThat(finalState.updateVmMetadataPollCount, is(3));
       assertThat(finalState.serviceConfigDirectory, notNullValue());
       assertThat(finalState.vmConfigDirectory, notNullValue());
       assertThat(finalState.startVmTaskId, is("START_VM_TASK_ID"));
-      assertThat(finalState.startVmPollCount, is(3));
-      assertThat(finalState.dockerPollIterations, is(3));
     }
   }
 
@@ -450,10 +450,8 @@ public class UploadImageTaskServiceTest {
       assertThat(finalState.taskState.subStage, nullValue());
       assertThat(finalState.bytesUploaded, is(10485760L));
       assertThat(finalState.uploadImageTaskId, is("UPLOAD_IMAGE_TASK_ID"));
-      assertThat(finalState.uploadImagePollCount, is(3));
       assertThat(finalState.imageId, is(imageId));
       assertThat(finalState.imageSeedingProgress, is("100.0%"));
-      assertThat(finalState.imageSeedingPollCount, is(3));
 
       verify(imagesApi).uploadImage(
           any(FileBody.class),
@@ -511,10 +509,8 @@ public class UploadImageTaskServiceTest {
       assertThat(finalState.taskState.subStage, nullValue());
       assertThat(finalState.bytesUploaded, is(10485760L));
       assertThat(finalState.uploadImageTaskId, nullValue());
-      assertThat(finalState.uploadImagePollCount, is(0));
       assertThat(finalState.imageId, is(imageId));
       assertThat(finalState.imageSeedingProgress, is("100.0%"));
-      assertThat(finalState.imageSeedingPollCount, is(3));
 
       verify(imagesApi).uploadImage(
           any(FileBody.class),
@@ -562,10 +558,8 @@ public class UploadImageTaskServiceTest {
       assertThat(finalState.taskState.subStage, nullValue());
       assertThat(finalState.bytesUploaded, is(10485760L));
       assertThat(finalState.uploadImageTaskId, is("UPLOAD_IMAGE_TASK_ID"));
-      assertThat(finalState.uploadImagePollCount, is(3));
       assertThat(finalState.imageId, is(imageId));
       assertThat(finalState.imageSeedingProgress, is("100.0%"));
-      assertThat(finalState.imageSeedingPollCount, is(1));
 
       verify(imagesApi).uploadImage(
           any(FileBody.class),
@@ -601,7 +595,6 @@ public class UploadImageTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString(ApiUtils.getErrors(failedTask)));
       assertThat(finalState.uploadImageTaskId, is("UPLOAD_IMAGE_TASK_ID"));
-      assertThat(finalState.uploadImagePollCount, is(3));
       assertThat(finalState.imageId, nullValue());
 
       verify(imagesApi).uploadImage(
@@ -630,7 +623,6 @@ public class UploadImageTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString(ApiUtils.getErrors(failedTask)));
       assertThat(finalState.uploadImageTaskId, nullValue());
-      assertThat(finalState.uploadImagePollCount, is(0));
     }
 
     @Test
@@ -652,7 +644,6 @@ public class UploadImageTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString("I/O exception in uploadImage call"));
       assertThat(finalState.uploadImageTaskId, nullValue());
-      assertThat(finalState.uploadImagePollCount, is(0));
     }
 
     @Test
@@ -674,7 +665,6 @@ public class UploadImageTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString("I/O exception in getTaskAsync call"));
       assertThat(finalState.uploadImageTaskId, is("UPLOAD_IMAGE_TASK_ID"));
-      assertThat(finalState.uploadImagePollCount, is(1));
     }
 
     @Test
@@ -696,9 +686,7 @@ public class UploadImageTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString("Image " + imageId + " reached ERROR state"));
       assertThat(finalState.uploadImageTaskId, is("UPLOAD_IMAGE_TASK_ID"));
-      assertThat(finalState.uploadImagePollCount, is(3));
       assertThat(finalState.imageId, is(imageId));
-      assertThat(finalState.imageSeedingPollCount, is(1));
     }
 
     @Test
@@ -721,9 +709,7 @@ public class UploadImageTaskServiceTest {
       assertThat(finalState.taskState.failure.message, containsString("Image " + imageId +
           " reached unexpected state PENDING_DELETE"));
       assertThat(finalState.uploadImageTaskId, is("UPLOAD_IMAGE_TASK_ID"));
-      assertThat(finalState.uploadImagePollCount, is(3));
       assertThat(finalState.imageId, is(imageId));
-      assertThat(finalState.imageSeedingPollCount, is(1));
       assertThat(finalState.imageSeedingProgress, nullValue());
     }
 
@@ -746,9 +732,7 @@ public class UploadImageTaskServiceTest {
       assertThat(finalState.taskState.failure.statusCode, is(400));
       assertThat(finalState.taskState.failure.message, containsString("I/O exception in getImageAsync call"));
       assertThat(finalState.uploadImageTaskId, is("UPLOAD_IMAGE_TASK_ID"));
-      assertThat(finalState.uploadImagePollCount, is(3));
       assertThat(finalState.imageId, is(imageId));
-      assertThat(finalState.imageSeedingPollCount, is(1));
       assertThat(finalState.imageSeedingProgress, nullValue());
     }
   }
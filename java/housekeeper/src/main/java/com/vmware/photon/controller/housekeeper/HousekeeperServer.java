@@ -27,10 +27,9 @@ import com.google.inject.Inject;
 import org.apache.thrift.TMultiplexedProcessor;
 import org.apache.thrift.protocol.TProtocolFactory;
 import org.apache.thrift.server.TServer;
-import org.apache.thrift.server.TThreadPoolServer;
-import org.apache.thrift.transport.TServerSocket;
+import org.apache.thrift.server.TThreadedSelectorServer;
+import org.apache.thrift.transport.TNonblockingServerSocket;
 import org.apache.thrift.transport.TTransportException;
-import org.apache.thrift.transport.TTransportFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,7 +44,6 @@ public class HousekeeperServer {
   public static final String SERVICE_NAME = "Housekeeper";
   private static final Logger logger = LoggerFactory.getLogger(HousekeeperServer.class);
   private final ServiceNodeFactory serviceNodeFactory;
-  private final TTransportFactory transportFactory;
   private final TProtocolFactory protocolFactory;
   private final ThriftFactory thriftFactory;
   private final HousekeeperService housekeeperService;
@@ -59,13 +57,11 @@ public class HousekeeperServer {
   @Inject
   public HousekeeperServer(ServiceNodeFactory serviceNodeFactory,
                            TProtocolFactory protocolFactory,
-                           TTransportFactory transportFactory,
                            ThriftFactory thriftFactory,
                            HousekeeperService housekeeperService,
                            BuildInfo buildInfo,
                            ThriftConfig thriftConfig) {
     this.serviceNodeFactory = serviceNodeFactory;
-    this.transportFactory = transportFactory;
     this.protocolFactory = protocolFactory;
     this.thriftFactory = thriftFactory;
     this.housekeeperService = housekeeperService;
@@ -85,22 +81,22 @@ public class HousekeeperServer {
 
     InetAddress bindIpAddress = InetAddress.getByName(bind);
     InetSocketAddress bindSocketAddress = new InetSocketAddress(bindIpAddress, port);
-    TServerSocket transport = new TServerSocket(bindSocketAddress);
+    TNonblockingServerSocket transport = new TNonblockingServerSocket(bindSocketAddress);
 
     Housekeeper.Processor<HousekeeperService> housekeeperProcessor = new Housekeeper.Processor<>(housekeeperService);
     TMultiplexedProcessor processor = new TMultiplexedProcessor();
     processor.registerProcessor(SERVICE_NAME, housekeeperProcessor);
 
-    server = new TThreadPoolServer(
-        new TThreadPoolServer.Args(transport)
+    // The non-blocking server reads and writes the frames itself, so no transport factory is set
+    server = new TThreadedSelectorServer(
+        new TThreadedSelectorServer.Args(transport)
             .processor(processor)
             .protocolFactory(protocolFactory)
-            .transportFactory(transportFactory)
     );
 
     // Need to re-fetch local port in case it was 0
     InetSocketAddress registrationSocketAddress = new InetSocketAddress(registrationIpAddress,
-        transport.getServerSocket().getLocalPort());
+        transport.getPort());
     serviceNode = serviceNodeFactory.createSimple("housekeeper", registrationSocketAddress);
 
     server.setServerEventHandler(getThriftEventHandler());
@@ -181,6 +181,11 @@ public class ImageSeederSyncTriggerService extends StatefulService {
               List<ImageService.State> documentLinks = QueryTaskUtils
                   .getBroadcastQueryDocuments(ImageService.State.class, queryResponse);
               for (ImageService.State image : documentLinks) {
+                if (image.aliasOf != null) {
+                  // An alias has no files of its own, the image it aliases is seeded instead.
+                  continue;
+                }
+
                 triggerImageSeederServices(currentState,
                     ServiceUtils.getIDFromDocumentSelfLink(image.documentSelfLink));
               }
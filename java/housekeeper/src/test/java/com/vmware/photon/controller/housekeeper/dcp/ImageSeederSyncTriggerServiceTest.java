@@ -37,6 +37,7 @@ import com.vmware.xenon.common.Service;
 import com.vmware.xenon.common.ServiceHost;
 import com.vmware.xenon.common.TaskState;
 import com.vmware.xenon.common.UriUtils;
+import com.vmware.xenon.common.Utils;
 import com.vmware.xenon.services.common.QueryTask;
 
 import org.testng.Assert;
@@ -299,7 +300,53 @@ public class ImageSeederSyncTriggerServiceTest {
       assertThat(queryResponse.results.documentLinks.size(), equalTo(1));
     }
 
+    @Test
+    public void testAliasesAreNotSeeded() throws Throwable {
+      request.shouldTriggerTasks = true;
+      machine = TestEnvironment.create(cloudStoreHelper, hostClientFactory, serviceConfigFactory, nsxClientFactory, 1);
+
+      ServiceHost host = machine.getHosts()[0];
+      StaticServerSet serverSet = new StaticServerSet(
+          new InetSocketAddress(host.getPreferredAddress(), host.getPort()));
+      cloudStoreHelper.setServerSet(serverSet);
+
+      ImageService.State baseImageState = createNewImageEntity(ImageState.READY);
+      String baseImageId = ServiceUtils.getIDFromDocumentSelfLink(baseImageState.documentSelfLink);
+      createImageToImageDatastoreDocument(baseImageId);
+
+      // The mapping of an alias is not expected to exist, it is created here to verify that the alias is skipped
+      // rather than failing to find an image datastore.
+      ImageService.State aliasImageState = createNewImageEntity(ImageState.READY, baseImageId);
+      createImageToImageDatastoreDocument(ServiceUtils.getIDFromDocumentSelfLink(aliasImageState.documentSelfLink));
+
+      machine.sendPatchAndWait(machine.getImageSeederSyncServiceUri(), request);
+
+      QueryTask.QuerySpecification spec =
+          QueryTaskUtils.buildTaskStatusQuerySpec(
+              ImageSeederService.State.class,
+              TaskState.TaskStage.STARTED,
+              TaskState.TaskStage.FINISHED,
+              TaskState.TaskStage.FAILED);
+      spec.options = EnumSet.of(QueryTask.QuerySpecification.QueryOption.EXPAND_CONTENT);
+
+      QueryTask query = QueryTask.create(spec)
+          .setDirect(true);
+      QueryTask queryResponse = machine.waitForQuery(query,
+          (QueryTask queryTask) ->
+              queryTask.results.documentLinks.size() >= 1
+      );
+      assertThat(queryResponse.results.documentLinks.size(), equalTo(1));
+      ImageSeederService.State seederState = Utils.fromJson(
+          queryResponse.results.documents.get(queryResponse.results.documentLinks.get(0)),
+          ImageSeederService.State.class);
+      assertThat(seederState.image, is(baseImageId));
+    }
+
     private ImageService.State createNewImageEntity(ImageState imageState) throws Throwable {
+      return createNewImageEntity(imageState, null);
+    }
+
+    private ImageService.State createNewImageEntity(ImageState imageState, String aliasOf) throws Throwable {
       machine.startFactoryServiceSynchronously(ImageServiceFactory.class, ImageServiceFactory.SELF_LINK);
       ServiceHost host = machine.getHosts()[0];
 
@@ -307,6 +354,7 @@ public class ImageSeederSyncTriggerServiceTest {
       state.name = "image-1";
       state.replicationType = ImageReplicationType.EAGER;
       state.state = imageState;
+      state.aliasOf = aliasOf;
 
       Operation op = cloudStoreHelper
           .createPost(ImageServiceFactory.SELF_LINK)
@@ -27,6 +27,7 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.channels.SocketChannel;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 
@@ -44,12 +45,14 @@ public class Authd {
   // TODO(jandersen): Quick and dirty hack. Needs cleanup.
   public static Socket connect(String host, int port, String sslThumbprint,
                                String service, String session, int timeoutMs) throws IOException {
-    // Open socket to the remote host
-    Socket socket = new Socket();
+    // Open socket to the remote host. The socket is backed by a channel, so that NFC clients can write
+    // direct buffers to it.
+    Socket socket = SocketChannel.open().socket();
     socket.setSoTimeout(timeoutMs);
     socket.setTcpNoDelay(true);
     socket.connect(new InetSocketAddress(host, port));
 
+    SSLClientWrapper wrap = null;
     try {
       DataInput in = new DataInputStream(socket.getInputStream());
       DataOutput out = new DataOutputStream(socket.getOutputStream());
@@ -74,7 +77,7 @@ public class Authd {
           SSLEngine engine = createSslEngine(host, port, sslThumbprint);
           engine.setUseClientMode(true);
           engine.beginHandshake();
-          SSLClientWrapper wrap = new SSLClientWrapper(engine, socket);
+          wrap = new SSLClientWrapper(engine, socket);
           wrap.processHandshake();
           in = new DataInputStream(wrap.getInputStream());
           out = new DataOutputStream(wrap.getOutputStream());
@@ -102,6 +105,10 @@ public class Authd {
         // ignore it
       }
       throw e;
+    } finally {
+      if (wrap != null) {
+        wrap.release();
+      }
     }
 
         /*
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.vmware.transfer.nfc;
+
+import com.vmware.photon.controller.common.metrics.DefaultMetricRegistry;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Pool of direct buffers of a fixed size, shared by the NFC connections so that messages and FILE_DATA payloads
+ * do not allocate new buffers. Buffers handed out are cleared and little-endian. The pool keeps at most
+ * maxPooled released buffers, the others are left to the garbage collector.
+ */
+final class BufferPool {
+
+  // NFC message headers
+  static final BufferPool MESSAGES = new BufferPool("messages", NfcClient.NFC_MESSAGE_SIZE, 256);
+
+  // FILE_DATA payloads
+  static final BufferPool FRAMES = new BufferPool("frames", NfcClient.MAX_XFER_SIZE, 32);
+
+  // SSL engine buffers of the Authd handshake
+  static final BufferPool SSL = new BufferPool("ssl", 64 * 1024, 32);
+
+  private final int bufferSize;
+  private final BlockingQueue<ByteBuffer> pooled;
+  private final Meter allocations;
+  private final Meter reuses;
+
+  BufferPool(String name, int bufferSize, int maxPooled) {
+    this.bufferSize = bufferSize;
+    this.pooled = new ArrayBlockingQueue<>(maxPooled);
+    String prefix = MetricRegistry.name(BufferPool.class, name);
+    this.allocations = DefaultMetricRegistry.REGISTRY.meter(MetricRegistry.name(prefix, "allocations"));
+    this.reuses = DefaultMetricRegistry.REGISTRY.meter(MetricRegistry.name(prefix, "reuses"));
+  }
+
+  int getBufferSize() {
+    return bufferSize;
+  }
+
+  ByteBuffer acquire() {
+    ByteBuffer buffer = pooled.poll();
+    if (buffer == null) {
+      allocations.mark();
+      return ByteBuffer.allocateDirect(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    reuses.mark();
+    buffer.clear();
+    return buffer;
+  }
+
+  /**
+   * Returns a buffer to the pool. The caller must not use the buffer afterwards. Buffers that were not handed
+   * out by a pool of this size are ignored.
+   */
+  void release(ByteBuffer buffer) {
+    if (buffer == null || !buffer.isDirect() || buffer.capacity() != bufferSize) {
+      return;
+    }
+
+    buffer.clear();
+    pooled.offer(buffer);
+  }
+}
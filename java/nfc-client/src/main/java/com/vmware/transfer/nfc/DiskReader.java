@@ -19,6 +19,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -102,7 +103,7 @@ public class DiskReader implements AutoCloseable {
     if (pendingDataSectors > 0) {
       pendingDataSectors--;
       nextSector++;
-      readSector(data, dataOffset);
+      readSectors(data, dataOffset, 1);
       return true;
     }
 
@@ -115,6 +116,50 @@ public class DiskReader implements AutoCloseable {
     return getNextSector(expectedSector, data, dataOffset);
   }
 
+  /**
+   * Read the next sectors from stream. Runs of data sectors are read with a single read, and zero sectors are
+   * zero-filled in the buffer.
+   *
+   * @param expectedSector [in] expected number of the first sector
+   * @param data           [in/out] buffer to hold sector data
+   * @param sectors        [in] number of sectors to read
+   * @return true if any of the sectors has data, false if they are all empty (all 0)
+   */
+  public boolean getNextSectors(long expectedSector, byte[] data, int sectors) throws IOException {
+    assert data.length >= sectors * SparseUtil.DISKLIB_SECTOR_SIZE;
+    if (expectedSector != nextSector) {
+      logger.error("NFC error: Unexpected sector in stream: Expected {}, was {}", expectedSector, nextSector);
+      throw new IOException("NFC error: Unexpected sector in stream");
+    }
+
+    boolean hasData = false;
+    int offset = 0;
+    while (sectors > 0) {
+      if (pendingZeroSectors == 0 && pendingDataSectors == 0) {
+        readRLEHeader();
+      }
+
+      if (pendingZeroSectors > 0) {
+        int count = Math.min(sectors, pendingZeroSectors);
+        Arrays.fill(data, offset, offset + count * SparseUtil.DISKLIB_SECTOR_SIZE, (byte) 0);
+        pendingZeroSectors -= count;
+        nextSector += count;
+        sectors -= count;
+        offset += count * SparseUtil.DISKLIB_SECTOR_SIZE;
+      } else if (pendingDataSectors > 0) {
+        int count = Math.min(sectors, pendingDataSectors);
+        readSectors(data, offset, count);
+        pendingDataSectors -= count;
+        nextSector += count;
+        sectors -= count;
+        offset += count * SparseUtil.DISKLIB_SECTOR_SIZE;
+        hasData = true;
+      }
+    }
+
+    return hasData;
+  }
+
   private void readRLEHeader() throws IOException {
     if (frameBytesRemaining == 0) {
       readIncoming();
@@ -142,8 +187,8 @@ public class DiskReader implements AutoCloseable {
     }
   }
 
-  private void readSector(byte[] data, int offset) throws IOException {
-    ByteBuffer buffer = ByteBuffer.wrap(data, offset, SparseUtil.DISKLIB_SECTOR_SIZE);
+  private void readSectors(byte[] data, int offset, int sectors) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(data, offset, sectors * SparseUtil.DISKLIB_SECTOR_SIZE);
 
     readFromFrame(buffer);
     if (buffer.hasRemaining()) {
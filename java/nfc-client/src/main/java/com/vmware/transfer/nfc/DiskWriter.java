@@ -18,7 +18,6 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.util.Map;
 
 /**
@@ -39,7 +38,7 @@ public class DiskWriter implements AutoCloseable {
   public DiskWriter(NfcClient nfcClient, long capacity) {
     this.nfcClient = nfcClient;
     this.capacity = capacity;
-    fileData = ByteBuffer.allocate(NfcClient.MAX_PAYLOAD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    fileData = BufferPool.FRAMES.acquire();
     resetFileData();
   }
 
@@ -70,13 +69,44 @@ public class DiskWriter implements AutoCloseable {
 
     zeroSectors += lba - nextLba;
     nextLba = lba + 1;
-    if (isZero(data, offset, NfcClient.SECTOR_SIZE)) {
+    if (SparseUtil.isZero(data, offset, NfcClient.SECTOR_SIZE)) {
       zeroSectors++;
     } else {
       outputDataSector(data, offset);
     }
   }
 
+  /**
+   * Write the sectors of a grain, starting at the given lba. Runs of contiguous non-zero sectors are sent
+   * with a single RLE header, split only at FILE_DATA message boundaries. A partial last sector is sent whole.
+   */
+  public void writeSectors(long lba, byte[] data, int length) throws IOException {
+    int sectors = (length + NfcClient.SECTOR_SIZE - 1) / NfcClient.SECTOR_SIZE;
+    int end = sectors * NfcClient.SECTOR_SIZE;
+    assert end <= data.length;
+    if (lba < nextLba) {
+      throw new RuntimeException("Sectors are out of order");
+    }
+
+    zeroSectors += lba - nextLba;
+    nextLba = lba + sectors;
+    int offset = 0;
+    while (offset < end) {
+      if (SparseUtil.isZero(data, offset, NfcClient.SECTOR_SIZE)) {
+        zeroSectors++;
+        offset += NfcClient.SECTOR_SIZE;
+        continue;
+      }
+
+      int runEnd = offset + NfcClient.SECTOR_SIZE;
+      while (runEnd < end && !SparseUtil.isZero(data, runEnd, NfcClient.SECTOR_SIZE)) {
+        runEnd += NfcClient.SECTOR_SIZE;
+      }
+      outputDataSectors(data, offset, (runEnd - offset) / NfcClient.SECTOR_SIZE);
+      offset = runEnd;
+    }
+  }
+
   private void writeNfcFileDskDDBEntry(String key, String value) {
     assert isDirty;
     fileData.putInt(NfcClient.FILE_DSK_DDB_ENTRY_MAGIC);
@@ -118,6 +148,23 @@ public class DiskWriter implements AutoCloseable {
     flushIfAtLimit();
   }
 
+  private void outputDataSectors(byte[] data, int offset, int sectors) throws IOException {
+    outputBufferedZeroSectors();
+    while (sectors > 0) {
+      if (!isDirty) {
+        writeNfcFileDskHdr(false);
+      }
+      // flushIfAtLimit leaves room for at least one sector
+      int count = Math.min(sectors, Math.min(NfcClient.RLE_MAX_COUNT,
+          (fileData.remaining() - 2 * 4) / NfcClient.SECTOR_SIZE));
+      writeNfcFileDskRLEHdr(count, false);
+      fileData.put(data, offset, count * NfcClient.SECTOR_SIZE);
+      offset += count * NfcClient.SECTOR_SIZE;
+      sectors -= count;
+      flushIfAtLimit();
+    }
+  }
+
   private void flushIfAtLimit() throws IOException {
     // Flush if there isn't room for another data section
     if (fileData.remaining() < NfcClient.SECTOR_SIZE + 2 * 4) {
@@ -134,20 +181,12 @@ public class DiskWriter implements AutoCloseable {
 
   private void resetFileData() {
     fileData.clear();
+    fileData.limit(NfcClient.MAX_PAYLOAD_SIZE);
     fileData.putInt(NfcClient.FILE_DATA_HDR_MAGIC);
     fileData.putInt(0); // Will be overwritten with correct size later
     isDirty = false;
   }
 
-  private boolean isZero(byte[] data, int offset, int length) {
-    for (int i = offset; i < offset + length; ++i) {
-      if (data[i] != 0) {
-        return false;
-      }
-    }
-    return true;
-  }
-
   private void writeNfcFileDskHdr(boolean isMetadata) {
     // This is the first section in a FILE_DATA message
     assert !isDirty;
@@ -172,11 +211,10 @@ public class DiskWriter implements AutoCloseable {
 
   private void writeFileData() throws IOException {
     ByteBuffer msg = this.nfcClient.newNfcMsg(NfcClient.NFC_FILE_DATA);
-    this.nfcClient.sendNfcMsg(msg);
     // Patch in size of file data
     fileData.putInt(4, fileData.position() - 2 * 4);
     fileData.flip();
-    this.nfcClient.writeFully(fileData);
+    this.nfcClient.sendNfcMsg(msg, fileData);
   }
 
   public void finalizeWrite() throws IOException {
@@ -191,6 +229,7 @@ public class DiskWriter implements AutoCloseable {
       flush(); // This is a no-op if no pending data
       // Send zero-length FILE_DATA to mark end of stream
       writeFileData();
+      BufferPool.FRAMES.release(fileData);
       fileData = null;
       // Receive completion message from server
       ByteBuffer reply = this.nfcClient.readNfcResponse();
@@ -206,6 +245,8 @@ public class DiskWriter implements AutoCloseable {
     if (fileData != null) {
       // Not closed gracefully, abort NFC client
       nfcClient.abort();
+      BufferPool.FRAMES.release(fileData);
+      fileData = null;
     }
   }
 }
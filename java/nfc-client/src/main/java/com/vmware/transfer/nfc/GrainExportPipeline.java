@@ -0,0 +1,201 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.vmware.transfer.nfc;
+
+import com.vmware.transfer.streamVmdk.StreamVmdkWriter;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+/**
+ * GrainExportPipeline reads the sectors of a disk from NFC on a prefetch thread, grain by grain, and deflates the
+ * grains on a pool of deflater threads, so that reading, deflating and writing the stream-optimized disk overlap.
+ * Grains are handed out by {@link #take()} in disk order. Grains that hold only zeroes are not deflated, and are
+ * handed out as empty grains so that the writer can skip them.
+ * <p/>
+ * Deflaters and grain buffers are pooled: at most depth grains are in flight, and each grain must be handed back
+ * with {@link #release(Grain)} once it has been written.
+ */
+class GrainExportPipeline implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(GrainExportPipeline.class);
+
+  private static final CompletableFuture<Grain> END_OF_DISK = CompletableFuture.completedFuture(null);
+
+  private final DiskReader disk;
+  private final ExecutorService deflaterExecutor;
+  private final BlockingQueue<Deflater> deflaters;
+  private final BlockingQueue<Grain> freeGrains;
+  private final BlockingQueue<CompletableFuture<Grain>> pendingGrains;
+  private final Thread prefetchThread;
+  private volatile boolean closed;
+
+  GrainExportPipeline(DiskReader disk, int deflaterThreads, int depth, int compressionLevel) {
+    this.disk = disk;
+    this.deflaterExecutor = Executors.newFixedThreadPool(deflaterThreads, new ThreadFactoryBuilder()
+        .setNameFormat("GrainDeflater-%d")
+        .setDaemon(true)
+        .build());
+
+    this.deflaters = new ArrayBlockingQueue<>(deflaterThreads);
+    for (int i = 0; i < deflaterThreads; i++) {
+      deflaters.add(new Deflater(compressionLevel));
+    }
+
+    // One more grain than can be pending, for the grain being written
+    this.freeGrains = new ArrayBlockingQueue<>(depth + 1);
+    for (int i = 0; i < depth + 1; i++) {
+      freeGrains.add(new Grain());
+    }
+
+    // One more slot than there are grains, for the end of disk marker
+    this.pendingGrains = new ArrayBlockingQueue<>(depth + 2);
+    this.prefetchThread = new Thread(this::readGrains, "DiskPrefetcher");
+    this.prefetchThread.setDaemon(true);
+  }
+
+  void start() {
+    prefetchThread.start();
+  }
+
+  /**
+   * Returns the next grain, or null at the end of the disk.
+   */
+  Grain take() throws IOException {
+    try {
+      return pendingGrains.take().get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while reading grains", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      throw new IOException("Failed to read grain", cause);
+    }
+  }
+
+  /**
+   * Hands a grain returned by {@link #take()} back to the pipeline, once it has been written.
+   */
+  void release(Grain grain) {
+    freeGrains.add(grain);
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    prefetchThread.interrupt();
+    deflaterExecutor.shutdownNow();
+    try {
+      if (deflaterExecutor.awaitTermination(1, TimeUnit.MINUTES)) {
+        for (Deflater deflater : deflaters) {
+          deflater.end();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void readGrains() {
+    try {
+      long capacity = disk.getCapacitySectors();
+      for (long lba = 0; lba < capacity && !closed; lba += SparseUtil.DEFAULT_GRAIN_SIZE) {
+        Grain grain = freeGrains.take();
+        grain.lba = lba;
+        int sectors = (int) Math.min(SparseUtil.DEFAULT_GRAIN_SIZE, capacity - lba);
+        boolean hasData = disk.getNextSectors(lba, grain.data, sectors);
+        if (hasData && sectors < SparseUtil.DEFAULT_GRAIN_SIZE) {
+          // The last grain of the disk is partial, the writer expects whole grains
+          int offset = sectors * SparseUtil.DISKLIB_SECTOR_SIZE;
+          Arrays.fill(grain.data, offset, grain.data.length, (byte) 0);
+        }
+
+        if (!hasData || SparseUtil.isZero(grain.data, 0, grain.data.length)) {
+          grain.compressedLength = 0;
+          pendingGrains.put(CompletableFuture.completedFuture(grain));
+          continue;
+        }
+
+        CompletableFuture<Grain> deflated = new CompletableFuture<>();
+        pendingGrains.put(deflated);
+        deflaterExecutor.execute(() -> deflate(grain, deflated));
+      }
+
+      pendingGrains.put(END_OF_DISK);
+    } catch (InterruptedException | RejectedExecutionException e) {
+      logger.debug("Stopped reading grains since the pipeline got closed");
+    } catch (Throwable t) {
+      CompletableFuture<Grain> failed = new CompletableFuture<>();
+      failed.completeExceptionally(t);
+      pendingGrains.offer(failed);
+    }
+  }
+
+  private void deflate(Grain grain, CompletableFuture<Grain> deflated) {
+    Deflater deflater = deflaters.poll();
+    try {
+      grain.compressedLength = StreamVmdkWriter.compressGrain(deflater, grain.data, grain.compressed);
+      deflated.complete(grain);
+    } catch (Throwable t) {
+      deflated.completeExceptionally(t);
+    } finally {
+      deflaters.add(deflater);
+    }
+  }
+
+  /**
+   * A grain of the disk, and the buffers used to read and deflate it.
+   */
+  static class Grain {
+    private final byte[] data = new byte[SparseUtil.DEFAULT_GRAIN_SIZE_BYTES];
+    private final byte[] compressed = new byte[StreamVmdkWriter.MAX_COMPRESSED_GRAIN_SIZE];
+    private long lba;
+    private int compressedLength;
+
+    long getLba() {
+      return lba;
+    }
+
+    /**
+     * Returns true if the grain holds only zeroes, in which case it was not deflated.
+     */
+    boolean isEmpty() {
+      return compressedLength == 0;
+    }
+
+    byte[] getCompressed() {
+      return compressed;
+    }
+
+    int getCompressedLength() {
+      return compressedLength;
+    }
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.vmware.transfer.nfc;
+
+import com.vmware.transfer.streamVmdk.StreamVmdkReader;
+import com.vmware.transfer.streamVmdk.VmdkFormatException;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Inflater;
+
+/**
+ * GrainPipeline reads the grains of a stream-optimized disk on a reader thread and inflates them on a pool of
+ * inflater threads, so that reading, inflating and writing the grains to NFC overlap. Grains are handed out by
+ * {@link #take()} in the order they appear in the stream.
+ * <p/>
+ * Inflaters and grain buffers are pooled: at most depth grains are in flight, and each grain must be handed back
+ * with {@link #release(Grain)} once it has been written.
+ */
+class GrainPipeline implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(GrainPipeline.class);
+
+  private static final CompletableFuture<Grain> END_OF_STREAM = CompletableFuture.completedFuture(null);
+
+  private final StreamVmdkReader disk;
+  private final ExecutorService inflaterExecutor;
+  private final BlockingQueue<Inflater> inflaters;
+  private final BlockingQueue<Grain> freeGrains;
+  private final BlockingQueue<CompletableFuture<Grain>> pendingGrains;
+  private final Thread readerThread;
+  private volatile boolean closed;
+
+  GrainPipeline(StreamVmdkReader disk, int inflaterThreads, int depth) {
+    this.disk = disk;
+    this.inflaterExecutor = Executors.newFixedThreadPool(inflaterThreads, new ThreadFactoryBuilder()
+        .setNameFormat("GrainInflater-%d")
+        .setDaemon(true)
+        .build());
+
+    this.inflaters = new ArrayBlockingQueue<>(inflaterThreads);
+    for (int i = 0; i < inflaterThreads; i++) {
+      inflaters.add(new Inflater());
+    }
+
+    // One more grain than can be pending, for the grain being written
+    this.freeGrains = new ArrayBlockingQueue<>(depth + 1);
+    for (int i = 0; i < depth + 1; i++) {
+      freeGrains.add(new Grain(disk.getGrainSize() * SparseUtil.DISKLIB_SECTOR_SIZE));
+    }
+
+    // One more slot than there are grains, for the end of stream marker
+    this.pendingGrains = new ArrayBlockingQueue<>(depth + 2);
+    this.readerThread = new Thread(this::readGrains, "GrainReader");
+    this.readerThread.setDaemon(true);
+  }
+
+  void start() {
+    readerThread.start();
+  }
+
+  /**
+   * Returns the next inflated grain, or null at the end of the stream.
+   */
+  Grain take() throws IOException, VmdkFormatException {
+    try {
+      return pendingGrains.take().get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while reading grains", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof VmdkFormatException) {
+        throw (VmdkFormatException) cause;
+      }
+      throw new IOException("Failed to read grain", cause);
+    }
+  }
+
+  /**
+   * Hands a grain returned by {@link #take()} back to the pipeline, once it has been written.
+   */
+  void release(Grain grain) {
+    freeGrains.add(grain);
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    readerThread.interrupt();
+    inflaterExecutor.shutdownNow();
+    try {
+      if (inflaterExecutor.awaitTermination(1, TimeUnit.MINUTES)) {
+        for (Inflater inflater : inflaters) {
+          inflater.end();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void readGrains() {
+    try {
+      while (!closed) {
+        Grain grain = freeGrains.take();
+        if (!disk.readNextCompressedGrain(grain.compressed)) {
+          pendingGrains.put(END_OF_STREAM);
+          return;
+        }
+
+        CompletableFuture<Grain> inflated = new CompletableFuture<>();
+        pendingGrains.put(inflated);
+        inflaterExecutor.execute(() -> inflate(grain, inflated));
+      }
+    } catch (InterruptedException | RejectedExecutionException e) {
+      logger.debug("Stopped reading grains since the pipeline got closed");
+    } catch (Throwable t) {
+      CompletableFuture<Grain> failed = new CompletableFuture<>();
+      failed.completeExceptionally(t);
+      pendingGrains.offer(failed);
+    }
+  }
+
+  private void inflate(Grain grain, CompletableFuture<Grain> inflated) {
+    Inflater inflater = inflaters.poll();
+    try {
+      grain.length = StreamVmdkReader.inflate(inflater, grain.compressed, grain.data);
+      inflated.complete(grain);
+    } catch (Throwable t) {
+      inflated.completeExceptionally(t);
+    } finally {
+      inflaters.add(inflater);
+    }
+  }
+
+  /**
+   * A grain of the disk, and the buffers used to read and inflate it.
+   */
+  static class Grain {
+    private final StreamVmdkReader.CompressedGrain compressed = new StreamVmdkReader.CompressedGrain();
+    private final byte[] data;
+    private int length;
+
+    private Grain(int grainBytes) {
+      this.data = new byte[grainBytes];
+    }
+
+    long getLba() {
+      return compressed.getLba();
+    }
+
+    byte[] getData() {
+      return data;
+    }
+
+    int getLength() {
+      return length;
+    }
+  }
+}
@@ -13,9 +13,13 @@
 
 package com.vmware.transfer.nfc;
 
+import com.vmware.photon.controller.common.metrics.DefaultMetricRegistry;
 import com.vmware.transfer.streamVmdk.StreamVmdkReader;
+import com.vmware.transfer.streamVmdk.StreamVmdkWriter;
 import com.vmware.transfer.streamVmdk.VmdkFormatException;
 
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Charsets;
 import org.slf4j.Logger;
@@ -24,13 +28,17 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.Socket;
 import java.net.SocketException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.Channels;
+import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.Deflater;
 
 /**
  * NFC Client. Used for transferring files and disks to/from datastores using NFC.
@@ -40,6 +48,13 @@ public class NfcClient implements AutoCloseable {
   // NFC FILE_DATA max size (including 256 byte header)
   public static final int MAX_XFER_SIZE = 256 * 1024;
 
+  // Threads inflating the grains of stream-optimized disks during upload
+  static final int INFLATER_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+  // Grains being read or inflated ahead of the grain being written
+  static final int GRAIN_PIPELINE_DEPTH = 4 * INFLATER_THREADS;
+  // Threads deflating the grains of stream-optimized disks during download
+  static final int DEFLATER_THREADS = INFLATER_THREADS;
+
   // Constants below are lifted from nfclib on vmkernel-main
   static final int NFC_MESSAGE_SIZE = 264;
   static final int MAX_PAYLOAD_SIZE = MAX_XFER_SIZE - NFC_MESSAGE_SIZE;
@@ -107,9 +122,18 @@ public class NfcClient implements AutoCloseable {
   private static final int CONV_DISK_THIN = 1 << 7;
   private static final int CONV_DISK_LSILOGIC = 1 << 8;
   private static final int CONV_DISK_IDE = 1 << 13;
+  // Zeroes the reused message buffers
+  private static final ByteBuffer EMPTY_MESSAGE = ByteBuffer.allocateDirect(NFC_MESSAGE_SIZE).asReadOnlyBuffer();
+  private static final Meter bytesRead =
+      DefaultMetricRegistry.REGISTRY.meter(MetricRegistry.name(NfcClient.class, "bytesRead"));
+  private static final Meter bytesWritten =
+      DefaultMetricRegistry.REGISTRY.meter(MetricRegistry.name(NfcClient.class, "bytesWritten"));
   private Socket socket;
   private ReadableByteChannel input;
   private WritableByteChannel output;
+  // Messages are sent and received one at a time on a connection, so they reuse the same buffers
+  private ByteBuffer sendBuffer = BufferPool.MESSAGES.acquire();
+  private ByteBuffer receiveBuffer = BufferPool.MESSAGES.acquire();
 
   @VisibleForTesting
   protected NfcClient() {
@@ -121,7 +145,9 @@ public class NfcClient implements AutoCloseable {
         ticket.getPort());
     socket = Authd.connect(ticket, timeoutMs);
     input = Channels.newChannel(socket.getInputStream());
-    output = Channels.newChannel(socket.getOutputStream());
+    // Write to the socket channel when there is one, to send direct buffers without copying them and
+    // headers with their payload in one gathering write
+    output = socket.getChannel() != null ? socket.getChannel() : Channels.newChannel(socket.getOutputStream());
     // TODO(jandersen): Use SSL if session ~= s/ssl/ ("vpxa-nfcssl", for example)
   }
 
@@ -150,8 +176,7 @@ public class NfcClient implements AutoCloseable {
     msg.putInt(dsPathBytes.remaining());
     msg.putLong(fileSize); // file size
     msg.putLong(fileSize); // space required
-    sendNfcMsg(msg);
-    writeFully(dsPathBytes);
+    sendNfcMsg(msg, dsPathBytes);
     return new NfcFileOutputStream(this, autoClose);
   }
 
@@ -172,8 +197,7 @@ public class NfcClient implements AutoCloseable {
     msg.putInt(dsPathBytes.remaining());
     msg.putLong(capacity * SECTOR_SIZE); // capacity
     msg.putLong(capacity * SECTOR_SIZE); // space required
-    sendNfcMsg(msg);
-    writeFully(dsPathBytes);
+    sendNfcMsg(msg, dsPathBytes);
     return new DiskWriter(this, capacity);
   }
 
@@ -182,6 +206,8 @@ public class NfcClient implements AutoCloseable {
    * the datastore, it will be overwritten. The only disk type than can be correctly
    * uploaded in this mode is streamOptimized.
    * <p/>
+   * Grains are read and inflated ahead by a {@link GrainPipeline}, while this thread writes them to NFC.
+   * <p/>
    * adapted from: https://opengrok.eng.vmware.com/source/xref/vdc-2015.perforce-shark.1700
    * /vdc-2015/src/transfer-svc/ts-main/src/main/java/com/vmware/transfer/impl/NfcEndpointImpl.java
    *
@@ -196,30 +222,26 @@ public class NfcClient implements AutoCloseable {
     StreamVmdkReader disk = getStreamVmdkReader(inputStream);
 
     DiskWriter writer = null;
-    try {
+    try (GrainPipeline pipeline = new GrainPipeline(disk, INFLATER_THREADS, GRAIN_PIPELINE_DEPTH)) {
       writer = putDisk(filePath, disk.getAdapterType(), disk.getCapacityInSectors());
       writer.writeDdb(disk.getDdb());
-      byte[] grain = new byte[disk.getGrainSize() * SparseUtil.DISKLIB_SECTOR_SIZE];
-      int grainSize = disk.getNextGrain(grain);
+      pipeline.start();
+      GrainPipeline.Grain grain = pipeline.take();
       int grainCount = 0;
-      while (grainSize >= 0) {
+      while (grain != null) {
         grainCount++;
         if (0 == (grainCount % 1000)) {
           logger.debug("NfcClient putStreamOptimizedDisk for file {} preparing to write grain count/size {}/{}",
               filePath,
               grainCount,
-              grainSize);
-        }
-        if (grainSize > 0) {
-          long lba = disk.getCurrentLba();
-          for (int offset = 0; offset < grainSize; offset += SparseUtil.DISKLIB_SECTOR_SIZE) {
-            writer.writeGrain(lba++, grain, offset);
-          }
+              grain.getLength());
         }
-        grainSize = disk.getNextGrain(grain);
+        writer.writeSectors(grain.getLba(), grain.getData(), grain.getLength());
+        pipeline.release(grain);
+        grain = pipeline.take();
       }
-      logger.debug("NfcClient putStreamOptimizedDisk for file {} write complete on grain count/size {}/{}", filePath,
-          grainCount, grainSize);
+      logger.debug("NfcClient putStreamOptimizedDisk for file {} write complete on grain count {}", filePath,
+          grainCount);
       writer.finalizeWrite();
       close();
       return disk.getCapacityInSectors() * SparseUtil.DISKLIB_SECTOR_SIZE;
@@ -234,6 +256,57 @@ public class NfcClient implements AutoCloseable {
     }
   }
 
+  /**
+   * Download a disk from remote datastore as a stream-optimized disk.
+   *
+   * @param filePath     disk datastore path
+   * @param outputStream output stream of the stream-optimized disk
+   * @return number of bytes in the disk
+   */
+  public long getStreamOptimizedDisk(String filePath, OutputStream outputStream) throws IOException {
+    return getStreamOptimizedDisk(filePath, outputStream, Deflater.DEFAULT_COMPRESSION);
+  }
+
+  /**
+   * Download a disk from remote datastore as a stream-optimized disk. Sectors are read ahead and grains are
+   * deflated by a {@link GrainExportPipeline}, while this thread writes them in order. Empty grains are skipped.
+   * The output stream is not closed.
+   *
+   * @param filePath         disk datastore path
+   * @param outputStream     output stream of the stream-optimized disk
+   * @param compressionLevel deflate level of the grains, from {@link Deflater#BEST_SPEED} to
+   *                         {@link Deflater#BEST_COMPRESSION}
+   * @return number of bytes in the disk
+   */
+  public long getStreamOptimizedDisk(String filePath, OutputStream outputStream, int compressionLevel)
+      throws IOException {
+    try (DiskReader reader = getDisk(filePath);
+         GrainExportPipeline pipeline = new GrainExportPipeline(reader, DEFLATER_THREADS, GRAIN_PIPELINE_DEPTH,
+             compressionLevel)) {
+      StreamVmdkWriter writer = new StreamVmdkWriter(outputStream, reader.getCapacitySectors(), compressionLevel);
+      writer.writeHeader(ThreadLocalRandom.current().nextInt(), reader.getDDB());
+      pipeline.start();
+      GrainExportPipeline.Grain grain = pipeline.take();
+      int grainCount = 0;
+      while (grain != null) {
+        if (grain.isEmpty()) {
+          writer.writeProgressGrain(grain.getLba());
+        } else {
+          grainCount++;
+          writer.writeCompressedGrain(grain.getLba(), grain.getCompressed(), grain.getCompressedLength());
+        }
+        pipeline.release(grain);
+        grain = pipeline.take();
+      }
+      writer.writeTrailer();
+      logger.debug("NfcClient getStreamOptimizedDisk for file {} wrote {} grains", filePath, grainCount);
+      return reader.getCapacitySectors() * SparseUtil.DISKLIB_SECTOR_SIZE;
+    } finally {
+      // The whole disk has been read, so there is nothing to wait for on the connection
+      abort();
+    }
+  }
+
   /**
    * Open a GET_FILE session to download a raw file.
    */
@@ -243,8 +316,7 @@ public class NfcClient implements AutoCloseable {
     msg.putInt(NFC_RAW);
     msg.putInt(dsPathBytes.remaining());
     msg.putInt(0); // conversion flags
-    sendNfcMsg(msg);
-    writeFully(dsPathBytes);
+    sendNfcMsg(msg, dsPathBytes);
     NfcFileInputStream result = new NfcFileInputStream(this);
     result.init(); // read and parse NFC_FILE_PUT response message
     return result;
@@ -259,8 +331,7 @@ public class NfcClient implements AutoCloseable {
     msg.putInt(NFC_DISK);
     msg.putInt(dsPathBytes.remaining());
     msg.putInt(0); // conversion flags
-    sendNfcMsg(msg);
-    writeFully(dsPathBytes);
+    sendNfcMsg(msg, dsPathBytes);
     DiskReader result = new DiskReader(this);
     result.init(); // read and parse NFC_FILE_PUT response message
     return result;
@@ -272,8 +343,7 @@ public class NfcClient implements AutoCloseable {
     msg.putInt(dsPathBytes.remaining());
     msg.putInt(NFC_FILE_CREATEDIRHIER);
     msg.putShort((short) 1);
-    sendNfcMsg(msg);
-    writeFully(dsPathBytes);
+    sendNfcMsg(msg, dsPathBytes);
     ByteBuffer reply = readNfcResponse();
     validateReplyCode(reply, NFC_FILEOP_STATUS);
     int errsize = reply.getInt();
@@ -288,8 +358,7 @@ public class NfcClient implements AutoCloseable {
     msg.putInt(dsPathBytes.remaining());
     msg.putInt(NFC_FILE_CREATEDIRHIER);
     msg.putShort((short) 1);
-    sendNfcMsg(msg);
-    writeFully(dsPathBytes);
+    sendNfcMsg(msg, dsPathBytes);
     ByteBuffer reply = readNfcResponse();
     validateReplyCode(reply, NFC_FILEOP_STATUS);
     int errsize = reply.getInt();
@@ -305,6 +374,7 @@ public class NfcClient implements AutoCloseable {
       readNfcResponse(msg);
       socket.close();
       socket = null;
+      releaseBuffers();
     }
   }
 
@@ -316,41 +386,91 @@ public class NfcClient implements AutoCloseable {
         logger.debug("Error closing NFC connection: {}", e.getMessage(), e);
       }
       socket = null;
+      releaseBuffers();
     }
   }
 
+  private void releaseBuffers() {
+    BufferPool.MESSAGES.release(sendBuffer);
+    BufferPool.MESSAGES.release(receiveBuffer);
+    sendBuffer = null;
+    receiveBuffer = null;
+  }
+
   /**
    * Read from channel until data buffer is full.
    */
   void readFully(ByteBuffer data) throws IOException {
+    int length = data.remaining();
     while (data.hasRemaining()) {
       input.read(data);
     }
+    bytesRead.mark(length);
   }
 
   /**
    * Write entire data buffer to channel.
    */
   void writeFully(ByteBuffer data) throws IOException {
+    int length = data.remaining();
     while (data.hasRemaining()) {
       output.write(data);
     }
+    bytesWritten.mark(length);
   }
 
+  /**
+   * Write entire data buffers to channel, in a single gathering write when the channel supports it.
+   */
+  void writeFully(ByteBuffer... data) throws IOException {
+    if (!(output instanceof GatheringByteChannel)) {
+      for (ByteBuffer buffer : data) {
+        writeFully(buffer);
+      }
+      return;
+    }
+
+    long length = 0;
+    for (ByteBuffer buffer : data) {
+      length += buffer.remaining();
+    }
+    for (long written = 0; written < length; ) {
+      written += ((GatheringByteChannel) output).write(data);
+    }
+    bytesWritten.mark(length);
+  }
+
+  /**
+   * Returns the message buffer of this connection, cleared and holding the message type. The buffer is reused by
+   * the next call, so a message must be sent before building another one.
+   */
   ByteBuffer newNfcMsg(int msgType) {
-    ByteBuffer msg = ByteBuffer.allocate(NFC_MESSAGE_SIZE);
-    msg.order(ByteOrder.LITTLE_ENDIAN);
+    ByteBuffer msg = sendBuffer;
+    msg.clear();
+    msg.put(EMPTY_MESSAGE.duplicate());
+    msg.clear();
     msg.putInt(msgType);
     return msg;
   }
 
   void sendNfcMsg(ByteBuffer msg) throws IOException {
-    byte[] b = msg.array();
-    assert b.length == NFC_MESSAGE_SIZE;
-    msg.rewind();
+    assert msg.capacity() == NFC_MESSAGE_SIZE;
+    msg.clear();
     writeFully(msg);
   }
 
+  /**
+   * Send a message followed by its payload.
+   */
+  void sendNfcMsg(ByteBuffer msg, ByteBuffer... payload) throws IOException {
+    assert msg.capacity() == NFC_MESSAGE_SIZE;
+    msg.clear();
+    ByteBuffer[] data = new ByteBuffer[payload.length + 1];
+    data[0] = msg;
+    System.arraycopy(payload, 0, data, 1, payload.length);
+    writeFully(data);
+  }
+
   void readNfcResponse(ByteBuffer reply) throws IOException {
     assert reply.capacity() == NFC_MESSAGE_SIZE;
     assert reply.order() == ByteOrder.LITTLE_ENDIAN;
@@ -359,10 +479,12 @@ public class NfcClient implements AutoCloseable {
     reply.flip();
   }
 
+  /**
+   * Read a response into the receive buffer of this connection, which is reused by the next call.
+   */
   ByteBuffer readNfcResponse() throws IOException {
-    ByteBuffer reply = ByteBuffer.allocate(NFC_MESSAGE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
-    readNfcResponse(reply);
-    return reply;
+    readNfcResponse(receiveBuffer);
+    return receiveBuffer;
   }
 
   /**
@@ -430,8 +552,7 @@ public class NfcClient implements AutoCloseable {
     msg.putInt(dsPathBytes.remaining());
     msg.putInt(0x0A); // openFlags (=OPEN_PARENT | OPEN_LOCK)
     msg.put((byte) 0); // rawFile? (=FALSE)
-    sendNfcMsg(msg);
-    writeFully(dsPathBytes);
+    sendNfcMsg(msg, dsPathBytes);
 
     ByteBuffer reply = readNfcResponse();
     validateReplyCode(reply, NFC_FSSRVR_DISKGEO);
@@ -446,8 +567,7 @@ public class NfcClient implements AutoCloseable {
     msg.putInt(1); // write
     msg.putLong(lba);
     msg.putInt(length);
-    sendNfcMsg(msg);
-    writeFully(ByteBuffer.wrap(data, 0, length));
+    sendNfcMsg(msg, ByteBuffer.wrap(data, 0, length));
 
     ByteBuffer reply = readNfcResponse();
     validateReplyCode(reply, NFC_FSSRVR_IO);
@@ -42,7 +42,7 @@ public class NfcFileInputStream extends InputStream {
   public NfcFileInputStream(NfcClient nfcClient, boolean autoClose) {
     this.nfcClient = nfcClient;
     this.hdrBuffer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
-    this.frameBuffer = ByteBuffer.allocate(NfcClient.MAX_XFER_SIZE);
+    this.frameBuffer = BufferPool.FRAMES.acquire();
     this.autoClose = autoClose;
   }
 
@@ -101,6 +101,7 @@ public class NfcFileInputStream extends InputStream {
 
   @Override
   public void close() throws IOException {
+    releaseFrameBuffer();
     if (autoClose) {
       this.nfcClient.close();
     }
@@ -121,7 +122,7 @@ public class NfcFileInputStream extends InputStream {
     int frameBytes = hdrBuffer.getInt();
     if (frameBytes == 0) {
       // EOF
-      frameBuffer = null;
+      releaseFrameBuffer();
       return;
     }
     frameBuffer.clear();
@@ -129,4 +130,9 @@ public class NfcFileInputStream extends InputStream {
     nfcClient.readFully(frameBuffer);
     frameBuffer.flip();
   }
+
+  private void releaseFrameBuffer() {
+    BufferPool.FRAMES.release(frameBuffer);
+    frameBuffer = null;
+  }
 }
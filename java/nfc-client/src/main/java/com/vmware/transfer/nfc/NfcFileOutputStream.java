@@ -74,9 +74,7 @@ public class NfcFileOutputStream extends OutputStream {
     fileDataHdr.putInt(length);
     fileDataHdr.flip();
     ByteBuffer dataBuffer = ByteBuffer.wrap(data, offset, length);
-    nfcClient.sendNfcMsg(nfcMessage);
-    nfcClient.writeFully(fileDataHdr);
-    nfcClient.writeFully(dataBuffer);
+    nfcClient.sendNfcMsg(nfcMessage, fileDataHdr, dataBuffer);
   }
 
   @Override
@@ -27,13 +27,15 @@ import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 
 /**
- * SSLClientWrapper.
+ * SSLClientWrapper. The engine buffers come from a {@link BufferPool} and must be released once the
+ * wrapped streams are not used anymore. Outgoing data is wrapped straight from the caller's array.
  */
 public class SSLClientWrapper {
+  private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
   private SSLEngine engine;
 
   private ByteBuffer clearIn;
-  private ByteBuffer clearOut;
   private ByteBuffer cipherIn;
   private ByteBuffer cipherOut;
 
@@ -46,13 +48,13 @@ public class SSLClientWrapper {
   public SSLClientWrapper(SSLEngine engine, Socket socket) throws IOException {
     this.engine = engine;
     rawInputChannel = Channels.newChannel(socket.getInputStream());
-    rawOutputChannel = Channels.newChannel(socket.getOutputStream());
+    rawOutputChannel = socket.getChannel() != null ?
+        socket.getChannel() : Channels.newChannel(socket.getOutputStream());
 
     SSLSession session = engine.getSession();
-    clearIn = ByteBuffer.allocate(session.getApplicationBufferSize());
-    clearOut = ByteBuffer.allocate(session.getApplicationBufferSize());
-    cipherIn = ByteBuffer.allocate(session.getPacketBufferSize());
-    cipherOut = ByteBuffer.allocate(session.getPacketBufferSize());
+    clearIn = acquire(session.getApplicationBufferSize());
+    cipherIn = acquire(session.getPacketBufferSize());
+    cipherOut = acquire(session.getPacketBufferSize());
 
     clearIn.flip();
     cipherIn.flip();
@@ -73,9 +75,7 @@ public class SSLClientWrapper {
           task.run();
           break;
         case NEED_WRAP:
-          clearOut.flip();
-          result = engine.wrap(clearOut, cipherOut);
-          clearOut.compact();
+          result = engine.wrap(EMPTY, cipherOut);
           cipherOut.flip();
           rawOutputChannel.write(cipherOut);
           cipherOut.compact();
@@ -109,6 +109,28 @@ public class SSLClientWrapper {
     return wrappedOutputStream;
   }
 
+  /**
+   * Returns the engine buffers to the pool. The wrapped streams must not be used afterwards.
+   */
+  public void release() {
+    BufferPool.SSL.release(clearIn);
+    BufferPool.SSL.release(cipherIn);
+    BufferPool.SSL.release(cipherOut);
+    clearIn = null;
+    cipherIn = null;
+    cipherOut = null;
+  }
+
+  private static ByteBuffer acquire(int size) {
+    if (size > BufferPool.SSL.getBufferSize()) {
+      return ByteBuffer.allocate(size);
+    }
+
+    ByteBuffer buffer = BufferPool.SSL.acquire();
+    buffer.limit(size);
+    return buffer;
+  }
+
   private class WrapperInputStream extends InputStream {
     @Override
     public int read(byte[] b) throws IOException {
@@ -158,6 +180,8 @@ public class SSLClientWrapper {
   }
 
   private class WrapperOutputStream extends OutputStream {
+    private final byte[] singleByte = new byte[1];
+
     @Override
     public void write(byte[] b) throws IOException {
       write(b, 0, b.length);
@@ -167,47 +191,28 @@ public class SSLClientWrapper {
     public void write(byte[] b, int off, int len) throws IOException {
       processHandshake();
 
-      int offset = off;
-      int length = len;
-      while (length > 0) {
-        int room = clearOut.remaining();
-        if (room > length) {
-          room = length;
-        }
-        clearOut.put(b, offset, room);
-        length -= room;
-        offset += room;
-        flush();
-      }
-    }
-
-    @Override
-    public void write(int b) throws IOException {
-      processHandshake();
-
-      while (clearOut.remaining() == 0) {
-        flush();
-      }
-      clearOut.put((byte) b);
-      flush();
-    }
-
-    @Override
-    public void flush() throws IOException {
-      clearOut.flip();
+      ByteBuffer clearOut = ByteBuffer.wrap(b, off, len);
       SSLEngineResult result = engine.wrap(clearOut, cipherOut);
       cipherOut.flip();
-      while (result.getStatus() == SSLEngineResult.Status.BUFFER_OVERFLOW) {
+      while (result.getStatus() == SSLEngineResult.Status.BUFFER_OVERFLOW || clearOut.hasRemaining()) {
+        if (result.getStatus() == SSLEngineResult.Status.CLOSED) {
+          throw new IOException("SSL engine closed");
+        }
         rawOutputChannel.write(cipherOut);
         cipherOut.compact();
         result = engine.wrap(clearOut, cipherOut);
         cipherOut.flip();
       }
-      if (cipherOut.hasRemaining()) {
+      while (cipherOut.hasRemaining()) {
         rawOutputChannel.write(cipherOut);
       }
       cipherOut.compact();
-      clearOut.compact();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      singleByte[0] = (byte) b;
+      write(singleByte, 0, 1);
     }
   }
 }
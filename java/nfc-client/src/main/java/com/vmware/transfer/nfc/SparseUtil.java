@@ -66,4 +66,16 @@ public class SparseUtil {
   public static long bytesToSectors(long bytes) {
     return divideAndRoundUp(bytes, DISKLIB_SECTOR_SIZE);
   }
+
+  /**
+   * Returns true if the given range holds only zeroes, in which case sectors and grains need not be sent.
+   */
+  public static boolean isZero(byte[] data, int offset, int length) {
+    for (int i = offset; i < offset + length; ++i) {
+      if (data[i] != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
 }
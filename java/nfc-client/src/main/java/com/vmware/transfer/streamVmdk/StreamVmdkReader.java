@@ -40,6 +40,11 @@ public class StreamVmdkReader {
   private long currentLba;
   private String adapterType;
   private Map<String, String> ddb;
+  private long grainLba;
+  // Compressed data of the last grain read, reused across grains
+  private byte[] cmpBytes;
+  // Reused across the grains inflated by getNextGrain
+  private Inflater inflater;
 
   public StreamVmdkReader(InputStream input) throws VmdkFormatException, IOException {
     this.input = new DataInputStream(input);
@@ -156,7 +161,66 @@ public class StreamVmdkReader {
     return (int) grainSize;
   }
 
+  /**
+   * Reads and inflates the next grain into the given buffer. Returns the size of the inflated grain, 0 if we
+   * went past a progress marker, or -1 at the end of the stream.
+   */
   public int getNextGrain(byte[] grain) throws VmdkFormatException, IOException {
+    int cmpSize = readNextGrainData(grain.length);
+    if (cmpSize < 0 && inflater != null) {
+      // End of stream
+      inflater.end();
+      inflater = null;
+    }
+    if (cmpSize <= 0) {
+      return cmpSize;
+    }
+
+    if (inflater == null) {
+      inflater = new Inflater();
+    }
+    int grainSize = inflate(inflater, cmpBytes, cmpSize, grain);
+    currentLba = grainLba;
+    return grainSize;
+  }
+
+  /**
+   * Reads the next grain without inflating it, so that grains can be inflated by other threads. Progress
+   * markers are skipped. Returns false at the end of the stream.
+   */
+  public boolean readNextCompressedGrain(CompressedGrain grain) throws VmdkFormatException, IOException {
+    int cmpSize;
+    do {
+      cmpSize = readNextGrainData(getGrainSize() * SparseUtil.DISKLIB_SECTOR_SIZE);
+    } while (cmpSize == 0);
+
+    if (cmpSize < 0) {
+      return false;
+    }
+
+    if (grain.data == null || grain.data.length < cmpSize) {
+      grain.data = new byte[cmpSize];
+    }
+    System.arraycopy(cmpBytes, 0, grain.data, 0, cmpSize);
+    grain.length = cmpSize;
+    grain.lba = grainLba;
+    currentLba = grainLba;
+    return true;
+  }
+
+  /**
+   * Inflates a grain read by {@link #readNextCompressedGrain(CompressedGrain)}. The inflater gets reset, so
+   * callers can reuse it for any number of grains.
+   */
+  public static int inflate(Inflater inflater, CompressedGrain grain, byte[] output) throws VmdkFormatException {
+    return inflate(inflater, grain.data, grain.length, output);
+  }
+
+  /**
+   * Reads the marker or header of the next grain, and the compressed data of data grains into cmpBytes.
+   * Returns the compressed size of the grain, 0 for a progress marker or -1 at the end of the stream.
+   */
+  private int readNextGrainData(int grainBytes) throws VmdkFormatException, IOException {
     byte[] headerBytes = new byte[12];
     readFully(headerBytes);
     ByteBuffer header = ByteBuffer.wrap(headerBytes);
@@ -165,7 +229,7 @@ public class StreamVmdkReader {
     int cmpSize = header.getInt();
 
     // Sanity check
-    if (cmpSize > grain.length * 3) {
+    if (cmpSize > grainBytes * 3) {
       throw new VmdkFormatException("Disk format error: Invalid grain size");
     }
 
@@ -198,30 +262,38 @@ public class StreamVmdkReader {
       cmpSize = header.getInt();
     }
     assert cmpSize > 0;
-    byte[] cmpBytes = new byte[cmpSize];
-    readFully(cmpBytes);
-    Inflater inf = new Inflater();
-    inf.setInput(cmpBytes);
-    int grainSize = -1;
-    try {
-      grainSize = inf.inflate(grain);
-    } catch (DataFormatException e) {
-      throw new VmdkFormatException("Zlib error: " + e.getMessage(), e);
+    if (cmpBytes == null || cmpBytes.length < cmpSize) {
+      cmpBytes = new byte[Math.max(cmpSize, grainBytes)];
     }
-    inf.end();
+    readFully(cmpBytes, cmpSize);
 
     long totalGrainSize = 12 + cmpSize;
     long paddingSize = ((totalGrainSize + 512 - 1) / 512) * 512 - totalGrainSize;
     while (paddingSize > 0) {
       paddingSize -= input.skip(paddingSize);
     }
-    currentLba = sector;
-    return grainSize;
+    grainLba = sector;
+    return cmpSize;
+  }
+
+  private static int inflate(Inflater inflater, byte[] cmpBytes, int cmpSize, byte[] grain)
+      throws VmdkFormatException {
+    inflater.reset();
+    inflater.setInput(cmpBytes, 0, cmpSize);
+    try {
+      return inflater.inflate(grain);
+    } catch (DataFormatException e) {
+      throw new VmdkFormatException("Zlib error: " + e.getMessage(), e);
+    }
   }
 
   private void readFully(byte[] buffer) throws IOException, VmdkFormatException {
+    readFully(buffer, buffer.length);
+  }
+
+  private void readFully(byte[] buffer, int length) throws IOException, VmdkFormatException {
     try {
-      input.readFully(buffer);
+      input.readFully(buffer, 0, length);
     } catch (EOFException e) {
       throw new VmdkFormatException("Unexpected end of file", e);
     }
@@ -233,5 +305,27 @@ public class StreamVmdkReader {
 
   public void close() throws IOException {
     input.close();
+    if (inflater != null) {
+      inflater.end();
+      inflater = null;
+    }
+  }
+
+  /**
+   * A data grain as stored in the stream: its LBA and its deflated data. Instances are meant to be reused
+   * for reading any number of grains.
+   */
+  public static class CompressedGrain {
+    private long lba;
+    private byte[] data;
+    private int length;
+
+    public long getLba() {
+      return lba;
+    }
+
+    public int getLength() {
+      return length;
+    }
   }
 }
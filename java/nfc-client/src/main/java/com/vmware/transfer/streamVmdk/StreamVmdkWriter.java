@@ -34,9 +34,22 @@ import java.util.zip.Deflater;
  * StreamVmdkWriter writes stream-optimized VMDKs.
  */
 public class StreamVmdkWriter {
+  /*
+   * Maximum .1% + 12 bytes expansion according to zlib manual. It seems
+   * silly to do expensive multiplication and division for this, so we
+   * approximate it conservatively as 2**-9 == .195% + 13.
+   */
+  public static final int MAX_COMPRESSED_GRAIN_SIZE =
+      SparseUtil.DEFAULT_GRAIN_SIZE_BYTES + (SparseUtil.DEFAULT_GRAIN_SIZE_BYTES >> 9) + 13;
+
   private static final Logger logger = LoggerFactory.getLogger(StreamVmdkWriter.class);
 
+  private static final byte[] PADDING = new byte[SparseUtil.DEFAULT_GRAIN_SIZE_BYTES];
+
   private final DataOutputStream output;
+  private final int compressionLevel;
+  private Deflater deflater;
+  private byte[] compressed;
   private long capacitySectors;
   private long currentOffset;
   private int gdSize;
@@ -55,8 +68,16 @@ public class StreamVmdkWriter {
   private ByteBuffer grainHeader;
 
   public StreamVmdkWriter(final OutputStream output, long capacitySectors) {
+    this(output, capacitySectors, Deflater.DEFAULT_COMPRESSION);
+  }
+
+  /**
+   * @param compressionLevel Deflate level of the grains written by {@link #writeDataGrain(long, byte[])}
+   */
+  public StreamVmdkWriter(final OutputStream output, long capacitySectors, int compressionLevel) {
     this.output = new DataOutputStream(output);
     this.capacitySectors = capacitySectors;
+    this.compressionLevel = compressionLevel;
     currentOffset = 0;
     nextSector = 0;
     sparseHeader = ByteBuffer.allocate(SparseUtil.DISKLIB_SECTOR_SIZE);
@@ -96,20 +117,30 @@ public class StreamVmdkWriter {
     assert sector % SparseUtil.DEFAULT_GRAIN_SIZE == 0;
     assert sector >= nextSector;
 
-    addToGrainTable(sector);
+    if (deflater == null) {
+      deflater = new Deflater(compressionLevel);
+      compressed = new byte[MAX_COMPRESSED_GRAIN_SIZE];
+    }
+    int cmpSize = compressGrain(deflater, grain, compressed);
+    return writeCompressedGrain(sector, compressed, cmpSize);
+  }
 
-        /*
-         * Maximum .1% + 12 bytes expansion according to zlib manual. It seems
-         * silly to do expensive multiplication and division for this, so we
-         * approximate it conservatively as 2**-9 == .195% + 13.
-         */
-    int maxSize = grain.length + (grain.length >> 9) + 13;
-    byte[] compressed = new byte[maxSize];
+  /**
+   * Write data grain compressed by {@link #compressGrain(Deflater, byte[], byte[])} to output stream. This lets
+   * grains be compressed by other threads, as long as they are written in order.
+   *
+   * @param sector     LBA of the grain
+   * @param compressed Compressed grain data
+   * @param cmpSize    Size of the compressed grain data
+   * @return Size of stream written so far
+   * @throws IOException
+   */
+  public long writeCompressedGrain(long sector, byte[] compressed, int cmpSize) throws IOException {
+    assert sector % SparseUtil.DEFAULT_GRAIN_SIZE == 0;
+    assert sector >= nextSector;
+
+    addToGrainTable(sector);
 
-    Deflater deflater = new Deflater();
-    deflater.setInput(grain);
-    deflater.finish();
-    int cmpSize = deflater.deflate(compressed, 0, maxSize, Deflater.SYNC_FLUSH);
     grainHeader.clear();
     grainHeader.putLong(sector);
     grainHeader.putInt(cmpSize);
@@ -173,11 +204,28 @@ public class StreamVmdkWriter {
   }
 
   public void close() throws IOException {
+    if (deflater != null) {
+      deflater.end();
+      deflater = null;
+    }
     output.close();
   }
 
-  private void write(byte[] data) throws IOException {
-    write(data, 0, data.length);
+  /**
+   * Compress a grain with the given deflater, which gets reset so that it can be reused for the next grain.
+   *
+   * @param deflater   Deflater to use
+   * @param grain      Grain data
+   * @param compressed Buffer of at least {@link #MAX_COMPRESSED_GRAIN_SIZE} bytes for the compressed data
+   * @return Size of the compressed grain data
+   */
+  public static int compressGrain(Deflater deflater, byte[] grain, byte[] compressed) {
+    assert grain.length == SparseUtil.DEFAULT_GRAIN_SIZE_BYTES;
+    assert compressed.length >= MAX_COMPRESSED_GRAIN_SIZE;
+    deflater.reset();
+    deflater.setInput(grain);
+    deflater.finish();
+    return deflater.deflate(compressed, 0, MAX_COMPRESSED_GRAIN_SIZE, Deflater.SYNC_FLUSH);
   }
 
   private void write(byte[] data, int offset, int length) throws IOException {
@@ -188,7 +236,7 @@ public class StreamVmdkWriter {
   private void padTo(int alignment) throws IOException {
     long desiredSize = SparseUtil.align(currentOffset, alignment);
     if (desiredSize > currentOffset) {
-      write(new byte[(int) (desiredSize - currentOffset)]);
+      write(PADDING, 0, (int) (desiredSize - currentOffset));
     }
     assert currentOffset % alignment == 0;
   }
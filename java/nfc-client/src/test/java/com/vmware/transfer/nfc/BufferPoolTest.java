@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package com.vmware.transfer.nfc;
+
+import org.testng.annotations.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Tests {@link BufferPool}.
+ */
+public class BufferPoolTest {
+
+  @Test
+  public void testBuffersAreReused() {
+    BufferPool pool = new BufferPool("test", 16, 1);
+    ByteBuffer buffer = pool.acquire();
+    assertThat(buffer.isDirect(), is(true));
+    assertThat(buffer.capacity(), is(16));
+    assertThat(buffer.order(), is(ByteOrder.LITTLE_ENDIAN));
+
+    buffer.putInt(1);
+    pool.release(buffer);
+    ByteBuffer reused = pool.acquire();
+    assertThat(reused, sameInstance(buffer));
+    assertThat(reused.position(), is(0));
+    assertThat(reused.remaining(), is(16));
+  }
+
+  @Test
+  public void testPoolIsBounded() {
+    BufferPool pool = new BufferPool("test", 16, 1);
+    ByteBuffer first = pool.acquire();
+    ByteBuffer second = pool.acquire();
+    pool.release(first);
+    pool.release(second);
+
+    assertThat(pool.acquire(), sameInstance(first));
+    assertThat(pool.acquire(), not(sameInstance(second)));
+  }
+
+  @Test
+  public void testForeignBuffersAreIgnored() {
+    BufferPool pool = new BufferPool("test", 16, 2);
+    ByteBuffer heap = ByteBuffer.allocate(16);
+    ByteBuffer larger = ByteBuffer.allocateDirect(32);
+    pool.release(heap);
+    pool.release(larger);
+
+    ByteBuffer buffer = pool.acquire();
+    assertThat(buffer, not(sameInstance(heap)));
+    assertThat(buffer, not(sameInstance(larger)));
+  }
+
+  @Test
+  public void testNfcMessagesAreCleared() {
+    NfcClient nfcClient = new NfcClient();
+    ByteBuffer msg = nfcClient.newNfcMsg(NfcClient.NFC_FILE_PUT);
+    msg.putLong(-1L);
+
+    msg = nfcClient.newNfcMsg(NfcClient.NFC_FILE_DATA);
+    assertThat(msg.position(), is(4));
+    assertThat(msg.getInt(0), is(NfcClient.NFC_FILE_DATA));
+    assertThat(msg.getLong(4), is(0L));
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package com.vmware.transfer.nfc;
+
+import org.mockito.Matchers;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests {@link DiskWriter}.
+ */
+public class DiskWriterTest {
+
+  private NfcClient nfcClient;
+  private List<ByteBuffer> fileData;
+
+  @BeforeMethod
+  public void setUp() throws Throwable {
+    nfcClient = spy(new NfcClient());
+    fileData = new ArrayList<>();
+    doAnswer(invocation -> {
+      ByteBuffer data = (ByteBuffer) invocation.getArguments()[1];
+      ByteBuffer copy = ByteBuffer.allocate(data.remaining()).order(ByteOrder.LITTLE_ENDIAN);
+      copy.put(data).flip();
+      fileData.add(copy);
+      return null;
+    }).when(nfcClient).sendNfcMsg(any(ByteBuffer.class), Matchers.<ByteBuffer>anyVararg());
+
+    ByteBuffer reply = ByteBuffer.allocate(NfcClient.NFC_MESSAGE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    reply.putInt(NfcClient.NFC_PUTFILE_DONE).flip();
+    doReturn(reply).when(nfcClient).readNfcResponse();
+  }
+
+  @Test
+  public void testWriteSectorsCoalescesRuns() throws Throwable {
+    // Two data sectors, one zero sector and one data sector, followed by four zero sectors up to the capacity
+    byte[] data = new byte[4 * NfcClient.SECTOR_SIZE];
+    Arrays.fill(data, 0, 2 * NfcClient.SECTOR_SIZE, (byte) 1);
+    Arrays.fill(data, 3 * NfcClient.SECTOR_SIZE, 4 * NfcClient.SECTOR_SIZE, (byte) 2);
+
+    DiskWriter writer = new DiskWriter(nfcClient, 8);
+    writer.writeSectors(0, data, data.length);
+    writer.finalizeWrite();
+
+    // One FILE_DATA message with the sectors, and one empty FILE_DATA message marking the end of the stream
+    assertThat(fileData.size(), is(2));
+    ByteBuffer message = fileData.get(0);
+    assertThat(message.getInt(), is(NfcClient.FILE_DATA_HDR_MAGIC));
+    assertThat(message.getInt(), is(message.limit() - 2 * 4));
+    assertThat(message.getInt(), is(NfcClient.FILE_DSK_HDR_MAGIC));
+    assertThat(message.getInt(), is(0));
+
+    assertRleHeader(message, 2, false);
+    assertSectors(message, 2, (byte) 1);
+    assertRleHeader(message, 1, true);
+    assertRleHeader(message, 1, false);
+    assertSectors(message, 1, (byte) 2);
+    assertRleHeader(message, 4, true);
+    assertThat(message.hasRemaining(), is(false));
+  }
+
+  @Test
+  public void testWriteSectorsSplitsRunsAtMessageBoundaries() throws Throwable {
+    int sectors = 2 * NfcClient.MAX_PAYLOAD_SIZE / NfcClient.SECTOR_SIZE;
+    byte[] data = new byte[sectors * NfcClient.SECTOR_SIZE];
+    Arrays.fill(data, (byte) 1);
+
+    DiskWriter writer = new DiskWriter(nfcClient, sectors);
+    writer.writeSectors(0, data, data.length);
+    writer.finalizeWrite();
+
+    int writtenSectors = 0;
+    for (ByteBuffer message : fileData.subList(0, fileData.size() - 1)) {
+      assertThat(message.limit() <= NfcClient.MAX_PAYLOAD_SIZE, is(true));
+      message.position(4 * 4);
+      while (message.hasRemaining()) {
+        assertThat(message.getInt(), is(NfcClient.FILE_DSK_RLE_HDR_MAGIC));
+        int count = message.getInt() & ~NfcClient.RLE_NON_ZERO_FLAG;
+        message.position(message.position() + count * NfcClient.SECTOR_SIZE);
+        writtenSectors += count;
+      }
+    }
+
+    assertThat(writtenSectors, is(sectors));
+  }
+
+  private static void assertRleHeader(ByteBuffer message, int sectors, boolean zero) {
+    assertThat(message.getInt(), is(NfcClient.FILE_DSK_RLE_HDR_MAGIC));
+    assertThat(message.getInt(), is(zero ? sectors : sectors | NfcClient.RLE_NON_ZERO_FLAG));
+  }
+
+  private static void assertSectors(ByteBuffer message, int sectors, byte value) {
+    for (int i = 0; i < sectors * NfcClient.SECTOR_SIZE; i++) {
+      assertThat(message.get(), is(value));
+    }
+  }
+}
@@ -14,25 +14,33 @@
 package com.vmware.transfer.nfc;
 
 import com.vmware.transfer.streamVmdk.StreamVmdkReader;
+import com.vmware.transfer.streamVmdk.StreamVmdkWriter;
 
 import org.mockito.InOrder;
 import org.powermock.modules.testng.PowerMockTestCase;
 import org.testng.annotations.Test;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -40,33 +48,96 @@ import java.util.Map;
  */
 public class NfcClientTest extends PowerMockTestCase {
 
+  private static final int GRAIN_COUNT = 64;
+
   @Test
   public void testPutStreamOptimizedDisk() throws Exception {
     NfcClient nfcClient = spy(new NfcClient());
-    StreamVmdkReader disk = mock(StreamVmdkReader.class);
     DiskWriter writer = mock(DiskWriter.class);
+    doReturn(writer).when(nfcClient).putDisk("image destination path", "buslogic",
+        (long) GRAIN_COUNT * SparseUtil.DEFAULT_GRAIN_SIZE);
 
-    InputStream inputStream = new ByteArrayInputStream("test content".getBytes());
-    doReturn(disk).when(nfcClient).getStreamVmdkReader(inputStream);
-    when(disk.getAdapterType()).thenReturn("buslogic");
-    when(disk.getCapacityInSectors()).thenReturn(65536L);
-    Map<String, String> ddb = new LinkedHashMap<>();
-    when(disk.getDdb()).thenReturn(ddb);
-    doReturn(writer).when(nfcClient).putDisk("image destination path", "buslogic", 65536L);
+    // Record the first byte of each grain written, since the grain buffers get reused
+    List<String> writtenGrains = new ArrayList<>();
+    doAnswer(invocation -> {
+      Object[] args = invocation.getArguments();
+      writtenGrains.add(args[0] + ":" + ((byte[]) args[1])[0] + ":" + args[2]);
+      return null;
+    }).when(writer).writeSectors(anyLong(), any(byte[].class), anyInt());
 
-    byte[] grain = new byte[disk.getGrainSize() * SparseUtil.DISKLIB_SECTOR_SIZE];
-    when(disk.getNextGrain(grain)).thenReturn(65536, -1);
-    when(disk.getCurrentLba()).thenReturn(0L);
+    Map<String, String> ddb = new LinkedHashMap<>();
+    long bytes = nfcClient.putStreamOptimizedDisk("image destination path", createDisk(ddb));
+    assertThat(bytes, is((long) GRAIN_COUNT * SparseUtil.DEFAULT_GRAIN_SIZE_BYTES));
 
-    long bytes = nfcClient.putStreamOptimizedDisk("image destination path", inputStream);
-    assertThat(bytes, is(33554432L));
+    // Every other grain is missing from the disk, and the grains are written in order
+    List<String> expectedGrains = new ArrayList<>();
+    for (int i = 0; i < GRAIN_COUNT; i += 2) {
+      expectedGrains.add((long) i * SparseUtil.DEFAULT_GRAIN_SIZE + ":" + (byte) (i + 1) + ":" +
+          SparseUtil.DEFAULT_GRAIN_SIZE_BYTES);
+    }
+    assertThat(writtenGrains, contains(expectedGrains.toArray()));
 
     InOrder inOrder = inOrder(writer, nfcClient);
     inOrder.verify(writer).writeDdb(ddb);
-    inOrder.verify(writer, times(128)).writeGrain(anyLong(), any(byte[].class), anyInt());
     inOrder.verify(writer).finalizeWrite();
     inOrder.verify(nfcClient).close();
     inOrder.verify(writer).close();
     inOrder.verify(nfcClient).abort();
   }
+
+  @Test
+  public void testGetStreamOptimizedDisk() throws Exception {
+    // The last grain of the disk is partial
+    long capacity = 8L * SparseUtil.DEFAULT_GRAIN_SIZE + SparseUtil.DEFAULT_GRAIN_SIZE / 2;
+    NfcClient nfcClient = spy(new NfcClient());
+    DiskReader reader = mock(DiskReader.class);
+    doReturn(reader).when(nfcClient).getDisk("image source path");
+    when(reader.getCapacitySectors()).thenReturn(capacity);
+    when(reader.getDDB()).thenReturn(Collections.emptyMap());
+
+    // Every other grain is empty
+    doAnswer(invocation -> {
+      Object[] args = invocation.getArguments();
+      int grain = (int) ((long) args[0] / SparseUtil.DEFAULT_GRAIN_SIZE);
+      byte[] data = (byte[]) args[1];
+      int length = (int) args[2] * SparseUtil.DISKLIB_SECTOR_SIZE;
+      Arrays.fill(data, 0, length, grain % 2 == 0 ? (byte) (grain + 1) : 0);
+      return grain % 2 == 0;
+    }).when(reader).getNextSectors(anyLong(), any(byte[].class), anyInt());
+
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    long bytes = nfcClient.getStreamOptimizedDisk("image source path", output);
+    assertThat(bytes, is(capacity * SparseUtil.DISKLIB_SECTOR_SIZE));
+
+    StreamVmdkReader disk = new StreamVmdkReader(new ByteArrayInputStream(output.toByteArray()));
+    assertThat(disk.getCapacityInSectors(), is(capacity));
+    List<String> readGrains = new ArrayList<>();
+    byte[] data = new byte[SparseUtil.DEFAULT_GRAIN_SIZE_BYTES];
+    for (int length = disk.getNextGrain(data); length >= 0; length = disk.getNextGrain(data)) {
+      if (length > 0) {
+        readGrains.add(disk.getCurrentLba() + ":" + data[0] + ":" + data[data.length - 1]);
+      }
+    }
+
+    // The partial last grain is padded with zeroes
+    assertThat(readGrains, contains("0:1:1", "256:3:3", "512:5:5", "768:7:7", "1024:9:0"));
+    InOrder inOrder = inOrder(reader, nfcClient);
+    inOrder.verify(reader).getNextSectors(eq(1024L), any(byte[].class), eq(SparseUtil.DEFAULT_GRAIN_SIZE / 2));
+    inOrder.verify(reader).close();
+    inOrder.verify(nfcClient).abort();
+  }
+
+  private static InputStream createDisk(Map<String, String> ddb) throws Exception {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    StreamVmdkWriter writer = new StreamVmdkWriter(output, (long) GRAIN_COUNT * SparseUtil.DEFAULT_GRAIN_SIZE);
+    writer.writeHeader(0, ddb);
+    byte[] grain = new byte[SparseUtil.DEFAULT_GRAIN_SIZE_BYTES];
+    for (int i = 0; i < GRAIN_COUNT; i += 2) {
+      Arrays.fill(grain, (byte) (i + 1));
+      writer.writeDataGrain((long) i * SparseUtil.DEFAULT_GRAIN_SIZE, grain);
+    }
+    writer.writeTrailer();
+    writer.close();
+    return new ByteArrayInputStream(output.toByteArray());
+  }
 }
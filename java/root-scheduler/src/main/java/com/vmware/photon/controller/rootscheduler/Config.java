@@ -30,6 +30,9 @@ import javax.validation.constraints.NotNull;
  */
 @SuppressWarnings("UnusedDeclaration")
 public class Config {
+  public static final String CLOUD_STORE_CONSTRAINT_CHECKER = "dcp";
+  public static final String HOST_CACHE_CONSTRAINT_CHECKER = "cache";
+
   private String mode;
 
   private String constraintChecker;
@@ -84,8 +84,11 @@ public class RootSchedulerModule extends AbstractModule {
         .implement(HostClient.class, HostClient.class)
         .build(HostClientFactory.class));
 
-    bind(RootScheduler.Iface.class).to(SchedulerService.class);
-    if (config.getConstraintChecker().equals("dcp")) {
+    bind(RootScheduler.AsyncIface.class).to(SchedulerService.class);
+    if (config.getConstraintChecker().equals(Config.CLOUD_STORE_CONSTRAINT_CHECKER)
+        || config.getConstraintChecker().equals(Config.HOST_CACHE_CONSTRAINT_CHECKER)) {
+      // The host cache is created by SchedulerXenonHost once it has started, since it needs the
+      // host to subscribe to Cloudstore. We query Cloudstore directly until then.
       bind(ConstraintChecker.class).to(CloudStoreConstraintChecker.class);
     } else {
       bind(ConstraintChecker.class).to(InMemoryConstraintChecker.class);
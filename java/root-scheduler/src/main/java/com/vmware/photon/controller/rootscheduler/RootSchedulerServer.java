@@ -14,6 +14,7 @@
 package com.vmware.photon.controller.rootscheduler;
 
 import com.vmware.photon.controller.common.manifest.BuildInfo;
+import com.vmware.photon.controller.common.thrift.MultiplexedAsyncProcessor;
 import com.vmware.photon.controller.common.thrift.ThriftConfig;
 import com.vmware.photon.controller.common.thrift.ThriftFactory;
 import com.vmware.photon.controller.common.zookeeper.ServiceNode;
@@ -22,13 +23,11 @@ import com.vmware.photon.controller.common.zookeeper.ServiceNodeFactory;
 import com.vmware.photon.controller.scheduler.root.gen.RootScheduler;
 
 import com.google.inject.Inject;
-import org.apache.thrift.TMultiplexedProcessor;
 import org.apache.thrift.protocol.TProtocolFactory;
 import org.apache.thrift.server.TServer;
-import org.apache.thrift.server.TThreadPoolServer;
-import org.apache.thrift.transport.TServerSocket;
+import org.apache.thrift.server.TThreadedSelectorServer;
+import org.apache.thrift.transport.TNonblockingServerSocket;
 import org.apache.thrift.transport.TTransportException;
-import org.apache.thrift.transport.TTransportFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,6 +37,10 @@ import java.net.UnknownHostException;
 
 /**
  * Root scheduler server.
+ * <p>
+ * The server is non-blocking and the root scheduler service is served through its async interface, so a
+ * connection only uses a thread while a request is read or a response is written, not while it waits for
+ * a placement.
  */
 public class RootSchedulerServer {
   private static final Logger logger = LoggerFactory.getLogger(RootSchedulerServer.class);
@@ -45,9 +48,8 @@ public class RootSchedulerServer {
   private final String bind;
   private final String registrationAddress;
   private final int port;
-  private final RootScheduler.Iface rootSchedulerService;
+  private final RootScheduler.AsyncIface rootSchedulerService;
   private final TProtocolFactory protocolFactory;
-  private final TTransportFactory transportFactory;
   private final ServiceNodeFactory serviceNodeFactory;
   private final BuildInfo buildInfo;
   private final ThriftFactory thriftFactory;
@@ -57,9 +59,8 @@ public class RootSchedulerServer {
 
   @Inject
   public RootSchedulerServer(ThriftConfig thriftConfig,
-                             RootScheduler.Iface rootSchedulerService,
+                             RootScheduler.AsyncIface rootSchedulerService,
                              TProtocolFactory protocolFactory,
-                             TTransportFactory transportFactory,
                              ServiceNodeFactory serviceNodeFactory,
                              BuildInfo buildInfo,
                              ThriftFactory thriftFactory) {
@@ -68,7 +69,6 @@ public class RootSchedulerServer {
     this.port = thriftConfig.getPort();
     this.rootSchedulerService = rootSchedulerService;
     this.protocolFactory = protocolFactory;
-    this.transportFactory = transportFactory;
     this.serviceNodeFactory = serviceNodeFactory;
     this.buildInfo = buildInfo;
     this.thriftFactory = thriftFactory;
@@ -84,23 +84,23 @@ public class RootSchedulerServer {
 
     InetAddress bindIpAddress = InetAddress.getByName(bind);
     InetSocketAddress bindSocketAddress = new InetSocketAddress(bindIpAddress, port);
-    TServerSocket transport = new TServerSocket(bindSocketAddress);
+    TNonblockingServerSocket transport = new TNonblockingServerSocket(bindSocketAddress);
 
-    RootScheduler.Processor<RootScheduler.Iface> rootSchedulerProcessor =
-        new RootScheduler.Processor<>(rootSchedulerService);
-    TMultiplexedProcessor processor = new TMultiplexedProcessor();
-    processor.registerProcessor("RootScheduler", rootSchedulerProcessor);
+    RootScheduler.AsyncProcessor<RootScheduler.AsyncIface> rootSchedulerProcessor =
+        new RootScheduler.AsyncProcessor<>(rootSchedulerService);
+    MultiplexedAsyncProcessor processor = new MultiplexedAsyncProcessor();
+    processor.registerProcessor("RootScheduler", rootSchedulerService, rootSchedulerProcessor);
 
-    server = new TThreadPoolServer(
-        new TThreadPoolServer.Args(transport)
+    // The non-blocking server reads and writes the frames itself, so no transport factory is set
+    server = new TThreadedSelectorServer(
+        new TThreadedSelectorServer.Args(transport)
             .processor(processor)
             .protocolFactory(protocolFactory)
-            .transportFactory(transportFactory)
     );
 
     // Need to re-fetch local port in case it was 0
     InetSocketAddress registrationSocketAddress = new InetSocketAddress(registrationIpAddress,
-        transport.getServerSocket().getLocalPort());
+        transport.getPort());
     serviceNode = serviceNodeFactory.createSimple("root-scheduler", registrationSocketAddress);
     if (rootSchedulerService instanceof ServiceNodeEventHandler) {
       server.setServerEventHandler(thriftFactory.create((ServiceNodeEventHandler) rootSchedulerService, serviceNode));
@@ -41,6 +41,30 @@ public class SchedulerConfig {
   @JsonProperty("utilization_transfer_ratio")
   private double utilizationTransferRatio = 9.0;
 
+  // When enabled, a placement returns as soon as early_return_quorum hosts respond with a score of at
+  // least early_return_min_score, and hedged requests are sent to hedge_count extra hosts when the
+  // first hosts are slower than usual to respond.
+  @JsonProperty("adaptive_placement")
+  private boolean adaptivePlacement = false;
+
+  @Min(1)
+  @Max(32)
+  @JsonProperty("early_return_quorum")
+  private int earlyReturnQuorum = 2;
+
+  @Min(0)
+  @JsonProperty("early_return_min_score")
+  private double earlyReturnMinScore = 50.0;
+
+  @Min(0)
+  @Max(32)
+  @JsonProperty("hedge_count")
+  private int hedgeCount = 2;
+
+  @Min(1)
+  @JsonProperty("hedge_min_delay_ms")
+  private long hedgeMinDelayMs = 200;
+
   public long getPlaceTimeoutMs() {
     return placeTimeoutMs;
   }
@@ -72,4 +96,44 @@ public class SchedulerConfig {
   public void setUtilizationTransferRatio(double utilizationTransferRatio) {
     this.utilizationTransferRatio = utilizationTransferRatio;
   }
+
+  public boolean isAdaptivePlacement() {
+    return adaptivePlacement;
+  }
+
+  public void setAdaptivePlacement(boolean adaptivePlacement) {
+    this.adaptivePlacement = adaptivePlacement;
+  }
+
+  public int getEarlyReturnQuorum() {
+    return earlyReturnQuorum;
+  }
+
+  public void setEarlyReturnQuorum(int earlyReturnQuorum) {
+    this.earlyReturnQuorum = earlyReturnQuorum;
+  }
+
+  public double getEarlyReturnMinScore() {
+    return earlyReturnMinScore;
+  }
+
+  public void setEarlyReturnMinScore(double earlyReturnMinScore) {
+    this.earlyReturnMinScore = earlyReturnMinScore;
+  }
+
+  public int getHedgeCount() {
+    return hedgeCount;
+  }
+
+  public void setHedgeCount(int hedgeCount) {
+    this.hedgeCount = hedgeCount;
+  }
+
+  public long getHedgeMinDelayMs() {
+    return hedgeMinDelayMs;
+  }
+
+  public void setHedgeMinDelayMs(long hedgeMinDelayMs) {
+    this.hedgeMinDelayMs = hedgeMinDelayMs;
+  }
 }
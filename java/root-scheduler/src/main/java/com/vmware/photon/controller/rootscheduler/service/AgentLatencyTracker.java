@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.vmware.photon.controller.rootscheduler.service;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of how long each agent takes to respond to place requests, as an exponentially
+ * weighted moving average. The placement task uses this to decide how long to wait before
+ * sending hedged place requests to extra candidates.
+ */
+public class AgentLatencyTracker {
+
+  /**
+   * The weight of the most recent sample in the moving average.
+   */
+  private static final double ALPHA = 0.2;
+
+  /**
+   * We wait for twice the expected latency of the slowest candidate before hedging.
+   */
+  private static final double HEDGE_LATENCY_MULTIPLIER = 2.0;
+
+  // Map from host ID to the average place latency in milliseconds
+  private final ConcurrentHashMap<String, Double> latencies = new ConcurrentHashMap<>();
+
+  /**
+   * Records the latency of a place request to an agent.
+   */
+  public void recordLatency(String hostId, long latencyMs) {
+    latencies.merge(hostId, (double) latencyMs, (average, sample) -> average + ALPHA * (sample - average));
+  }
+
+  /**
+   * Returns the average place latency of an agent in milliseconds, or null if we never heard from it.
+   */
+  public Double getLatency(String hostId) {
+    return latencies.get(hostId);
+  }
+
+  /**
+   * Returns how long to wait for the given agents before sending hedged requests. This is twice the
+   * expected latency of the slowest agent, and at least minDelayMs. Agents we never heard from are
+   * assumed to be fast.
+   */
+  public long getHedgeDelayMs(Collection<String> hostIds, long minDelayMs) {
+    double maxLatency = 0;
+    for (String hostId : hostIds) {
+      Double latency = latencies.get(hostId);
+      if (latency != null && latency > maxLatency) {
+        maxLatency = latency;
+      }
+    }
+    return Math.max(minDelayMs, (long) (maxLatency * HEDGE_LATENCY_MULTIPLIER));
+  }
+}
@@ -19,6 +19,7 @@ import com.vmware.photon.controller.api.UsageTag;
 import com.vmware.photon.controller.cloudstore.dcp.entity.DatastoreService;
 import com.vmware.photon.controller.cloudstore.dcp.entity.HostService;
 import com.vmware.photon.controller.cloudstore.dcp.entity.HostServiceFactory;
+import com.vmware.photon.controller.common.xenon.QueryTaskUtils;
 import com.vmware.photon.controller.common.xenon.ServiceUtils;
 import com.vmware.photon.controller.common.xenon.XenonRestClient;
 import com.vmware.photon.controller.common.zookeeper.gen.ServerAddress;
@@ -310,15 +311,13 @@ public class CloudStoreConstraintChecker implements ConstraintChecker {
   private void queryHosts(QueryTask queryTask, int numCandidates, Map<String, ServerAddress> result)
       throws Throwable {
     Operation completedOp = xenonRestClient.query(queryTask);
-    Map<String, Object> documents = extractDocumentsFromQuery(completedOp);
-
-    if (documents == null) {
-      // Logging happened in extractDocumentsFromQuery
+    if (!completedOp.hasBody()) {
+      logger.info("Got host query response without a body");
       return;
     }
 
-    for (Object document : documents.values()) {
-      HostService.State host = Utils.fromJson(document, HostService.State.class);
+    // Hosts are decoded as we go, so that we stop decoding once we have enough candidates
+    for (HostService.State host : QueryTaskUtils.iterateQueryResultDocuments(HostService.State.class, completedOp)) {
       if (host == null) {
         logger.warn("Host query had invalid host, ignoring");
         continue;
@@ -334,36 +333,6 @@ public class CloudStoreConstraintChecker implements ConstraintChecker {
     }
   }
 
-  /**
-   * Helper for getCandidates() to extract the set of documents (full host records) from the query.
-   *
-   * @param queryResponse
-   * @return
-   */
-  private Map<String, Object> extractDocumentsFromQuery(Operation queryResponse) {
-    if (!queryResponse.hasBody()) {
-      logger.info("Got host query response without a body");
-      return null;
-    }
-
-    QueryTask taskState = queryResponse.getBody(QueryTask.class);
-    if (taskState == null) {
-      logger.warn("Got empty host query response");
-      return null;
-    }
-    ServiceDocumentQueryResult queryResult = taskState.results;
-    if (queryResult == null) {
-      logger.warn("Got host query response with empty result");
-      return null;
-    }
-    Map<String, Object> documents = queryResult.documents;
-    if (documents == null) {
-      logger.warn("Got host query response with empty documents");
-      return null;
-    }
-    return documents;
-  }
-
   /**
    * Figure out the clause to add to our query to only pick hosts that have datastores with a given tag.
    *
@@ -14,7 +14,6 @@
 package com.vmware.photon.controller.rootscheduler.service;
 
 import com.vmware.photon.controller.common.logging.LoggingUtils;
-import com.vmware.photon.controller.common.xenon.ServiceHostUtils;
 import com.vmware.photon.controller.common.zookeeper.ServiceNodeEventHandler;
 import com.vmware.photon.controller.rootscheduler.Config;
 import com.vmware.photon.controller.rootscheduler.xenon.SchedulerXenonHost;
@@ -34,6 +33,7 @@ import com.vmware.xenon.common.UriUtils;
 
 import com.google.inject.Inject;
 import org.apache.thrift.TException;
+import org.apache.thrift.async.AsyncMethodCallback;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,7 +51,7 @@ import org.slf4j.LoggerFactory;
  * <p>
  * (1) http://www.eecs.berkeley.edu/~keo/publications/sosp13-final17.pdf
  */
-public class FlatSchedulerService implements RootScheduler.Iface, ServiceNodeEventHandler {
+public class FlatSchedulerService implements RootScheduler.AsyncIface, ServiceNodeEventHandler {
   private static final Logger logger = LoggerFactory.getLogger(FlatSchedulerService.class);
   private static final String REFERRER_PATH = "/scheduler";
   private final Config config;
@@ -66,17 +66,29 @@ public class FlatSchedulerService implements RootScheduler.Iface, ServiceNodeEve
   }
 
   @Override
-  public synchronized Status get_status(GetStatusRequest request) throws TException {
-    return new Status(StatusType.READY);
+  @SuppressWarnings("unchecked")
+  public void get_status(GetStatusRequest request, AsyncMethodCallback resultHandler) throws TException {
+    resultHandler.onComplete(new Status(StatusType.READY));
   }
 
+  /**
+   * Starts a placement task and completes the call from the completion of the task, so no thread waits
+   * for the placement.
+   */
   @Override
-  public PlaceResponse place(PlaceRequest request) throws TException {
+  @SuppressWarnings("unchecked")
+  public void place(PlaceRequest request, AsyncMethodCallback resultHandler) throws TException {
     logger.info("place request: {}", request);
     PlacementTask placementTask = new PlacementTask();
     placementTask.resource = request.getResource();
     placementTask.sampleHostCount = config.getRootPlaceParams().getMaxFanoutCount();
     placementTask.timeoutMs = config.getRootPlaceParams().getTimeout();
+    if (config.getRoot().isAdaptivePlacement()) {
+      placementTask.earlyReturnQuorum = config.getRoot().getEarlyReturnQuorum();
+      placementTask.earlyReturnMinScore = config.getRoot().getEarlyReturnMinScore();
+      placementTask.hedgeCount = config.getRoot().getHedgeCount();
+      placementTask.hedgeMinDelayMs = config.getRoot().getHedgeMinDelayMs();
+    }
     placementTask.taskState = new TaskState();
     placementTask.taskState.isDirect = true;
 
@@ -88,33 +100,55 @@ public class FlatSchedulerService implements RootScheduler.Iface, ServiceNodeEve
         .createPost(UriUtils.buildUri(schedulerXenonHost, PlacementTaskService.FACTORY_LINK))
         .setBody(placementTask)
         .setContextId(LoggingUtils.getRequestId())
-        .setReferer(UriUtils.buildUri(schedulerXenonHost, REFERRER_PATH));
+        .setReferer(UriUtils.buildUri(schedulerXenonHost, REFERRER_PATH))
+        .setCompletion((placementResponse, failure) -> {
+          if (failure != null) {
+            resultHandler.onComplete(buildErrorResponse(request, failure));
+            return;
+          }
+
+          try {
+            resultHandler.onComplete(buildPlaceResponse(placementResponse.getBody(PlacementTask.class)));
+          } catch (Throwable t) {
+            resultHandler.onComplete(buildErrorResponse(request, t));
+          }
+        });
 
     try {
-      // Wait for the response of the PlacementTask and transform the task response into a PlaceResponse
-      Operation placementResponse = ServiceHostUtils.sendRequestAndWait(schedulerXenonHost, post, REFERRER_PATH);
-      PlacementTask taskResponse = placementResponse.getBody(PlacementTask.class);
-      PlaceResponse response = new PlaceResponse();
-      response.setResult(taskResponse.resultCode);
-      response.setTracing_info(new TracingInfo());
-      response.getTracing_info().setRequest_id(taskResponse.requestId);
-      if (taskResponse.taskState.stage == TaskState.TaskStage.FINISHED) {
-        response.setGeneration(taskResponse.generation);
-        response.setAddress(taskResponse.serverAddress);
-        response.setPlacementList(taskResponse.resource.getPlacement_list());
-      } else {
-        response.setError(taskResponse.error);
-      }
-      return response;
+      schedulerXenonHost.sendRequest(post);
     } catch (Throwable t) {
-      logger.error("Calling placement service failed: {}", t.getMessage());
-      PlaceResponse response = new PlaceResponse();
-      response.setResult(PlaceResultCode.SYSTEM_ERROR);
-      response.setError(t.getMessage());
-      response.setTracing_info(new TracingInfo());
+      resultHandler.onComplete(buildErrorResponse(request, t));
+    }
+  }
+
+  /**
+   * Transforms the response of the PlacementTask into a PlaceResponse.
+   */
+  private static PlaceResponse buildPlaceResponse(PlacementTask taskResponse) {
+    PlaceResponse response = new PlaceResponse();
+    response.setResult(taskResponse.resultCode);
+    response.setTracing_info(new TracingInfo());
+    response.getTracing_info().setRequest_id(taskResponse.requestId);
+    if (taskResponse.taskState.stage == TaskState.TaskStage.FINISHED) {
+      response.setGeneration(taskResponse.generation);
+      response.setAddress(taskResponse.serverAddress);
+      response.setPlacementList(taskResponse.resource.getPlacement_list());
+    } else {
+      response.setError(taskResponse.error);
+    }
+    return response;
+  }
+
+  private static PlaceResponse buildErrorResponse(PlaceRequest request, Throwable t) {
+    logger.error("Calling placement service failed: {}", t.getMessage());
+    PlaceResponse response = new PlaceResponse();
+    response.setResult(PlaceResultCode.SYSTEM_ERROR);
+    response.setError(t.getMessage());
+    response.setTracing_info(new TracingInfo());
+    if (request.isSetTracing_info()) {
       response.getTracing_info().setRequest_id(request.getTracing_info().getRequest_id());
-      return response;
     }
+    return response;
   }
 
   @Override
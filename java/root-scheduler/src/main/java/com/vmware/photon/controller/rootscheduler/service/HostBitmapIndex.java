@@ -0,0 +1,540 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.vmware.photon.controller.rootscheduler.service;
+
+import com.vmware.photon.controller.resource.gen.ResourceConstraint;
+import com.vmware.photon.controller.resource.gen.ResourceConstraintType;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The HostBitmapIndex is the constraint evaluation engine shared by the in-memory constraint checkers.
+ * <p>
+ * Each host is assigned a dense ordinal, and every datastore, network and availability zone maps to a
+ * bitmap of the ordinals of the hosts that have it. A list of constraints is evaluated with AND/ANDNOT
+ * operations over those bitmaps, and the candidates are picked by randomly sampling the set bits of the
+ * result. Compared to intersecting sets of host IDs, this allocates a single bitmap per query and doesn't
+ * need to hash any strings.
+ * <p>
+ * Ordinals of deleted hosts are reused, so the bitmaps stay as dense as the number of hosts allows.
+ * <p>
+ * The index is thread-safe: queries can run concurrently with each other, and updates are serialized.
+ */
+public class HostBitmapIndex {
+
+  /**
+   * Keeps track of what a host was indexed with, so it can be removed from the bitmaps it no longer
+   * belongs to when it's updated or deleted.
+   */
+  private static class HostEntry {
+    private final int ordinal;
+    private Set<String> datastores = Collections.emptySet();
+    private Set<String> networks = Collections.emptySet();
+    private String availabilityZone;
+
+    private HostEntry(int ordinal) {
+      this.ordinal = ordinal;
+    }
+  }
+
+  private static final BitSet EMPTY = new BitSet(0);
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  // Map from host ID to the host's entry in the index
+  private final Map<String, HostEntry> hostEntries = new HashMap<>();
+
+  // Map from ordinal to host ID. Unused ordinals map to null.
+  private final List<String> ordinalsToHosts = new ArrayList<>();
+
+  // Ordinals of deleted hosts that can be reused
+  private final BitSet freeOrdinals = new BitSet();
+
+  // All the hosts in the index
+  private final BitSet hosts = new BitSet();
+
+  // Hosts that can't be used for placement
+  private final BitSet unavailableHosts = new BitSet();
+
+  // Management hosts
+  private final BitSet managementHosts = new BitSet();
+
+  // Map from datastore ID to hosts
+  private final Map<String, BitSet> datastoresToHosts = new HashMap<>();
+
+  // Map from network ID to hosts
+  private final Map<String, BitSet> networksToHosts = new HashMap<>();
+
+  // Map from availability zone to hosts
+  private final Map<String, BitSet> availabilityZonesToHosts = new HashMap<>();
+
+  // Map from datastore ID to the datastore's tags
+  private final Map<String, Set<String>> datastoresToTags = new HashMap<>();
+
+  // Map from datastore tag to datastore IDs
+  private final Map<String, Set<String>> tagsToDatastores = new HashMap<>();
+
+  private final Random random;
+
+  public HostBitmapIndex() {
+    this(ConstraintChecker.RANDOM);
+  }
+
+  public HostBitmapIndex(Random random) {
+    this.random = random;
+  }
+
+  /**
+   * Add a host to the index, or replace everything we know about it.
+   *
+   * @param hostId the host ID.
+   * @param available false if the host must not be returned as a candidate.
+   * @param management true if this is a management host.
+   * @param datastores the IDs of the datastores reported by the host. May be null.
+   * @param networks the IDs of the networks reported by the host. May be null.
+   * @param availabilityZone the availability zone of the host. May be null.
+   */
+  public void addOrUpdateHost(
+      String hostId,
+      boolean available,
+      boolean management,
+      Collection<String> datastores,
+      Collection<String> networks,
+      String availabilityZone) {
+    lock.writeLock().lock();
+    try {
+      HostEntry entry = hostEntries.get(hostId);
+      if (entry == null) {
+        entry = new HostEntry(allocateOrdinal(hostId));
+        hostEntries.put(hostId, entry);
+      } else {
+        unindex(entry);
+      }
+
+      int ordinal = entry.ordinal;
+      hosts.set(ordinal);
+      unavailableHosts.set(ordinal, !available);
+      managementHosts.set(ordinal, management);
+
+      entry.datastores = copyOf(datastores);
+      for (String datastoreId : entry.datastores) {
+        setBit(datastoresToHosts, datastoreId, ordinal);
+      }
+
+      entry.networks = copyOf(networks);
+      for (String networkId : entry.networks) {
+        setBit(networksToHosts, networkId, ordinal);
+      }
+
+      entry.availabilityZone = availabilityZone;
+      if (availabilityZone != null) {
+        setBit(availabilityZonesToHosts, availabilityZone, ordinal);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Remove a host from the index. Its ordinal will be reused by the next host that is added.
+   */
+  public void removeHost(String hostId) {
+    lock.writeLock().lock();
+    try {
+      HostEntry entry = hostEntries.remove(hostId);
+      if (entry == null) {
+        return;
+      }
+      unindex(entry);
+      hosts.clear(entry.ordinal);
+      unavailableHosts.clear(entry.ordinal);
+      managementHosts.clear(entry.ordinal);
+      ordinalsToHosts.set(entry.ordinal, null);
+      freeOrdinals.set(entry.ordinal);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Add a datastore to the index, or replace its set of tags.
+   */
+  public void addOrUpdateDatastore(String datastoreId, Collection<String> tags) {
+    lock.writeLock().lock();
+    try {
+      untag(datastoreId);
+      Set<String> newTags = copyOf(tags);
+      datastoresToTags.put(datastoreId, newTags);
+      for (String tag : newTags) {
+        tagsToDatastores.computeIfAbsent(tag, k -> new HashSet<>()).add(datastoreId);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Remove a datastore and its tags from the index. Hosts that report the datastore are not modified.
+   */
+  public void removeDatastore(String datastoreId) {
+    lock.writeLock().lock();
+    try {
+      untag(datastoreId);
+      datastoresToTags.remove(datastoreId);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Randomly pick up to numCandidates available hosts that satisfy all the constraints.
+   *
+   * Constraints with multiple values are satisfied by hosts matching any of the values. Negative constraints
+   * are satisfied by hosts that don't match any of the values.
+   *
+   * @return the IDs of the selected hosts.
+   */
+  public List<String> getCandidates(List<ResourceConstraint> constraints, int numCandidates) {
+    lock.readLock().lock();
+    try {
+      BitSet matches = (BitSet) hosts.clone();
+      matches.andNot(unavailableHosts);
+
+      if (constraints != null) {
+        for (ResourceConstraint constraint : constraints) {
+          if (matches.isEmpty()) {
+            break;
+          }
+          if (constraint == null) {
+            continue;
+          }
+          BitSet constraintHosts = getHostsMatchingConstraint(constraint);
+          if (constraint.isSetNegative() && constraint.isNegative()) {
+            matches.andNot(constraintHosts);
+          } else {
+            matches.and(constraintHosts);
+          }
+        }
+      }
+
+      return sample(matches, numCandidates);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the number of hosts in the index.
+   */
+  public int getHostCount() {
+    lock.readLock().lock();
+    try {
+      return hostEntries.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the number of management hosts in the index.
+   */
+  public int getManagementHostCount() {
+    lock.readLock().lock();
+    try {
+      return managementHosts.cardinality();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the number of datastores in the index.
+   */
+  public int getDatastoreCount() {
+    lock.readLock().lock();
+    try {
+      return datastoresToTags.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the IDs of all the hosts in the index.
+   */
+  public Set<String> getHosts() {
+    return toHostIds(hosts);
+  }
+
+  /**
+   * Returns the IDs of the management hosts.
+   */
+  public Set<String> getManagementHosts() {
+    return toHostIds(managementHosts);
+  }
+
+  /**
+   * Returns the IDs of the hosts that report a datastore.
+   */
+  public Set<String> getHostsWithDatastore(String datastoreId) {
+    return toHostIds(datastoresToHosts, datastoreId);
+  }
+
+  /**
+   * Returns the IDs of the hosts that report a datastore with the given tag.
+   */
+  public Set<String> getHostsWithDatastoreTag(String datastoreTag) {
+    lock.readLock().lock();
+    try {
+      return toHostIds(getHostsWithTag(datastoreTag));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the IDs of the hosts that report a network.
+   */
+  public Set<String> getHostsWithNetwork(String networkId) {
+    return toHostIds(networksToHosts, networkId);
+  }
+
+  /**
+   * Returns the IDs of the hosts in an availability zone.
+   */
+  public Set<String> getHostsInAvailabilityZone(String availabilityZone) {
+    return toHostIds(availabilityZonesToHosts, availabilityZone);
+  }
+
+  /**
+   * Returns the hosts that have any of the values in the constraint, ignoring whether the constraint
+   * is negative. The caller is responsible for negating it. The returned bitmap must not be modified.
+   * <p>
+   * Must be called with the read lock held.
+   */
+  private BitSet getHostsMatchingConstraint(ResourceConstraint constraint) {
+    if (constraint.getType() == ResourceConstraintType.MANAGEMENT_ONLY) {
+      return managementHosts;
+    }
+
+    List<String> values = constraint.getValues();
+    if (values == null || values.isEmpty()) {
+      throw new IllegalArgumentException("Invalid constraint without values: " + constraint);
+    }
+
+    if (values.size() == 1) {
+      return getHostsMatchingValue(constraint.getType(), values.get(0));
+    }
+
+    BitSet result = new BitSet();
+    for (String value : values) {
+      result.or(getHostsMatchingValue(constraint.getType(), value));
+    }
+    return result;
+  }
+
+  /**
+   * Returns the hosts that match a single constraint value. The returned bitmap must not be modified.
+   * <p>
+   * Must be called with the read lock held.
+   */
+  private BitSet getHostsMatchingValue(ResourceConstraintType type, String value) {
+    switch (type) {
+      case AVAILABILITY_ZONE:
+        return availabilityZonesToHosts.getOrDefault(value, EMPTY);
+      case DATASTORE:
+        return datastoresToHosts.getOrDefault(value, EMPTY);
+      case DATASTORE_TAG:
+        return getHostsWithTag(value);
+      case HOST:
+        HostEntry entry = hostEntries.get(value);
+        if (entry == null) {
+          return EMPTY;
+        }
+        BitSet host = new BitSet(entry.ordinal + 1);
+        host.set(entry.ordinal);
+        return host;
+      case NETWORK:
+        return networksToHosts.getOrDefault(value, EMPTY);
+      default:
+        throw new IllegalArgumentException("Unsupported constraint type: " + type);
+    }
+  }
+
+  /**
+   * Returns the hosts that have a datastore with the given tag.
+   * <p>
+   * Must be called with the read lock held.
+   */
+  private BitSet getHostsWithTag(String tag) {
+    Set<String> datastores = tagsToDatastores.get(tag);
+    if (datastores == null) {
+      return EMPTY;
+    }
+    if (datastores.size() == 1) {
+      return datastoresToHosts.getOrDefault(datastores.iterator().next(), EMPTY);
+    }
+    BitSet result = new BitSet();
+    for (String datastoreId : datastores) {
+      result.or(datastoresToHosts.getOrDefault(datastoreId, EMPTY));
+    }
+    return result;
+  }
+
+  /**
+   * Randomly pick up to numCandidates set bits from the bitmap, and return the corresponding host IDs.
+   * <p>
+   * We use Floyd's algorithm to pick distinct ranks among the matching hosts, and then walk the bitmap once
+   * to translate the ranks to ordinals. The hosts are shuffled before being returned, as callers may give
+   * precedence to the first ones and the bitmap walk returns them in ordinal order.
+   * <p>
+   * Must be called with the read lock held.
+   */
+  private List<String> sample(BitSet matches, int numCandidates) {
+    int numMatches = matches.cardinality();
+    List<String> result = new ArrayList<>(Math.min(numCandidates, numMatches));
+
+    if (numMatches <= numCandidates) {
+      for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+        result.add(ordinalsToHosts.get(i));
+      }
+      Collections.shuffle(result, random);
+      return result;
+    }
+
+    BitSet ranks = new BitSet(numMatches);
+    for (int i = numMatches - numCandidates; i < numMatches; i++) {
+      int rank = random.nextInt(i + 1);
+      ranks.set(ranks.get(rank) ? i : rank);
+    }
+
+    int rank = 0;
+    int ordinal = matches.nextSetBit(0);
+    for (int selected = ranks.nextSetBit(0); selected >= 0; selected = ranks.nextSetBit(selected + 1)) {
+      while (rank < selected) {
+        ordinal = matches.nextSetBit(ordinal + 1);
+        rank++;
+      }
+      result.add(ordinalsToHosts.get(ordinal));
+    }
+    Collections.shuffle(result, random);
+    return result;
+  }
+
+  private int allocateOrdinal(String hostId) {
+    int ordinal = freeOrdinals.nextSetBit(0);
+    if (ordinal < 0) {
+      ordinal = ordinalsToHosts.size();
+      ordinalsToHosts.add(hostId);
+    } else {
+      freeOrdinals.clear(ordinal);
+      ordinalsToHosts.set(ordinal, hostId);
+    }
+    return ordinal;
+  }
+
+  /**
+   * Clear the host from the datastore, network and availability zone bitmaps it is in.
+   * <p>
+   * Must be called with the write lock held.
+   */
+  private void unindex(HostEntry entry) {
+    for (String datastoreId : entry.datastores) {
+      clearBit(datastoresToHosts, datastoreId, entry.ordinal);
+    }
+    for (String networkId : entry.networks) {
+      clearBit(networksToHosts, networkId, entry.ordinal);
+    }
+    if (entry.availabilityZone != null) {
+      clearBit(availabilityZonesToHosts, entry.availabilityZone, entry.ordinal);
+    }
+  }
+
+  /**
+   * Remove a datastore from the tag index.
+   * <p>
+   * Must be called with the write lock held.
+   */
+  private void untag(String datastoreId) {
+    Set<String> oldTags = datastoresToTags.get(datastoreId);
+    if (oldTags == null) {
+      return;
+    }
+    for (String tag : oldTags) {
+      Set<String> datastores = tagsToDatastores.get(tag);
+      if (datastores != null) {
+        datastores.remove(datastoreId);
+        if (datastores.isEmpty()) {
+          tagsToDatastores.remove(tag);
+        }
+      }
+    }
+  }
+
+  private Set<String> toHostIds(Map<String, BitSet> map, String key) {
+    lock.readLock().lock();
+    try {
+      return toHostIds(map.getOrDefault(key, EMPTY));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private Set<String> toHostIds(BitSet bitmap) {
+    lock.readLock().lock();
+    try {
+      Set<String> result = new HashSet<>();
+      for (int i = bitmap.nextSetBit(0); i >= 0; i = bitmap.nextSetBit(i + 1)) {
+        result.add(ordinalsToHosts.get(i));
+      }
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private static void setBit(Map<String, BitSet> map, String key, int ordinal) {
+    map.computeIfAbsent(key, k -> new BitSet()).set(ordinal);
+  }
+
+  private static void clearBit(Map<String, BitSet> map, String key, int ordinal) {
+    BitSet bitmap = map.get(key);
+    if (bitmap != null) {
+      bitmap.clear(ordinal);
+      if (bitmap.isEmpty()) {
+        map.remove(key);
+      }
+    }
+  }
+
+  private static Set<String> copyOf(Collection<String> values) {
+    if (values == null || values.isEmpty()) {
+      return Collections.emptySet();
+    }
+    Set<String> result = new HashSet<>(values);
+    result.remove(null);
+    return result;
+  }
+}
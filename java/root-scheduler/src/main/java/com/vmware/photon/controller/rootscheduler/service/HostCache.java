@@ -12,6 +12,8 @@
  */
 package com.vmware.photon.controller.rootscheduler.service;
 
+import com.vmware.photon.controller.api.AgentState;
+import com.vmware.photon.controller.api.HostState;
 import com.vmware.photon.controller.api.UsageTag;
 import com.vmware.photon.controller.cloudstore.dcp.entity.DatastoreService;
 import com.vmware.photon.controller.cloudstore.dcp.entity.HostService;
@@ -33,137 +35,107 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.URI;
-import java.util.Collections;
 import java.util.EnumSet;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 /**
  * The HostCache is used by the scheduler to track information on what hosts
  * are available to be used for scheduling decisions.
  * <p>
- * It can answer a query for "give me N random hosts that match a set of constraints".
+ * It can answer a query for "give me N random hosts that match a set of constraints". Unlike the
+ * {@link CloudStoreConstraintChecker}, this is answered entirely from memory: the cache is kept
+ * up to date by continuous queries on the host and datastore documents in Cloudstore.
+ * <p>
+ * The cache is only ready to answer queries once the continuous queries replayed the current hosts and
+ * datastores. A continuous query that gets deleted is recreated, and the cache is not ready until the new
+ * query replayed its state.
  * <p>
  * It has methods used for introspection (mostly for testing) to tell us about the
  * state of the cache.
  */
-public class HostCache {
+public class HostCache implements ConstraintChecker {
+
+  private static final Logger logger = LoggerFactory.getLogger(HostCache.class);
 
   /**
-   * The ConcurrentMultiMap lets us store a map from a key to a set of values. It's a ConcurrentHashMap, where each
-   * value is a ConcurrentHashMap. It's similar to Guava's Multimap, but thread-safe. It provides a limited
-   * set of operations to support just the host cache.
-   * <p>
-   * We use this, for example, to keep track of all the hosts that have a given datastore.
+   * How long we wait before trying again to create a continuous query that we failed to create.
    */
-  private static class ConcurrentMultiMap<K, V> {
-    private ConcurrentHashMap<K, Set<V>> map;
-
-    public ConcurrentMultiMap() {
-      map = new ConcurrentHashMap<>();
-    }
-
-    /**
-     * Add a value to the set of values associated with a key.
-     */
-    private void addOrUpdate(K key, V value) {
-      if (!this.map.contains(key)) {
-        Set<V> set = Collections.newSetFromMap(new ConcurrentHashMap<V, Boolean>());
-        map.putIfAbsent(key, set);
-      }
-      Set<V> set = map.get(key);
-      set.add(value);
-    }
-
-    /**
-     * Replace the entire set of values associated with a key.
-     */
-    private void setAll(K key, Set<V> values) {
-      if (values == null) {
-        map.remove(key);
-        return;
-      }
-      map.put(key, values);
-    }
-
-    /**
-     * Remove a key and all of it's associated values.
-     */
-    private void remove(K key) {
-      map.remove(key);
-    }
-
-    /**
-     * For each key, remove the given value from its set of values.
-     * Obviously, this may be an expensive operation: use it judiciously.
-     */
-    private void removeFromAll(V value) {
-      for (Set<V> values : map.values()) {
-        values.remove(value);
-      }
-    }
-
-    /**
-     * Get the set of values associated with a key.
-     * <p>
-     * This should be used for introspection only: to add or delete values, user other methods.
-     */
-    private Set<V> getValues(K key) {
-      return map.get(key);
-    }
+  private static final long SUBSCRIBE_RETRY_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(10);
 
-    /**
-     * The number of keys in this ConcurrentMultiMap.
-     */
-    private int size() {
-      return map.size();
-    }
+  ServiceHost schedulerHost;
 
-  }
+  XenonRestClient cloudstoreClient;
 
-  private static final Logger logger = LoggerFactory.getLogger(HostCache.class);
+  // Whether the current host and datastore queries replayed their state to us
+  private volatile boolean hostsPopulated;
+  private volatile boolean datastoresPopulated;
 
-  ServiceHost schedulerHost;
+  // Subscriptions to the continuous queries, by entity name
+  private final Map<String, Service> subscriptions = new ConcurrentHashMap<>();
 
   // Map from host ID to host address
   protected ConcurrentHashMap<String, ServerAddress> hostAddresses;
 
-  // Set of management host IDs
-  protected Set<String> managementHostIds;
-
-  // Map from network ID to set of host IDs
-  protected ConcurrentMultiMap<String, String> networksToHosts;
-
-  // Map from datastore ID to set of host IDs
-  protected ConcurrentMultiMap<String, String> datastoresToHosts;
-
-  // Set of datastore IDs
-  protected Set<String> datastoreIds;
-
-  // Map from datastore tags to datastore Ids
-  protected ConcurrentMultiMap<String, String> datastoreTagsToDatastores;
-
-  // Map from availability zone to set of host IDs
-  protected ConcurrentMultiMap<String, String> availabilityZonesToHosts;
-
+  // The index of hosts by management flag, network, datastore, datastore tag and availability zone
+  protected HostBitmapIndex index;
 
   public HostCache(ServiceHost schedulerHost, XenonRestClient cloudstoreClient) {
     this.schedulerHost = schedulerHost;
+    this.cloudstoreClient = cloudstoreClient;
     initializeCache();
-    subscribeToHosts(cloudstoreClient, createHostNotificationTarget());
-    subscribeToDatastores(cloudstoreClient, createDatastoreNotificationTarget());
+    subscribeToHosts();
+    subscribeToDatastores();
   }
 
   /**
-   * The HostCache is still in progress. This will return a set of hosts from the cache that match
-   * the given constraints.
+   * Creates an empty cache that is not subscribed to Cloudstore.
+   * Intended for testing: the cache is populated by calling addOrUpdateHost and addOrUpdateDatastore directly.
+   */
+  HostCache() {
+    initializeCache();
+    this.hostsPopulated = true;
+    this.datastoresPopulated = true;
+  }
+
+  /**
+   * Returns true once the cache was populated with the current hosts and datastores. Until then, the
+   * cache would answer queries with missing hosts.
+   */
+  public boolean isReady() {
+    return hostsPopulated && datastoresPopulated;
+  }
+
+  @Override
+  public Map<String, ServerAddress> getCandidates(List<ResourceConstraint> constraints, int numCandidates) {
+    return getHostsMatchingContraints(constraints, numCandidates);
+  }
+
+  /**
+   * Returns up to numHosts random hosts from the cache that match all of the given constraints.
+   * <p>
+   * Hosts that are not ready, or whose agent is not active, are never returned.
    */
   public Map<String, ServerAddress> getHostsMatchingContraints(List<ResourceConstraint> constraints, int numHosts) {
-    throw new IllegalStateException("Not implemented yet");
+    if (numHosts <= 0) {
+      throw new IllegalArgumentException("getCandidates called with invalid numCandidates: " + numHosts);
+    }
+
+    List<String> hostIds = this.index.getCandidates(constraints, numHosts);
+    Map<String, ServerAddress> result = new HashMap<>(hostIds.size());
+    for (String hostId : hostIds) {
+      ServerAddress address = this.hostAddresses.get(hostId);
+      if (address != null) {
+        // The host may have been deleted after we selected it
+        result.put(hostId, address);
+      }
+    }
+    return result;
   }
 
   /**
@@ -179,7 +151,7 @@ public class HostCache {
    * Intended for testing
    */
   public int getManagementHostCount() {
-    return this.managementHostIds.size();
+    return this.index.getManagementHostCount();
   }
 
   /**
@@ -187,7 +159,7 @@ public class HostCache {
    * Intended for testing
    */
   public int getDatastoreCount() {
-    return this.datastoreIds.size();
+    return this.index.getDatastoreCount();
   }
 
   /**
@@ -195,7 +167,7 @@ public class HostCache {
    * Intended for testing
    */
   public Set<String> getHostsWithDatastore(String datastoreId) {
-    return this.datastoresToHosts.getValues(datastoreId);
+    return this.index.getHostsWithDatastore(datastoreId);
   }
 
   /**
@@ -203,11 +175,7 @@ public class HostCache {
    * Intended for testing.
    */
   public Set<String> getHostsWithDatastoreTag(String datastoreTag) {
-    Set<String> hosts = new HashSet<>();
-    for (String datastoreId : this.datastoreTagsToDatastores.getValues(datastoreTag)) {
-      hosts.addAll(this.datastoresToHosts.getValues(datastoreId));
-    }
-    return hosts;
+    return this.index.getHostsWithDatastoreTag(datastoreTag);
   }
 
   /**
@@ -215,7 +183,7 @@ public class HostCache {
    * Intended for testing.
    */
   public Set<String> getHostsOnNetwork(String networkId) {
-    return this.networksToHosts.getValues(networkId);
+    return this.index.getHostsWithNetwork(networkId);
   }
 
   /**
@@ -223,7 +191,7 @@ public class HostCache {
    * Intended for testing.
    */
   public Set<String> getHostsInZone(String availabilityZone) {
-    return this.availabilityZonesToHosts.getValues(availabilityZone);
+    return this.index.getHostsInAvailabilityZone(availabilityZone);
   }
 
   /**
@@ -231,12 +199,7 @@ public class HostCache {
    */
   private void initializeCache() {
     hostAddresses = new ConcurrentHashMap<>();
-    managementHostIds = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
-    networksToHosts = new ConcurrentMultiMap<>();
-    datastoresToHosts = new ConcurrentMultiMap<>();
-    availabilityZonesToHosts = new ConcurrentMultiMap<>();
-    datastoreIds = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
-    datastoreTagsToDatastores = new ConcurrentMultiMap<>();
+    index = new HostBitmapIndex();
   }
 
   /**
@@ -249,14 +212,17 @@ public class HostCache {
       queryUpdate.complete();
 
       if (!queryUpdate.hasBody() && queryUpdate.getAction() == Service.Action.DELETE) {
-        // TODO(alainr): recreate query when someone deletes it
-        logger.warn("Continuous query was deleted, no further updates to host cache will happen");
+        logger.warn("Continuous host query was deleted, recreating it");
+        hostsPopulated = false;
+        subscribeToHosts();
         return;
       }
 
       Map<String, Object> documents = extractDocumentsFromQueryUpdate(queryUpdate, "host");
       if (documents == null) {
-        // Log message happened in extractDocumentsFromQueryUpdate
+        // Log message happened in extractDocumentsFromQueryUpdate. A query update with no results still
+        // tells us that there is nothing to replay.
+        hostsPopulated |= queryUpdate.hasBody();
         return;
       }
       for (Object document : documents.values()) {
@@ -273,6 +239,9 @@ public class HostCache {
           deleteHost(host);
         }
       }
+
+      // The first update of the query replays all the current hosts, so the cache is now complete
+      hostsPopulated = true;
     };
     return notificationTarget;
   }
@@ -287,14 +256,17 @@ public class HostCache {
       queryUpdate.complete();
 
       if (!queryUpdate.hasBody() && queryUpdate.getAction() == Service.Action.DELETE) {
-        // TODO(alainr): recreate query when someone deletes it
-        logger.info("Continuous query was deleted, no further updates to datastore cache will happen");
+        logger.warn("Continuous datastore query was deleted, recreating it");
+        datastoresPopulated = false;
+        subscribeToDatastores();
         return;
       }
 
       Map<String, Object> documents = extractDocumentsFromQueryUpdate(queryUpdate, "datastore");
       if (documents == null) {
-        // Log message happened in extractDocumentsFromQueryUpdate
+        // Log message happened in extractDocumentsFromQueryUpdate. A query update with no results still
+        // tells us that there is nothing to replay.
+        datastoresPopulated |= queryUpdate.hasBody();
         return;
       }
       for (Object document : documents.values()) {
@@ -311,6 +283,9 @@ public class HostCache {
           deleteDatastore(datastore);
         }
       }
+
+      // The first update of the query replays all the current datastores, so the cache is now complete
+      datastoresPopulated = true;
     };
     return notificationTarget;
   }
@@ -347,30 +322,48 @@ public class HostCache {
   /**
    * Subscribe to the HostService, to receive notifications of changes to the hosts.
    */
-  private void subscribeToHosts(XenonRestClient cloudstoreClient, Consumer<Operation> notificationTarget) {
+  private void subscribeToHosts() {
     subscribeToCloudstoreEntities(
-        cloudstoreClient,
         "host",
         Utils.buildKind(HostService.State.class),
-        notificationTarget);
+        createHostNotificationTarget());
   }
 
   /**
    * Subscribe to the DatastoreService, to receive notifications of changes to the datastore.
    */
-  private void subscribeToDatastores(XenonRestClient cloudstoreClient, Consumer<Operation> notificationTarget) {
+  private void subscribeToDatastores() {
     subscribeToCloudstoreEntities(
-        cloudstoreClient,
         "datastore",
         Utils.buildKind(DatastoreService.State.class),
-        notificationTarget);
+        createDatastoreNotificationTarget());
   }
 
   /**
-   * Helper used by subscribeToHosts and subscribeToDatastores to subscribe.
+   * Helper used by subscribeToHosts and subscribeToDatastores to subscribe. The previous subscription of the
+   * entity, if any, is stopped. If the query cannot be created, we try again later.
    */
   private void subscribeToCloudstoreEntities(
-      XenonRestClient cloudstoreClient,
+      String entityName,
+      String entityType,
+      Consumer<Operation> notificationTarget) {
+    Service previousSubscription = subscriptions.remove(entityName);
+    if (previousSubscription != null) {
+      this.schedulerHost.stopService(previousSubscription);
+    }
+
+    if (!createSubscription(entityName, entityType, notificationTarget)) {
+      this.schedulerHost.schedule(
+          () -> subscribeToCloudstoreEntities(entityName, entityType, notificationTarget),
+          SUBSCRIBE_RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Creates the continuous query on the entities and subscribes to it. Returns false if the query could not
+   * be created.
+   */
+  private boolean createSubscription(
       String entityName,
       String entityType,
       Consumer<Operation> notificationTarget) {
@@ -388,27 +381,26 @@ public class HostCache {
     try {
       completedOp = cloudstoreClient.query(querySpecification, false);
     } catch (Throwable ex) {
-      logger.warn("Could not create continuous {} query task, all scheduler requests will fail. Exception: {}",
+      logger.warn("Could not create continuous {} query task, retrying. Exception: {}",
           entityName, Utils.toString(ex));
-      return;
+      return false;
     }
 
     // Verify that it worked
     if (completedOp.getStatusCode() >= Operation.STATUS_CODE_FAILURE_THRESHOLD) {
-      logger.warn("Could not create continuous {} query task, all scheduler requests will fail. Status: {}",
+      logger.warn("Could not create continuous {} query task, retrying. Status: {}",
           entityName, completedOp.getStatusCode());
-      return;
+      return false;
     }
     QueryTask queryResult = completedOp.getBody(QueryTask.class);
     if (queryResult == null) {
-      logger.warn("Could not create continuous {} query task: Empty response. All scheduler requests will fail.",
-          entityName);
-      return;
+      logger.warn("Could not create continuous {} query task: Empty response, retrying.", entityName);
+      return false;
     }
     String taskPath = queryResult.documentSelfLink;
     if (taskPath == null) {
-      logger.warn("Continuous {} query task has no self link. All scheduler requests will fail.", entityName);
-      return;
+      logger.warn("Continuous {} query task has no self link, retrying.", entityName);
+      return false;
     }
 
     URI taskUri = cloudstoreClient.getServiceUri(taskPath);
@@ -422,94 +414,61 @@ public class HostCache {
     ReliableSubscriptionService subscriptionService = ReliableSubscriptionService.create(
             subscribeOp, subscriber, notificationTarget);
     URI subscriptionUri = this.schedulerHost.startSubscriptionService(subscribeOp, subscriptionService, subscriber);
+    subscriptions.put(entityName, subscriptionService);
 
     logger.info("Subscribed to {} query task at {}", entityName, taskUri);
     logger.info("SubscriptionUri: {}", subscriptionUri);
+    return true;
   }
 
   /**
    * This method is called by the host notification target when a host is added or modified.
-   * It updates the cache appropriately.
+   * It updates the cache appropriately. It is package-private so it can be used by tests.
    */
-  private void addOrUpdateHost(HostService.State host) {
+  void addOrUpdateHost(HostService.State host) {
     String hostId = ServiceUtils.getIDFromDocumentSelfLink(host.documentSelfLink);
     ServerAddress hostAddress = new ServerAddress(host.hostAddress, host.agentPort);
 
     this.hostAddresses.put(hostId, hostAddress);
-
-    if (host.usageTags != null && host.usageTags.contains(UsageTag.MGMT.name())) {
-      this.managementHostIds.add(hostId);
-    }
-
-    if (host.reportedNetworks != null) {
-      for (String networkId : host.reportedNetworks) {
-        if (networkId != null) {
-          this.networksToHosts.addOrUpdate(networkId, hostId);
-        }
-      }
-    }
-
-    if (host.reportedDatastores != null) {
-      for (String datastoreId : host.reportedDatastores) {
-        datastoresToHosts.addOrUpdate(datastoreId, hostId);
-      }
-    }
-
-    if (host.availabilityZoneId != null) {
-      this.availabilityZonesToHosts.addOrUpdate(host.availabilityZoneId, hostId);
-    }
+    this.index.addOrUpdateHost(
+        hostId,
+        host.state == HostState.READY && host.agentState == AgentState.ACTIVE,
+        host.usageTags != null && host.usageTags.contains(UsageTag.MGMT.name()),
+        host.reportedDatastores,
+        host.reportedNetworks,
+        host.availabilityZoneId);
   }
 
   /**
    * This method is called by the datastore notification target when a datastore is added or modified.
    * It updates the cache appropriately.
    */
-  private void addOrUpdateDatastore(DatastoreService.State datastore) {
+  void addOrUpdateDatastore(DatastoreService.State datastore) {
     String datastoreId = ServiceUtils.getIDFromDocumentSelfLink(datastore.documentSelfLink);
 
-    this.datastoreIds.add(datastoreId);
-
-    // If a tag was removed from a datastore, the old tag will still be there.
-    // We explicitly remove the datastore from the Tags to Datastores Map and
-    // re-add the datastore for all "current" tags.
-    this.datastoreTagsToDatastores.removeFromAll(datastoreId);
-    if (datastore.tags != null) {
-      for (String tag : datastore.tags) {
-        this.datastoreTagsToDatastores.addOrUpdate(tag, datastoreId);
-      }
-    }
+    // If a tag was removed from a datastore, the index replaces the old tags with the current ones.
+    this.index.addOrUpdateDatastore(datastoreId, datastore.tags);
   }
 
   /**
    * This method is called by the host notification target when a host is deleted
    * It updates the cache appropriately.
    */
-  private void deleteHost(HostService.State host) {
+  void deleteHost(HostService.State host) {
     String hostId = ServiceUtils.getIDFromDocumentSelfLink(host.documentSelfLink);
 
     this.hostAddresses.remove(hostId);
-    this.managementHostIds.remove(hostId);
-
-    // We aggressively remove the host from all the maps it might belong to.
-    // In theory, we shouldn't have to because we know the list of things to
-    // remove it from. However, if anything is inconsistent, we could leave
-    // behind old host information, so we clean more aggressively. Host removal
-    // is a rare operation, so we're willing to have some extra expense in order
-    // to do it correctly.
-    this.networksToHosts.removeFromAll(hostId);
-    this.datastoresToHosts.removeFromAll(hostId);
-    this.availabilityZonesToHosts.removeFromAll(hostId);
+    this.index.removeHost(hostId);
   }
 
   /**
    * This method is called by the datastore notification target when a datastore is deleted
    * It updates the cache appropriately.
    */
-  private void deleteDatastore(DatastoreService.State datastore) {
+  void deleteDatastore(DatastoreService.State datastore) {
     String datastoreId = ServiceUtils.getIDFromDocumentSelfLink(datastore.documentSelfLink);
 
-    this.datastoreIds.remove(datastoreId);
-    this.datastoreTagsToDatastores.removeFromAll(datastoreId);
+    this.index.removeDatastore(datastoreId);
   }
 
 }
@@ -17,27 +17,26 @@ import com.vmware.photon.controller.cloudstore.dcp.entity.DatastoreService;
 import com.vmware.photon.controller.cloudstore.dcp.entity.DatastoreServiceFactory;
 import com.vmware.photon.controller.cloudstore.dcp.entity.HostService;
 import com.vmware.photon.controller.cloudstore.dcp.entity.HostServiceFactory;
+import com.vmware.photon.controller.common.xenon.QueryTaskUtils;
 import com.vmware.photon.controller.common.xenon.XenonRestClient;
 import com.vmware.photon.controller.common.zookeeper.gen.ServerAddress;
 import com.vmware.photon.controller.resource.gen.ResourceConstraint;
 import com.vmware.photon.controller.resource.gen.ResourceConstraintType;
 import com.vmware.xenon.common.Operation;
 import com.vmware.xenon.common.ServiceDocument;
-import com.vmware.xenon.common.ServiceDocumentQueryResult;
 import com.vmware.xenon.common.Utils;
 import com.vmware.xenon.services.common.QueryTask;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Sets;
 import com.google.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -53,20 +52,8 @@ public class InMemoryConstraintChecker implements ConstraintChecker {
   // Map from host ID to host:port
   private final ImmutableMap<String, ServerAddress> hosts;
 
-  // Set of management hosts
-  private final ImmutableSet<String> managementHosts;
-
-  // Map from network ID to host IDs
-  private final ImmutableSetMultimap<String, String> networks;
-
-  // Map from datastore ID to host IDs
-  private final ImmutableSetMultimap<String, String> datastores;
-
-  // Map from datastore tag to host IDs
-  private final ImmutableSetMultimap<String, String> datastoreTags;
-
-  // Map from availability zone to host IDs
-  private final ImmutableSetMultimap<String, String> availabilityZones;
+  // Bitmaps of hosts by management flag, network, datastore, datastore tag and availability zone
+  private final HostBitmapIndex index;
 
   @Inject
   public InMemoryConstraintChecker(XenonRestClient client) {
@@ -82,9 +69,8 @@ public class InMemoryConstraintChecker implements ConstraintChecker {
       querySpecification.query = kindClause;
       querySpecification.options = EnumSet.of(QueryTask.QuerySpecification.QueryOption.EXPAND_CONTENT);
       Operation completedOp = client.query(querySpecification, true);
-      ServiceDocumentQueryResult queryResult = completedOp.getBody(QueryTask.class).results;
-      for (Map.Entry<String, Object> result : queryResult.documents.entrySet()) {
-        HostService.State hostState = Utils.fromJson(result.getValue(), HostService.State.class);
+      for (HostService.State hostState :
+          QueryTaskUtils.iterateQueryResultDocuments(HostService.State.class, completedOp)) {
         final int trimLength = (HostServiceFactory.SELF_LINK + "/").length();
         String hostId = hostState.documentSelfLink.substring(trimLength);
         hosts.put(hostId, hostState);
@@ -98,9 +84,8 @@ public class InMemoryConstraintChecker implements ConstraintChecker {
       querySpecification.query = kindClause;
       querySpecification.options = EnumSet.of(QueryTask.QuerySpecification.QueryOption.EXPAND_CONTENT);
       completedOp = client.query(querySpecification, true);
-      queryResult = completedOp.getBody(QueryTask.class).results;
-      for (Map.Entry<String, Object> result : queryResult.documents.entrySet()) {
-        DatastoreService.State datastoreState = Utils.fromJson(result.getValue(), DatastoreService.State.class);
+      for (DatastoreService.State datastoreState :
+          QueryTaskUtils.iterateQueryResultDocuments(DatastoreService.State.class, completedOp)) {
         final int trimLength = (DatastoreServiceFactory.SELF_LINK + "/").length();
         String datastoreId = datastoreState.documentSelfLink.substring(trimLength);
         datastores.put(datastoreId, datastoreState);
@@ -110,11 +95,11 @@ public class InMemoryConstraintChecker implements ConstraintChecker {
     }
 
     ImmutableMap.Builder<String, ServerAddress> hostBuilder = new ImmutableMap.Builder<>();
-    ImmutableSet.Builder<String> managementHostBuilder = new ImmutableSet.Builder<>();
-    ImmutableSetMultimap.Builder<String, String> datastoreBuilder = new ImmutableSetMultimap.Builder<>();
-    ImmutableSetMultimap.Builder<String, String> datastoreTagBuilder = new ImmutableSetMultimap.Builder<>();
-    ImmutableSetMultimap.Builder<String, String> networkBuilder = new ImmutableSetMultimap.Builder<>();
-    ImmutableSetMultimap.Builder<String, String> availabilityZoneBuilder = new ImmutableSetMultimap.Builder<>();
+    HostBitmapIndex index = new HostBitmapIndex();
+
+    for (Map.Entry<String, DatastoreService.State> datastore : datastores.entrySet()) {
+      index.addOrUpdateDatastore(datastore.getKey(), datastore.getValue().tags);
+    }
 
     for (Map.Entry<String, HostService.State> host: hosts.entrySet()) {
       if (host.getValue().reportedDatastores == null) {
@@ -131,121 +116,75 @@ public class InMemoryConstraintChecker implements ConstraintChecker {
       }
 
       hostBuilder.put(host.getKey(), new ServerAddress(host.getValue().hostAddress, host.getValue().agentPort));
-      if (host.getValue().usageTags.contains(UsageTag.MGMT.name())) {
-        managementHostBuilder.add(host.getKey());
-      }
-      for (String datastoreId: host.getValue().reportedDatastores) {
-        datastoreBuilder.put(datastoreId, host.getKey());
-        DatastoreService.State datastore = datastores.get(datastoreId);
-        if (datastore != null && datastore.tags != null) {
-          for (String datastoreTag : datastore.tags) {
-            datastoreTagBuilder.put(datastoreTag, host.getKey());
-          }
-        }
-      }
-      for (String networkId: host.getValue().reportedNetworks) {
-        networkBuilder.put(networkId, host.getKey());
-      }
-
       if (host.getValue().availabilityZoneId == null) {
         logger.info("{} doesn't have the availabilityZone field set.", host);
-      } else {
-        availabilityZoneBuilder.put(host.getValue().availabilityZoneId, host.getKey());
       }
+      index.addOrUpdateHost(
+          host.getKey(),
+          true,
+          host.getValue().usageTags.contains(UsageTag.MGMT.name()),
+          host.getValue().reportedDatastores,
+          host.getValue().reportedNetworks,
+          host.getValue().availabilityZoneId);
     }
     this.hosts = hostBuilder.build();
-    this.managementHosts = managementHostBuilder.build();
-    this.datastores = datastoreBuilder.build();
-    this.datastoreTags = datastoreTagBuilder.build();
-    this.networks = networkBuilder.build();
-    this.availabilityZones = availabilityZoneBuilder.build();
+    this.index = index;
   }
 
   /**
-   * Returns a set of host IDs that satisfy a given constraint.
+   * Checks that a constraint has exactly one value, and returns the constraint to evaluate against the
+   * index. This checker never supported constraints with multiple values, and we keep rejecting them,
+   * including MANAGEMENT_ONLY constraints. It also only honored the negative flag of availability zone and
+   * host constraints, so the flag is dropped from the other constraints.
    *
    * @param constraint
-   * @return a set of hostIDs that satisfy a given constraint.
    */
-  private ImmutableSet<String> checkConstraint(ResourceConstraint constraint) {
-    ImmutableSet<String> matches;
+  private ResourceConstraint checkConstraint(ResourceConstraint constraint) {
     if (!constraint.isSetValues() || constraint.getValues().size() != 1) {
       throw new IllegalArgumentException("Invalid constraint with multiple values: " + constraint);
     }
-    String value = constraint.getValues().get(0);
-    if (constraint.getType() == ResourceConstraintType.AVAILABILITY_ZONE) {
-      if (constraint.isNegative()) {
-        matches = getHostsNotInAvailabilityZone(value);
-      } else {
-        matches = getHostsInAvailabilityZone(value);
-      }
-    } else if (constraint.getType() == ResourceConstraintType.DATASTORE) {
-      matches = getHostsWithDatastore(value);
-    } else if (constraint.getType() == ResourceConstraintType.DATASTORE_TAG) {
-      matches = getHostsWithDatastoreTag(value);
-    } else if (constraint.getType() == ResourceConstraintType.HOST) {
-      if (constraint.isNegative()) {
-        matches = getHostsExceptFor(value);
-      } else {
-        if (getHosts().contains(value)) {
-          matches = ImmutableSet.of(value);
-        } else {
-          matches = ImmutableSet.of();
-        }
-      }
-    } else if (constraint.getType() == ResourceConstraintType.MANAGEMENT_ONLY) {
-      matches = getManagementHosts();
-    } else if (constraint.getType() == ResourceConstraintType.NETWORK) {
-      // TODO(mmutsuzaki) support multiple networks?
-      matches = getHostsWithNetwork(value);
-    } else {
-      throw new IllegalArgumentException("Unsupported constraint type: " + constraint);
+    if (constraint.isNegative() && constraint.getType() != ResourceConstraintType.AVAILABILITY_ZONE
+        && constraint.getType() != ResourceConstraintType.HOST) {
+      ResourceConstraint positiveConstraint = constraint.deepCopy();
+      positiveConstraint.unsetNegative();
+      return positiveConstraint;
     }
-    return matches;
+    return constraint;
   }
 
   @Override
   public Map<String, ServerAddress> getCandidates(List<ResourceConstraint> constraints, int numCandidates) {
-    // Find all the hosts that satisfy the resource constraints.
-    ImmutableSet<String> matches;
-    if (constraints.isEmpty()) {
-      matches = getHosts();
-    } else {
-      Iterator<ResourceConstraint> iterator = constraints.iterator();
-      matches = checkConstraint(iterator.next());
-      while (iterator.hasNext()) {
-        matches = Sets.intersection(matches, checkConstraint(iterator.next())).immutableCopy();
-      }
+    List<ResourceConstraint> checkedConstraints = new ArrayList<>(constraints.size());
+    for (ResourceConstraint constraint : constraints) {
+      checkedConstraints.add(checkConstraint(constraint));
     }
 
-    // Randomly pick candidates. Pretty sure there is a better way to do this...
-    Map<String, ServerAddress> result = new HashMap<>();
-    Map<String, ServerAddress> hostMap = getHostMap();
-    while (result.size() < numCandidates && result.size() < matches.size()) {
-      String pick = matches.asList().get(RANDOM.nextInt(matches.size()));
-      result.put(pick, hostMap.get(pick));
+    // Find the hosts that satisfy the resource constraints, and randomly pick candidates.
+    ImmutableMap.Builder<String, ServerAddress> result = new ImmutableMap.Builder<>();
+    for (String hostId : index.getCandidates(checkedConstraints, numCandidates)) {
+      result.put(hostId, hosts.get(hostId));
     }
-    return ImmutableMap.copyOf(result);
+    return result.build();
   }
 
   public ImmutableSet<String> getHostsInAvailabilityZone(String availabilityZone) {
-    return availabilityZones.get(availabilityZone);
+    return ImmutableSet.copyOf(index.getHostsInAvailabilityZone(availabilityZone));
   }
 
   public ImmutableSet<String> getHostsNotInAvailabilityZone(String availabilityZone) {
-    return Sets.difference(hosts.keySet(), availabilityZones.get(availabilityZone)).immutableCopy();
+    return Sets.difference(hosts.keySet(), index.getHostsInAvailabilityZone(availabilityZone)).immutableCopy();
   }
 
   public ImmutableSet<String> getHostsWithDatastore(String datastoreId) {
-    return datastores.get(datastoreId);
+    return ImmutableSet.copyOf(index.getHostsWithDatastore(datastoreId));
   }
 
   public ImmutableSet<String> getHostsWithDatastoreTag(String datastoreTag) {
-    return datastoreTags.get(datastoreTag);
+    return ImmutableSet.copyOf(index.getHostsWithDatastoreTag(datastoreTag));
   }
 
   public ImmutableSet<String> getHostsWithNetwork(String networkId) {
-    return networks.get(networkId);
+    return ImmutableSet.copyOf(index.getHostsWithNetwork(networkId));
   }
 
   public ImmutableSet<String> getHosts() {
@@ -257,7 +196,7 @@ public class InMemoryConstraintChecker implements ConstraintChecker {
   }
 
   public ImmutableSet<String> getManagementHosts() {
-    return managementHosts;
+    return ImmutableSet.copyOf(index.getManagementHosts());
   }
 
   public ImmutableMap<String, ServerAddress> getHostMap() {
@@ -18,11 +18,11 @@ import com.vmware.photon.controller.scheduler.gen.PlaceRequest;
 import com.vmware.photon.controller.scheduler.gen.PlaceResponse;
 import com.vmware.photon.controller.scheduler.root.gen.RootScheduler;
 import com.vmware.photon.controller.status.gen.GetStatusRequest;
-import com.vmware.photon.controller.status.gen.Status;
 
 import com.google.common.base.Stopwatch;
 import com.google.inject.Inject;
 import org.apache.thrift.TException;
+import org.apache.thrift.async.AsyncMethodCallback;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,7 +34,7 @@ import java.util.concurrent.TimeUnit;
  * This class gets all the thrift calls sent to the scheduler and redirects it to
  * the flat scheduler service.
  */
-public class SchedulerService implements RootScheduler.Iface, ServiceNodeEventHandler {
+public class SchedulerService implements RootScheduler.AsyncIface, ServiceNodeEventHandler {
 
   private static final Logger logger = LoggerFactory.getLogger(SchedulerService.class);
 
@@ -57,18 +57,27 @@ public class SchedulerService implements RootScheduler.Iface, ServiceNodeEventHa
   }
 
   @Override
-  public Status get_status(GetStatusRequest request) throws TException {
-    return flatSchedulerService.get_status(request);
+  public void get_status(GetStatusRequest request, AsyncMethodCallback resultHandler) throws TException {
+    flatSchedulerService.get_status(request, resultHandler);
   }
 
   @Override
-  public PlaceResponse place(PlaceRequest request) throws TException {
+  public void place(PlaceRequest request, AsyncMethodCallback resultHandler) throws TException {
     Stopwatch stopwatch = Stopwatch.createStarted();
-    PlaceResponse placeResponse = flatSchedulerService.place(request);
-    stopwatch.stop();
-    logger.info("elapsed-time place {} milliseconds", stopwatch.elapsed(TimeUnit.MILLISECONDS));
+    flatSchedulerService.place(request, new AsyncMethodCallback<PlaceResponse>() {
+      @Override
+      @SuppressWarnings("unchecked")
+      public void onComplete(PlaceResponse placeResponse) {
+        stopwatch.stop();
+        logger.info("elapsed-time place {} milliseconds", stopwatch.elapsed(TimeUnit.MILLISECONDS));
+        resultHandler.onComplete(placeResponse);
+      }
 
-    return placeResponse;
+      @Override
+      public void onError(Exception e) {
+        resultHandler.onError(e);
+      }
+    });
   }
 
   @Override
@@ -47,6 +47,16 @@ public class ScoreCalculator {
     return scoreOrdering.reverse().sortedCopy(responses).get(0);
   }
 
+  /**
+   * Returns the placement score of a response. Higher is better.
+   *
+   * @param placeResponse the response to score.
+   * @return the score.
+   */
+  public double getScore(PlaceResponse placeResponse) {
+    return score(placeResponse);
+  }
+
   private double score(PlaceResponse placeResponse) {
     double ratio = this.config.getRoot().getUtilizationTransferRatio();
     Score score = placeResponse.getScore();
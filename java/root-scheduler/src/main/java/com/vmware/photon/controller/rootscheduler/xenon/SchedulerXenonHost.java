@@ -22,7 +22,9 @@ import com.vmware.photon.controller.common.xenon.XenonRestClient;
 import com.vmware.photon.controller.common.xenon.host.AbstractServiceHost;
 import com.vmware.photon.controller.common.xenon.host.XenonConfig;
 import com.vmware.photon.controller.rootscheduler.Config;
+import com.vmware.photon.controller.rootscheduler.service.AgentLatencyTracker;
 import com.vmware.photon.controller.rootscheduler.service.ConstraintChecker;
+import com.vmware.photon.controller.rootscheduler.service.HostCache;
 import com.vmware.photon.controller.rootscheduler.service.InMemoryConstraintChecker;
 import com.vmware.photon.controller.rootscheduler.service.ScoreCalculator;
 import com.vmware.photon.controller.rootscheduler.xenon.task.PlacementTaskService;
@@ -49,15 +51,19 @@ public class SchedulerXenonHost
     HostClientProvider,
     ScoreCalculatorProvider,
     ConstraintCheckerProvider,
-    CloudStoreClientProvider {
+    CloudStoreClientProvider,
+    AgentLatencyTrackerProvider {
 
   private static final Logger logger = LoggerFactory.getLogger(SchedulerXenonHost.class);
   public static final String FACTORY_SERVICE_FIELD_NAME_SELF_LINK = "SELF_LINK";
 
   private final HostClientFactory hostClientFactory;
   private final ScoreCalculator scoreCalculator;
+  private final AgentLatencyTracker agentLatencyTracker;
   private final XenonRestClient cloudStoreClient;
-  private ConstraintChecker checker;
+  private final Config config;
+  private volatile ConstraintChecker checker;
+  private volatile HostCache hostCache;
 
   public static final Class[] FACTORY_SERVICES = {
       RootNamespaceService.class,
@@ -72,7 +78,9 @@ public class SchedulerXenonHost
     super(xenonConfig);
     this.hostClientFactory = hostClientFactory;
     this.scoreCalculator = new ScoreCalculator(config);
+    this.agentLatencyTracker = new AgentLatencyTracker();
     this.cloudStoreClient = xenonRestClient;
+    this.config = config;
     this.checker = checker;
 
     if (this.checker instanceof InMemoryConstraintChecker) {
@@ -98,8 +106,19 @@ public class SchedulerXenonHost
     return scoreCalculator;
   }
 
+  @Override
+  public AgentLatencyTracker getAgentLatencyTracker() {
+    return agentLatencyTracker;
+  }
+
   @Override
   public ConstraintChecker getConstraintChecker() {
+    // Until the host cache has learned about all the hosts and datastores, it would place on a partial
+    // view of the hosts, so we keep using the injected constraint checker.
+    HostCache cache = this.hostCache;
+    if (cache != null && cache.isReady()) {
+      return cache;
+    }
     return checker;
   }
 
@@ -124,6 +143,13 @@ public class SchedulerXenonHost
     super.startFactory(PlacementTaskService.class, PlacementTaskService::createFactory);
     ServiceHostUtils.startServices(this, getFactoryServices());
 
+    // The host cache subscribes to Cloudstore through this host, so it can only be created once the
+    // host is started. Until it is populated, placements are served by the injected constraint checker.
+    if (Config.HOST_CACHE_CONSTRAINT_CHECKER.equals(config.getConstraintChecker())) {
+      this.hostCache = new HostCache(this, cloudStoreClient);
+      logger.info("Started host cache, scheduler service will use it once it is populated");
+    }
+
     return this;
   }
 
@@ -63,6 +63,34 @@ public class PlacementTask extends ServiceDocument {
   @Min(1000)
   public Long timeoutMs;
 
+  /**
+   * The number of OK responses with a score of at least earlyReturnMinScore after which the placement
+   * returns without waiting for the other hosts. Zero means wait for all the hosts or the timeout.
+   */
+  @DefaultInteger(0)
+  @Min(0)
+  public Integer earlyReturnQuorum;
+
+  /**
+   * The minimum score of a response for it to count towards earlyReturnQuorum.
+   */
+  public Double earlyReturnMinScore;
+
+  /**
+   * The number of extra hosts to send hedged place requests to when the first hosts are slow to respond.
+   */
+  @DefaultInteger(0)
+  @Min(0)
+  public Integer hedgeCount;
+
+  /**
+   * The minimum time to wait for the first hosts before sending hedged place requests. The actual delay
+   * depends on how fast the first hosts responded to previous place requests.
+   */
+  @DefaultLong(200)
+  @Min(1)
+  public Long hedgeMinDelayMs;
+
   /**
    * The unique id of the request.
    */
@@ -35,8 +35,10 @@ import com.vmware.photon.controller.resource.gen.ResourceConstraint;
 import com.vmware.photon.controller.resource.gen.ResourceConstraintType;
 import com.vmware.photon.controller.resource.gen.Vm;
 import com.vmware.photon.controller.rootscheduler.exceptions.NoSuchResourceException;
+import com.vmware.photon.controller.rootscheduler.service.AgentLatencyTracker;
 import com.vmware.photon.controller.rootscheduler.service.ConstraintChecker;
 import com.vmware.photon.controller.rootscheduler.service.ScoreCalculator;
+import com.vmware.photon.controller.rootscheduler.xenon.AgentLatencyTrackerProvider;
 import com.vmware.photon.controller.rootscheduler.xenon.CloudStoreClientProvider;
 import com.vmware.photon.controller.rootscheduler.xenon.ConstraintCheckerProvider;
 import com.vmware.photon.controller.rootscheduler.xenon.ScoreCalculatorProvider;
@@ -58,24 +60,32 @@ import org.apache.thrift.TException;
 import org.apache.thrift.async.AsyncMethodCallback;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * The main responsibility of this class it to pick hosts for VM/disk placements. The
  * placement algorithm is roughly based on Sparrow scheduler (1), and it works as follows:
  * <p>
  * 1. Randomly choose n hosts (n = 4 by default) that satisfy all the resource constraints.
- * 2. Send place requests to the chosen hosts and wait for responses with a timeout.
+ * 2. Send place requests to the chosen hosts asynchronously, with a timeout.
  * 3. After receiving all the responses or reaching the timeout, return the host with
  * the highest placement score. See {@link ScoreCalculator} for the placement score
  * calculation logic.
  * <p>
+ * In adaptive mode (earlyReturnQuorum and hedgeCount set on the task), the placement returns as soon
+ * as enough hosts respond with a good score, and extra hosts are asked to place the resource when
+ * the first hosts are slower than they usually are.
+ * <p>
  * (1) http://www.eecs.berkeley.edu/~keo/publications/sosp13-final17.pdf
  */
 public class PlacementTaskService extends StatefulService {
@@ -216,24 +226,73 @@ public class PlacementTaskService extends StatefulService {
       return;
     }
 
-    // Send place request to the candidates.
+    // The constraint checker may have returned extra candidates that we only use for hedged requests.
+    Map<String, ServerAddress> hedgeCandidates = new HashMap<>();
+    if (currentState.hedgeCount > 0 && candidates.size() > currentState.sampleHostCount) {
+      Map<String, ServerAddress> primaryCandidates = new HashMap<>();
+      for (Map.Entry<String, ServerAddress> entry : candidates.entrySet()) {
+        if (primaryCandidates.size() < currentState.sampleHostCount) {
+          primaryCandidates.put(entry.getKey(), entry.getValue());
+        } else {
+          hedgeCandidates.put(entry.getKey(), entry.getValue());
+        }
+      }
+      candidates = primaryCandidates;
+    }
+
+    // Send place request to the candidates. The placement completes from the response callbacks, or from
+    // the timeout, so no thread is blocked while we wait for the agents.
     ServiceUtils.logInfo(this, "Sending place requests to %s with timeout %d ms", candidates, timeoutMs);
     Stopwatch scoreCandidatesStopwatch = Stopwatch.createStarted();
-    final Set<PlaceResponse> okResponses = Sets.newConcurrentHashSet();
-    final Set<PlaceResultCode> returnCodes = Sets.newConcurrentHashSet();
+    ScoreCalculator scoreCalculator = ((ScoreCalculatorProvider) getHost()).getScoreCalculator();
+    double earlyReturnMinScore = currentState.earlyReturnMinScore != null ? currentState.earlyReturnMinScore : 0;
+    PlaceRequestTracker tracker = new PlaceRequestTracker(
+        candidates.size(),
+        currentState.earlyReturnQuorum,
+        (response) -> scoreCalculator.getScore(response) >= earlyReturnMinScore,
+        (completedTracker) -> {
+          ServiceUtils.logInfo(this, "elapsed-time flat-place-score-candidates %d milliseconds",
+              scoreCandidatesStopwatch.elapsed(TimeUnit.MILLISECONDS));
+          try {
+            // Return the best response.
+            PlacementTask patchState = selectBestResponse(
+                completedTracker.getOkResponses(), completedTracker.getReturnCodes(), currentState, watch);
+            if (postOperation == null) {
+              TaskUtils.sendSelfPatch(this, patchState);
+            } else {
+              postOperation.setBody(patchState).complete();
+            }
+          } catch (Throwable t) {
+            failTask(buildPatch(TaskState.TaskStage.FAILED, currentState.taskState.isDirect, t), t, postOperation);
+          }
+        });
 
-    sendPlaceRequests(currentState, candidates, okResponses, returnCodes);
+    getHost().schedule(tracker::complete, timeoutMs, TimeUnit.MILLISECONDS);
+    sendPlaceRequests(currentState, candidates, tracker);
 
-    ServiceUtils.logInfo(this, "elapsed-time flat-place-score-candidates %d milliseconds",
-        scoreCandidatesStopwatch.elapsed(TimeUnit.MILLISECONDS));
+    if (!hedgeCandidates.isEmpty()) {
+      scheduleHedgedRequests(currentState, candidates, hedgeCandidates, tracker);
+    }
+  }
 
-    // Return the best response.
-    PlacementTask patchState = selectBestResponse(okResponses, returnCodes, currentState, watch);
-    if (postOperation == null) {
-      TaskUtils.sendSelfPatch(this, patchState);
-    } else {
-      postOperation.setBody(patchState).complete();
+  /**
+   * Schedules hedged place requests to the extra candidates. They are only sent if the placement hasn't
+   * completed by the time the first candidates are late, according to their past response times.
+   */
+  private void scheduleHedgedRequests(PlacementTask currentState, Map<String, ServerAddress> candidates,
+                                      Map<String, ServerAddress> hedgeCandidates, PlaceRequestTracker tracker) {
+    AgentLatencyTracker latencyTracker = ((AgentLatencyTrackerProvider) getHost()).getAgentLatencyTracker();
+    long hedgeDelayMs = latencyTracker.getHedgeDelayMs(candidates.keySet(), currentState.hedgeMinDelayMs);
+    if (hedgeDelayMs >= currentState.timeoutMs) {
+      return;
     }
+
+    getHost().schedule(() -> {
+      if (tracker.addRequests(hedgeCandidates.size())) {
+        ServiceUtils.logInfo(this, "Sending hedged place requests to %s after %d ms", hedgeCandidates, hedgeDelayMs);
+        sendPlaceRequests(currentState, hedgeCandidates, tracker);
+      }
+    }, hedgeDelayMs, TimeUnit.MILLISECONDS);
   }
 
   /**
@@ -252,26 +311,40 @@ public class PlacementTaskService extends StatefulService {
     constraints = getResourceConstraints(currentState.resource);
 
     ConstraintChecker checker = ((ConstraintCheckerProvider) getHost()).getConstraintChecker();
-    Map<String, ServerAddress> candidates = checker.getCandidates(constraints, currentState.sampleHostCount);
+    Map<String, ServerAddress> candidates =
+        checker.getCandidates(constraints, currentState.sampleHostCount + currentState.hedgeCount);
     return candidates;
   }
 
   /**
-   * Sends the placement requests to the potential hosts and adds successful responses into okResponses
-   * and all the response of the hosts into returnCodes.
+   * Sends the placement requests to the potential hosts. Each candidate gets its own host client, so the
+   * requests are independent of each other, and every response or failure is reported to the tracker.
+   * <p>
+   * The latency of every request is recorded once. Failed requests and requests that get no response
+   * within the timeout count as taking the whole timeout, so that unresponsive agents look slow rather
+   * than unknown when deciding when to hedge.
    *
    * @param currentState
    * @param candidates   the hosts to send place requests
-   * @param okResponses  set of the successful responses
-   * @param returnCodes  set of the responses
+   * @param tracker      the tracker that collects the responses
    */
   private void sendPlaceRequests(PlacementTask currentState, Map<String, ServerAddress> candidates,
-                                 Set<PlaceResponse> okResponses, Set<PlaceResultCode> returnCodes) {
-    final CountDownLatch done = new CountDownLatch(candidates.size());
+                                 PlaceRequestTracker tracker) {
+    AgentLatencyTracker latencyTracker = ((AgentLatencyTrackerProvider) getHost()).getAgentLatencyTracker();
+    long timeoutMs = currentState.timeoutMs;
     for (Map.Entry<String, ServerAddress> entry : candidates.entrySet()) {
       ServerAddress address = entry.getValue();
+      HostClient hostClient = ((HostClientProvider) getHost()).getHostClient();
+      Stopwatch requestStopwatch = Stopwatch.createStarted();
+      AtomicBoolean latencyRecorded = new AtomicBoolean(false);
+      Consumer<Long> recordLatency = (latencyMs) -> {
+        if (latencyRecorded.compareAndSet(false, true)) {
+          latencyTracker.recordLatency(entry.getKey(), Math.min(latencyMs, timeoutMs));
+        }
+      };
+      getHost().schedule(() -> recordLatency.accept(timeoutMs), timeoutMs, TimeUnit.MILLISECONDS);
+
       try {
-        HostClient hostClient = ((HostClientProvider) getHost()).getHostClient();
         hostClient.setIpAndPort(address.getHost(), address.getPort());
         hostClient.place(currentState.resource, new AsyncMethodCallback<Host.AsyncClient.place_call>() {
           @Override
@@ -284,32 +357,27 @@ public class PlacementTaskService extends StatefulService {
               return;
             }
             ServiceUtils.logInfo(PlacementTaskService.this, "Received a place response from %s: %s", entry, response);
-            returnCodes.add(response.getResult());
-            if (response.getResult() == PlaceResultCode.OK) {
-              okResponses.add(response);
-            }
-            done.countDown();
+            recordLatency.accept(requestStopwatch.elapsed(TimeUnit.MILLISECONDS));
+            hostClient.close();
+            tracker.onResponse(response);
           }
 
           @Override
           public void onError(Exception ex) {
             ServiceUtils.logWarning(PlacementTaskService.this, "Failed to get a placement response from %s: %s",
                 entry, ex);
-            done.countDown();
+            recordLatency.accept(timeoutMs);
+            hostClient.close();
+            tracker.onFailure();
           }
         });
       } catch (RpcException ex) {
         ServiceUtils.logWarning(this, "Failed to get a placement response from %s: %s", entry, ex);
-        done.countDown();
+        recordLatency.accept(timeoutMs);
+        hostClient.close();
+        tracker.onFailure();
       }
     }
-
-    // Wait for responses to come back.
-    try {
-      done.await(currentState.timeoutMs, TimeUnit.MILLISECONDS);
-    } catch (InterruptedException ex) {
-      ServiceUtils.logTrace(this, "Got interrupted waiting for place responses: %s", ex);
-    }
   }
 
   /**
@@ -505,4 +573,88 @@ public class PlacementTaskService extends StatefulService {
 
     return constraint;
   }
+
+  /**
+   * Collects the place responses for a single placement. The completion handler is called exactly once:
+   * when every candidate has responded or failed, when earlyReturnQuorum OK responses were accepted by
+   * the early return filter, or when {@link #complete()} is called because the placement timed out.
+   * Responses that arrive after that are ignored.
+   */
+  @VisibleForTesting
+  protected static class PlaceRequestTracker {
+    private final Set<PlaceResponse> okResponses = Sets.newConcurrentHashSet();
+    private final Set<PlaceResultCode> returnCodes = Sets.newConcurrentHashSet();
+    private final AtomicInteger pendingRequests;
+    private final AtomicInteger goodEnoughResponses = new AtomicInteger(0);
+    private final AtomicBoolean completed = new AtomicBoolean(false);
+    private final int earlyReturnQuorum;
+    private final Predicate<PlaceResponse> earlyReturnFilter;
+    private final Consumer<PlaceRequestTracker> completionHandler;
+
+    public PlaceRequestTracker(int numRequests, Consumer<PlaceRequestTracker> completionHandler) {
+      this(numRequests, 0, (response) -> false, completionHandler);
+    }
+
+    public PlaceRequestTracker(int numRequests, int earlyReturnQuorum, Predicate<PlaceResponse> earlyReturnFilter,
+                               Consumer<PlaceRequestTracker> completionHandler) {
+      this.pendingRequests = new AtomicInteger(numRequests);
+      this.earlyReturnQuorum = earlyReturnQuorum;
+      this.earlyReturnFilter = earlyReturnFilter;
+      this.completionHandler = completionHandler;
+    }
+
+    public void onResponse(PlaceResponse response) {
+      if (!completed.get()) {
+        returnCodes.add(response.getResult());
+        if (response.getResult() == PlaceResultCode.OK) {
+          okResponses.add(response);
+          if (earlyReturnQuorum > 0 && earlyReturnFilter.test(response)
+              && goodEnoughResponses.incrementAndGet() >= earlyReturnQuorum) {
+            complete();
+          }
+        }
+      }
+      onRequestDone();
+    }
+
+    /**
+     * Accounts for more requests, such as hedged requests. Returns false if the placement has already
+     * completed, in which case the requests should not be sent.
+     */
+    public boolean addRequests(int numRequests) {
+      if (completed.get()) {
+        return false;
+      }
+      pendingRequests.addAndGet(numRequests);
+      return true;
+    }
+
+    public void onFailure() {
+      onRequestDone();
+    }
+
+    public void complete() {
+      if (completed.compareAndSet(false, true)) {
+        completionHandler.accept(this);
+      }
+    }
+
+    public Set<PlaceResponse> getOkResponses() {
+      return okResponses;
+    }
+
+    public Set<PlaceResultCode> getReturnCodes() {
+      return returnCodes;
+    }
+
+    public boolean isCompleted() {
+      return completed.get();
+    }
+
+    private void onRequestDone() {
+      if (pendingRequests.decrementAndGet() == 0) {
+        complete();
+      }
+    }
+  }
 }
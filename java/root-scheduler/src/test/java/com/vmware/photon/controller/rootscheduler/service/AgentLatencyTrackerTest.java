@@ -0,0 +1,53 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.vmware.photon.controller.rootscheduler.service;
+
+import org.testng.annotations.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.Arrays;
+
+/**
+ * Tests {@link AgentLatencyTracker}.
+ */
+public class AgentLatencyTrackerTest {
+
+  @Test
+  public void testMovingAverage() {
+    AgentLatencyTracker tracker = new AgentLatencyTracker();
+    assertThat(tracker.getLatency("h1"), nullValue());
+
+    tracker.recordLatency("h1", 100);
+    assertThat(tracker.getLatency("h1"), closeTo(100.0, 0.001));
+
+    tracker.recordLatency("h1", 200);
+    assertThat(tracker.getLatency("h1"), closeTo(120.0, 0.001));
+  }
+
+  @Test
+  public void testHedgeDelay() {
+    AgentLatencyTracker tracker = new AgentLatencyTracker();
+    assertThat(tracker.getHedgeDelayMs(Arrays.asList("h1", "h2"), 50), is(50L));
+
+    tracker.recordLatency("h1", 10);
+    assertThat(tracker.getHedgeDelayMs(Arrays.asList("h1", "h2"), 50), is(50L));
+
+    tracker.recordLatency("h2", 300);
+    assertThat(tracker.getHedgeDelayMs(Arrays.asList("h1", "h2"), 50), is(600L));
+    assertThat(tracker.getHedgeDelayMs(Arrays.asList("h1"), 50), is(50L));
+  }
+}
@@ -40,9 +40,11 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -368,6 +370,39 @@ public class ConstraintCheckerTest {
     assertTrue(checker.getCandidates(constraints, 2).isEmpty());
   }
 
+  /**
+   * The InMemoryConstraintChecker only honors the negative flag of availability zone and host constraints, and
+   * requires every constraint to have a single value.
+   */
+  @Test
+  public void testInMemoryConstraintSemantics() {
+    XenonRestClient xenonRestClient = new XenonRestClient(
+        cloudStoreTestEnvironment.getServerSet(), Executors.newFixedThreadPool(1));
+    xenonRestClient.start();
+    ConstraintChecker checker = new InMemoryConstraintChecker(xenonRestClient);
+
+    Map<ResourceConstraintType, String> host1Values = ImmutableMap.of(
+        ResourceConstraintType.DATASTORE, "ds1",
+        ResourceConstraintType.DATASTORE_TAG, "dstag1",
+        ResourceConstraintType.NETWORK, "nw1");
+    for (Map.Entry<ResourceConstraintType, String> entry : host1Values.entrySet()) {
+      ResourceConstraint constraint = new ResourceConstraint(entry.getKey(), Arrays.asList(entry.getValue()));
+      constraint.setNegative(true);
+      assertThat(checker.getCandidates(Collections.singletonList(constraint), 10).keySet(),
+          containsInAnyOrder("host1"));
+    }
+
+    ResourceConstraint managementOnly = new ResourceConstraint(ResourceConstraintType.MANAGEMENT_ONLY, null);
+    try {
+      checker.getCandidates(Collections.singletonList(managementOnly), 10);
+      fail("MANAGEMENT_ONLY constraint without values should be rejected");
+    } catch (IllegalArgumentException ex) {
+      assertThat(ex.getMessage(), containsString("Invalid constraint"));
+    }
+
+    xenonRestClient.stop();
+  }
+
   private Set<String> getManagementHosts(ConstraintChecker checker, int numCandidates) {
     ResourceConstraint constraint = new ResourceConstraint(
         ResourceConstraintType.MANAGEMENT_ONLY, Collections.singletonList("unused"));
@@ -31,6 +31,8 @@ import com.vmware.xenon.common.Operation;
 import com.vmware.xenon.common.TaskState;
 import com.vmware.xenon.common.UriUtils;
 
+import org.apache.thrift.async.AsyncMethodCallback;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.invocation.InvocationOnMock;
@@ -44,6 +46,7 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
@@ -92,7 +95,7 @@ public class FlatSchedulerServiceTest {
    * Test the case where there is no candidate that match all the constraints.
    */
   @Test(dataProvider = "empty")
-  public void testNoCandidate(RootScheduler.Iface scheduler) throws Exception {
+  public void testNoCandidate(RootScheduler.AsyncIface scheduler) throws Exception {
     final PlacementTask serviceDocument = new PlacementTask();
     serviceDocument.resultCode = PlaceResultCode.NO_SUCH_RESOURCE;
     serviceDocument.error = "";
@@ -111,7 +114,7 @@ public class FlatSchedulerServiceTest {
     PlaceRequest request = new PlaceRequest();
     Resource resource = new Resource();
     request.setResource(resource);
-    PlaceResponse response = scheduler.place(request);
+    PlaceResponse response = place(scheduler, request);
     assertThat(response.getResult(), is(PlaceResultCode.NO_SUCH_RESOURCE));
     verifyNoMoreInteractions(client);
   }
@@ -130,7 +133,7 @@ public class FlatSchedulerServiceTest {
    * Test the case where all the hosts respond successfully.
    */
   @Test(dataProvider = "four-candidates")
-  public void testSuccess(RootScheduler.Iface scheduler) throws Exception {
+  public void testSuccess(RootScheduler.AsyncIface scheduler) throws Exception {
     final PlacementTask serviceDocument = new PlacementTask();
     serviceDocument.resultCode = PlaceResultCode.OK;
     serviceDocument.generation = 0;
@@ -154,9 +157,42 @@ public class FlatSchedulerServiceTest {
     PlaceRequest request = new PlaceRequest();
     Resource resource = new Resource();
     request.setResource(resource);
-    PlaceResponse response = scheduler.place(request);
+    PlaceResponse response = place(scheduler, request);
     assertThat(response.getResult(), is(PlaceResultCode.OK));
     assertThat(response.getGeneration(), is(0));
     assertThat(response.getPlacementList(), is(list));
   }
+
+  /**
+   * Test the case where the placement task cannot be started.
+   */
+  @Test(dataProvider = "four-candidates")
+  public void testPlacementFailure(RootScheduler.AsyncIface scheduler) throws Exception {
+    doAnswer(new Answer() {
+      @Override
+      public Object answer(InvocationOnMock invocation) throws Throwable {
+        Operation op = (Operation) invocation.getArguments()[0];
+        op.fail(new IllegalStateException("Placement failed"));
+        return null;
+      }
+    }).when(schedulerXenonHost).sendRequest(any(Operation.class));
+
+    PlaceRequest request = new PlaceRequest();
+    request.setResource(new Resource());
+    PlaceResponse response = place(scheduler, request);
+    assertThat(response.getResult(), is(PlaceResultCode.SYSTEM_ERROR));
+    assertThat(response.getError(), is("Placement failed"));
+  }
+
+  /**
+   * Calls place and returns the response, which the mocked Xenon host completes inline.
+   */
+  @SuppressWarnings("unchecked")
+  private static PlaceResponse place(RootScheduler.AsyncIface scheduler, PlaceRequest request) throws Exception {
+    AsyncMethodCallback resultHandler = mock(AsyncMethodCallback.class);
+    scheduler.place(request, resultHandler);
+    ArgumentCaptor<PlaceResponse> response = ArgumentCaptor.forClass(PlaceResponse.class);
+    verify(resultHandler).onComplete(response.capture());
+    return response.getValue();
+  }
 }
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2016 VMware, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License.  You may obtain a copy of
+ * the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, without warranties or
+ * conditions of any kind, EITHER EXPRESS OR IMPLIED.  See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package com.vmware.photon.controller.rootscheduler.service;
+
+import com.vmware.photon.controller.resource.gen.ResourceConstraint;
+import com.vmware.photon.controller.resource.gen.ResourceConstraintType;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tests {@link HostBitmapIndex}.
+ */
+public class HostBitmapIndexTest {
+
+  private HostBitmapIndex index;
+
+  /**
+   * Creates 10 hosts: host0, ..., host9. Each host has its own network (nw0...), datastore (ds0...)
+   * with tag (dstag0...) and zone (az0...). Even hosts are management hosts.
+   */
+  @BeforeMethod
+  public void setUp() {
+    index = new HostBitmapIndex();
+    for (int i = 0; i < 10; i++) {
+      index.addOrUpdateDatastore("ds" + i, Arrays.asList("dstag" + i));
+      index.addOrUpdateHost("host" + i, true, i % 2 == 0,
+          Arrays.asList("ds" + i), Arrays.asList("nw" + i), "az" + i);
+    }
+  }
+
+  @Test
+  public void testNoConstraints() {
+    assertThat(index.getHostCount(), is(10));
+    assertThat(index.getManagementHostCount(), is(5));
+    assertThat(index.getDatastoreCount(), is(10));
+    assertThat(new HashSet<>(index.getCandidates(new ArrayList<>(), 10)).size(), is(10));
+    assertThat(new HashSet<>(index.getCandidates(new ArrayList<>(), 100)).size(), is(10));
+  }
+
+  @Test
+  public void testSampling() {
+    Set<String> seen = new HashSet<>();
+    for (int i = 0; i < 1000; i++) {
+      List<String> candidates = index.getCandidates(new ArrayList<>(), 3);
+      assertThat(candidates.size(), is(3));
+      assertThat(new HashSet<>(candidates).size(), is(3));
+      seen.addAll(candidates);
+    }
+    assertThat(seen.size(), is(10));
+  }
+
+  @Test
+  public void testCandidatesAreShuffled() {
+    // Callers may prefer the first candidates, so they must not always come first in the same order,
+    // whether all the matching hosts are returned or only some of them.
+    Set<String> firstOfAll = new HashSet<>();
+    Set<String> firstOfSample = new HashSet<>();
+    for (int i = 0; i < 100; i++) {
+      firstOfAll.add(index.getCandidates(new ArrayList<>(), 10).get(0));
+      firstOfSample.add(index.getCandidates(new ArrayList<>(), 9).get(0));
+    }
+    assertThat(firstOfAll.size(), greaterThan(1));
+    assertThat(firstOfSample.size(), greaterThan(1));
+  }
+
+  @Test
+  public void testConstraints() {
+    assertThat(index.getCandidates(Arrays.asList(constraint(ResourceConstraintType.DATASTORE, "ds1")), 10),
+        containsInAnyOrder("host1"));
+    assertThat(index.getCandidates(Arrays.asList(constraint(ResourceConstraintType.DATASTORE_TAG, "dstag2")), 10),
+        containsInAnyOrder("host2"));
+    assertThat(index.getCandidates(Arrays.asList(constraint(ResourceConstraintType.NETWORK, "nw3", "nw4")), 10),
+        containsInAnyOrder("host3", "host4"));
+    assertThat(index.getCandidates(Arrays.asList(constraint(ResourceConstraintType.HOST, "host5")), 10),
+        containsInAnyOrder("host5"));
+    assertThat(index.getCandidates(Arrays.asList(new ResourceConstraint(ResourceConstraintType.MANAGEMENT_ONLY,
+        null)), 10), containsInAnyOrder("host0", "host2", "host4", "host6", "host8"));
+
+    ResourceConstraint notInZone = constraint(ResourceConstraintType.AVAILABILITY_ZONE, "az0", "az2", "az4");
+    notInZone.setNegative(true);
+    assertThat(index.getCandidates(Arrays.asList(
+        new ResourceConstraint(ResourceConstraintType.MANAGEMENT_ONLY, null), notInZone), 10),
+        containsInAnyOrder("host6", "host8"));
+
+    assertThat(index.getCandidates(Arrays.asList(
+        constraint(ResourceConstraintType.DATASTORE, "ds0"),
+        constraint(ResourceConstraintType.NETWORK, "nw1")), 10), empty());
+    assertThat(index.getCandidates(Arrays.asList(constraint(ResourceConstraintType.DATASTORE, "missing")), 10),
+        empty());
+  }
+
+  @Test
+  public void testUpdates() {
+    index.addOrUpdateHost("host1", true, false, Arrays.asList("ds0"), Arrays.asList("nw1"), null);
+    assertThat(index.getHostsWithDatastore("ds1"), empty());
+    assertThat(index.getHostsWithDatastore("ds0"), containsInAnyOrder("host0", "host1"));
+    assertThat(index.getHostsInAvailabilityZone("az1"), empty());
+
+    index.addOrUpdateHost("host2", false, true, Arrays.asList("ds2"), Arrays.asList("nw2"), "az2");
+    assertThat(index.getCandidates(Arrays.asList(constraint(ResourceConstraintType.DATASTORE, "ds2")), 10),
+        empty());
+
+    index.addOrUpdateDatastore("ds3", Arrays.asList("newtag"));
+    assertThat(index.getHostsWithDatastoreTag("dstag3"), empty());
+    assertThat(index.getHostsWithDatastoreTag("newtag"), containsInAnyOrder("host3"));
+
+    index.removeDatastore("ds4");
+    assertThat(index.getDatastoreCount(), equalTo(9));
+    assertThat(index.getHostsWithDatastoreTag("dstag4"), empty());
+  }
+
+  @Test
+  public void testRemoveHostReusesOrdinal() {
+    index.removeHost("host4");
+    assertThat(index.getHostCount(), is(9));
+    assertThat(index.getManagementHostCount(), is(4));
+    assertThat(index.getHostsWithNetwork("nw4"), empty());
+
+    index.addOrUpdateHost("host10", true, false, Arrays.asList("ds4"), Arrays.asList("nw4"), "az4");
+    assertThat(index.getHostCount(), is(10));
+    assertThat(index.getManagementHostCount(), is(4));
+    assertThat(index.getCandidates(Arrays.asList(constraint(ResourceConstraintType.NETWORK, "nw4")), 10),
+        containsInAnyOrder("host10"));
+    assertThat(index.getCandidates(Arrays.asList(constraint(ResourceConstraintType.HOST, "host4")), 10), empty());
+  }
+
+  private static ResourceConstraint constraint(ResourceConstraintType type, String... values) {
+    return new ResourceConstraint(type, Arrays.asList(values));
+  }
+}
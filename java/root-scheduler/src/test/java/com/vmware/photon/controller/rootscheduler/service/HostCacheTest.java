@@ -13,6 +13,7 @@
 
 package com.vmware.photon.controller.rootscheduler.service;
 
+import com.vmware.photon.controller.api.AgentState;
 import com.vmware.photon.controller.api.HostState;
 import com.vmware.photon.controller.api.UsageTag;
 import com.vmware.photon.controller.cloudstore.dcp.entity.DatastoreService;
@@ -23,6 +24,9 @@ import com.vmware.photon.controller.cloudstore.dcp.helpers.TestEnvironment;
 import com.vmware.photon.controller.common.config.ConfigBuilder;
 import com.vmware.photon.controller.common.xenon.ServiceUtils;
 import com.vmware.photon.controller.common.xenon.XenonRestClient;
+import com.vmware.photon.controller.common.zookeeper.gen.ServerAddress;
+import com.vmware.photon.controller.resource.gen.ResourceConstraint;
+import com.vmware.photon.controller.resource.gen.ResourceConstraintType;
 import com.vmware.photon.controller.rootscheduler.Config;
 import com.vmware.photon.controller.rootscheduler.ConfigTest;
 import com.vmware.photon.controller.rootscheduler.xenon.SchedulerXenonHost;
@@ -34,7 +38,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItem;
@@ -45,6 +51,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.Executors;
 import java.util.function.BooleanSupplier;
@@ -150,6 +157,7 @@ public class HostCacheTest {
 
     logger.info("Waiting for host cache to populate...");
     pollForHostCache(hostCache, this.numManagementHosts, this.numCloudHosts, this.numDatastores);
+    assertThat(hostCache.isReady(), equalTo(true));
     validateNetworks(hostCache, managementHosts);
     validateNetworks(hostCache, cloudHosts);
     validateDatastores(hostCache, managementHosts);
@@ -174,6 +182,161 @@ public class HostCacheTest {
     validateCleanDatastores(hostCache, datastores);
   }
 
+  /**
+   * Test that the cache becomes ready once the continuous queries replayed their state, even when there
+   * are no hosts or datastores to replay.
+   */
+  @Test
+  public void testReadyWhenPopulated() throws Throwable {
+    HostCache hostCache = new HostCache(schedulerHost, cloudstoreClient);
+    pollForState(hostCache::isReady);
+    assertThat(hostCache.isReady(), equalTo(true));
+    assertThat(hostCache.getHostCount(), equalTo(0));
+    assertThat(hostCache.getDatastoreCount(), equalTo(0));
+  }
+
+  /**
+   * Test that a cache that is populated directly is ready.
+   */
+  @Test
+  public void testReadyWithoutCloudstore() {
+    assertThat(new HostCache().isReady(), equalTo(true));
+  }
+
+  /**
+   * Test that the cache answers constraint queries from its in-memory indexes.
+   *
+   * The cache is populated directly (without Cloudstore) with 10 hosts: host0, ..., host9.
+   * Each host has its own network (nw0...), datastore (ds0...) with tag (dstag0...) and zone (az0...).
+   * Even hosts are management hosts.
+   */
+  @Test
+  public void testGetCandidates() {
+    HostCache hostCache = createPopulatedHostCache(10);
+
+    Map<String, ServerAddress> candidates = hostCache.getCandidates(new ArrayList<>(), 10);
+    assertThat(candidates.size(), equalTo(10));
+    assertThat(candidates.get("host3"), equalTo(new ServerAddress("host3", 8835)));
+
+    candidates = hostCache.getCandidates(new ArrayList<>(), 4);
+    assertThat(candidates.size(), equalTo(4));
+
+    candidates = hostCache.getCandidates(
+        Arrays.asList(new ResourceConstraint(ResourceConstraintType.DATASTORE, Arrays.asList("ds1"))), 4);
+    assertThat(candidates.keySet(), containsInAnyOrder("host1"));
+
+    candidates = hostCache.getCandidates(
+        Arrays.asList(new ResourceConstraint(ResourceConstraintType.DATASTORE_TAG, Arrays.asList("dstag2", "dstag3"))),
+        4);
+    assertThat(candidates.keySet(), containsInAnyOrder("host2", "host3"));
+
+    candidates = hostCache.getCandidates(
+        Arrays.asList(new ResourceConstraint(ResourceConstraintType.NETWORK, Arrays.asList("nw4"))), 4);
+    assertThat(candidates.keySet(), containsInAnyOrder("host4"));
+
+    candidates = hostCache.getCandidates(
+        Arrays.asList(new ResourceConstraint(ResourceConstraintType.HOST, Arrays.asList("host5"))), 4);
+    assertThat(candidates.keySet(), containsInAnyOrder("host5"));
+
+    candidates = hostCache.getCandidates(
+        Arrays.asList(new ResourceConstraint(ResourceConstraintType.MANAGEMENT_ONLY, null)), 10);
+    assertThat(candidates.keySet(), containsInAnyOrder("host0", "host2", "host4", "host6", "host8"));
+
+    ResourceConstraint notInZone = new ResourceConstraint(ResourceConstraintType.AVAILABILITY_ZONE,
+        Arrays.asList("az0", "az1"));
+    notInZone.setNegative(true);
+    candidates = hostCache.getCandidates(Arrays.asList(
+        new ResourceConstraint(ResourceConstraintType.DATASTORE, Arrays.asList("ds0", "ds1", "ds2")),
+        notInZone), 10);
+    assertThat(candidates.keySet(), containsInAnyOrder("host2"));
+
+    candidates = hostCache.getCandidates(Arrays.asList(
+        new ResourceConstraint(ResourceConstraintType.DATASTORE, Arrays.asList("ds0")),
+        new ResourceConstraint(ResourceConstraintType.NETWORK, Arrays.asList("nw1"))), 10);
+    assertThat(candidates.isEmpty(), equalTo(true));
+
+    candidates = hostCache.getCandidates(
+        Arrays.asList(new ResourceConstraint(ResourceConstraintType.DATASTORE, Arrays.asList("missing"))), 10);
+    assertThat(candidates.isEmpty(), equalTo(true));
+  }
+
+  /**
+   * Test that updates and deletions are reflected in the answers from the cache.
+   */
+  @Test
+  public void testGetCandidatesAfterUpdates() {
+    HostCache hostCache = createPopulatedHostCache(4);
+
+    // Move host1 to a new datastore: it should no longer be found on the old one
+    HostService.State host1 = createHost(1);
+    host1.reportedDatastores = new HashSet<>(Arrays.asList("ds0"));
+    hostCache.addOrUpdateHost(host1);
+    assertThat(hostCache.getCandidates(
+        Arrays.asList(new ResourceConstraint(ResourceConstraintType.DATASTORE, Arrays.asList("ds1"))), 4).isEmpty(),
+        equalTo(true));
+    assertThat(hostCache.getCandidates(
+        Arrays.asList(new ResourceConstraint(ResourceConstraintType.DATASTORE, Arrays.asList("ds0"))), 4).keySet(),
+        containsInAnyOrder("host0", "host1"));
+
+    // A host whose agent is not responding can't be used
+    HostService.State host2 = createHost(2);
+    host2.agentState = AgentState.MISSING;
+    hostCache.addOrUpdateHost(host2);
+    assertThat(hostCache.getCandidates(new ArrayList<>(), 4).keySet(), containsInAnyOrder("host0", "host1", "host3"));
+
+    // Retagging a datastore changes the hosts matching the tag
+    DatastoreService.State datastore3 = createDatastore(3);
+    datastore3.tags = new HashSet<>(Arrays.asList("newtag"));
+    hostCache.addOrUpdateDatastore(datastore3);
+    assertThat(hostCache.getCandidates(Arrays.asList(
+        new ResourceConstraint(ResourceConstraintType.DATASTORE_TAG, Arrays.asList("dstag3"))), 4).isEmpty(),
+        equalTo(true));
+    assertThat(hostCache.getCandidates(Arrays.asList(
+        new ResourceConstraint(ResourceConstraintType.DATASTORE_TAG, Arrays.asList("newtag"))), 4).keySet(),
+        containsInAnyOrder("host3"));
+
+    hostCache.deleteHost(createHost(3));
+    assertThat(hostCache.getHostCount(), equalTo(3));
+    assertThat(hostCache.getCandidates(new ArrayList<>(), 4).keySet(), containsInAnyOrder("host0", "host1"));
+  }
+
+  private HostCache createPopulatedHostCache(int numHosts) {
+    HostCache hostCache = new HostCache();
+    for (int i = 0; i < numHosts; i++) {
+      hostCache.addOrUpdateDatastore(createDatastore(i));
+      hostCache.addOrUpdateHost(createHost(i));
+    }
+    return hostCache;
+  }
+
+  private HostService.State createHost(int i) {
+    HostService.State host = new HostService.State();
+    host.documentSelfLink = UriUtils.buildUriPath(HostServiceFactory.SELF_LINK, "host" + i);
+    host.hostAddress = "host" + i;
+    host.agentPort = 8835;
+    host.state = HostState.READY;
+    host.agentState = AgentState.ACTIVE;
+    host.reportedDatastores = new HashSet<>(Arrays.asList("ds" + i));
+    host.reportedNetworks = new HashSet<>(Arrays.asList("nw" + i));
+    host.availabilityZoneId = "az" + i;
+    if (i % 2 == 0) {
+      host.usageTags = new HashSet<>(Arrays.asList(UsageTag.MGMT.name()));
+    } else {
+      host.usageTags = new HashSet<>(Arrays.asList(UsageTag.CLOUD.name()));
+    }
+    return host;
+  }
+
+  private DatastoreService.State createDatastore(int i) {
+    DatastoreService.State datastore = new DatastoreService.State();
+    datastore.documentSelfLink = UriUtils.buildUriPath(DatastoreServiceFactory.SELF_LINK, "ds" + i);
+    datastore.id = "ds" + i;
+    datastore.name = "ds" + i;
+    datastore.type = "SHARED_VMFS";
+    datastore.tags = new HashSet<>(Arrays.asList("dstag" + i));
+    return datastore;
+  }
+
   /**
    * Create the descriptions for the datastores that we'll be posting to
    * Cloudstore.
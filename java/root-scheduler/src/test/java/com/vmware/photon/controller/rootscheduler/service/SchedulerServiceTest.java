@@ -16,15 +16,18 @@ import com.vmware.photon.controller.rootscheduler.Config;
 import com.vmware.photon.controller.scheduler.gen.PlaceRequest;
 import com.vmware.photon.controller.scheduler.gen.PlaceResponse;
 import com.vmware.photon.controller.status.gen.GetStatusRequest;
-import com.vmware.photon.controller.status.gen.Status;
 
 import org.apache.thrift.TException;
+import org.apache.thrift.async.AsyncMethodCallback;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
-import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -49,18 +52,26 @@ public class SchedulerServiceTest {
   public void testGetStatus() throws TException {
     schedulerService = new SchedulerService(config, flatSchedulerService);
     GetStatusRequest request = new GetStatusRequest();
-    doReturn(new Status()).when(flatSchedulerService).get_status(request);
-    schedulerService.get_status(request);
-    verify(flatSchedulerService, times(1)).get_status(request);
+    AsyncMethodCallback resultHandler = mock(AsyncMethodCallback.class);
+    schedulerService.get_status(request, resultHandler);
+    verify(flatSchedulerService, times(1)).get_status(request, resultHandler);
   }
 
   @Test
+  @SuppressWarnings("unchecked")
   public void testPlace() throws TException {
     schedulerService = new SchedulerService(config, flatSchedulerService);
     PlaceRequest request = new PlaceRequest();
-    doReturn(new PlaceResponse()).when(flatSchedulerService).place(request);
-    schedulerService.place(request);
-    verify(flatSchedulerService, times(1)).place(request);
+    PlaceResponse response = new PlaceResponse();
+    doAnswer((invocation) -> {
+      ((AsyncMethodCallback) invocation.getArguments()[1]).onComplete(response);
+      return null;
+    }).when(flatSchedulerService).place(eq(request), any(AsyncMethodCallback.class));
+
+    AsyncMethodCallback resultHandler = mock(AsyncMethodCallback.class);
+    schedulerService.place(request, resultHandler);
+    verify(flatSchedulerService, times(1)).place(eq(request), any(AsyncMethodCallback.class));
+    verify(resultHandler).onComplete(response);
   }
 
   @Test
@@ -35,6 +35,7 @@ import com.vmware.photon.controller.rootscheduler.SchedulerConfig;
 import com.vmware.photon.controller.rootscheduler.exceptions.NoSuchResourceException;
 import com.vmware.photon.controller.rootscheduler.helpers.xenon.SchedulerTestEnvironment;
 import com.vmware.photon.controller.rootscheduler.helpers.xenon.TestHost;
+import com.vmware.photon.controller.rootscheduler.service.AgentLatencyTracker;
 import com.vmware.photon.controller.rootscheduler.service.ConstraintChecker;
 import com.vmware.photon.controller.rootscheduler.xenon.SchedulerXenonHost;
 import com.vmware.photon.controller.scheduler.gen.PlaceParams;
@@ -64,6 +65,7 @@ import static org.hamcrest.Matchers.isEmptyOrNullString;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -79,6 +81,8 @@ import java.util.HashSet;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * This class implements tests for {@link PlacementTaskService}.
@@ -551,6 +555,249 @@ public class PlacementTaskServiceTest {
       assertThat(finalState.error, isEmptyOrNullString());
       verify(client, times(4)).place(any(), any());
     }
+
+    /**
+     * Test that the placement completes when the timeout expires if the hosts never respond.
+     */
+    @Test
+    public void testPlaceTimeout() throws Throwable {
+      Resource resource = new Resource();
+
+      ImmutableMap<String, ServerAddress> matches = ImmutableMap.of(
+          "h1", new ServerAddress("h1", 1234),
+          "h2", new ServerAddress("h2", 1234));
+
+      doReturn(matches).when(checker)
+          .getCandidates(anyListOf(ResourceConstraint.class), anyInt());
+
+      PlacementTask placementTask = new PlacementTask();
+      placementTask.resource = resource;
+      placementTask.sampleHostCount = config.getRootPlaceParams().getMaxFanoutCount();
+      placementTask.timeoutMs = 1000L;
+      placementTask.taskState = new TaskState();
+      placementTask.taskState.stage = TaskState.TaskStage.CREATED;
+      placementTask.taskState.isDirect = true;
+
+      // The hosts never call back
+      doAnswer((InvocationOnMock invocation) -> null).when(client).place(any(), any());
+
+      PlacementTask finalState = schedulerTestEnvironment.callServiceAndWaitForState(
+          PlacementTaskService.FACTORY_LINK,
+          placementTask,
+          PlacementTask.class,
+          (state) -> TaskUtils.finalTaskStages.contains(state.taskState.stage));
+
+      assertThat(finalState.taskState.stage, is(TaskState.TaskStage.FAILED));
+      assertThat(finalState.resultCode, is(PlaceResultCode.SYSTEM_ERROR));
+      assertThat(finalState.error, containsString("Received no response in"));
+      verify(client, times(2)).place(any(), any());
+
+      // Hosts that never respond count as taking the whole timeout
+      AgentLatencyTracker latencyTracker = schedulerTestEnvironment.getHosts()[0].getAgentLatencyTracker();
+      for (int i = 0; i < 10 && latencyTracker.getLatency("h2") == null; i++) {
+        Thread.sleep(100);
+      }
+      assertThat(latencyTracker.getLatency("h1"), is(1000.0));
+      assertThat(latencyTracker.getLatency("h2"), is(1000.0));
+    }
+
+    /**
+     * Test that failed place requests count as taking the whole timeout.
+     */
+    @Test
+    public void testLatencyRecordedOnFailure() throws Throwable {
+      doReturn(ImmutableMap.of("h1", new ServerAddress("h1", 1234))).when(checker)
+          .getCandidates(anyListOf(ResourceConstraint.class), anyInt());
+
+      PlacementTask placementTask = buildHedgedPlacementTask();
+      placementTask.hedgeCount = 0;
+
+      doAnswer((InvocationOnMock invocation) -> {
+        AsyncMethodCallback<Host.AsyncClient.place_call> call =
+            (AsyncMethodCallback<Host.AsyncClient.place_call>) invocation.getArguments()[1];
+        call.onError(new Exception());
+        return null;
+      }).when(client).place(any(), any());
+
+      PlacementTask finalState = schedulerTestEnvironment.callServiceAndWaitForState(
+          PlacementTaskService.FACTORY_LINK,
+          placementTask,
+          PlacementTask.class,
+          (state) -> TaskUtils.finalTaskStages.contains(state.taskState.stage));
+
+      assertThat(finalState.taskState.stage, is(TaskState.TaskStage.FAILED));
+      AgentLatencyTracker latencyTracker = schedulerTestEnvironment.getHosts()[0].getAgentLatencyTracker();
+      assertThat(latencyTracker.getLatency("h1"), is((double) placementTask.timeoutMs));
+    }
+
+    /**
+     * Test that a hedged request to an extra candidate completes the placement when the first candidate
+     * doesn't respond.
+     */
+    @Test
+    public void testHedgedRequestWins() throws Throwable {
+      doReturn(ImmutableMap.of("h1", new ServerAddress("h1", 1234), "h2", new ServerAddress("h2", 1234)))
+          .when(checker).getCandidates(anyListOf(ResourceConstraint.class), anyInt());
+
+      // h1 never calls back, h2 places right away
+      AtomicReference<String> target = new AtomicReference<>();
+      doAnswer((InvocationOnMock invocation) -> {
+        target.set((String) invocation.getArguments()[0]);
+        return null;
+      }).when(client).setIpAndPort(anyString(), anyInt());
+      doAnswer((InvocationOnMock invocation) -> {
+        if (target.get().equals("h2")) {
+          respondOk(invocation);
+        }
+        return null;
+      }).when(client).place(any(), any());
+
+      PlacementTask finalState = schedulerTestEnvironment.callServiceAndWaitForState(
+          PlacementTaskService.FACTORY_LINK,
+          buildHedgedPlacementTask(),
+          PlacementTask.class,
+          (state) -> TaskUtils.finalTaskStages.contains(state.taskState.stage));
+
+      assertThat(finalState.taskState.stage, is(TaskState.TaskStage.FINISHED));
+      assertThat(finalState.resultCode, is(PlaceResultCode.OK));
+      verify(client).setIpAndPort("h1", 1234);
+      verify(client).setIpAndPort("h2", 1234);
+      verify(client, times(2)).place(any(), any());
+    }
+
+    /**
+     * Test that hedged requests are not sent once the first candidate completed the placement.
+     */
+    @Test
+    public void testHedgedRequestsNotSentAfterPlacement() throws Throwable {
+      doReturn(ImmutableMap.of("h1", new ServerAddress("h1", 1234), "h2", new ServerAddress("h2", 1234)))
+          .when(checker).getCandidates(anyListOf(ResourceConstraint.class), anyInt());
+      doAnswer((InvocationOnMock invocation) -> {
+        respondOk(invocation);
+        return null;
+      }).when(client).place(any(), any());
+
+      PlacementTask placementTask = buildHedgedPlacementTask();
+      PlacementTask finalState = schedulerTestEnvironment.callServiceAndWaitForState(
+          PlacementTaskService.FACTORY_LINK,
+          placementTask,
+          PlacementTask.class,
+          (state) -> TaskUtils.finalTaskStages.contains(state.taskState.stage));
+      assertThat(finalState.taskState.stage, is(TaskState.TaskStage.FINISHED));
+
+      Thread.sleep(placementTask.hedgeMinDelayMs * 5);
+      verify(client).setIpAndPort("h1", 1234);
+      verify(client, times(1)).place(any(), any());
+    }
+
+    /**
+     * Builds a placement on one candidate, with one hedged request, that returns as soon as one
+     * candidate placed the resource.
+     */
+    private PlacementTask buildHedgedPlacementTask() {
+      PlacementTask placementTask = new PlacementTask();
+      placementTask.resource = new Resource();
+      placementTask.sampleHostCount = 1;
+      placementTask.hedgeCount = 1;
+      placementTask.hedgeMinDelayMs = 100L;
+      placementTask.earlyReturnQuorum = 1;
+      placementTask.timeoutMs = 20000L;
+      placementTask.taskState = new TaskState();
+      placementTask.taskState.stage = TaskState.TaskStage.CREATED;
+      placementTask.taskState.isDirect = true;
+      return placementTask;
+    }
+
+    private void respondOk(InvocationOnMock invocation) throws Throwable {
+      AsyncMethodCallback<Host.AsyncClient.place_call> call =
+          (AsyncMethodCallback<Host.AsyncClient.place_call>) invocation.getArguments()[1];
+      PlaceResponse response = new PlaceResponse(PlaceResultCode.OK);
+      response.setScore(new Score(100, 100));
+      Host.AsyncClient.place_call placeResponse = mock(Host.AsyncClient.place_call.class);
+      doReturn(response).when(placeResponse).getResult();
+      call.onComplete(placeResponse);
+    }
+  }
+
+  /**
+   * Tests for {@link PlacementTaskService.PlaceRequestTracker}.
+   */
+  public class PlaceRequestTrackerTest {
+
+    @Test
+    public void testCompletesWhenAllRequestsAreDone() {
+      AtomicInteger completions = new AtomicInteger();
+      PlacementTaskService.PlaceRequestTracker tracker =
+          new PlacementTaskService.PlaceRequestTracker(3, (t) -> completions.incrementAndGet());
+
+      tracker.onResponse(new PlaceResponse(PlaceResultCode.OK));
+      tracker.onResponse(new PlaceResponse(PlaceResultCode.NOT_ENOUGH_CPU_RESOURCE));
+      assertThat(tracker.isCompleted(), is(false));
+
+      tracker.onFailure();
+      assertThat(tracker.isCompleted(), is(true));
+      assertThat(completions.get(), is(1));
+      assertThat(tracker.getOkResponses().size(), is(1));
+      assertThat(tracker.getReturnCodes().size(), is(2));
+    }
+
+    @Test
+    public void testIgnoresLateResponses() {
+      AtomicInteger completions = new AtomicInteger();
+      PlacementTaskService.PlaceRequestTracker tracker =
+          new PlacementTaskService.PlaceRequestTracker(2, (t) -> completions.incrementAndGet());
+
+      tracker.onResponse(new PlaceResponse(PlaceResultCode.OK));
+      tracker.complete();
+      tracker.onResponse(new PlaceResponse(PlaceResultCode.OK));
+      tracker.complete();
+
+      assertThat(completions.get(), is(1));
+      assertThat(tracker.getOkResponses().size(), is(1));
+    }
+
+    @Test
+    public void testEarlyReturn() {
+      AtomicInteger completions = new AtomicInteger();
+      PlacementTaskService.PlaceRequestTracker tracker = new PlacementTaskService.PlaceRequestTracker(
+          4, 2, (response) -> response.getScore().getUtilization() >= 50, (t) -> completions.incrementAndGet());
+
+      tracker.onResponse(okResponse(10));
+      tracker.onResponse(okResponse(60));
+      assertThat(tracker.isCompleted(), is(false));
+
+      tracker.onResponse(okResponse(70));
+      assertThat(tracker.isCompleted(), is(true));
+      assertThat(completions.get(), is(1));
+      assertThat(tracker.getOkResponses().size(), is(3));
+
+      tracker.onResponse(okResponse(80));
+      assertThat(completions.get(), is(1));
+      assertThat(tracker.getOkResponses().size(), is(3));
+    }
+
+    @Test
+    public void testAddRequests() {
+      AtomicInteger completions = new AtomicInteger();
+      PlacementTaskService.PlaceRequestTracker tracker =
+          new PlacementTaskService.PlaceRequestTracker(1, (t) -> completions.incrementAndGet());
+
+      assertThat(tracker.addRequests(2), is(true));
+      tracker.onFailure();
+      tracker.onFailure();
+      assertThat(tracker.isCompleted(), is(false));
+
+      tracker.onResponse(okResponse(10));
+      assertThat(tracker.isCompleted(), is(true));
+      assertThat(tracker.addRequests(1), is(false));
+      assertThat(completions.get(), is(1));
+    }
+
+    private PlaceResponse okResponse(int utilization) {
+      PlaceResponse response = new PlaceResponse(PlaceResultCode.OK);
+      response.setScore(new Score(utilization, 0));
+      return response;
+    }
   }
 
   /**